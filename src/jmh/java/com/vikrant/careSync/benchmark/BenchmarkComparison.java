@@ -0,0 +1,98 @@
+package com.vikrant.careSync.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark (including
+ * {@code @Param} values). A change counts as a regression or improvement only
+ * when it is larger than both {@value #THRESHOLD_PERCENT}% and the two runs'
+ * combined error, so noise between runs is reported as unchanged.
+ * <p>
+ * Arguments: baseline file, candidate file.
+ */
+public final class BenchmarkComparison {
+
+    static final double THRESHOLD_PERCENT = 5.0;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        int regressions = compare(Path.of(args[0]), Path.of(args[1]), System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /** Prints one line per benchmark present in both files and returns the number of regressions. */
+    static int compare(Path baselineFile, Path candidateFile, PrintStream out) throws IOException {
+        Map<String, JsonNode> baseline = index(MAPPER.readTree(baselineFile.toFile()));
+        Map<String, JsonNode> candidate = index(MAPPER.readTree(candidateFile.toFile()));
+
+        int regressions = 0;
+        out.printf("%-80s %14s %14s %9s  %s%n", "benchmark", "baseline", "candidate", "change", "");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                out.printf("%-80s %14s %14s %9s  new%n", entry.getKey(), "-", score(entry.getValue()), "");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = after.path("primaryMetric").path("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            double noise = before.path("primaryMetric").path("scoreError").asDouble(0)
+                    + after.path("primaryMetric").path("scoreError").asDouble(0);
+            boolean significant = Math.abs(change) > THRESHOLD_PERCENT && Math.abs(newScore - oldScore) > noise;
+            // Throughput is better when higher, time-based modes when lower
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            String verdict = "";
+            if (significant) {
+                boolean better = higherIsBetter == (newScore > oldScore);
+                verdict = better ? "improved" : "REGRESSED";
+                if (!better) {
+                    regressions++;
+                }
+            }
+            out.printf("%-80s %14s %14s %+8.1f%%  %s%n", entry.getKey(), score(before), score(after), change,
+                    verdict);
+        }
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            byKey.put(key(result), result);
+        }
+        return byKey;
+    }
+
+    private static String key(JsonNode result) {
+        String name = result.path("benchmark").asText();
+        name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        Map<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, JsonNode> field : result.path("params").properties()) {
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        String mode = result.path("mode").asText();
+        return params.isEmpty() ? name + " [" + mode + "]" : name + params + " [" + mode + "]";
+    }
+
+    private static String score(JsonNode result) {
+        JsonNode metric = result.path("primaryMetric");
+        return String.format("%.3f %s", metric.path("score").asDouble(), metric.path("scoreUnit").asText());
+    }
+}
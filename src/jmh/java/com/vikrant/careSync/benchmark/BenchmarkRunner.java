@@ -0,0 +1,78 @@
+package com.vikrant.careSync.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JMH benchmarks twice: single-threaded in sample-time mode (latency
+ * percentiles per call) and on every core in throughput mode (calls per second
+ * with the services shared between threads, as they are in the application).
+ * Results are written as JMH JSON to {@code <output>/latency.json} and
+ * {@code <output>/throughput.json}; when a baseline directory holding the same
+ * files from an earlier commit is given, the two runs are compared with
+ * {@link BenchmarkComparison}.
+ * <p>
+ * Arguments: include regex (default all), output directory (default
+ * {@code target/jmh}), baseline directory (optional).
+ */
+public final class BenchmarkRunner {
+
+    static final String LATENCY = "latency.json";
+    static final String THROUGHPUT = "throughput.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = argument(args, 0, ".*");
+        Path output = Path.of(argument(args, 1, "target/jmh"));
+        String baseline = argument(args, 2, "");
+        Files.createDirectories(output);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        run(new OptionsBuilder()
+                .include(include)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .threads(1)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.resolve(LATENCY).toString())
+                .build());
+        run(new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.resolve(THROUGHPUT).toString())
+                .build());
+
+        if (!baseline.isBlank()) {
+            Path baselineDir = Path.of(baseline);
+            for (String file : new String[] { LATENCY, THROUGHPUT }) {
+                if (Files.exists(baselineDir.resolve(file))) {
+                    System.out.println();
+                    System.out.println("== " + file + " vs " + baselineDir.resolve(file));
+                    BenchmarkComparison.compare(baselineDir.resolve(file), output.resolve(file), System.out);
+                }
+            }
+        }
+    }
+
+    private static void run(Options options) throws RunnerException {
+        new Runner(options).run();
+    }
+
+    private static String argument(String[] args, int index, String defaultValue) {
+        return args.length > index && args[index] != null && !args[index].isBlank() ? args[index] : defaultValue;
+    }
+}
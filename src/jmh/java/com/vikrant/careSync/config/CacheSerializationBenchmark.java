@@ -0,0 +1,91 @@
+package com.vikrant.careSync.config;
+
+import com.vikrant.careSync.dto.DoctorDto;
+import com.vikrant.careSync.entity.Certificate;
+import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.entity.Education;
+import com.vikrant.careSync.entity.Experience;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost of the Redis value serializer from {@link CacheConfig} on a cached
+ * doctor listing: what every cache miss pays to write and every hit pays to
+ * read, on top of the network round trip.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CacheSerializationBenchmark {
+
+    @Param({ "1", "50" })
+    public int doctors;
+
+    private GenericJackson2JsonRedisSerializer serializer;
+    private List<DoctorDto> value;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = CacheConfig.valueSerializer();
+        value = new ArrayList<>(doctors);
+        for (int i = 0; i < doctors; i++) {
+            value.add(new DoctorDto(doctor(i)));
+        }
+        serialized = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    private static Doctor doctor(int i) {
+        Doctor doctor = Doctor.builder()
+                .id((long) i)
+                .firstName("Doctor")
+                .lastName("No" + i)
+                .specialization(i % 2 == 0 ? "Cardiology" : "Dermatology")
+                .consultationFees(BigDecimal.valueOf(500 + i))
+                .languages("Hindi,English")
+                .isVerified(true)
+                .experiences(new ArrayList<>())
+                .educations(new ArrayList<>())
+                .certificates(new ArrayList<>())
+                .build();
+        for (int j = 0; j < 2; j++) {
+            Experience experience = new Experience();
+            experience.setHospitalName("Hospital " + j);
+            experience.setPosition("Consultant");
+            experience.setYearsOfService(3 + j);
+            doctor.getExperiences().add(experience);
+
+            Education education = new Education();
+            education.setDegree(j == 0 ? "MBBS" : "MD");
+            education.setInstitution("College " + j);
+            education.setYearOfCompletion(2005 + j);
+            doctor.getEducations().add(education);
+        }
+        Certificate certificate = new Certificate();
+        certificate.setName("Board certification");
+        doctor.getCertificates().add(certificate);
+        return doctor;
+    }
+}
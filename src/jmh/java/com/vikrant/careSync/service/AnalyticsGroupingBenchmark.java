@@ -0,0 +1,78 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.Appointment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.vikrant.careSync.service.AppointmentSlotsBenchmark.stub;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * The in-memory groupings behind the doctor analytics dashboard (peak hours,
+ * busiest weekday, cancellation pattern) over a doctor's appointments for a
+ * year. Loading the appointments is stubbed out.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AnalyticsGroupingBenchmark {
+
+    private static final long DOCTOR_ID = 1L;
+
+    @Param({ "1000", "10000" })
+    public int appointments;
+
+    private AnalyticsService analyticsService;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        endDate = LocalDate.now();
+        startDate = endDate.minusYears(1);
+
+        List<Appointment> rows = new ArrayList<>(appointments);
+        Appointment.Status[] statuses = Appointment.Status.values();
+        for (int i = 0; i < appointments; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setAppointmentDateTime(startDate.plusDays(i % 365).atTime(9 + i % 9, (i % 2) * 30));
+            appointment.setStatus(statuses[i % statuses.length]);
+            rows.add(appointment);
+        }
+
+        AppointmentService appointmentService = stub(AppointmentService.class);
+        when(appointmentService.getAppointmentsByDateRange(anyLong(), any(), any())).thenReturn(rows);
+        analyticsService = new AnalyticsService(appointmentService, stub(DoctorService.class),
+                stub(PatientService.class), stub(FeedbackService.class), stub(PaymentLedgerService.class));
+    }
+
+    @Benchmark
+    public Map<String, Object> peakHours() {
+        return analyticsService.getPeakHoursAnalysis(DOCTOR_ID, startDate, endDate);
+    }
+
+    @Benchmark
+    public Map<String, Object> dayOfWeek() {
+        return analyticsService.getDayOfWeekAnalysis(DOCTOR_ID, startDate, endDate);
+    }
+
+    @Benchmark
+    public Map<String, Object> cancellationPattern() {
+        return analyticsService.getCancellationPatternAnalysis(DOCTOR_ID, startDate, endDate);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.Appointment;
+import com.vikrant.careSync.repository.AppointmentRepository;
+import com.vikrant.careSync.repository.DoctorRepository;
+import com.vikrant.careSync.repository.FeedbackRepository;
+import com.vikrant.careSync.repository.PatientRepository;
+import com.vikrant.careSync.realtime.RealtimeEventHub;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AppointmentService#getAvailableSlots} for a doctor with a long
+ * appointment history. The repository is stubbed, so this measures the slot
+ * generation and filtering done in memory for every booking screen load.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AppointmentSlotsBenchmark {
+
+    private static final long DOCTOR_ID = 1L;
+
+    /** Appointments the doctor has on record, spread over the past and coming days. */
+    @Param({ "100", "5000" })
+    public int history;
+
+    private AppointmentService appointmentService;
+    private String date;
+
+    @Setup
+    public void setUp() {
+        LocalDate requested = LocalDate.now().plusDays(7);
+        date = requested.toString();
+
+        List<Appointment> appointments = new ArrayList<>(history);
+        Appointment.Status[] statuses = Appointment.Status.values();
+        for (int i = 0; i < history; i++) {
+            LocalDateTime when = requested.minusDays(i / 8).atTime(9 + i % 8, (i % 2) * 30);
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setAppointmentDateTime(when);
+            appointment.setStatus(statuses[i % statuses.length]);
+            appointments.add(appointment);
+        }
+
+        AppointmentRepository appointmentRepository = stub(AppointmentRepository.class);
+        when(appointmentRepository.findByDoctorId(DOCTOR_ID)).thenReturn(appointments);
+        DoctorLeaveService doctorLeaveService = stub(DoctorLeaveService.class);
+        when(doctorLeaveService.isDoctorOnLeave(anyLong(), any())).thenReturn(false);
+
+        appointmentService = new AppointmentService(appointmentRepository, stub(FeedbackRepository.class),
+                stub(DoctorRepository.class), stub(PatientRepository.class), stub(NotificationService.class),
+                stub(AfterCommitTaskDispatcher.class), doctorLeaveService, stub(ChatService.class),
+                stub(RealtimeEventHub.class));
+    }
+
+    @Benchmark
+    public Object availableSlots() {
+        return appointmentService.getAvailableSlots(DOCTOR_ID, date);
+    }
+
+    /** Stub-only mocks do not record invocations, so they stay flat over millions of calls. */
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,57 @@
+package com.vikrant.careSync.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The compiled template renderer against the previous approach (read the
+ * resource on every call, then one {@code String.replace} per model entry).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EmailTemplateRenderBenchmark {
+
+    private static final String TEMPLATE = "email/verification.html";
+    private static final Map<String, String> MODEL = Map.of("name", "Asha <Admin> & co", "otp", "482913");
+
+    private EmailTemplateService compiled;
+
+    @Setup
+    public void setUp() {
+        compiled = new EmailTemplateService(new DefaultResourceLoader(), "classpath:templates/", false);
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.render(TEMPLATE, MODEL);
+    }
+
+    @Benchmark
+    public String legacy() throws Exception {
+        return legacyRenderFromClasspath(TEMPLATE, MODEL);
+    }
+
+    /** The renderer as it was before templates were compiled and cached. */
+    private static String legacyRenderFromClasspath(String templatePath, Map<String, String> model) throws Exception {
+        ClassPathResource resource = new ClassPathResource("templates/" + templatePath);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return EmailTemplateServiceTest.legacyRender(reader.lines().collect(Collectors.joining("\n")), model);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.VitalMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link VitalAlertEngine#evaluate}, the per-reading hot path, with the
+ * default rules over many patients sending heart rate and blood pressure. The
+ * engine is shared, so the multi-threaded run shows stripe contention.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VitalAlertEngineBenchmark {
+
+    private static final int[] METRICS = { VitalMetric.HEART_RATE.ordinal(), VitalMetric.SYSTOLIC_BP.ordinal(),
+            VitalMetric.DIASTOLIC_BP.ordinal() };
+
+    @Param({ "20000" })
+    public int patients;
+
+    private VitalAlertEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new VitalAlertEngine(VitalAlertRule.defaults(), 1800, 64, 0.3, 1800, 10_800, null, null, true);
+    }
+
+    /** Per-thread reading generator so threads do not share a random source or alert counter. */
+    @State(Scope.Thread)
+    public static class Readings {
+
+        long state = Thread.currentThread().threadId() * 7919;
+        long time = 1_760_000_000L;
+        long index;
+        long alerts;
+        final VitalAlertEngine.AlertSink sink = (patientId, rule, value, observed) -> alerts++;
+    }
+
+    @Benchmark
+    public int evaluate(Readings readings) {
+        readings.state = readings.state * 6364136223846793005L + 1442695040888963407L;
+        long patientId = 1 + Math.floorMod(readings.state >>> 33, patients);
+        long i = readings.index++;
+        double value = 60 + (readings.state >>> 58) * 2.0;
+        return engine.evaluate(patientId, METRICS[(int) (i % METRICS.length)], readings.time + i / 1000, value,
+                readings.sink);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vikrant.careSync.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds, 3 significant digits) and outcome counters
+ * of one endpoint, written concurrently by every virtual user.
+ */
+final class EndpointStats {
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void record(long micros, Outcome outcome) {
+        latencyMicros.recordValue(Math.max(1, micros));
+        switch (outcome) {
+            case ERROR -> errors.increment();
+            case REJECTED -> rejected.increment();
+            case OK -> {
+            }
+        }
+    }
+
+    LoadReport.EndpointResult result(String endpoint, double seconds) {
+        long requests = latencyMicros.getTotalCount();
+        return new LoadReport.EndpointResult(endpoint, requests, errors.sum(), rejected.sum(),
+                round(requests / seconds), millis(latencyMicros.getValueAtPercentile(50)),
+                millis(latencyMicros.getValueAtPercentile(90)), millis(latencyMicros.getValueAtPercentile(99)),
+                millis(latencyMicros.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    enum Outcome {
+        OK,
+        /** Expected business rejection under contention, e.g. a slot taken by another user. */
+        REJECTED,
+        ERROR
+    }
+}
@@ -0,0 +1,121 @@
+package com.vikrant.careSync.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP client shared by all virtual users. Every call is timed end to end
+ * (request written to body read) under an endpoint name and counted as ok,
+ * rejected or error. Nothing is recorded until {@link #startRecording()}, so
+ * the warmup does not skew the percentiles.
+ */
+final class LoadClient {
+
+    static final ObjectMapper JSON = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final HttpClient http;
+    private final URI base;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long recordingStartedAt;
+
+    LoadClient(URI base) {
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    record Response(int status, byte[] body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode json() {
+            try {
+                return JSON.readTree(body);
+            } catch (IOException e) {
+                throw new IllegalStateException("Response is not JSON: " + new String(body), e);
+            }
+        }
+    }
+
+    HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    static HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Sends the request and records it under {@code endpoint}. With
+     * {@code contended} a 4xx answer counts as a rejection (another user got
+     * there first) rather than an error.
+     */
+    Response send(String endpoint, HttpRequest request, boolean contended) {
+        long start = System.nanoTime();
+        Response response;
+        EndpointStats.Outcome outcome;
+        try {
+            HttpResponse<byte[]> raw = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            response = new Response(raw.statusCode(), raw.body());
+            if (response.ok()) {
+                outcome = EndpointStats.Outcome.OK;
+            } else if (contended && response.status() < 500) {
+                outcome = EndpointStats.Outcome.REJECTED;
+            } else {
+                outcome = EndpointStats.Outcome.ERROR;
+            }
+        } catch (IOException e) {
+            response = new Response(-1, new byte[0]);
+            outcome = EndpointStats.Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(-1, new byte[0]);
+        }
+        if (recording) {
+            stats.computeIfAbsent(endpoint, name -> new EndpointStats())
+                    .record((System.nanoTime() - start) / 1000, outcome);
+        }
+        return response;
+    }
+
+    void startRecording() {
+        recordingStartedAt = System.nanoTime();
+        recording = true;
+    }
+
+    LoadReport stopRecording(String target, int users) {
+        recording = false;
+        double seconds = (System.nanoTime() - recordingStartedAt) / 1e9;
+        List<LoadReport.EndpointResult> results = new ArrayList<>();
+        new TreeMap<>(stats).forEach((endpoint, endpointStats) -> results.add(endpointStats.result(endpoint, seconds)));
+        return new LoadReport(target, users, Math.round(seconds * 10) / 10.0, results);
+    }
+}
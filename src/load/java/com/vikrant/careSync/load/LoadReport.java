@@ -0,0 +1,91 @@
+package com.vikrant.careSync.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-endpoint results of one load-test run, stored as JSON so a later run can
+ * be checked against it with {@link #regressionsAgainst}.
+ */
+record LoadReport(String target, int users, double measuredSeconds, List<EndpointResult> endpoints) {
+
+    /** Latency differences below this are treated as noise whatever the relative change. */
+    static final double LATENCY_FLOOR_MS = 5.0;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record EndpointResult(String endpoint, long requests, long errors, long rejected, double throughput,
+            double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%d users against %s, %.0f s measured%n", users, target, measuredSeconds);
+        out.printf("%-28s %9s %7s %8s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "rejected",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointResult e : endpoints) {
+            out.printf("%-28s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", e.endpoint(), e.requests(), e.errors(),
+                    e.rejected(), e.throughput(), e.p50Ms(), e.p90Ms(), e.p99Ms(), e.maxMs());
+        }
+    }
+
+    /**
+     * Compares this run with a baseline. An endpoint regresses when its p50 or
+     * p99 grew by more than {@code latencyTolerance} (and by more than
+     * {@value #LATENCY_FLOOR_MS} ms), its throughput fell by more than
+     * {@code throughputTolerance}, its error rate rose by more than one
+     * percentage point, or it was not exercised at all.
+     */
+    List<String> regressionsAgainst(LoadReport baseline, double latencyTolerance, double throughputTolerance) {
+        Map<String, EndpointResult> current = endpoints.stream()
+                .collect(Collectors.toMap(EndpointResult::endpoint, Function.identity()));
+        List<String> regressions = new ArrayList<>();
+        for (EndpointResult before : baseline.endpoints()) {
+            EndpointResult after = current.get(before.endpoint());
+            if (after == null || after.requests() == 0) {
+                regressions.add(before.endpoint() + ": no requests in this run");
+                continue;
+            }
+            latency(regressions, before.endpoint(), "p50", before.p50Ms(), after.p50Ms(), latencyTolerance);
+            latency(regressions, before.endpoint(), "p99", before.p99Ms(), after.p99Ms(), latencyTolerance);
+            if (after.throughput() < before.throughput() * (1 - throughputTolerance)) {
+                regressions.add(String.format("%s: throughput %.1f req/s, baseline %.1f req/s", before.endpoint(),
+                        after.throughput(), before.throughput()));
+            }
+            if (after.errorRate() > before.errorRate() + 0.01) {
+                regressions.add(String.format("%s: error rate %.2f%%, baseline %.2f%%", before.endpoint(),
+                        after.errorRate() * 100, before.errorRate() * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static void latency(List<String> regressions, String endpoint, String percentile, double before,
+            double after, double tolerance) {
+        if (after > before * (1 + tolerance) && after - before > LATENCY_FLOOR_MS) {
+            regressions.add(String.format("%s: %s %.2f ms, baseline %.2f ms", endpoint, percentile, after, before));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.vikrant.careSync.load;
+
+import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.entity.LabTest;
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+/**
+ * Seeds the doctors, patients and lab tests the load test logs in as and books
+ * against. Runs once per database: a second start against the same database
+ * finds the first load patient and leaves the data alone.
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestDataSeeder implements CommandLineRunner {
+
+    static final String PATIENT_PREFIX = "load-patient-";
+    static final String DOCTOR_PREFIX = "load-doctor-";
+    static final String PASSWORD = "LoadTest#2024";
+
+    /** User ids are assigned by the application; seeded users take the top of the six-digit range. */
+    private static final long FIRST_USER_ID = 900_000;
+    private static final String[] SPECIALIZATIONS = { "Cardiology", "Dermatology", "General Medicine",
+            "Neurology", "Orthopedics", "Pediatrics" };
+    private static final String[] LAB_TESTS = { "Complete Blood Count", "Lipid Profile", "HbA1c",
+            "Thyroid Profile", "Liver Function Test", "Vitamin D" };
+
+    private final EntityManager entityManager;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${load.seed.doctors:30}")
+    private int doctors;
+
+    @Value("${load.seed.patients:200}")
+    private int patients;
+
+    @Override
+    public void run(String... args) {
+        if (userRepository.existsByUsername(PATIENT_PREFIX + 1)) {
+            log.info("Load test data already present");
+            return;
+        }
+        // One hash for every seeded user; encoding 200+ passwords would dominate startup
+        String password = passwordEncoder.encode(PASSWORD);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long userId = FIRST_USER_ID;
+            for (int i = 1; i <= doctors; i++) {
+                entityManager.persist(Doctor.builder()
+                        .user(user(userId++, DOCTOR_PREFIX + i, password, User.Role.DOCTOR))
+                        .firstName("Load")
+                        .lastName("Doctor " + i)
+                        .specialization(SPECIALIZATIONS[i % SPECIALIZATIONS.length])
+                        .consultationFees(BigDecimal.valueOf(500))
+                        .isVerified(true)
+                        .build());
+            }
+            for (int i = 1; i <= patients; i++) {
+                entityManager.persist(Patient.builder()
+                        .user(user(userId++, PATIENT_PREFIX + i, password, User.Role.PATIENT))
+                        .firstName("Load")
+                        .lastName("Patient " + i)
+                        .build());
+            }
+            for (int i = 0; i < LAB_TESTS.length; i++) {
+                LabTest test = new LabTest();
+                test.setTestName(LAB_TESTS[i]);
+                test.setPrice(BigDecimal.valueOf(300 + 150L * i));
+                test.setDescription("Seeded for load tests");
+                test.setIsActive(true);
+                entityManager.persist(test);
+            }
+        });
+        log.info("Seeded {} doctors, {} patients and {} lab tests for load testing", doctors, patients,
+                LAB_TESTS.length);
+    }
+
+    private static User user(long id, String username, String password, User.Role role) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .password(password)
+                .email(username + "@load.caresync.local")
+                .role(role)
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.vikrant.careSync.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTestRunner}, given as {@code key=value}
+ * arguments. Blank values fall back to the defaults, so the Maven profile can
+ * pass every property whether it was set or not.
+ */
+record LoadTestOptions(
+        String target,
+        int users,
+        Duration duration,
+        Duration warmup,
+        Duration thinkTime,
+        Path baseline,
+        Path output,
+        boolean updateBaseline,
+        boolean requireRedis,
+        double latencyTolerance,
+        double throughputTolerance) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1).trim();
+            if (!value.isEmpty()) {
+                values.put(arg.substring(0, separator).trim(), value);
+            }
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("target", ""),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "15s")),
+                duration(values.getOrDefault("think", "100ms")),
+                Path.of(values.getOrDefault("baseline", "src/load/resources/load/baseline.json")),
+                Path.of(values.getOrDefault("output", "target/load")),
+                Boolean.parseBoolean(values.getOrDefault("update-baseline", "false")),
+                Boolean.parseBoolean(values.getOrDefault("require-redis", "true")),
+                Double.parseDouble(values.getOrDefault("latency-tolerance", "0.25")),
+                Double.parseDouble(values.getOrDefault("throughput-tolerance", "0.20")));
+    }
+
+    /** Parses {@code 500ms}, {@code 30s} or {@code 2m}. */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duration must end in ms, s or m: " + value);
+    }
+}
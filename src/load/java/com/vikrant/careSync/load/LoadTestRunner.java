@@ -0,0 +1,156 @@
+package com.vikrant.careSync.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vikrant.careSync.CareSyncApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives {@link PatientJourney} sessions from one virtual thread per user
+ * against a running stack and reports latency and throughput per endpoint.
+ * <p>
+ * Without {@code target=<url>} the application is started in this JVM with
+ * the {@code loadtest} profile (H2 unless {@code LOAD_DATASOURCE_URL} points
+ * elsewhere, local-disk storage, mock Razorpay orders). A given target must
+ * run with the same profile so the seeded users exist.
+ * <p>
+ * After a warmup the run is measured for the configured duration. The report is
+ * written to {@code <output>/report.json} and compared with the baseline;
+ * the process exits with status 1 if any endpoint regressed. With
+ * {@code update-baseline=true} the report replaces the baseline instead.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        URI target;
+        if (options.target().isBlank()) {
+            requireRedis(options);
+            // DevTools would restart the context in a new class loader and drop this runner's arguments
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            application = new SpringApplicationBuilder(CareSyncApplication.class)
+                    .profiles("loadtest")
+                    .properties(Map.of("server.port", "0",
+                            "load.seed.patients", Integer.toString(Math.max(options.users(), 200))))
+                    .run();
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            target = URI.create("http://localhost:" + port);
+        } else {
+            target = URI.create(options.target());
+        }
+
+        int exitCode;
+        try {
+            exitCode = run(options, target);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options, URI target) throws Exception {
+        LoadClient client = new LoadClient(target);
+        List<Long> doctorIds = seededDoctors(client);
+        System.out.printf("Load test: %d users, %d doctors, warmup %s, measuring %s against %s%n", options.users(),
+                doctorIds.size(), options.warmup(), options.duration(), target);
+
+        long deadline = System.nanoTime() + options.warmup().plus(options.duration()).toNanos();
+        List<Thread> users = new ArrayList<>(options.users());
+        for (int i = 1; i <= options.users(); i++) {
+            users.add(Thread.ofVirtual().name("load-user-" + i).start(new PatientJourney(client,
+                    LoadTestDataSeeder.PATIENT_PREFIX + i, doctorIds, options.thinkTime(), deadline)));
+        }
+        Thread.sleep(options.warmup());
+        client.startRecording();
+        Thread.sleep(options.duration());
+        LoadReport report = client.stopRecording(target.toString(), options.users());
+        for (Thread user : users) {
+            // Users finish the session they are in; give up on stragglers rather than hang the build
+            user.join(Duration.ofSeconds(30));
+        }
+
+        report.print(System.out);
+        report.write(options.output().resolve("report.json"));
+        if (options.updateBaseline()) {
+            report.write(options.baseline());
+            System.out.println("\nBaseline updated: " + options.baseline());
+            return 0;
+        }
+        if (!Files.exists(options.baseline())) {
+            System.out.println("\nNo baseline at " + options.baseline() + "; run with update-baseline=true to create it");
+            return 0;
+        }
+        List<String> regressions = report.regressionsAgainst(LoadReport.read(options.baseline()),
+                options.latencyTolerance(), options.throughputTolerance());
+        if (regressions.isEmpty()) {
+            System.out.println("\nNo regressions against " + options.baseline());
+            return 0;
+        }
+        System.out.println("\nRegressions against " + options.baseline() + ":");
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        return 1;
+    }
+
+    /**
+     * Without Redis every cache, idempotency and unread-counter call goes through
+     * its connection-failure fallback, which is not what production runs, so an
+     * in-process run refuses to start unless told otherwise.
+     */
+    private static void requireRedis(LoadTestOptions options) {
+        String host = System.getenv().getOrDefault("LOAD_REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("LOAD_REDIS_PORT", "6379"));
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), 1000);
+        } catch (IOException e) {
+            if (options.requireRedis()) {
+                throw new IllegalStateException("Redis is not reachable at " + host + ":" + port
+                        + "; start it with 'docker compose -f docker-compose.loadtest.yml up -d redis'"
+                        + " or pass require-redis=false to measure the fallback paths");
+            }
+            System.out.println("Redis is not reachable at " + host + ":" + port
+                    + "; results include the Redis fallback paths");
+        }
+    }
+
+    /** Ids of the seeded doctors, looked up once as the first load patient (not recorded). */
+    private static List<Long> seededDoctors(LoadClient client) {
+        LoadClient.Response login = client.send("setup", client.request("/api/auth/login", null)
+                .header("Content-Type", "application/json")
+                .POST(LoadClient.json(Map.of("username", LoadTestDataSeeder.PATIENT_PREFIX + 1,
+                        "password", LoadTestDataSeeder.PASSWORD)))
+                .build(), false);
+        if (!login.ok()) {
+            throw new IllegalStateException("Cannot log in as a seeded load patient (HTTP " + login.status()
+                    + "); is the target running with the loadtest profile?");
+        }
+        String token = login.json().path("accessToken").asText();
+        LoadClient.Response doctors = client.send("setup", client.request("/api/doctors", token).GET().build(), false);
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode doctor : doctors.json()) {
+            if (doctor.path("username").asText().startsWith(LoadTestDataSeeder.DOCTOR_PREFIX)) {
+                ids.add(doctor.path("id").asLong());
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No seeded load doctors found at the target");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,75 @@
+package com.vikrant.careSync.load;
+
+import com.vikrant.careSync.service.SupabaseStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Stands in for Supabase storage during load tests by writing uploads under a
+ * local directory and handing out {@code file:} URLs, which the download path
+ * reads back like any other URL. Set {@code load.storage=s3} to go through
+ * {@link SupabaseStorageService} against the MinIO of the load-test compose
+ * file instead.
+ */
+@Service
+@Primary
+@Profile("loadtest")
+@ConditionalOnProperty(name = "load.storage", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalDiskStorageService extends SupabaseStorageService {
+
+    private final Path root;
+
+    public LocalDiskStorageService(@Value("${load.storage.dir:${java.io.tmpdir}/caresync-load-storage}") String root)
+            throws IOException {
+        super(null);
+        this.root = Files.createDirectories(Path.of(root)).toAbsolutePath();
+        log.info("Load test uploads are stored under {}", this.root);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, FileType fileType, Long userId) throws IOException {
+        String originalFilename = file.getOriginalFilename();
+        String extension = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(originalFilename.lastIndexOf('.'))
+                : "";
+        Path directory = root.resolve(fileType.getFolderName()).resolve(userId != null ? "user_" + userId : "shared");
+        Path target = Files.createDirectories(directory).resolve(UUID.randomUUID() + extension);
+        file.transferTo(target);
+        return target.toUri().toString();
+    }
+
+    @Override
+    public boolean deleteFile(String key) {
+        try {
+            return Files.deleteIfExists(Path.of(URI.create(key)));
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String extractKey(String fileUrl) {
+        return fileUrl;
+    }
+
+    @Override
+    public boolean fileExists(String key) {
+        try {
+            return Files.exists(Path.of(URI.create(key)));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
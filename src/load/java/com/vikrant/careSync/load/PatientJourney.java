@@ -0,0 +1,163 @@
+package com.vikrant.careSync.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One virtual user: a seeded patient repeating a session until the deadline.
+ * A session logs in, looks up slots and books an appointment, polls the
+ * notification feed, books lab tests with payment, uploads a lab report for
+ * that booking and downloads it again, with a think time between steps.
+ */
+final class PatientJourney implements Runnable {
+
+    private static final byte[] LAB_REPORT = labReport();
+
+    private final LoadClient client;
+    private final String username;
+    private final List<Long> doctorIds;
+    private final Duration thinkTime;
+    private final long deadline;
+
+    PatientJourney(LoadClient client, String username, List<Long> doctorIds, Duration thinkTime, long deadline) {
+        this.client = client;
+        this.username = username;
+        this.doctorIds = doctorIds;
+        this.thinkTime = thinkTime;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            session();
+        }
+    }
+
+    private void session() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LoadClient.Response login = client.send("auth.login", client.request("/api/auth/login", null)
+                .header("Content-Type", "application/json")
+                .POST(LoadClient.json(Map.of("username", username, "password", LoadTestDataSeeder.PASSWORD)))
+                .build(), false);
+        if (!login.ok()) {
+            think();
+            return;
+        }
+        JsonNode auth = login.json();
+        String token = auth.path("accessToken").asText();
+        long patientId = auth.path("user").path("id").asLong();
+        think();
+
+        // Slot lookup and booking
+        long doctorId = doctorIds.get(random.nextInt(doctorIds.size()));
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(60));
+        LoadClient.Response slots = client.send("appointments.slots", client.request(
+                "/api/appointments/available-slots?doctorId=" + doctorId + "&date=" + date, token).GET().build(),
+                false);
+        JsonNode available = slots.ok() ? slots.json().path("availableSlots") : null;
+        think();
+        if (available != null && !available.isEmpty()) {
+            String slot = available.get(random.nextInt(available.size())).asText();
+            client.send("appointments.book", client.request("/api/appointments/patient/book", token)
+                    .header("Content-Type", "application/json")
+                    .POST(LoadClient.json(Map.of("doctorId", doctorId, "appointmentDateTime", date + "T" + slot + ":00",
+                            "reason", "Load test consultation")))
+                    .build(), true);
+            think();
+        }
+
+        // Notification feed polling
+        for (int poll = 0; poll < 3; poll++) {
+            client.send("notifications.feed", client.request("/api/notifications/patient/" + patientId + "/feed",
+                    token).GET().build(), false);
+            think();
+        }
+
+        // Lab tests with payment, then the report upload and download
+        LoadClient.Response tests = client.send("labTests.list", client.request("/api/lab-tests", token).GET()
+                .build(), false);
+        if (!tests.ok() || tests.json().isEmpty()) {
+            return;
+        }
+        JsonNode test = tests.json().get(random.nextInt(tests.json().size()));
+        Map<String, Object> bookingRequest = Map.of("selectedTestIds", List.of(test.path("id").asLong()),
+                "notes", "Load test booking");
+        Map<String, Object> paymentRequest = Map.of("amount", test.path("price").decimalValue(),
+                "paymentType", "LAB_TEST", "paymentMethod", "UPI", "patientId", patientId,
+                "upiId", "loadtest@upi");
+        LoadClient.Response booking = client.send("bookings.withPayment", client.request(
+                "/api/bookings/patient/with-payment", token)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(LoadClient.json(Map.of("bookingRequest", bookingRequest, "paymentRequest", paymentRequest)))
+                .build(), false);
+        think();
+        if (!booking.ok()) {
+            return;
+        }
+
+        String boundary = "----caresync-load-" + UUID.randomUUID();
+        LoadClient.Response upload = client.send("files.uploadLabReport", client.request(
+                "/api/files/upload/lab-report", token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, Map.of(
+                        "bookingId", booking.json().path("id").asText(),
+                        "patientId", Long.toString(patientId),
+                        "description", "Load test report"))))
+                .build(), false);
+        think();
+        if (upload.ok()) {
+            client.send("files.download", client.request("/api/files/download/" + upload.json().path("id").asLong(),
+                    token).GET().build(), false);
+            think();
+        }
+    }
+
+    private void think() {
+        long nanos = thinkTime.toNanos();
+        if (nanos > 0) {
+            // Uniform between half and one and a half times the think time, so users drift apart
+            LockSupport.parkNanos(nanos / 2 + ThreadLocalRandom.current().nextLong(nanos + 1));
+        }
+    }
+
+    private static byte[] multipart(String boundary, Map<String, String> fields) {
+        List<byte[]> parts = new ArrayList<>();
+        fields.forEach((name, value) -> parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\""
+                + name + "\"\r\n\r\n" + value + "\r\n").getBytes(StandardCharsets.UTF_8)));
+        parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"lab-report.pdf\""
+                + "\r\nContent-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        parts.add(LAB_REPORT);
+        parts.add(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        int size = parts.stream().mapToInt(part -> part.length).sum();
+        byte[] body = new byte[size];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, body, offset, part.length);
+            offset += part.length;
+        }
+        return body;
+    }
+
+    /** A 64 KB PDF-looking payload, about the size of a scanned single-page report. */
+    private static byte[] labReport() {
+        byte[] report = new byte[64 * 1024];
+        byte[] header = "%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, report, 0, header.length);
+        for (int i = header.length; i < report.length; i++) {
+            report[i] = (byte) ('a' + i % 26);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,280 @@
+package com.vikrant.careSync.batch;
+
+import com.vikrant.careSync.entity.BatchJob;
+import com.vikrant.careSync.entity.BatchJobPartition;
+import com.vikrant.careSync.repository.BatchJobPartitionRepository;
+import com.vikrant.careSync.repository.BatchJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs {@link ChunkedJob}s. A run fixes its {@code asOf} time and id range,
+ * splits the range into partitions recorded in {@code batch_job_partitions},
+ * and works the partitions in parallel on the batch executor. Every chunk
+ * commits its changes together with the partition checkpoint, so a run
+ * interrupted by a crash or a failure continues from the last committed chunk
+ * the next time the job is triggered, on any node. Partitions are claimed
+ * with a conditional update; a partition whose owner stops sending heartbeats
+ * is taken over after {@code app.batch.stale-after-ms}. A partition that has
+ * failed {@code app.batch.max-attempts} times is given up on, so one bad row
+ * cannot hold the run open forever: the run is closed without it and the next
+ * trigger starts a fresh run.
+ */
+@Component
+@Slf4j
+public class BatchJobRunner {
+
+    private final BatchJobRepository batchJobRepository;
+    private final BatchJobPartitionRepository partitionRepository;
+    private final ThreadPoolTaskExecutor batchJobExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+    private final int chunkSize;
+    private final long staleAfterMs;
+    private final int maxAttempts;
+    private final int retentionDays;
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<String> runningLocally = ConcurrentHashMap.newKeySet();
+
+    public BatchJobRunner(BatchJobRepository batchJobRepository,
+            BatchJobPartitionRepository partitionRepository,
+            @Qualifier("batchJobExecutor") ThreadPoolTaskExecutor batchJobExecutor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.batch.partitions:4}") int partitions,
+            @Value("${app.batch.chunk-size:500}") int chunkSize,
+            @Value("${app.batch.stale-after-ms:300000}") long staleAfterMs,
+            @Value("${app.batch.max-attempts:5}") int maxAttempts,
+            @Value("${app.batch.retention-days:14}") int retentionDays) {
+        this.batchJobRepository = batchJobRepository;
+        this.partitionRepository = partitionRepository;
+        this.batchJobExecutor = batchJobExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = Math.max(1, partitions);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.staleAfterMs = staleAfterMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retentionDays = retentionDays;
+    }
+
+    private record Run(long runId, LocalDateTime asOf) {
+    }
+
+    private record ChunkOutcome(int processed, boolean completed) {
+    }
+
+    /**
+     * Starts a new run of the job, or resumes its unfinished one, and works its
+     * open partitions until they are done or fail.
+     *
+     * @return rows changed by this node in this call
+     */
+    public long run(ChunkedJob job) {
+        if (!runningLocally.add(job.name())) {
+            log.warn("Skipping batch job {} because a previous run is still active on this node", job.name());
+            return 0;
+        }
+        try {
+            register(job.name());
+            Run run = transactionTemplate.execute(status -> startOrJoin(job));
+            if (run == null) {
+                log.debug("Batch job {}: nothing to do", job.name());
+                return 0;
+            }
+
+            List<BatchJobPartition> open = transactionTemplate.execute(status -> partitionRepository
+                    .findByJobNameAndRunIdAndStatusNotOrderByPartitionIndex(job.name(), run.runId(),
+                            BatchJobPartition.Status.COMPLETED));
+            List<Future<Long>> workers = new ArrayList<>();
+            for (BatchJobPartition partition : open) {
+                try {
+                    workers.add(batchJobExecutor.submit(() -> runPartition(job, run, partition.getId())));
+                } catch (TaskRejectedException e) {
+                    // Left open; picked up by the next trigger
+                    log.warn("Batch job {} partition {} deferred: executor is full", job.name(),
+                            partition.getPartitionIndex());
+                }
+            }
+
+            long processed = 0;
+            for (Future<Long> worker : workers) {
+                try {
+                    processed += worker.get();
+                } catch (ExecutionException e) {
+                    // Already recorded on the partition by runPartition
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> finishIfComplete(job, run));
+            return processed;
+        } catch (Exception e) {
+            log.error("Batch job {} failed; it resumes on the next trigger", job.name(), e);
+            return 0;
+        } finally {
+            runningLocally.remove(job.name());
+        }
+    }
+
+    private void register(String jobName) {
+        if (batchJobRepository.existsById(jobName)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchJobRepository
+                    .save(new BatchJob(jobName, 0L, BatchJob.Status.IDLE, null, null, null, null)));
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently by another node
+        }
+    }
+
+    private Run startOrJoin(ChunkedJob job) {
+        BatchJob header = batchJobRepository.findByIdForUpdate(job.name())
+                .orElseThrow(() -> new IllegalStateException("Batch job not registered: " + job.name()));
+        if (header.getStatus() == BatchJob.Status.RUNNING) {
+            log.info("Batch job {}: resuming run {}", job.name(), header.getRunId());
+            return new Run(header.getRunId(), header.getAsOf());
+        }
+
+        LocalDateTime asOf = LocalDateTime.now();
+        ChunkedJob.IdRange range = job.findRange(asOf);
+        if (range == null) {
+            return null;
+        }
+
+        long runId = header.getRunId() + 1;
+        long span = range.maxId() - range.minId() + 1;
+        int count = (int) Math.min(partitions, span);
+        long size = (span + count - 1) / count;
+        List<BatchJobPartition> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long lower = range.minId() + i * size;
+            long upper = Math.min(range.maxId(), lower + size - 1);
+            created.add(BatchJobPartition.builder()
+                    .jobName(job.name())
+                    .runId(runId)
+                    .partitionIndex(i)
+                    .lowerBound(lower)
+                    .upperBound(upper)
+                    .lastProcessedId(lower - 1)
+                    .build());
+        }
+        partitionRepository.saveAll(created);
+
+        header.setRunId(runId);
+        header.setStatus(BatchJob.Status.RUNNING);
+        header.setAsOf(asOf);
+        header.setStartedAt(asOf);
+        header.setFinishedAt(null);
+        log.info("Batch job {}: started run {} over ids {}..{} in {} partitions", job.name(), runId,
+                range.minId(), range.maxId(), count);
+        return new Run(runId, asOf);
+    }
+
+    private long runPartition(ChunkedJob job, Run run, Long partitionId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> partitionRepository.claim(partitionId, owner, now,
+                now.minusNanos(staleAfterMs * 1_000_000), maxAttempts));
+        if (claimed == null || claimed == 0) {
+            return 0; // Owned by a live worker elsewhere, or out of attempts
+        }
+
+        long processed = 0;
+        try {
+            while (true) {
+                ChunkOutcome outcome = transactionTemplate.execute(status -> runChunk(job, run, partitionId));
+                processed += outcome.processed();
+                if (outcome.completed()) {
+                    return processed;
+                }
+            }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.warn("Batch job {} partition {} was taken over by another worker", job.name(), partitionId);
+            return processed;
+        } catch (RuntimeException e) {
+            log.error("Batch job {} partition {} failed after {} rows", job.name(), partitionId, processed, e);
+            String error = e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000)
+                    : e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> partitionRepository.findById(partitionId)
+                    .filter(p -> owner.equals(p.getOwner()))
+                    .ifPresent(p -> {
+                        p.setStatus(BatchJobPartition.Status.FAILED);
+                        p.setLastError(error);
+                        if (p.getAttempts() >= maxAttempts) {
+                            log.error("Batch job {} run {}: giving up on partition {} (ids {}..{}) after {} attempts;"
+                                    + " rows after id {} are skipped in this run", job.name(), run.runId(),
+                                    p.getPartitionIndex(), p.getLowerBound(), p.getUpperBound(), p.getAttempts(),
+                                    p.getLastProcessedId());
+                        }
+                    }));
+            throw e;
+        }
+    }
+
+    private ChunkOutcome runChunk(ChunkedJob job, Run run, Long partitionId) {
+        BatchJobPartition partition = partitionRepository.findById(partitionId)
+                .orElseThrow(() -> new IllegalStateException("Batch job partition not found: " + partitionId));
+        if (!owner.equals(partition.getOwner()) || partition.getStatus() != BatchJobPartition.Status.RUNNING) {
+            throw new ObjectOptimisticLockingFailureException(BatchJobPartition.class, partitionId);
+        }
+
+        ChunkedJob.ChunkResult result = job.processChunk(run.asOf(), partition.getLastProcessedId(),
+                partition.getUpperBound(), chunkSize);
+        boolean completed = result == ChunkedJob.ChunkResult.DONE || result.lastId() >= partition.getUpperBound();
+        if (result != ChunkedJob.ChunkResult.DONE) {
+            partition.setLastProcessedId(result.lastId());
+            partition.setProcessedCount(partition.getProcessedCount() + result.processed());
+        }
+        partition.setHeartbeatAt(LocalDateTime.now());
+        if (completed) {
+            partition.setStatus(BatchJobPartition.Status.COMPLETED);
+            partition.setFinishedAt(LocalDateTime.now());
+            partition.setLastError(null);
+        }
+        // Flushed on commit with a version check, so a worker that lost the partition rolls its chunk back
+        return new ChunkOutcome(result.processed(), completed);
+    }
+
+    private void finishIfComplete(ChunkedJob job, Run run) {
+        LocalDateTime staleBefore = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        if (partitionRepository.countOpen(job.name(), run.runId(), maxAttempts, staleBefore) > 0) {
+            return;
+        }
+        BatchJob header = batchJobRepository.findByIdForUpdate(job.name()).orElseThrow();
+        if (header.getStatus() != BatchJob.Status.RUNNING || header.getRunId() != run.runId()) {
+            return; // Finished by another node
+        }
+        long processed = partitionRepository.sumProcessed(job.name(), run.runId());
+        header.setStatus(BatchJob.Status.IDLE);
+        header.setFinishedAt(LocalDateTime.now());
+        header.setLastRunProcessed(processed);
+        partitionRepository.deleteCompletedBefore(LocalDateTime.now().minusDays(retentionDays));
+        // Given-up partitions are kept (not COMPLETED) for inspection
+        long abandoned = partitionRepository.countByJobNameAndRunIdAndStatusNot(job.name(), run.runId(),
+                BatchJobPartition.Status.COMPLETED);
+        if (abandoned > 0) {
+            log.error("Batch job {}: run {} closed with {} partition(s) abandoned after {} attempts, {} rows changed",
+                    job.name(), run.runId(), abandoned, maxAttempts, processed);
+        } else {
+            log.info("Batch job {}: run {} completed, {} rows changed", job.name(), run.runId(), processed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.vikrant.careSync.batch;
+
+import java.time.LocalDateTime;
+
+/**
+ * A batch job that {@link BatchJobRunner} can split into id-range partitions
+ * and run chunk by chunk. Selection criteria must depend only on the run's
+ * {@code asOf} time, so a run resumed after a crash selects the same rows.
+ */
+public interface ChunkedJob {
+
+    /** Unique, stable job name; it keys the checkpoint rows. */
+    String name();
+
+    /**
+     * Smallest and largest id that may need processing as of {@code asOf}, or
+     * null when there is nothing to do.
+     */
+    IdRange findRange(LocalDateTime asOf);
+
+    /**
+     * Processes up to {@code chunkSize} rows with {@code afterId < id <= upperBound}
+     * in the caller's transaction, which also commits the checkpoint.
+     *
+     * @return the highest id looked at and how many rows were changed, or
+     *         {@link ChunkResult#DONE} when no rows are left in the range
+     */
+    ChunkResult processChunk(LocalDateTime asOf, long afterId, long upperBound, int chunkSize);
+
+    record IdRange(long minId, long maxId) {
+
+        public static IdRange of(Long minId, Long maxId) {
+            return minId == null || maxId == null ? null : new IdRange(minId, maxId);
+        }
+    }
+
+    record ChunkResult(long lastId, int processed) {
+
+        public static final ChunkResult DONE = new ChunkResult(-1, 0);
+    }
+}
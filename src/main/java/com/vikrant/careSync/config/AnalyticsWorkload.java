@@ -0,0 +1,17 @@
+package com.vikrant.careSync.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks reporting and analytics reads. When called outside a transaction they
+ * run in their own read-only transaction on the analytics connection pool, so
+ * a slow report cannot hold a connection a booking or payment is waiting for.
+ * Called from inside an existing transaction they simply join it.
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AnalyticsWorkload {
+}
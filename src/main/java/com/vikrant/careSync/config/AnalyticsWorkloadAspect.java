@@ -0,0 +1,68 @@
+package com.vikrant.careSync.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs {@link AnalyticsWorkload} methods in a read-only transaction routed to
+ * the analytics pool. Ordered ahead of the transaction interceptor so the
+ * method's own {@code @Transactional(readOnly = true)} joins this transaction.
+ * The transaction is new even under open-session-in-view, because the
+ * request's session keeps whatever connection it acquired first.
+ */
+@Aspect
+@Component
+@Order(0)
+public class AnalyticsWorkloadAspect {
+
+    private final TransactionTemplate analyticsTransaction;
+
+    public AnalyticsWorkloadAspect(PlatformTransactionManager transactionManager) {
+        this.analyticsTransaction = new TransactionTemplate(transactionManager);
+        this.analyticsTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.analyticsTransaction.setReadOnly(true);
+    }
+
+    @Around("@within(com.vikrant.careSync.config.AnalyticsWorkload) || "
+            + "@annotation(com.vikrant.careSync.config.AnalyticsWorkload)")
+    public Object routeToAnalyticsPool(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (WorkloadRoutingDataSource.isAnalytics() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        WorkloadRoutingDataSource.enterAnalytics();
+        try {
+            return analyticsTransaction.execute(status -> {
+                try {
+                    Object result = joinPoint.proceed();
+                    if (status.isRollbackOnly()) {
+                        // A nested call failed and the method handled it; nothing was written, so roll
+                        // back quietly instead of raising UnexpectedRollbackException on commit
+                        status.setRollbackOnly();
+                    }
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedFailure(e);
+                }
+            });
+        } catch (CheckedFailure e) {
+            throw e.getCause();
+        } finally {
+            WorkloadRoutingDataSource.exitAnalytics();
+        }
+    }
+
+    private static final class CheckedFailure extends RuntimeException {
+        CheckedFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -1,25 +1,79 @@
 package com.vikrant.careSync.config;
 
+import com.vikrant.careSync.diagnostics.RecordingRejectedExecutionHandler;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    // Every executor runs tasks with the submitter's trace context (TracingConfig), and
+    // rejections are recorded as JFR events before failing as usual
     @Bean(name = "appointmentNotificationExecutor")
-    public TaskExecutor appointmentNotificationExecutor() {
+    public TaskExecutor appointmentNotificationExecutor(TaskDecorator contextPropagatingTaskDecorator) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(6);
         executor.setQueueCapacity(200);
         executor.setThreadNamePrefix("appointment-notification-");
+        executor.setRejectedExecutionHandler(new RecordingRejectedExecutionHandler("appointmentNotificationExecutor"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.setTaskDecorator(contextPropagatingTaskDecorator);
+        executor.initialize();
+        return executor;
+    }
+
+    // Email outbox delivery; EmailOutboxWorker never has more than twice the pool size in flight
+    @Bean(name = "emailOutboxExecutor")
+    public TaskExecutor emailOutboxExecutor(@Value("${app.email.outbox.workers:4}") int workers,
+            TaskDecorator contextPropagatingTaskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 2 + 1);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setRejectedExecutionHandler(new RecordingRejectedExecutionHandler("emailOutboxExecutor"));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(10);
+        executor.setTaskDecorator(contextPropagatingTaskDecorator);
         executor.initialize();
         return executor;
     }
+
+    // Partitions of chunked batch jobs (BatchJobRunner); a full queue defers partitions to the next trigger
+    @Bean(name = "batchJobExecutor")
+    public ThreadPoolTaskExecutor batchJobExecutor(@Value("${app.batch.workers:4}") int workers,
+            TaskDecorator contextPropagatingTaskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("batch-job-");
+        executor.setRejectedExecutionHandler(new RecordingRejectedExecutionHandler("batchJobExecutor"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setTaskDecorator(contextPropagatingTaskDecorator);
+        executor.initialize();
+        return executor;
+    }
+
+    // Gateway calls block on network I/O; concurrency is bounded by PaymentService, not by pool size
+    @Bean(name = "paymentGatewayExecutor", destroyMethod = "shutdown")
+    public ExecutorService paymentGatewayExecutor() {
+        return ContextExecutorService.wrap(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-gateway-", 0).factory()),
+                ContextSnapshotFactory.builder().build());
+    }
 }
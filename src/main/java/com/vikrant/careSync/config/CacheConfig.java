@@ -1,10 +1,14 @@
 package com.vikrant.careSync.config;
 
+import com.vikrant.careSync.diagnostics.HotCacheStatisticsCollector;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
@@ -22,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
@@ -30,24 +35,21 @@ public class CacheConfig implements CachingConfigurer {
         private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
 
         @Bean
-        public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.registerModule(new Jdk8Module());
-                mapper.registerModule(new JavaTimeModule());
-                mapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-                mapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
-                                false);
-                mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
-                                ObjectMapper.DefaultTyping.NON_FINAL,
-                                JsonTypeInfo.As.PROPERTY);
-
+        public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                        @Value("${app.diagnostics.jfr.hot-caches:}") Set<String> hotCaches) {
                 RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                                 .entryTtl(Duration.ofMinutes(10))
                                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                                                .fromSerializer(new GenericJackson2JsonRedisSerializer(mapper)))
+                                                .fromSerializer(valueSerializer()))
                                 .disableCachingNullValues();
 
-                RedisCacheManager manager = RedisCacheManager.builder(connectionFactory)
+                // Hit/miss counters for the cache.gets metric, per cache name; misses on hot caches
+                // are also JFR events
+                RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory)
+                                .withStatisticsCollector(new HotCacheStatisticsCollector(
+                                                CacheStatisticsCollector.create(), hotCaches));
+
+                RedisCacheManager manager = RedisCacheManager.builder(cacheWriter)
                                 .cacheDefaults(config)
                                 // Patient caches (5 min TTL)
                                 .withCacheConfiguration("PATIENT:PROFILE", config.entryTtl(Duration.ofMinutes(5)))
@@ -55,7 +57,6 @@ public class CacheConfig implements CachingConfigurer {
                                 .withCacheConfiguration("PATIENT:APPOINTMENTS", config.entryTtl(Duration.ofMinutes(5)))
                                 .withCacheConfiguration("PATIENT:DOCUMENTS", config.entryTtl(Duration.ofMinutes(5)))
                                 .withCacheConfiguration("PATIENT:FINANCIAL", config.entryTtl(Duration.ofMinutes(5)))
-                                .withCacheConfiguration("PATIENT:COMPLETE_DATA", config.entryTtl(Duration.ofMinutes(5)))
                                 // Doctor caches (1 hour TTL)
                                 .withCacheConfiguration("DOCTOR:PROFILE", config.entryTtl(Duration.ofHours(1)))
                                 .withCacheConfiguration("DOCTOR:EXPERIENCE", config.entryTtl(Duration.ofHours(1)))
@@ -79,6 +80,25 @@ public class CacheConfig implements CachingConfigurer {
                 return manager;
         }
 
+        /**
+         * Serializer for cached values: JSON with embedded type information so
+         * DTOs and collections round-trip without per-cache configuration. Kept
+         * separate from the bean so the serialization cost can be benchmarked
+         * on its own.
+         */
+        static GenericJackson2JsonRedisSerializer valueSerializer() {
+                ObjectMapper mapper = new ObjectMapper();
+                mapper.registerModule(new Jdk8Module());
+                mapper.registerModule(new JavaTimeModule());
+                mapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                mapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                                false);
+                mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+                                ObjectMapper.DefaultTyping.NON_FINAL,
+                                JsonTypeInfo.As.PROPERTY);
+                return new GenericJackson2JsonRedisSerializer(mapper);
+        }
+
         @Override
         @Nullable
         public CacheErrorHandler errorHandler() {
@@ -0,0 +1,77 @@
+package com.vikrant.careSync.config;
+
+import com.vikrant.careSync.config.WorkloadRoutingDataSource.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Two Hikari pools behind one routing {@link DataSource}: "oltp" for bookings,
+ * payments and every write, and "analytics" for {@link AnalyticsWorkload}
+ * reads. The analytics pool reuses the primary database unless a replica URL
+ * is configured. Connections are fetched lazily, so the pool is chosen when
+ * the first statement runs rather than when a transaction begins.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("oltp");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.analytics.hikari")
+    public HikariDataSource analyticsDataSource(DataSourceProperties properties,
+            @Value("${app.datasource.analytics.url:}") String url,
+            @Value("${app.datasource.analytics.username:}") String username,
+            @Value("${app.datasource.analytics.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        if (StringUtils.hasText(url)) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+        } else {
+            dataSource.setJdbcUrl(properties.determineUrl());
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+        }
+        dataSource.setPoolName("analytics");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltpDataSource,
+            @Qualifier("analyticsDataSource") DataSource analyticsDataSource,
+            @Value("${app.datasource.analytics.enabled:true}") boolean analyticsEnabled) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource();
+        routing.setTargetDataSources(Map.<Object, Object>of(
+                Workload.OLTP, oltpDataSource,
+                Workload.ANALYTICS, analyticsEnabled ? analyticsDataSource : oltpDataSource));
+        routing.setDefaultTargetDataSource(oltpDataSource);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        // Defaults a lazy connection reports before it is fetched; both match PostgreSQL and Hikari
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
+    }
+}
@@ -0,0 +1,61 @@
+package com.vikrant.careSync.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of tables that used to be IDENTITY past their
+ * existing rows. Hibernate creates a new sequence starting at 1, and the
+ * pooled optimizer hands out the 50 ids below each value it fetches, so the
+ * sequence must be at least MAX(id) before the first insert. Runs once the
+ * schema is up to date and before schedulers start; it only ever raises a
+ * sequence, so it is safe on every start and on every node.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "appointments", "appointments_seq",
+            "notifications", "notifications_seq",
+            "chat_messages", "chat_messages_seq",
+            "vitals", "vitals_seq",
+            "payments", "payments_seq",
+            "audit_logs", "audit_logs_seq",
+            "vital_chunks", "vital_chunks_seq",
+            "vital_rollups", "vital_rollups_seq",
+            "payment_ledger_entries", "payment_ledger_entries_seq",
+            "login_attempt", "login_attempt_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depends on the EntityManagerFactory so schema update has created the sequences
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach((table, sequence) -> {
+            try {
+                Long value = jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), "
+                        + "(SELECT last_value FROM " + sequence + ")))", Long.class);
+                log.debug("Sequence {} aligned to {}", sequence, value);
+            } catch (Exception e) {
+                log.error("Failed to align sequence {} with {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.vikrant.careSync.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Wraps each S3 SDK call (retries included) in an {@code s3.client.requests}
+ * observation, so storage calls appear as spans under the request that made
+ * them and as a timer tagged by operation and HTTP status. Object keys are
+ * not recorded; they contain patient and document ids.
+ */
+class S3ObservationInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Observation> OBSERVATION = new ExecutionAttribute<>("caresync.observation");
+
+    private final ObservationRegistry observationRegistry;
+
+    S3ObservationInterceptor(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Observation observation = Observation.createNotStarted("s3.client.requests", observationRegistry)
+                .contextualName("s3 " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("status", "none")
+                .start();
+        executionAttributes.putAttribute(OBSERVATION, observation);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Observation observation = executionAttributes.getAttribute(OBSERVATION);
+        if (observation != null) {
+            observation.lowCardinalityKeyValue("status", Integer.toString(context.httpResponse().statusCode()));
+            observation.stop();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Observation observation = executionAttributes.getAttribute(OBSERVATION);
+        if (observation != null) {
+            context.httpResponse().ifPresent(response ->
+                    observation.lowCardinalityKeyValue("status", Integer.toString(response.statusCode())));
+            observation.error(context.exception());
+            observation.stop();
+        }
+    }
+}
@@ -32,5 +32,30 @@ public class SchemaMigrationRunner implements CommandLineRunner {
             // Don't throw exception to allow app to start even if this fails (e.g. if
             // constraint doesn't exist)
         }
+
+        try {
+            // Covers the keyset-paginated feed and the unread count for a recipient
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_recipient_feed " +
+                    "ON notifications (recipient_type, recipient_id, \"read\", \"timestamp\" DESC, id DESC)");
+            System.out.println("Schema Fix Completed: Notification feed index ensured.");
+        } catch (Exception e) {
+            System.err.println("Notification feed index creation failed: " + e.getMessage());
+        }
+
+        try {
+            // Payments created before optimistic locking have no version yet
+            int updated = jdbcTemplate.update("UPDATE payments SET version = 0 WHERE version IS NULL");
+            System.out.println("Schema Fix Completed: Payment versions initialised (" + updated + " rows).");
+        } catch (Exception e) {
+            System.err.println("Payment version backfill failed: " + e.getMessage());
+        }
+
+        try {
+            // Communications now store the template id and model instead of the rendered body
+            jdbcTemplate.execute("ALTER TABLE communications ALTER COLUMN body DROP NOT NULL");
+            System.out.println("Schema Fix Completed: communications.body made optional.");
+        } catch (Exception e) {
+            System.err.println("Communications body migration skipped: " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,74 @@
+package com.vikrant.careSync.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the application's {@code @Service} beans as
+ * {@code service.invocations}, tagged with the service class, method name,
+ * state and exception class, the same shape Spring Data uses for
+ * {@code spring.data.repository.invocations}. Tag values come from code, never
+ * from arguments, so the number of series is fixed by the codebase.
+ * <p>
+ * Ordered ahead of {@link AnalyticsWorkloadAspect} and the transaction
+ * interceptor, so the time includes opening and committing the transaction.
+ * Calls a service makes on itself bypass the proxy and are not timed.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    static final String METRIC = "service.invocations";
+
+    private final MeterRegistry meterRegistry;
+    // Successful calls are the hot path; failures build their timer on demand
+    private final Map<CallSite, Timer> successTimers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.vikrant.careSync..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            CallSite site = new CallSite(ClassUtils.getUserClass(joinPoint.getTarget()),
+                    ((MethodSignature) joinPoint.getSignature()).getMethod());
+            successTimers.computeIfAbsent(site, s -> timer(joinPoint, "SUCCESS", "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(joinPoint, "ERROR", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, String state, String exception) {
+        return Timer.builder(METRIC)
+                .description("Service method calls through the Spring proxy")
+                .tag("service", ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("state", state)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    private record CallSite(Class<?> service, Method method) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.vikrant.careSync.config;
 
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,7 +28,7 @@ public class SupabaseConfig {
     private String region;
 
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(ObservationRegistry observationRegistry) {
         return S3Client.builder()
                 .endpointOverride(URI.create(endpoint))
                 .credentialsProvider(StaticCredentialsProvider.create(
@@ -37,6 +38,8 @@ public class SupabaseConfig {
                         .pathStyleAccessEnabled(true)
                         .chunkedEncodingEnabled(false)
                         .build())
+                .overrideConfiguration(config -> config
+                        .addExecutionInterceptor(new S3ObservationInterceptor(observationRegistry)))
                 .build();
     }
 }
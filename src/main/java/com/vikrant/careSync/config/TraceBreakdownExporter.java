@@ -0,0 +1,176 @@
+package com.vikrant.careSync.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Span exporter for debugging latency without a collector. Spans are held per
+ * trace until the trace's local root span ends, then the whole trace is
+ * written as one indented tree: duration, offset from the start of the root
+ * and span name with its attributes. Traces faster than the threshold are
+ * dropped.
+ * <p>
+ * Spans that end after their root (after-commit tasks, gateway calls the
+ * request stopped waiting for) are written as a separate partial tree once
+ * they have been idle for {@link #LATE_SPAN_GRACE_NANOS}.
+ */
+public class TraceBreakdownExporter implements SpanExporter {
+
+    static final long LATE_SPAN_GRACE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_PENDING_TRACES = 10_000;
+    private static final int MAX_ATTRIBUTE_LENGTH = 120;
+
+    private final long thresholdNanos;
+    private final Consumer<String> sink;
+    // Guarded by this; insertion order is arrival order, so the eldest trace is first
+    private final Map<String, PendingTrace> pending = new LinkedHashMap<>();
+
+    public TraceBreakdownExporter(long thresholdMillis, Consumer<String> sink) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sink = sink;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<List<SpanData>> complete = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (SpanData span : spans) {
+                PendingTrace trace = pending.computeIfAbsent(span.getTraceId(), id -> new PendingTrace());
+                trace.spans.add(span);
+                trace.lastArrival = now;
+                if (isLocalRoot(span)) {
+                    pending.remove(span.getTraceId());
+                    complete.add(trace.spans);
+                }
+            }
+            Iterator<PendingTrace> eldest = pending.values().iterator();
+            while (eldest.hasNext()) {
+                PendingTrace trace = eldest.next();
+                if (pending.size() <= MAX_PENDING_TRACES && now - trace.lastArrival < LATE_SPAN_GRACE_NANOS) {
+                    break;
+                }
+                eldest.remove();
+                complete.add(trace.spans);
+            }
+        }
+        for (List<SpanData> trace : complete) {
+            String breakdown = render(trace);
+            if (breakdown != null) {
+                sink.accept(breakdown);
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        List<PendingTrace> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        remaining.forEach(trace -> {
+            String breakdown = render(trace.spans);
+            if (breakdown != null) {
+                sink.accept(breakdown);
+            }
+        });
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /** Renders the spans of one trace, or returns null when the trace is under the threshold. */
+    String render(List<SpanData> spans) {
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        Map<String, SpanData> byId = new LinkedHashMap<>();
+        for (SpanData span : spans) {
+            start = Math.min(start, span.getStartEpochNanos());
+            end = Math.max(end, span.getEndEpochNanos());
+            byId.put(span.getSpanId(), span);
+        }
+        if (end - start < thresholdNanos) {
+            return null;
+        }
+
+        Map<String, List<SpanData>> children = new LinkedHashMap<>();
+        List<SpanData> roots = new ArrayList<>();
+        for (SpanData span : spans) {
+            if (byId.containsKey(span.getParentSpanId())) {
+                children.computeIfAbsent(span.getParentSpanId(), id -> new ArrayList<>()).add(span);
+            } else {
+                roots.add(span);
+            }
+        }
+
+        SpanData first = roots.stream().min(Comparator.comparingLong(SpanData::getStartEpochNanos)).orElseThrow();
+        StringBuilder out = new StringBuilder()
+                .append("Trace ").append(first.getTraceId())
+                .append(roots.size() == 1 && isLocalRoot(first) ? "" : " (partial)")
+                .append(String.format(" %.1f ms%n", millis(end - start)));
+        roots.sort(Comparator.comparingLong(SpanData::getStartEpochNanos));
+        for (SpanData root : roots) {
+            append(out, root, children, start, 1);
+        }
+        return out.toString().stripTrailing();
+    }
+
+    private void append(StringBuilder out, SpanData span, Map<String, List<SpanData>> children, long traceStart,
+            int depth) {
+        out.append(String.format("%10.1f ms  +%-9.1f", millis(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                millis(span.getStartEpochNanos() - traceStart)));
+        out.append("  ".repeat(depth)).append(span.getName());
+        span.getAttributes().forEach((key, value) -> appendAttribute(out, key, value));
+        if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+            out.append(" ERROR");
+        }
+        out.append(System.lineSeparator());
+        List<SpanData> nested = children.get(span.getSpanId());
+        if (nested == null) {
+            return;
+        }
+        nested.sort(Comparator.comparingLong(SpanData::getStartEpochNanos));
+        for (SpanData child : nested) {
+            append(out, child, children, traceStart, depth + 1);
+        }
+    }
+
+    private static void appendAttribute(StringBuilder out, AttributeKey<?> key, Object value) {
+        String text = String.valueOf(value).replaceAll("\\s+", " ");
+        if (text.length() > MAX_ATTRIBUTE_LENGTH) {
+            text = text.substring(0, MAX_ATTRIBUTE_LENGTH) + "...";
+        }
+        out.append(' ').append(key.getKey()).append('=').append(text);
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class PendingTrace {
+        private final List<SpanData> spans = new ArrayList<>();
+        private long lastArrival;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vikrant.careSync.config;
+
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+/**
+ * Tracing beyond what Spring Boot instruments on its own (HTTP server and
+ * client, {@code @Scheduled} methods). JDBC spans come from
+ * datasource-micrometer and S3 spans from {@link S3ObservationInterceptor};
+ * this adds Redis command spans, context propagation into the application's
+ * executors and an optional log exporter for local runs.
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final Logger traceLog = LoggerFactory.getLogger("com.vikrant.careSync.trace");
+
+    // Spans per Redis command (cache reads and writes included); arguments are keys with ids, so they stay out
+    @Bean
+    public ClientResourcesBuilderCustomizer redisTracing(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "redis", false));
+    }
+
+    // Carries the current span (and MDC trace ids) onto executor threads; applied in AsyncConfig
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.log-exporter.enabled", havingValue = "true")
+    public SpanExporter traceBreakdownExporter(
+            @Value("${app.tracing.log-exporter.min-duration-ms:0}") long minDurationMs) {
+        return new TraceBreakdownExporter(minDurationMs, traceLog::info);
+    }
+}
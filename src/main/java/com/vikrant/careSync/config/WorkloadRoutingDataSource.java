@@ -0,0 +1,38 @@
+package com.vikrant.careSync.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Picks the connection pool for a new physical connection. Work marked with
+ * {@link AnalyticsWorkload} that runs in a read-only transaction goes to the
+ * analytics pool; everything else, including any write, uses the OLTP pool
+ * that bookings and payments depend on.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Workload {
+        OLTP, ANALYTICS
+    }
+
+    private static final ThreadLocal<Boolean> ANALYTICS = new ThreadLocal<>();
+
+    static boolean isAnalytics() {
+        return Boolean.TRUE.equals(ANALYTICS.get());
+    }
+
+    static void enterAnalytics() {
+        ANALYTICS.set(Boolean.TRUE);
+    }
+
+    static void exitAnalytics() {
+        ANALYTICS.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isAnalytics() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? Workload.ANALYTICS
+                : Workload.OLTP;
+    }
+}
@@ -9,7 +9,9 @@ import com.vikrant.careSync.repository.DoctorRepository;
 import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.dto.BlockedIPDto;
 import com.vikrant.careSync.dto.UserSessionDto;
+import com.vikrant.careSync.event.PatientChartEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +36,7 @@ public class AdminController {
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @GetMapping("/users")
     public ResponseEntity<List<UserSummaryDto>> getAllUsersSummary() {
@@ -73,6 +76,7 @@ public class AdminController {
         patientRepository.findById(user.getId()).ifPresent(patient -> {
             patient.setIsActive(newStatus);
             patientRepository.save(patient);
+            eventPublisher.publishEvent(PatientChartEvent.profileChanged(patient.getId()));
         });
 
         Map<String, Object> response = new HashMap<>();
@@ -104,6 +108,7 @@ public class AdminController {
         patientRepository.findById(user.getId()).ifPresent(patient -> {
             patient.setIsActive(active);
             patientRepository.save(patient);
+            eventPublisher.publishEvent(PatientChartEvent.profileChanged(patient.getId()));
         });
 
         Map<String, Object> response = new HashMap<>();
@@ -251,6 +256,7 @@ public class AdminController {
             Patient patient = patientOpt.get();
             patient.setIsActive(false);
             patientRepository.save(patient);
+            eventPublisher.publishEvent(PatientChartEvent.profileChanged(patient.getId()));
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Patient " + patient.getUsername() + " has been blocked");
@@ -300,6 +306,7 @@ public class AdminController {
             Patient patient = patientOpt.get();
             patient.setIsActive(true);
             patientRepository.save(patient);
+            eventPublisher.publishEvent(PatientChartEvent.profileChanged(patient.getId()));
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Patient " + patient.getUsername() + " has been unblocked");
@@ -272,10 +272,8 @@ public class AppointmentController {
     public ResponseEntity<?> getMyPatients() {
         try {
             Doctor currentUser = getCurrentDoctor();
-            List<Appointment> appointments = appointmentService.getAppointmentsByDoctor(currentUser.getId());
-            List<DoctorAppointmentResponse> responses = appointments.stream()
-                    .map(DoctorAppointmentResponse::new)
-                    .collect(Collectors.toList());
+            List<DoctorAppointmentResponse> responses = appointmentService
+                    .getDoctorAppointmentResponses(currentUser.getId());
             return ResponseEntity.ok(responses);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
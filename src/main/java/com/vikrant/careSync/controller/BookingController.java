@@ -2,12 +2,16 @@ package com.vikrant.careSync.controller;
 
 import com.vikrant.careSync.dto.BookingRequest;
 import com.vikrant.careSync.dto.BookingResponse;
+import com.vikrant.careSync.dto.BulkBookingRequest;
 import com.vikrant.careSync.dto.PaymentRequestDto;
 import com.vikrant.careSync.dto.PatientBookingWithPaymentRequest;
 import com.vikrant.careSync.entity.Booking;
+import com.vikrant.careSync.exception.PaymentGatewayUnavailableException;
 import com.vikrant.careSync.service.BookingService;
+import com.vikrant.careSync.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,6 +30,7 @@ import java.util.HashMap;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Create booking with payment for patients (integrated flow)
@@ -34,11 +39,42 @@ public class BookingController {
     @PostMapping("/patient/with-payment")
     @PreAuthorize("hasRole('PATIENT')")
     public ResponseEntity<?> createPatientBookingWithPayment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PatientBookingWithPaymentRequest request) {
+        return idempotencyService.execute("booking:with-payment", idempotencyKey, request, () -> {
+            try {
+                BookingResponse booking = bookingService.createBookingWithPayment(
+                        request.getBookingRequest(),
+                        request.getPaymentRequest());
+                return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+            } catch (PaymentGatewayUnavailableException e) {
+                // 5xx, so the idempotency record is dropped and a retry with the same key runs again
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, PaymentGatewayUnavailableException.RETRY_AFTER_SECONDS)
+                        .body(errorResponse);
+            } catch (RuntimeException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            } catch (Exception e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "An error occurred while creating the booking with payment");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        });
+    }
+
+    /**
+     * Create booking for doctors (no payment required)
+     * Only accessible by doctors
+     */
+    @PostMapping("/doctor")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> createDoctorBooking(@Valid @RequestBody BookingRequest request) {
         try {
-            BookingResponse booking = bookingService.createBookingWithPayment(
-                    request.getBookingRequest(),
-                    request.getPaymentRequest());
+            BookingResponse booking = bookingService.createDoctorBooking(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(booking);
         } catch (RuntimeException e) {
             Map<String, String> errorResponse = new HashMap<>();
@@ -46,28 +82,28 @@ public class BookingController {
             return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "An error occurred while creating the booking with payment");
+            errorResponse.put("error", "An error occurred while creating the doctor booking");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
 
     /**
-     * Create booking for doctors (no payment required)
+     * Create bookings for many patients in one request (no payment required)
      * Only accessible by doctors
      */
-    @PostMapping("/doctor")
+    @PostMapping("/doctor/bulk")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<?> createDoctorBooking(@Valid @RequestBody BookingRequest request) {
+    public ResponseEntity<?> createDoctorBookings(@Valid @RequestBody BulkBookingRequest request) {
         try {
-            BookingResponse booking = bookingService.createDoctorBooking(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+            List<BookingResponse> bookings = bookingService.createDoctorBookings(request.getBookings());
+            return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
         } catch (RuntimeException e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "An error occurred while creating the doctor booking");
+            errorResponse.put("error", "An error occurred while creating the doctor bookings");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
@@ -1,37 +1,43 @@
 package com.vikrant.careSync.controller;
 
+import com.vikrant.careSync.constants.AppConstants;
+import com.vikrant.careSync.dto.ChatHistoryPageDto;
 import com.vikrant.careSync.entity.ChatMessage;
-import com.vikrant.careSync.repository.ChatRepository;
+import com.vikrant.careSync.service.ChatService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
 public class ChatController {
 
-    private final ChatRepository chatRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatService chatService;
 
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload ChatMessage chatMessage) {
-        chatMessage.setTimestamp(LocalDateTime.now());
-        ChatMessage saved = chatRepository.save(chatMessage);
-
-        // Broadcast to specific appointment topic
-        messagingTemplate.convertAndSend("/topic/appointment/" + chatMessage.getAppointmentId(), saved);
+        // Broadcast to the appointment topic immediately; persistence is write-behind
+        chatService.sendMessage(chatMessage);
     }
 
+    // Legacy endpoint: latest page of history, oldest first
     @GetMapping("/api/chat/{appointmentId}")
     @ResponseBody
     public List<ChatMessage> getChatHistory(@PathVariable Long appointmentId) {
-        return chatRepository.findByAppointmentIdOrderByTimestampAsc(appointmentId);
+        return chatService.getHistoryPage(appointmentId, null, AppConstants.Config.MAX_PAGE_SIZE).getMessages();
+    }
+
+    @GetMapping("/api/chat/{appointmentId}/page")
+    @ResponseBody
+    public ChatHistoryPageDto getChatHistoryPage(@PathVariable Long appointmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return chatService.getHistoryPage(appointmentId, cursor, size);
     }
 }
@@ -88,9 +88,7 @@ public class FeedbackController {
     @GetMapping("/doctor/{doctorId}")
     public ResponseEntity<?> getFeedbackByDoctor(@PathVariable Long doctorId) {
         try {
-            List<FeedbackDto> dtos = feedbackService.getFeedbackByDoctor(doctorId).stream()
-                    .map(FeedbackDto::new)
-                    .collect(Collectors.toList());
+            List<FeedbackDto> dtos = feedbackService.getFeedbackDtosByDoctor(doctorId);
             return ResponseEntity.ok(dtos);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
@@ -1,7 +1,9 @@
 package com.vikrant.careSync.controller;
 
+import com.vikrant.careSync.constants.AppConstants;
 import com.vikrant.careSync.dto.AppointmentReminderRequest;
 import com.vikrant.careSync.dto.NotificationDto;
+import com.vikrant.careSync.dto.NotificationFeedPageDto;
 import com.vikrant.careSync.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -65,6 +67,52 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getPatientUnreadCount(patientId));
     }
 
+    @GetMapping("/doctor/{doctorId}/feed/page")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<NotificationFeedPageDto> getDoctorFeedPage(@PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(notificationService.getDoctorFeedPage(doctorId, cursor, size));
+    }
+
+    @GetMapping("/patient/{patientId}/feed/page")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<NotificationFeedPageDto> getPatientFeedPage(@PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(notificationService.getPatientFeedPage(patientId, cursor, size));
+    }
+
+    @PostMapping("/doctor/{doctorId}/read")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<Map<String, Integer>> markDoctorNotificationsRead(@PathVariable Long doctorId,
+            @RequestBody List<Long> notificationIds) {
+        int updated = notificationService.markRead(AppConstants.Roles.DOCTOR, doctorId, notificationIds);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    @PostMapping("/patient/{patientId}/read")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Map<String, Integer>> markPatientNotificationsRead(@PathVariable Long patientId,
+            @RequestBody List<Long> notificationIds) {
+        int updated = notificationService.markRead(AppConstants.Roles.PATIENT, patientId, notificationIds);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    @PostMapping("/doctor/{doctorId}/read-all")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<Map<String, Integer>> markAllDoctorNotificationsRead(@PathVariable Long doctorId) {
+        int updated = notificationService.markAllRead(AppConstants.Roles.DOCTOR, doctorId);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    @PostMapping("/patient/{patientId}/read-all")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Map<String, Integer>> markAllPatientNotificationsRead(@PathVariable Long patientId) {
+        int updated = notificationService.markAllRead(AppConstants.Roles.PATIENT, patientId);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
     @PostMapping("/{notificationId}/read")
     @PreAuthorize("hasRole('DOCTOR') or hasRole('PATIENT')")
     public ResponseEntity<Void> markRead(@PathVariable Long notificationId) {
@@ -9,9 +9,11 @@ import com.vikrant.careSync.dto.CreateMedicalHistoryRequest;
 import com.vikrant.careSync.dto.PatientDto;
 import com.vikrant.careSync.dto.MedicalHistoryDto;
 import com.vikrant.careSync.dto.DocumentDto;
+import com.vikrant.careSync.dto.PatientChartDto;
 import com.vikrant.careSync.service.interfaces.IPatientService;
 import com.vikrant.careSync.service.interfaces.IMedicalHistoryService;
 import com.vikrant.careSync.service.DocumentService;
+import com.vikrant.careSync.service.PatientChartService;
 import com.vikrant.careSync.service.UserService;
 import com.vikrant.careSync.dto.UserDto;
 import lombok.RequiredArgsConstructor;
@@ -19,8 +21,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.Cache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -46,7 +48,7 @@ public class PatientController {
     private final IMedicalHistoryService medicalHistoryService;
     private final DocumentService documentService;
     private final UserService userService;
-    private final CacheManager cacheManager;
+    private final PatientChartService patientChartService;
 
     @io.swagger.v3.oas.annotations.Operation(summary = "Get all patients", description = "Retrieves a list of all registered patients (Doctor/Admin only)")
     @GetMapping
@@ -94,59 +96,21 @@ public class PatientController {
 
     @GetMapping("/{patientId}/complete-data")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Map<String, Object>> getCompletePatientData(@PathVariable Long patientId) {
+    public ResponseEntity<?> getCompletePatientData(@PathVariable Long patientId,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            Cache cache = cacheManager.getCache("PATIENT:COMPLETE_DATA");
-            String key = "complete_" + patientId;
-
-            Map<String, Object> completeData = null;
-            if (cache != null) {
-                try {
-                    Cache.ValueWrapper wrapper = cache.get(key);
-                    if (wrapper != null) {
-                        completeData = (Map<String, Object>) wrapper.get();
-                    }
-                } catch (Exception e) {
-                    log.warn("Redis unavailable during patient data cache read for {}: {}", patientId, e.getMessage());
-                }
+            Optional<PatientChartDto> chart = patientChartService.getChart(patientId);
+            if (chart.isEmpty()) {
+                return ResponseEntity.notFound().build();
             }
 
-            if (completeData == null) {
-                log.info("Cache miss for complete patient data for id: {}. Fetching from database...", patientId);
-                Optional<PatientDto> patientDtoOpt = patientService.getPatientDtoById(patientId);
-                if (patientDtoOpt.isEmpty()) {
-                    return ResponseEntity.notFound().build();
-                }
-
-                completeData = new HashMap<>();
-
-                // Patient basic information
-                completeData.put("patient", patientDtoOpt.get());
-
-                // Medical history
-                List<MedicalHistoryDto> medicalHistory = patientService.getPatientMedicalHistoryDto(patientId);
-                completeData.put("medicalHistory", medicalHistory);
-
-                // Documents (filtered to LAB_REPORT)
-                List<DocumentDto> documents = documentService.getDocumentsDtoByPatientId(patientId).stream()
-                        .filter(doc -> "LAB_REPORT".equals(doc.getDocumentType()))
-                        .collect(Collectors.toList());
-                completeData.put("documents", documents);
-
-                if (cache != null) {
-                    try {
-                        cache.put(key, completeData);
-                        log.info("Saved complete patient data for id: {} to Redis cache.", patientId);
-                    } catch (Exception e) {
-                        log.warn("Redis unavailable during patient data cache write for {}: {}", patientId,
-                                e.getMessage());
-                    }
-                }
-            } else {
-                log.info("Cache hit for complete patient data for id: {} in Redis.", patientId);
+            // The chart version changes on every write, so revalidation is a version comparison
+            String eTag = PatientChartService.eTagOf(chart.get());
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
             }
-
-            return ResponseEntity.ok(completeData);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(chart.get());
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
@@ -2,7 +2,11 @@ package com.vikrant.careSync.controller;
 
 import com.vikrant.careSync.dto.PaymentRequestDto;
 import com.vikrant.careSync.dto.PaymentResponseDto;
+import com.vikrant.careSync.exception.PaymentGatewayUnavailableException;
+import com.vikrant.careSync.service.IdempotencyService;
+import com.vikrant.careSync.service.PaymentLedgerService;
 import com.vikrant.careSync.service.PaymentService;
+import com.vikrant.careSync.service.PaymentWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,11 +19,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -31,32 +38,43 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentWebhookService paymentWebhookService;
+    private final PaymentLedgerService paymentLedgerService;
 
     @Operation(summary = "Pay for existing booking", description = "Process payment for a doctor-created booking")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Payment processed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid payment request or booking not eligible"),
             @ApiResponse(responseCode = "404", description = "Booking not found"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Payment gateway busy, retry with the same Idempotency-Key")
     })
     @PostMapping("/booking/{bookingId}/pay")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<PaymentResponseDto> payForBooking(
+    public ResponseEntity<?> payForBooking(
             @Parameter(description = "Booking ID") @PathVariable Long bookingId,
+            @Parameter(description = "Client-generated key that makes retries safe")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequestDto request) {
 
         log.info("Payment request for booking ID: {}, patient ID: {}", bookingId, request.getPatientId());
 
-        try {
-            PaymentResponseDto response = paymentService.payForBooking(bookingId, request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            log.error("Payment failed for booking ID: {}", bookingId, e);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            log.error("Unexpected error during payment for booking ID: {}", bookingId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return idempotencyService.execute("payment:booking:" + bookingId, idempotencyKey, request, () -> {
+            try {
+                PaymentResponseDto response = paymentService.payForBooking(bookingId, request);
+                return ResponseEntity.ok(response);
+            } catch (PaymentGatewayUnavailableException e) {
+                log.warn("Payment gateway unavailable for booking ID: {}: {}", bookingId, e.getMessage());
+                return gatewayUnavailable();
+            } catch (RuntimeException e) {
+                log.error("Payment failed for booking ID: {}", bookingId, e);
+                return ResponseEntity.badRequest().build();
+            } catch (Exception e) {
+                log.error("Unexpected error during payment for booking ID: {}", bookingId, e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        });
     }
 
     @Operation(summary = "Initiate a new payment", description = "Creates a new payment transaction and returns payment details")
@@ -64,24 +82,32 @@ public class PaymentController {
             @ApiResponse(responseCode = "200", description = "Payment initiated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid payment request"),
             @ApiResponse(responseCode = "404", description = "Patient or booking not found"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Payment gateway busy, retry with the same Idempotency-Key")
     })
     @PostMapping("/initiate")
     @PreAuthorize("hasRole('PATIENT') or hasRole('ADMIN') or hasRole('DOCTOR')")
-    public ResponseEntity<PaymentResponseDto> initiatePayment(
+    public ResponseEntity<?> initiatePayment(
+            @Parameter(description = "Client-generated key that makes retries safe")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequestDto request) {
 
         log.info("Payment initiation request received for patient ID: {}, amount: {}",
                 request.getPatientId(), request.getAmount());
 
-        try {
-            PaymentResponseDto response = paymentService.initiatePayment(request);
-            return ResponseEntity.ok(response);
-
-        } catch (RuntimeException e) {
-            log.error("Payment initiation failed", e);
-            return ResponseEntity.badRequest().build();
-        }
+        return idempotencyService.execute("payment:initiate", idempotencyKey, request, () -> {
+            try {
+                PaymentResponseDto response = paymentService.initiatePayment(request);
+                return ResponseEntity.ok(response);
+
+            } catch (PaymentGatewayUnavailableException e) {
+                log.warn("Payment gateway unavailable: {}", e.getMessage());
+                return gatewayUnavailable();
+            } catch (RuntimeException e) {
+                log.error("Payment initiation failed", e);
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     @Operation(summary = "Get payment by transaction ID", description = "Retrieves payment details by transaction ID")
@@ -192,37 +218,27 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
-    @Operation(summary = "Payment webhook callback", description = "Handles payment gateway webhook callbacks")
+    @Operation(summary = "Payment webhook callback", description = "Verifies and queues payment gateway webhook callbacks")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Webhook processed successfully"),
+            @ApiResponse(responseCode = "200", description = "Webhook accepted"),
             @ApiResponse(responseCode = "400", description = "Invalid webhook data"),
             @ApiResponse(responseCode = "401", description = "Invalid signature")
     })
     @PostMapping("/webhook/razorpay")
     public ResponseEntity<Map<String, String>> handleRazorpayWebhook(
-            @RequestBody Map<String, Object> payload,
-            @RequestHeader("X-Razorpay-Signature") String signature) {
-
-        log.info("Razorpay webhook received");
-
-        try {
-            // Extract payment details from webhook payload
-            Map<String, Object> paymentEntity = (Map<String, Object>) payload.get("payload");
-            Map<String, Object> payment = (Map<String, Object>) paymentEntity.get("payment");
-            Map<String, Object> entity = (Map<String, Object>) payment.get("entity");
-
-            String razorpayPaymentId = (String) entity.get("id");
-            String razorpayOrderId = (String) entity.get("order_id");
-
-            // Process the callback
-            paymentService.handlePaymentCallback(razorpayPaymentId, razorpayOrderId, signature);
-
-            return ResponseEntity.ok(Map.of("status", "success"));
-
-        } catch (Exception e) {
-            log.error("Webhook processing failed", e);
-            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
-        }
+            @RequestBody String rawPayload,
+            @RequestHeader("X-Razorpay-Signature") String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+
+        // The signature covers the raw body, so it is verified before any parsing;
+        // state changes are applied asynchronously from the inbox
+        return switch (paymentWebhookService.ingest(rawPayload, signature, eventId)) {
+            case ACCEPTED -> ResponseEntity.ok(Map.of("status", "accepted"));
+            case INVALID_SIGNATURE -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("status", "error", "message", "Invalid webhook signature"));
+            case MALFORMED -> ResponseEntity.badRequest()
+                    .body(Map.of("status", "error", "message", "Malformed webhook payload"));
+        };
     }
 
     @Operation(summary = "Verify payment status", description = "Manually verify payment status with gateway")
@@ -283,18 +299,16 @@ public class PaymentController {
     })
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getPaymentStatistics() {
+    public ResponseEntity<Map<String, Object>> getPaymentStatistics(
+            @Parameter(description = "First day (inclusive), defaults to all time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day (inclusive), defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
         try {
-            // This would typically involve aggregating payment data
-            // Implementation depends on specific requirements
-
-            Map<String, Object> stats = Map.of(
-                    "totalPayments", 0,
-                    "successfulPayments", 0,
-                    "failedPayments", 0,
-                    "totalRevenue", 0.0,
-                    "averageTransactionAmount", 0.0);
+            Map<String, Object> stats = paymentLedgerService.getPaymentStatistics(
+                    startDate != null ? startDate : LocalDate.EPOCH,
+                    endDate != null ? endDate : LocalDate.now());
 
             return ResponseEntity.ok(stats);
 
@@ -310,4 +324,11 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Internal server error", "message", e.getMessage()));
     }
-}
\ No newline at end of file
+
+    // A 5xx is not stored by IdempotencyService, so a retry with the same key runs the payment again
+    private static ResponseEntity<?> gatewayUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, PaymentGatewayUnavailableException.RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
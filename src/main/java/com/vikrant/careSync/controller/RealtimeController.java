@@ -0,0 +1,35 @@
+package com.vikrant.careSync.controller;
+
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.realtime.RealtimeEventHub;
+import com.vikrant.careSync.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/realtime")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class RealtimeController {
+
+    private final RealtimeEventHub realtimeEventHub;
+    private final UserRepository userRepository;
+
+    // Server-sent events for the current user: notifications, unread-count deltas and
+    // appointment status changes. Replaces polling the feed and unread-count endpoints.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return realtimeEventHub.subscribe(user.getId(), lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
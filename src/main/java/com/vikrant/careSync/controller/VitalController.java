@@ -1,16 +1,23 @@
 package com.vikrant.careSync.controller;
 
+import com.vikrant.careSync.dto.VitalBatchRequest;
 import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.dto.VitalSeriesDto;
+import com.vikrant.careSync.entity.VitalMetric;
 import com.vikrant.careSync.service.VitalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/vitals")
@@ -35,4 +42,25 @@ public class VitalController {
     public ResponseEntity<List<VitalDto>> getPatientVitals(@PathVariable Long patientId) {
         return ResponseEntity.ok(vitalService.getPatientVitals(patientId));
     }
+
+    @Operation(summary = "Log vitals in bulk", description = "Stores a batch of device readings in the vitals time series")
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Map<String, Object>> logVitals(@Valid @RequestBody VitalBatchRequest request) {
+        int stored = vitalService.logVitals(request);
+        return ResponseEntity.ok(Map.of("readings", request.getReadings().size(), "values", stored));
+    }
+
+    @Operation(summary = "Get vitals series", description = "Returns one metric over a time range, downsampled to at most the requested number of points")
+    @GetMapping("/patient/{patientId}/series")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<VitalSeriesDto> getVitalSeries(@PathVariable Long patientId,
+            @RequestParam VitalMetric metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int points) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(vitalService.getVitalSeries(patientId, metric, start, end, points));
+    }
 }
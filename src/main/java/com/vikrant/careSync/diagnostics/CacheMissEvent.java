@@ -0,0 +1,29 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A miss on one of the caches listed in {@code app.diagnostics.jfr.hot-caches}.
+ * The stack trace shows which caller has to load the value.
+ */
+@Name("com.vikrant.careSync.CacheMiss")
+@Label("Hot Cache Miss")
+@Category({ "CareSync", "Cache" })
+@Description("Redis cache lookup that found no entry")
+public final class CacheMissEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    static void record(String cache) {
+        CacheMissEvent event = new CacheMissEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.commit();
+        }
+    }
+}
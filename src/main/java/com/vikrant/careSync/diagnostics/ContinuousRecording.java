@@ -0,0 +1,107 @@
+package com.vikrant.careSync.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Flight recording that runs for the life of the application as a ring
+ * buffer: the JDK's {@code default} settings (about 1% overhead) plus the
+ * CareSync events at the configured thresholds, keeping the last
+ * {@code max-age-minutes} or {@code max-size-mb}, whichever is smaller.
+ * A latency spike can be dumped after the fact through
+ * {@link FlightRecordingEndpoint} without restarting or attaching anything.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.diagnostics.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class ContinuousRecording {
+
+    static final String NAME = "caresync-continuous";
+
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration slowRequestThreshold;
+    private final Duration slowQueryThreshold;
+    private final Duration lockWaitThreshold;
+
+    private Recording recording;
+
+    public ContinuousRecording(@Value("${app.diagnostics.jfr.settings:default}") String settings,
+            @Value("${app.diagnostics.jfr.max-age-minutes:30}") long maxAgeMinutes,
+            @Value("${app.diagnostics.jfr.max-size-mb:100}") long maxSizeMb,
+            @Value("${app.diagnostics.jfr.slow-request-ms:500}") long slowRequestMs,
+            @Value("${app.diagnostics.jfr.slow-query-ms:100}") long slowQueryMs,
+            @Value("${app.diagnostics.jfr.lock-wait-ms:20}") long lockWaitMs) {
+        this.settings = settings;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.slowRequestThreshold = Duration.ofMillis(slowRequestMs);
+        this.slowQueryThreshold = Duration.ofMillis(slowQueryMs);
+        this.lockWaitThreshold = Duration.ofMillis(lockWaitMs);
+    }
+
+    @PostConstruct
+    public synchronized void start() throws IOException, ParseException {
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("[ServiceStatus] - Flight Recorder : UNAVAILABLE (JFR not supported by this JVM)");
+            return;
+        }
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable(SlowRequestEvent.class).withThreshold(slowRequestThreshold);
+        recording.enable(SlowQueryEvent.class).withThreshold(slowQueryThreshold);
+        recording.enable(LockWaitEvent.class).withThreshold(lockWaitThreshold).withStackTrace();
+        recording.enable(CacheMissEvent.class).withStackTrace();
+        recording.enable(ExecutorRejectionEvent.class).withStackTrace();
+        recording.start();
+        log.info("[ServiceStatus] - Flight Recorder : RECORDING (last {} min / {} MB)", maxAge.toMinutes(),
+                maxSizeBytes / (1024 * 1024));
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Writes what the ring buffer currently holds to a new temporary
+     * {@code .jfr} file; the caller owns the file. The recording keeps running.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Flight recording is not running");
+        }
+        Path file = Files.createTempFile(NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A task turned away by one of the application's executors. Recorded on
+ * every rejection; the stack trace shows the submitter.
+ */
+@Name("com.vikrant.careSync.ExecutorRejection")
+@Label("Executor Rejection")
+@Category({ "CareSync", "Executors" })
+@Description("Task rejected by a saturated or stopped executor")
+public final class ExecutorRejectionEvent extends Event {
+
+    @Label("Executor")
+    String executor;
+
+    @Label("Reason")
+    String reason;
+
+    @Label("Active Tasks")
+    int activeCount;
+
+    @Label("Queued Tasks")
+    int queueSize;
+
+    public static void record(String executor, String reason, int activeCount, int queueSize) {
+        ExecutorRejectionEvent event = new ExecutorRejectionEvent();
+        if (event.shouldCommit()) {
+            event.executor = executor;
+            event.reason = reason;
+            event.activeCount = activeCount;
+            event.queueSize = queueSize;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.vikrant.careSync.diagnostics;
+
+import com.vikrant.careSync.service.AuditService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code GET /actuator/flightrecording} streams a dump of the
+ * {@link ContinuousRecording} as a {@code .jfr} file for JDK Mission Control
+ * or {@code jfr print}. Like every other actuator endpoint it requires the
+ * ADMIN role (SecurityConfig), and each dump is written to the audit trail
+ * since SQL text and request paths are in it.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.diagnostics.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecordingEndpoint {
+
+    private final ContinuousRecording continuousRecording;
+    private final AuditService auditService;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(SecurityContext securityContext) throws IOException {
+        if (!continuousRecording.isRecording()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Path file = continuousRecording.dump();
+        String username = securityContext.getPrincipal() != null ? securityContext.getPrincipal().getName() : "SYSTEM";
+        auditService.log(username, "DUMP_FLIGHT_RECORDING", "FlightRecording", ContinuousRecording.NAME,
+                "Bytes: " + Files.size(file), clientIp());
+        // The temporary file goes away once the response has been streamed
+        return new WebEndpointResponse<>(new InputStreamResource(
+                Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE), file.getFileName().toString()));
+    }
+
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return "0.0.0.0";
+    }
+}
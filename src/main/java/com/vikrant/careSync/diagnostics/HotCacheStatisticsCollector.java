@@ -0,0 +1,65 @@
+package com.vikrant.careSync.diagnostics;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+
+import java.util.Set;
+
+/**
+ * Redis cache statistics that also emit a {@link CacheMissEvent} on misses in
+ * the hot caches. Counting is left to the delegate, which backs the
+ * {@code cache.gets} metric.
+ */
+public class HotCacheStatisticsCollector implements CacheStatisticsCollector {
+
+    private final CacheStatisticsCollector delegate;
+    private final Set<String> hotCaches;
+
+    public HotCacheStatisticsCollector(CacheStatisticsCollector delegate, Set<String> hotCaches) {
+        this.delegate = delegate;
+        this.hotCaches = Set.copyOf(hotCaches);
+    }
+
+    @Override
+    public void incMisses(String cacheName) {
+        delegate.incMisses(cacheName);
+        if (hotCaches.contains(cacheName)) {
+            CacheMissEvent.record(cacheName);
+        }
+    }
+
+    @Override
+    public void incPuts(String cacheName) {
+        delegate.incPuts(cacheName);
+    }
+
+    @Override
+    public void incGets(String cacheName) {
+        delegate.incGets(cacheName);
+    }
+
+    @Override
+    public void incHits(String cacheName) {
+        delegate.incHits(cacheName);
+    }
+
+    @Override
+    public void incDeletesBy(String cacheName, int value) {
+        delegate.incDeletesBy(cacheName, value);
+    }
+
+    @Override
+    public void incLockTime(String cacheName, long durationNS) {
+        delegate.incLockTime(cacheName, durationNS);
+    }
+
+    @Override
+    public void reset(String cacheName) {
+        delegate.reset(cacheName);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+}
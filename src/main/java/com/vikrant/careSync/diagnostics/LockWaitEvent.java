@@ -0,0 +1,42 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Time spent getting a lock longer than {@code app.diagnostics.jfr.lock-wait-ms}:
+ * {@code SELECT ... FOR UPDATE} row locks, the payment gateway permit and
+ * idempotency key locks.
+ */
+@Name("com.vikrant.careSync.LockWait")
+@Label("Lock Wait")
+@Category({ "CareSync", "Locks" })
+@Description("Wait for a row lock or an application lock")
+public final class LockWaitEvent extends Event {
+
+    @Label("Lock")
+    String lock;
+
+    @Label("Acquired")
+    @Description("False when the wait timed out or failed")
+    boolean acquired;
+
+    /** Starts timing a wait; call {@link #finish(boolean)} once the lock is held or given up on. */
+    public static LockWaitEvent start(String lock) {
+        LockWaitEvent event = new LockWaitEvent();
+        event.lock = lock;
+        event.begin();
+        return event;
+    }
+
+    public void finish(boolean acquired) {
+        end();
+        if (shouldCommit()) {
+            this.acquired = acquired;
+            commit();
+        }
+    }
+}
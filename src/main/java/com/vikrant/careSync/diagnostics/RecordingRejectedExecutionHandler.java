@@ -0,0 +1,30 @@
+package com.vikrant.careSync.diagnostics;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Emits an {@link ExecutorRejectionEvent} before handing the task to the
+ * executor's usual policy, so rejections keep failing the same way.
+ */
+public class RecordingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final String executorName;
+    private final RejectedExecutionHandler delegate;
+
+    public RecordingRejectedExecutionHandler(String executorName) {
+        this(executorName, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public RecordingRejectedExecutionHandler(String executorName, RejectedExecutionHandler delegate) {
+        this.executorName = executorName;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        ExecutorRejectionEvent.record(executorName, executor.isShutdown() ? "shutdown" : "saturated",
+                executor.getActiveCount(), executor.getQueue().size());
+        delegate.rejectedExecution(task, executor);
+    }
+}
@@ -0,0 +1,31 @@
+package com.vikrant.careSync.diagnostics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the repository's {@code *ForUpdate} queries, which take
+ * {@code PESSIMISTIC_WRITE} row locks on appointments, doctors, bookings and
+ * payments, as {@link LockWaitEvent}s. The duration includes running the
+ * query, which is small next to a contended lock.
+ */
+@Aspect
+@Component
+public class RowLockWaitAspect {
+
+    @Around("execution(* com.vikrant.careSync.repository..*ForUpdate(..))")
+    public Object recordLockWait(ProceedingJoinPoint joinPoint) throws Throwable {
+        LockWaitEvent event = LockWaitEvent.start(
+                joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        boolean acquired = false;
+        try {
+            Object result = joinPoint.proceed();
+            acquired = true;
+            return result;
+        } finally {
+            event.finish(acquired);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDBC statement slower than {@code app.diagnostics.jfr.slow-query-ms}.
+ * Only the SQL text is recorded, never parameter values.
+ */
+@Name("com.vikrant.careSync.SlowQuery")
+@Label("Slow SQL Statement")
+@Category({ "CareSync", "JDBC" })
+@Description("JDBC statement over the slow-query threshold")
+@StackTrace(false)
+public final class SlowQueryEvent extends Event {
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Batch Size")
+    @Description("Statements in the batch, 0 when not batched")
+    int batchSize;
+
+    @Label("Success")
+    boolean success;
+}
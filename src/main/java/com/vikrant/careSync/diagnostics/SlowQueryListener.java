@@ -0,0 +1,47 @@
+package com.vikrant.careSync.diagnostics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Emits a {@link SlowQueryEvent} for statements over the recording's
+ * threshold. Registered on the proxied Hikari pools by datasource-micrometer,
+ * the same proxies that produce the JDBC spans.
+ */
+@Component
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final String EVENT = SlowQueryEvent.class.getName();
+    private static final int MAX_SQL_LENGTH = 4000;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SlowQueryEvent event = new SlowQueryEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            execInfo.addCustomValue(EVENT, event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SlowQueryEvent event = execInfo.getCustomValue(EVENT, SlowQueryEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            event.dataSource = execInfo.getDataSourceName();
+            event.sql = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+            event.batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 0;
+            event.success = execInfo.isSuccess();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An HTTP request slower than {@code app.diagnostics.jfr.slow-request-ms},
+ * from the first filter to the response being committed.
+ */
+@Name("com.vikrant.careSync.SlowRequest")
+@Label("Slow HTTP Request")
+@Category({ "CareSync", "HTTP" })
+@Description("HTTP request over the slow-request threshold")
+@StackTrace(false)
+public final class SlowRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    @Description("Route template, or the request path when no handler matched")
+    String uri;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,17 @@
+package com.vikrant.careSync.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkBookingRequest {
+
+    @NotEmpty(message = "At least one booking is required")
+    @Valid
+    private List<BookingRequest> bookings; // Each entry must carry its patientId
+}
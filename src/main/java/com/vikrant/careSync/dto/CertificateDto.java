@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Certificate;
+import com.vikrant.careSync.repository.projection.CertificateRow;
 import lombok.*;
 
 @Getter
@@ -20,4 +21,11 @@ public class CertificateDto {
         this.url = certificate.getUrl();
         this.details = certificate.getDetails();
     }
+
+    public CertificateDto(CertificateRow row) {
+        this.id = row.id();
+        this.name = row.name();
+        this.url = row.url();
+        this.details = row.details();
+    }
 }
@@ -0,0 +1,17 @@
+package com.vikrant.careSync.dto;
+
+import com.vikrant.careSync.entity.ChatMessage;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatHistoryPageDto {
+    private List<ChatMessage> messages; // oldest first within the page
+    private String nextCursor; // cursor for the next older page, null when there is none
+    private boolean hasMore;
+}
@@ -2,6 +2,8 @@ package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Appointment;
 import com.vikrant.careSync.entity.MedicalHistory;
+import com.vikrant.careSync.repository.projection.DoctorAppointmentRow;
+import com.vikrant.careSync.repository.projection.MedicalHistoryRow;
 import lombok.*;
 
 import java.time.format.DateTimeFormatter;
@@ -75,6 +77,38 @@ public class DoctorAppointmentResponse {
         }
     }
 
+    public DoctorAppointmentResponse(DoctorAppointmentRow row, List<PatientMedicalHistoryDto> medicalHistory) {
+        this.appointmentId = row.appointmentId();
+        this.patientId = row.patientId();
+        this.patientName = row.patientFirstName() + " " + row.patientLastName();
+        this.patientEmail = row.patientEmail();
+        this.patientContactInfo = row.patientContactInfo();
+        this.patientIllnessDetails = row.patientIllnessDetails();
+        this.patientProfileImageUrl = row.patientProfileImageUrl();
+        if (row.appointmentDateTime() != null) {
+            this.appointmentDate = row.appointmentDateTime().toLocalDate().toString();
+            this.appointmentTime = row.appointmentDateTime().toLocalTime()
+                    .format(DateTimeFormatter.ofPattern("HH:mm"));
+        }
+        this.status = row.status() != null ? row.status().name() : null;
+        this.reason = row.reason();
+
+        // Format audit fields
+        if (row.createdAt() != null) {
+            this.createdAt = row.createdAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        }
+        if (row.updatedAt() != null) {
+            this.updatedAt = row.updatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        }
+        if (row.statusChangedAt() != null) {
+            this.statusChangedAt = row.statusChangedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        }
+        this.statusChangedBy = row.statusChangedBy();
+        this.videoRoomId = row.videoRoomId();
+        this.isActive = row.isActive();
+        this.medicalHistory = medicalHistory;
+    }
+
     @Getter
     @Setter
     @NoArgsConstructor
@@ -103,5 +137,18 @@ public class DoctorAppointmentResponse {
             this.notes = medicalHistory.getNotes();
             this.appointmentId = medicalHistory.getAppointmentId();
         }
+
+        public PatientMedicalHistoryDto(MedicalHistoryRow row) {
+            this.id = row.id();
+            this.doctorId = row.doctorId();
+            this.visitDate = row.visitDate().toString();
+            this.symptoms = row.symptoms();
+            this.diagnosis = row.diagnosis();
+            this.treatment = row.treatment();
+            this.medicine = row.medicine();
+            this.doses = row.doses();
+            this.notes = row.notes();
+            this.appointmentId = row.appointmentId();
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.repository.projection.DoctorListRow;
 import lombok.*;
 
 import java.util.List;
@@ -52,10 +53,7 @@ public class DoctorDto {
         this.gender = doctor.getGender();
         this.consultationFees = doctor.getConsultationFees();
         this.address = doctor.getAddress();
-        this.languages = doctor.getLanguages() != null
-                ? java.util.Arrays.stream(doctor.getLanguages().split(",")).map(String::trim).filter(s -> !s.isEmpty())
-                        .collect(java.util.stream.Collectors.toList())
-                : null;
+        this.languages = splitLanguages(doctor.getLanguages());
 
         if (doctor.getExperiences() != null) {
             this.experiences = doctor.getExperiences().stream()
@@ -75,4 +73,35 @@ public class DoctorDto {
                     .collect(Collectors.toList());
         }
     }
+
+    public DoctorDto(DoctorListRow row, List<ExperienceDto> experiences, List<EducationDto> educations,
+            List<CertificateDto> certificates) {
+        this.id = row.id();
+        this.username = row.username();
+        this.email = row.email();
+        this.role = row.role() != null ? row.role().name() : null;
+        this.firstName = row.firstName();
+        this.lastName = row.lastName();
+        this.name = row.firstName() + " " + row.lastName();
+        this.specialization = row.specialization();
+        this.profileImageUrl = row.profileImageUrl();
+        this.contactInfo = row.contactInfo();
+        this.isActive = row.isActive();
+        this.isVerified = row.isVerified() != null && row.isVerified();
+        this.gender = row.gender();
+        this.consultationFees = row.consultationFees();
+        this.address = row.address();
+        this.languages = splitLanguages(row.languages());
+        this.experiences = experiences;
+        this.educations = educations;
+        this.certificates = certificates;
+    }
+
+    // Stored as a comma separated column
+    private static List<String> splitLanguages(String languages) {
+        return languages != null
+                ? java.util.Arrays.stream(languages.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                        .collect(Collectors.toList())
+                : null;
+    }
 }
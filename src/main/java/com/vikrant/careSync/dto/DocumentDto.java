@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Document;
+import com.vikrant.careSync.repository.projection.DocumentListRow;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -50,4 +51,19 @@ public class DocumentDto {
                 .documentType(document.getDocumentType() != null ? document.getDocumentType().name() : null)
                 .build();
     }
+
+    public static DocumentDto fromRow(DocumentListRow row) {
+        return DocumentDto.builder()
+                .id(row.id())
+                .filename(row.originalFilename())
+                .url(row.filePath())
+                .downloadUrl(row.filePath())
+                .fileUrl(row.filePath())
+                .size(row.fileSize())
+                .uploadDate(row.uploadDate())
+                .description(row.description())
+                .contentType(row.contentType())
+                .documentType(row.documentType() != null ? row.documentType().name() : null)
+                .build();
+    }
 }
@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Education;
+import com.vikrant.careSync.repository.projection.EducationRow;
 import lombok.*;
 
 @Getter
@@ -22,4 +23,12 @@ public class EducationDto {
         this.yearOfCompletion = education.getYearOfCompletion();
         this.details = education.getDetails();
     }
+
+    public EducationDto(EducationRow row) {
+        this.id = row.id();
+        this.degree = row.degree();
+        this.institution = row.institution();
+        this.yearOfCompletion = row.yearOfCompletion();
+        this.details = row.details();
+    }
 }
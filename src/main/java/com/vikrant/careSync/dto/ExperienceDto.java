@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Experience;
+import com.vikrant.careSync.repository.projection.ExperienceRow;
 import lombok.*;
 
 @Getter
@@ -22,4 +23,12 @@ public class ExperienceDto {
         this.yearsOfService = experience.getYearsOfService();
         this.details = experience.getDetails();
     }
+
+    public ExperienceDto(ExperienceRow row) {
+        this.id = row.id();
+        this.hospitalName = row.hospitalName();
+        this.position = row.position();
+        this.yearsOfService = row.yearsOfService();
+        this.details = row.details();
+    }
 }
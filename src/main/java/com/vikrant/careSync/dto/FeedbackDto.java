@@ -1,6 +1,7 @@
 package com.vikrant.careSync.dto;
 
 import com.vikrant.careSync.entity.Feedback;
+import com.vikrant.careSync.repository.projection.FeedbackListRow;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -40,4 +41,19 @@ public class FeedbackDto {
         this.anonymous = feedback.getAnonymous();
         this.createdAt = feedback.getCreatedAt();
     }
+
+    public FeedbackDto(FeedbackListRow row) {
+        this.id = row.id();
+        this.appointmentId = row.appointmentId();
+        if (row.patientId() != null) {
+            this.patientId = row.patientId();
+            this.patientName = row.patientFirstName() + " " + row.patientLastName();
+        }
+        this.doctorId = row.doctorId();
+        this.doctorName = row.doctorFirstName() + " " + row.doctorLastName();
+        this.rating = row.rating();
+        this.comment = row.comment();
+        this.anonymous = row.anonymous();
+        this.createdAt = row.createdAt();
+    }
 }
@@ -0,0 +1,18 @@
+package com.vikrant.careSync.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationFeedPageDto {
+    private List<NotificationDto> content;
+    private int size;
+    private String nextCursor; // opaque (timestamp, id) keyset cursor, null on the last page
+    private boolean hasNext;
+    private long unreadCount;
+}
@@ -0,0 +1,28 @@
+package com.vikrant.careSync.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized patient chart: profile, medical history and lab reports,
+ * maintained incrementally from {@code PatientChartEvent}s.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientChartDto {
+    private Long patientId;
+    private long version;
+    private long builtAt; // epoch millis of the full build this version descends from
+    private LocalDateTime updatedAt;
+    private PatientDto patient;
+    @Builder.Default
+    private List<MedicalHistoryDto> medicalHistory = new ArrayList<>();
+    @Builder.Default
+    private List<DocumentDto> documents = new ArrayList<>(); // LAB_REPORT only, newest first
+}
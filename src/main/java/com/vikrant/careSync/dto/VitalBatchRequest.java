@@ -0,0 +1,19 @@
+package com.vikrant.careSync.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class VitalBatchRequest {
+
+    @NotNull(message = "Patient ID is required")
+    private Long patientId;
+
+    @NotEmpty(message = "At least one reading is required")
+    private List<VitalDto> readings; // patientId on the readings is ignored
+}
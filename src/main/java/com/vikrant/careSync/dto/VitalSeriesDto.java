@@ -0,0 +1,30 @@
+package com.vikrant.careSync.dto;
+
+import com.vikrant.careSync.entity.VitalMetric;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A downsampled vitals series in columnar form: {@code values[i]} was
+ * recorded at {@code timestamps[i]}, and {@code min[i]}/{@code max[i]} bound
+ * the readings that point stands for. For HOUR and DAY resolution each value
+ * is the average of its bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalSeriesDto {
+    private Long patientId;
+    private VitalMetric metric;
+    private String resolution;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long sourcePoints;
+    private List<LocalDateTime> timestamps;
+    private double[] values;
+    private double[] min;
+    private double[] max;
+}
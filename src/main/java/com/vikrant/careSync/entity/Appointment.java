@@ -11,13 +11,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = { "doctor", "patient", "feedback" })
-@EqualsAndHashCode(exclude = { "doctor", "patient", "feedback" })
+@ToString(exclude = { "doctor", "patient" })
+@EqualsAndHashCode(exclude = { "doctor", "patient" })
 @Entity
 @Table(name = "appointments")
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -56,10 +57,6 @@ public class Appointment {
     @Builder.Default
     private String videoRoomId = java.util.UUID.randomUUID().toString();
 
-    @OneToOne(mappedBy = "appointment", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JsonIgnore
-    private Feedback feedback;
-
     @Column(name = "is_active", nullable = false, columnDefinition = "boolean default true")
     @Builder.Default
     private Boolean isActive = true;
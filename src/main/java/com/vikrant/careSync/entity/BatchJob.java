@@ -0,0 +1,48 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per chunked batch job: which run is current and whether it is still
+ * in progress. Nodes start a run only by moving this row from IDLE to RUNNING
+ * under its row lock; a RUNNING run is joined and resumed, never restarted.
+ */
+@Entity
+@Table(name = "batch_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJob {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // Reference time the run's selection criteria are evaluated against; kept so a resumed run selects the same rows
+    @Column(name = "as_of")
+    private LocalDateTime asOf;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_run_processed")
+    private Long lastRunProcessed;
+
+    public enum Status {
+        IDLE, RUNNING
+    }
+}
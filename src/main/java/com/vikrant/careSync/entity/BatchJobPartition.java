@@ -0,0 +1,77 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one id range of a batch job run. {@code lastProcessedId} is
+ * committed together with each chunk's changes, so a partition picks up after
+ * its last committed chunk when it is resumed.
+ */
+@Entity
+@Table(name = "batch_job_partitions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_batch_job_partitions_run", columnNames = { "job_name", "run_id", "partition_index" }))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "partition_index", nullable = false)
+    private Integer partitionIndex;
+
+    @Column(name = "lower_bound", nullable = false)
+    private Long lowerBound;
+
+    @Column(name = "upper_bound", nullable = false)
+    private Long upperBound;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId;
+
+    @Column(name = "processed_count", nullable = false)
+    @Builder.Default
+    private Long processedCount = 0L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Guards chunk commits against a node that lost the partition to a takeover
+    @Version
+    private Long version;
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Table(name = "chat_messages")
 public class ChatMessage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,6 +34,9 @@ public class ChatMessage {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        // Keep the send time stamped by the chat engine; persistence happens later (write-behind)
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
@@ -1,12 +1,15 @@
 package com.vikrant.careSync.entity;
 
+import com.vikrant.careSync.security.EncryptionConverter;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "communications")
+@Table(name = "communications", indexes = {
+        @Index(name = "idx_communications_status_next_attempt", columnList = "status, next_attempt_at")
+})
 @Getter
 @Setter
 @Builder
@@ -27,20 +30,45 @@ public class Communication {
     @Column(nullable = false, length = 300)
     private String subject;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String body;
+    // Rendered at delivery time from the template and its model, so the rendered HTML is never stored
+    @Column(name = "template_id", length = 200)
+    private String templateId;
+
+    @Convert(converter = EncryptionConverter.class)
+    @Column(name = "template_model", columnDefinition = "TEXT")
+    private String templateModel; // JSON object of template variables
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private Status status;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Next delivery attempt while PENDING, lease expiry while SENDING
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set on each claim; status updates must present it, so a worker whose lease expired cannot overwrite the row
+    @Column(name = "lease_token", length = 36)
+    private String leaseToken;
+
+    @Column(length = 20)
+    private String provider; // SENDGRID or SMTP, once sent
+
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
     public enum Status {
+        PENDING,
+        SENDING,
         SENT,
         FAILED
     }
@@ -0,0 +1,94 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One side of a double-entry posting for a payment. Rows are append-only: a
+ * posting is a debit and a credit of the same amount sharing a journal id, and
+ * corrections are new postings rather than updates.
+ */
+@Entity
+@Immutable
+@Table(name = "payment_ledger_entries", indexes = {
+        @Index(name = "idx_payment_ledger_entries_payment", columnList = "payment_id"),
+        @Index(name = "idx_payment_ledger_entries_journal", columnList = "journal_id")
+})
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_ledger_entries_seq")
+    @SequenceGenerator(name = "payment_ledger_entries_seq", sequenceName = "payment_ledger_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false, updatable = false, length = 36)
+    private String journalId;
+
+    @Column(name = "payment_id", nullable = false, updatable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 30)
+    private Account account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 10)
+    private Direction direction;
+
+    @Column(nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", updatable = false, length = 20)
+    private Payment.PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", updatable = false, length = 20)
+    private Payment.PaymentType paymentType;
+
+    @Column(name = "patient_id", updatable = false)
+    private Long patientId;
+
+    // Attribution as of the posting, so later profile edits do not rewrite history
+    @Column(name = "doctor_id", updatable = false)
+    private Long doctorId;
+
+    @Column(updatable = false, length = 100)
+    private String specialization;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", updatable = false, length = 20)
+    private Payment.PaymentStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, updatable = false, length = 20)
+    private Payment.PaymentStatus toStatus;
+
+    @Column(name = "entry_date", nullable = false, updatable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Account {
+        GATEWAY_CLEARING, // money collected by the gateway on our behalf
+        SERVICE_REVENUE,
+        REFUNDS // contra-revenue
+    }
+
+    public enum Direction {
+        DEBIT, CREDIT
+    }
+}
@@ -0,0 +1,63 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running payment totals per day, dimension value and payment type, kept in
+ * step with {@link LedgerEntry} postings so reports never scan payments.
+ * Written only through {@code LedgerTotalsWriter}.
+ */
+@Entity
+@Table(name = "payment_ledger_totals", uniqueConstraints = @UniqueConstraint(
+        name = "uk_payment_ledger_totals_key",
+        columnNames = { "period_date", "dimension", "dimension_key", "payment_type" }), indexes = {
+        @Index(name = "idx_payment_ledger_totals_dimension", columnList = "dimension, dimension_key, period_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_date", nullable = false)
+    private LocalDate periodDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+
+    // Method name, patient id, doctor id or specialization; empty for ALL
+    @Column(name = "dimension_key", nullable = false, length = 100)
+    private String dimensionKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", nullable = false, length = 20)
+    private Payment.PaymentType paymentType;
+
+    @Column(name = "captured_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal capturedAmount;
+
+    @Column(name = "captured_count", nullable = false)
+    private Long capturedCount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "refund_count", nullable = false)
+    private Long refundCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private Long failedCount;
+
+    public enum Dimension {
+        ALL, METHOD, PATIENT, DOCTOR, SPECIALIZATION
+    }
+}
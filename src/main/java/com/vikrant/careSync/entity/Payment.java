@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Payment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "transaction_id", unique = true, nullable = false)
@@ -103,6 +104,16 @@ public class Payment {
     @Column(name = "payment_completed_at")
     private LocalDateTime paymentCompletedAt;
     
+    // Last status reflected in the payment ledger; null until first posted (see PaymentLedgerService)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ledger_status", length = 20)
+    private PaymentStatus ledgerStatus;
+    
+    // Optimistic lock for status transitions (see PaymentStateMachine)
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
     // Enums
     public enum PaymentMethod {
         UPI, CARD, QR_CODE, NET_BANKING, WALLET
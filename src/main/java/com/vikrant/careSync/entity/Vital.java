@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Vital {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vitals_seq")
+    @SequenceGenerator(name = "vitals_seq", sequenceName = "vitals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
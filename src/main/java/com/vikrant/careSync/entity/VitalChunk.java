@@ -0,0 +1,57 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One patient's readings of one metric on one day, stored as two packed
+ * primitive arrays (seconds of day and values, in time order) instead of a
+ * row per reading. Encoded and decoded by {@code VitalChunkCodec}.
+ */
+@Entity
+@Table(name = "vital_chunks", uniqueConstraints = @UniqueConstraint(
+        name = "uk_vital_chunks_key", columnNames = { "patient_id", "metric", "day" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalChunk {
+
+    // One reading per second for a whole day, as float64 values
+    public static final int MAX_BYTES = 86_400 * Double.BYTES;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vital_chunks_seq")
+    @SequenceGenerator(name = "vital_chunks_seq", sequenceName = "vital_chunks_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private VitalMetric metric;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    // int32 seconds of day, big-endian
+    @Column(name = "time_offsets", nullable = false, length = VitalChunk.MAX_BYTES)
+    private byte[] timeOffsets;
+
+    // float64 values, big-endian, parallel to timeOffsets
+    @Column(name = "point_values", nullable = false, length = VitalChunk.MAX_BYTES)
+    private byte[] pointValues;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+}
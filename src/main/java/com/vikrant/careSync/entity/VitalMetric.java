@@ -0,0 +1,12 @@
+package com.vikrant.careSync.entity;
+
+/** The readings a {@link Vital} can carry, as stored in the vitals time-series tables. */
+public enum VitalMetric {
+    SYSTOLIC_BP,
+    DIASTOLIC_BP,
+    SUGAR_LEVEL,
+    WEIGHT,
+    TEMPERATURE,
+    HEART_RATE,
+    RESPIRATORY_RATE
+}
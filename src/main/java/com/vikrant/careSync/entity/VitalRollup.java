@@ -0,0 +1,55 @@
+package com.vikrant.careSync.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly or daily count/sum/min/max of one patient's metric, updated as
+ * readings are ingested so long-range charts never decode raw chunks.
+ */
+@Entity
+@Table(name = "vital_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_vital_rollups_key", columnNames = { "patient_id", "metric", "resolution", "bucket_start" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vital_rollups_seq")
+    @SequenceGenerator(name = "vital_rollups_seq", sequenceName = "vital_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private VitalMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Resolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "point_count", nullable = false)
+    private Long pointCount;
+
+    @Column(name = "value_sum", nullable = false)
+    private Double valueSum;
+
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+
+    public enum Resolution {
+        HOUR, DAY
+    }
+}
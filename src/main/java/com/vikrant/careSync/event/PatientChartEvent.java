@@ -0,0 +1,32 @@
+package com.vikrant.careSync.event;
+
+/**
+ * Domain event emitted by patient, medical-history and document writes. The
+ * patient chart view applies it after the writing transaction commits.
+ */
+public record PatientChartEvent(Long patientId, Section section, Long entityId, boolean removed) {
+
+    public enum Section {
+        PROFILE, MEDICAL_HISTORY, DOCUMENT
+    }
+
+    public static PatientChartEvent profileChanged(Long patientId) {
+        return new PatientChartEvent(patientId, Section.PROFILE, patientId, false);
+    }
+
+    public static PatientChartEvent medicalHistoryChanged(Long patientId, Long historyId) {
+        return new PatientChartEvent(patientId, Section.MEDICAL_HISTORY, historyId, false);
+    }
+
+    public static PatientChartEvent medicalHistoryRemoved(Long patientId, Long historyId) {
+        return new PatientChartEvent(patientId, Section.MEDICAL_HISTORY, historyId, true);
+    }
+
+    public static PatientChartEvent documentChanged(Long patientId, Long documentId) {
+        return new PatientChartEvent(patientId, Section.DOCUMENT, documentId, false);
+    }
+
+    public static PatientChartEvent documentRemoved(Long patientId, Long documentId) {
+        return new PatientChartEvent(patientId, Section.DOCUMENT, documentId, true);
+    }
+}
@@ -1,5 +1,6 @@
 package com.vikrant.careSync.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -46,4 +47,19 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+
+    /**
+     * Handles a payment gateway that turned the call away before making it.
+     * Returns a 503 with Retry-After; nothing was charged, so the request can be retried.
+     */
+    @ExceptionHandler(PaymentGatewayUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handlePaymentGatewayUnavailable(PaymentGatewayUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Payment gateway unavailable");
+        error.put("message", ex.getMessage());
+        error.put("code", "PAYMENT_GATEWAY_UNAVAILABLE");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, PaymentGatewayUnavailableException.RETRY_AFTER_SECONDS)
+                .body(error);
+    }
 }
@@ -0,0 +1,21 @@
+package com.vikrant.careSync.exception;
+
+/**
+ * The payment gateway turned the call away before it was made (queue full,
+ * no permit, executor shut down, interrupted wait). Nothing was charged, so
+ * the same request can simply be retried; endpoints answer 503 and
+ * idempotency records are not kept for it.
+ */
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    /** Sent as Retry-After with the 503. */
+    public static final String RETRY_AFTER_SECONDS = "5";
+
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
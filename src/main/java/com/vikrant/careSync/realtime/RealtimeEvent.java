@@ -0,0 +1,20 @@
+package com.vikrant.careSync.realtime;
+
+/**
+ * One event on a user's realtime stream. {@code id} is what clients send back
+ * as {@code Last-Event-ID} when they reconnect.
+ */
+public record RealtimeEvent(String id, Long userId, String type, Object payload, long timestamp) {
+
+    public static final String NOTIFICATION = "notification";
+    public static final String UNREAD_COUNT = "unread-count";
+    public static final String APPOINTMENT_STATUS = "appointment-status";
+    // Sent when the requested Last-Event-ID is no longer buffered: the client should refetch its feed
+    public static final String RESYNC = "resync";
+
+    public record UnreadCountDelta(String recipientType, long delta, boolean reset) {
+    }
+
+    public record AppointmentStatusChange(Long appointmentId, String status, String changedBy) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.vikrant.careSync.realtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.websocket.BrokerBackplane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user realtime stream. Each published event gets an id, is appended to a
+ * bounded per-user replay buffer and is pushed to the user's SSE connections and
+ * to the STOMP destination {@code /user/queue/events}. Reconnecting clients send
+ * {@code Last-Event-ID} and receive what they missed from the buffer. With the
+ * Redis broker mode events are fanned out to every node, so each node can serve
+ * the user's SSE streams and replay.
+ */
+@Component
+@Slf4j
+public class RealtimeEventHub {
+
+    public static final String EVENTS_CHANNEL = "caresync:realtime:events";
+    public static final String USER_EVENTS_DESTINATION = "/queue/events";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectProvider<BrokerBackplane> backplane;
+    private final ObjectMapper objectMapper;
+    private final int replayCapacity;
+    private final long emitterTimeoutMs;
+    private final int maxStreamsPerUser;
+    private final long retentionMs;
+
+    private final String nodePrefix = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+
+    public RealtimeEventHub(SimpMessagingTemplate messagingTemplate,
+            ObjectProvider<BrokerBackplane> backplane,
+            ObjectMapper objectMapper,
+            @Value("${app.realtime.replay-capacity:100}") int replayCapacity,
+            @Value("${app.realtime.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.realtime.max-streams-per-user:5}") int maxStreamsPerUser,
+            @Value("${app.realtime.retention-ms:900000}") long retentionMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.backplane = backplane;
+        this.objectMapper = objectMapper;
+        this.replayCapacity = replayCapacity;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.retentionMs = retentionMs;
+
+        backplane.ifAvailable(b -> b.subscribe(EVENTS_CHANNEL, this::onRelayedEvent));
+    }
+
+    public void publish(Long userId, String type, Object payload) {
+        if (userId == null) {
+            return;
+        }
+        RealtimeEvent event = new RealtimeEvent(nodePrefix + "-" + sequence.incrementAndGet(), userId, type, payload,
+                System.currentTimeMillis());
+        deliverLocally(event);
+
+        // STOMP sessions are keyed by user id (see StompAuthChannelInterceptor); the broker relay
+        // forwards user destinations across nodes, so this is only sent from the origin node
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), USER_EVENTS_DESTINATION, event);
+        } catch (Exception e) {
+            log.warn("Failed to push realtime event {} over STOMP: {}", event.id(), e.getMessage());
+        }
+
+        backplane.ifAvailable(b -> {
+            try {
+                b.publish(EVENTS_CHANNEL, objectMapper.writeValueAsString(event));
+            } catch (Exception e) {
+                log.warn("Failed to relay realtime event {}: {}", event.id(), e.getMessage());
+            }
+        });
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        UserStream stream = streams.computeIfAbsent(userId, id -> new UserStream());
+        if (stream.emitters.size() >= maxStreamsPerUser) {
+            // Oldest connection is most likely a tab that was closed without a clean disconnect
+            stream.emitters.remove(0).complete();
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> stream.emitters.remove(emitter));
+        emitter.onTimeout(() -> stream.emitters.remove(emitter));
+        emitter.onError(e -> stream.emitters.remove(emitter));
+
+        // Replay under the stream lock so no event is both replayed and live-delivered, or lost in between
+        synchronized (stream) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<RealtimeEvent> missed = stream.eventsAfter(lastEventId);
+                if (missed == null) {
+                    send(emitter, new RealtimeEvent(lastEventId, userId, RealtimeEvent.RESYNC, null,
+                            System.currentTimeMillis()));
+                } else {
+                    missed.forEach(event -> send(emitter, event));
+                }
+            }
+            stream.emitters.add(emitter);
+            stream.lastActivity = System.currentTimeMillis();
+        }
+        return emitter;
+    }
+
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        long expiredBefore = System.currentTimeMillis() - retentionMs;
+        streams.forEach((userId, stream) -> {
+            for (SseEmitter emitter : stream.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    stream.emitters.remove(emitter);
+                }
+            }
+        });
+        streams.entrySet().removeIf(entry -> entry.getValue().emitters.isEmpty()
+                && entry.getValue().lastActivity < expiredBefore);
+    }
+
+    public int getConnectedStreamCount() {
+        return streams.values().stream().mapToInt(stream -> stream.emitters.size()).sum();
+    }
+
+    private void onRelayedEvent(String body) {
+        try {
+            RealtimeEvent event = objectMapper.readValue(body, RealtimeEvent.class);
+            if (!event.id().startsWith(nodePrefix + "-")) {
+                deliverLocally(event);
+            }
+        } catch (Exception e) {
+            log.warn("Dropping malformed relayed realtime event: {}", e.getMessage());
+        }
+    }
+
+    private void deliverLocally(RealtimeEvent event) {
+        UserStream stream = streams.computeIfAbsent(event.userId(), id -> new UserStream());
+        synchronized (stream) {
+            stream.append(event, replayCapacity);
+            for (SseEmitter emitter : stream.emitters) {
+                if (!send(emitter, event)) {
+                    stream.emitters.remove(emitter);
+                }
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, RealtimeEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(event.id())
+                    .name(event.type())
+                    .data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class UserStream {
+        private final Deque<RealtimeEvent> replay = new ArrayDeque<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        void append(RealtimeEvent event, int capacity) {
+            if (replay.size() >= capacity) {
+                replay.pollFirst();
+            }
+            replay.addLast(event);
+            lastActivity = event.timestamp();
+        }
+
+        // Events after the given id, or null when the id has already been evicted
+        List<RealtimeEvent> eventsAfter(String lastEventId) {
+            List<RealtimeEvent> missed = new ArrayList<>();
+            boolean found = false;
+            for (RealtimeEvent event : replay) {
+                if (found) {
+                    missed.add(event);
+                } else if (event.id().equals(lastEventId)) {
+                    found = true;
+                }
+            }
+            return found ? missed : null;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Appointment;
+import com.vikrant.careSync.repository.projection.DoctorAppointmentRow;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +39,11 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         List<Appointment> findByPatientIdAndStatus(@Param("patientId") Long patientId,
                         @Param("status") Appointment.Status status);
 
+        @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor WHERE a.patient.id = :patientId AND a.status = :status "
+                        + "AND NOT EXISTS (SELECT f.id FROM Feedback f WHERE f.appointment = a)")
+        List<Appointment> findWithoutFeedbackByPatientIdAndStatus(@Param("patientId") Long patientId,
+                        @Param("status") Appointment.Status status);
+
         @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentDateTime BETWEEN :startDate AND :endDate")
         List<Appointment> findByPatientIdAndAppointmentDateTimeBetween(
                         @Param("patientId") Long patientId,
@@ -59,6 +69,10 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         List<Appointment> findUpcomingAppointmentsByPatientWithDetails(@Param("patientId") Long patientId,
                         @Param("now") LocalDateTime now);
 
+        @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d WHERE a.appointmentDateTime >= :from AND a.appointmentDateTime < :to AND a.status = :status")
+        List<Appointment> findByStatusBetweenWithDetails(@Param("status") Appointment.Status status,
+                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
         @Override
         Optional<Appointment> findById(Long id);
 
@@ -66,6 +80,10 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.id = :id")
         Optional<Appointment> findByIdForUpdate(@Param("id") Long id);
 
+        // Notifications are built after commit on another thread, where lazy associations cannot load
+        @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.id = :id")
+        Optional<Appointment> findWithParticipantsById(@Param("id") Long id);
+
         @Query("""
                         SELECT COUNT(a)
                         FROM Appointment a
@@ -88,7 +106,28 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         @Override
         void deleteById(Long id);
 
+        // Expired BOOKED appointments (AppointmentDeactivationTask), selected by id range and deactivated by chunk
+        @Query("SELECT MIN(a.id) AS minId, MAX(a.id) AS maxId FROM Appointment a WHERE a.isActive = true AND a.appointmentDateTime < :threshold AND a.status = 'BOOKED'")
+        IdBounds findExpiredAppointmentIdBounds(@Param("threshold") LocalDateTime threshold);
+
+        @Query("SELECT a.id FROM Appointment a WHERE a.isActive = true AND a.appointmentDateTime < :threshold AND a.status = 'BOOKED' AND a.id > :afterId AND a.id <= :upperBound ORDER BY a.id")
+        List<Long> findExpiredAppointmentIds(@Param("threshold") LocalDateTime threshold, @Param("afterId") long afterId,
+                        @Param("upperBound") long upperBound, Pageable pageable);
+
         @Modifying
-        @Query("UPDATE Appointment a SET a.isActive = false WHERE a.isActive = true AND a.appointmentDateTime < :threshold AND a.status = 'BOOKED'")
-        int deactivateExpiredAppointments(@Param("threshold") LocalDateTime threshold);
+        @Query("UPDATE Appointment a SET a.isActive = false WHERE a.id IN :ids AND a.isActive = true AND a.status = 'BOOKED'")
+        int deactivateAppointments(@Param("ids") List<Long> ids);
+
+        // Doctors currently involved in a patient's care, for clinical alerts
+        @Query("SELECT DISTINCT a.doctor.id FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentDateTime >= :since")
+        List<Long> findDoctorIdsByPatientIdSince(@Param("patientId") Long patientId,
+                        @Param("since") LocalDateTime since);
+
+        // Patient list read model for a doctor; medical histories come from MedicalHistoryRepository.findRowsByPatientIds
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+        @Query("SELECT new com.vikrant.careSync.repository.projection.DoctorAppointmentRow(a.id, p.id, p.firstName, "
+                        + "p.lastName, u.email, p.contactInfo, p.illnessDetails, p.profileImageUrl, a.appointmentDateTime, "
+                        + "a.status, a.reason, a.createdAt, a.updatedAt, a.statusChangedAt, a.statusChangedBy, a.videoRoomId, "
+                        + "a.isActive) FROM Appointment a JOIN a.patient p LEFT JOIN p.user u WHERE a.doctor.id = :doctorId")
+        List<DoctorAppointmentRow> findRowsByDoctorId(@Param("doctorId") Long doctorId);
 }
@@ -0,0 +1,51 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.BatchJobPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BatchJobPartitionRepository extends JpaRepository<BatchJobPartition, Long> {
+
+    List<BatchJobPartition> findByJobNameAndRunIdAndStatusNotOrderByPartitionIndex(String jobName, Long runId,
+            BatchJobPartition.Status status);
+
+    long countByJobNameAndRunIdAndStatusNot(String jobName, Long runId, BatchJobPartition.Status status);
+
+    // Partitions still to be worked: not completed, and not failed (or abandoned by a dead owner) on their last attempt
+    @Query("""
+            SELECT COUNT(p) FROM BatchJobPartition p
+            WHERE p.jobName = :jobName AND p.runId = :runId AND p.status <> 'COMPLETED'
+              AND NOT (p.attempts >= :maxAttempts
+                       AND (p.status = 'FAILED' OR (p.status = 'RUNNING' AND p.heartbeatAt < :staleBefore)))
+            """)
+    long countOpen(@Param("jobName") String jobName, @Param("runId") Long runId,
+            @Param("maxAttempts") int maxAttempts, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Query("SELECT COALESCE(SUM(p.processedCount), 0) FROM BatchJobPartition p WHERE p.jobName = :jobName AND p.runId = :runId")
+    long sumProcessed(@Param("jobName") String jobName, @Param("runId") Long runId);
+
+    // Takes a partition that is unclaimed, failed, or whose owner stopped sending heartbeats,
+    // unless it has used up its attempts
+    @Modifying
+    @Query("""
+            UPDATE BatchJobPartition p
+            SET p.status = 'RUNNING', p.owner = :owner, p.heartbeatAt = :now, p.attempts = p.attempts + 1,
+                p.version = p.version + 1
+            WHERE p.id = :id
+              AND (p.status IN ('PENDING', 'FAILED') OR (p.status = 'RUNNING' AND p.heartbeatAt < :staleBefore))
+              AND p.attempts < :maxAttempts
+            """)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM BatchJobPartition p WHERE p.status = 'COMPLETED' AND p.finishedAt < :before")
+    int deleteCompletedBefore(@Param("before") LocalDateTime before);
+}
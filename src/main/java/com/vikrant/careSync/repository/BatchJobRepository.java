@@ -0,0 +1,19 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.BatchJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM BatchJob j WHERE j.jobName = :jobName")
+    Optional<BatchJob> findByIdForUpdate(@Param("jobName") String jobName);
+}
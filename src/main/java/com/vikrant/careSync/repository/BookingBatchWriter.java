@@ -0,0 +1,108 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC insert path for new bookings. All bookings of a request go out as
+ * one batch and all their test rows as a second one, instead of an entity save,
+ * a flush and one insert per join row. Each test row is inserted only if the
+ * test is still active, so a catalog that lags behind another node's write
+ * cannot book a deactivated test.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchWriter {
+
+    private static final String INSERT_BOOKING = """
+            INSERT INTO bookings (patient_id, doctor_id, total_price, prescribed_by, booking_date, status, notes,
+                                  created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_BOOKING_TEST = """
+            INSERT INTO booking_lab_tests (booking_id, lab_test_id)
+            SELECT ?, lt.id FROM lab_tests lt WHERE lt.id = ? AND lt.is_active = true
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewBooking(Long patientId, Long doctorId, List<Long> testIds, BigDecimal totalPrice,
+            String prescribedBy, LocalDateTime bookingDate, Booking.BookingStatus status, String notes) {
+    }
+
+    /**
+     * Inserts the bookings and their tests in one transaction.
+     *
+     * @return generated booking ids, in the order of {@code bookings}
+     */
+    @Transactional
+    public List<Long> insertAll(List<NewBooking> bookings, LocalDateTime now) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, new String[] { "id" })) {
+                for (NewBooking booking : bookings) {
+                    statement.setLong(1, booking.patientId());
+                    if (booking.doctorId() != null) {
+                        statement.setLong(2, booking.doctorId());
+                    } else {
+                        statement.setNull(2, Types.BIGINT);
+                    }
+                    statement.setBigDecimal(3, booking.totalPrice());
+                    statement.setString(4, booking.prescribedBy());
+                    statement.setObject(5, booking.bookingDate());
+                    statement.setString(6, booking.status().name());
+                    statement.setString(7, booking.notes());
+                    statement.setObject(8, now);
+                    statement.setObject(9, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> generated = new ArrayList<>(bookings.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generated.add(keys.getLong(1));
+                    }
+                }
+                return generated;
+            }
+        });
+        if (ids == null || ids.size() != bookings.size()) {
+            throw new IllegalStateException("Expected " + bookings.size() + " generated booking ids, got "
+                    + (ids == null ? 0 : ids.size()));
+        }
+
+        List<long[]> testRows = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            for (Long testId : bookings.get(i).testIds()) {
+                testRows.add(new long[] { ids.get(i), testId });
+            }
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_BOOKING_TEST, testRows, testRows.size(),
+                (statement, row) -> {
+                    statement.setLong(1, row[0]);
+                    statement.setLong(2, row[1]);
+                });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is reported by drivers that rewrite batches; only 0 means skipped
+                if (count == 0) {
+                    throw new RuntimeException("One or more selected tests are not available");
+                }
+            }
+        }
+        return ids;
+    }
+}
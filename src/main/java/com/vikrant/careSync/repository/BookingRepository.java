@@ -5,11 +5,14 @@ import com.vikrant.careSync.entity.Patient;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +40,27 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT b FROM Booking b JOIN FETCH b.patient WHERE b.id = :bookingId")
     Optional<Booking> findByIdForUpdate(@Param("bookingId") Long bookingId);
+
+    // Cancels a PENDING booking that no payment can complete any more. A payment still in
+    // flight keeps it PENDING; the stale payment reaper cancels it once that payment times out.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.vikrant.careSync.entity.Booking.BookingStatus.CANCELLED, "
+            + "b.updatedAt = :now WHERE b.id = :bookingId "
+            + "AND b.status = com.vikrant.careSync.entity.Booking.BookingStatus.PENDING "
+            + "AND NOT EXISTS (SELECT p.id FROM Payment p WHERE p.bookingId = b.id "
+            + "AND p.paymentStatus IN ('PENDING', 'PROCESSING', 'SUCCESS'))")
+    int cancelIfUnpaid(@Param("bookingId") Long bookingId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.id AS bookingId, d.id AS doctorId, d.specialization AS specialization "
+            + "FROM Booking b JOIN b.doctor d WHERE b.id IN :bookingIds")
+    List<BookingDoctor> findDoctorsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    interface BookingDoctor {
+        Long getBookingId();
+
+        Long getDoctorId();
+
+        String getSpecialization();
+    }
 }
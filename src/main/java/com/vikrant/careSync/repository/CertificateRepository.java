@@ -1,9 +1,13 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Certificate;
+import com.vikrant.careSync.repository.projection.CertificateRow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
@@ -21,4 +25,9 @@ public interface CertificateRepository extends JpaRepository<Certificate, Long>
     
     @Override
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.CertificateRow(c.doctor.id, c.id, c.name, c.url, "
+            + "c.details) FROM Certificate c ORDER BY c.id")
+    List<CertificateRow> findAllRows();
+}
@@ -1,9 +1,16 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +18,38 @@ public interface ChatRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findByAppointmentIdOrderByTimestampAsc(Long appointmentId);
 
     void deleteByAppointmentId(Long appointmentId);
+
+    // Keyset pagination on (timestamp, id), newest first
+    @Query("""
+            SELECT c FROM ChatMessage c
+            WHERE c.appointmentId = :appointmentId
+            ORDER BY c.timestamp DESC, c.id DESC
+            """)
+    List<ChatMessage> findLatestPage(@Param("appointmentId") Long appointmentId, Pageable pageable);
+
+    @Query("""
+            SELECT c FROM ChatMessage c
+            WHERE c.appointmentId = :appointmentId
+              AND (c.timestamp < :cursorTimestamp
+                   OR (c.timestamp = :cursorTimestamp AND c.id < :cursorId))
+            ORDER BY c.timestamp DESC, c.id DESC
+            """)
+    List<ChatMessage> findPageBeforeCursor(@Param("appointmentId") Long appointmentId,
+            @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChatMessage c WHERE c.appointmentId IN :appointmentIds")
+    int deleteByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // Safety net for deletions requested before a restart
+    @Transactional
+    @Modifying
+    @Query("""
+            DELETE FROM ChatMessage c
+            WHERE c.appointmentId IN (SELECT a.id FROM Appointment a WHERE a.status = 'COMPLETED')
+            """)
+    int deleteForCompletedAppointments();
 }
@@ -1,7 +1,72 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Communication;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CommunicationRepository extends JpaRepository<Communication, Long> {
-}
\ No newline at end of file
+
+    // Due outbox rows: pending ones whose retry time has come, and sending ones whose lease expired
+    // (the node delivering them died). Rows claimed by another node are skipped (lock timeout -2 = SKIP LOCKED).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT c FROM Communication c
+            WHERE c.status IN (com.vikrant.careSync.entity.Communication.Status.PENDING,
+                               com.vikrant.careSync.entity.Communication.Status.SENDING)
+              AND c.nextAttemptAt <= :now
+            ORDER BY c.id
+            """)
+    List<Communication> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Status updates only apply while the caller still holds the lease it claimed the row with;
+    // 0 rows means the lease expired and another worker re-claimed the row.
+    @Modifying
+    @Query("""
+            UPDATE Communication c
+            SET c.status = com.vikrant.careSync.entity.Communication.Status.SENT,
+                c.provider = :provider, c.sentAt = :sentAt, c.errorMessage = null, c.nextAttemptAt = null,
+                c.leaseToken = null
+            WHERE c.id = :id
+              AND c.status = com.vikrant.careSync.entity.Communication.Status.SENDING
+              AND c.leaseToken = :leaseToken
+            """)
+    int markSent(@Param("id") Long id, @Param("leaseToken") String leaseToken, @Param("provider") String provider,
+            @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("""
+            UPDATE Communication c
+            SET c.status = com.vikrant.careSync.entity.Communication.Status.PENDING,
+                c.attempts = :attempts, c.nextAttemptAt = :nextAttemptAt, c.errorMessage = :error,
+                c.leaseToken = null
+            WHERE c.id = :id
+              AND c.status = com.vikrant.careSync.entity.Communication.Status.SENDING
+              AND c.leaseToken = :leaseToken
+            """)
+    int markRetry(@Param("id") Long id, @Param("leaseToken") String leaseToken, @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("""
+            UPDATE Communication c
+            SET c.status = com.vikrant.careSync.entity.Communication.Status.FAILED,
+                c.attempts = :attempts, c.nextAttemptAt = null, c.errorMessage = :error,
+                c.leaseToken = null
+            WHERE c.id = :id
+              AND c.status = com.vikrant.careSync.entity.Communication.Status.SENDING
+              AND c.leaseToken = :leaseToken
+            """)
+    int markFailed(@Param("id") Long id, @Param("leaseToken") String leaseToken, @Param("attempts") int attempts,
+            @Param("error") String error);
+}
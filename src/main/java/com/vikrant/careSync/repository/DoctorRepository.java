@@ -1,13 +1,18 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.repository.projection.DoctorListRow;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
@@ -15,6 +20,10 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     @Query("SELECT d FROM Doctor d WHERE LOWER(d.user.username) = LOWER(:username)")
     Optional<Doctor> findByUsername(@Param("username") String username);
 
+    // Exact match for an authenticated principal's name, so the unique index on users.username applies
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user u WHERE u.username = :username")
+    Optional<Doctor> findByExactUsername(@Param("username") String username);
+
     @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Doctor d WHERE LOWER(d.user.username) = LOWER(:username)")
     boolean existsByUsername(@Param("username") String username);
 
@@ -36,4 +45,11 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     @Override
     void deleteById(Long id);
+
+    // Doctor directory without loading entities; profile collections come from the *Row queries
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.DoctorListRow(d.id, u.username, u.email, d.role, "
+            + "d.firstName, d.lastName, d.specialization, d.profileImageUrl, d.contactInfo, d.isActive, d.gender, "
+            + "d.consultationFees, d.address, d.languages, d.isVerified) FROM Doctor d LEFT JOIN d.user u ORDER BY d.id")
+    List<DoctorListRow> findAllListRows();
 }
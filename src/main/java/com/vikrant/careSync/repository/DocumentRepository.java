@@ -1,9 +1,13 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Document;
+import com.vikrant.careSync.repository.projection.DocumentListRow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -71,4 +75,10 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     // Find large files (for cleanup/optimization)
     @Query("SELECT d FROM Document d WHERE d.fileSize > :sizeThreshold AND d.isActive = true ORDER BY d.fileSize DESC")
     List<Document> findLargeFiles(@Param("sizeThreshold") Long sizeThreshold);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.DocumentListRow(d.id, d.originalFilename, d.filePath, "
+            + "d.fileSize, d.uploadDate, d.description, d.contentType, d.documentType) FROM Document d "
+            + "WHERE d.patient.id = :patientId AND d.isActive = true ORDER BY d.uploadDate DESC")
+    List<DocumentListRow> findRowsByPatientId(@Param("patientId") Long patientId);
+}
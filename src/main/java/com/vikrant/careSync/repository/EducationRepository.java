@@ -1,9 +1,13 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Education;
+import com.vikrant.careSync.repository.projection.EducationRow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
@@ -21,4 +25,9 @@ public interface EducationRepository extends JpaRepository<Education, Long> {
     
     @Override
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.EducationRow(e.doctor.id, e.id, e.degree, "
+            + "e.institution, e.yearOfCompletion, e.details) FROM Education e ORDER BY e.id")
+    List<EducationRow> findAllRows();
+}
@@ -1,9 +1,14 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Feedback;
+import com.vikrant.careSync.repository.projection.FeedbackListRow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +21,13 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     
     @Query("SELECT f FROM Feedback f WHERE f.appointment.id = :appointmentId")
     Optional<Feedback> findByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Feedback f WHERE f.appointment.id = :appointmentId")
+    boolean existsByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @Modifying
+    @Query("DELETE FROM Feedback f WHERE f.appointment.id = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Long appointmentId);
     
 
     @Query("SELECT f FROM Feedback f WHERE f.doctor.id = :doctorId ORDER BY f.createdAt DESC")
@@ -31,6 +43,25 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
     @Query("SELECT COUNT(f) FROM Feedback f WHERE f.doctor.id = :doctorId")
     long countByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT AVG(f.rating) FROM Feedback f WHERE f.doctor.id = :doctorId")
+    Double findAverageRatingByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT AVG(f.rating) FROM Feedback f")
+    Double findAverageRating();
+
+    // One row per doctor with feedback, so listings don't query each doctor's ratings
+    @Query("SELECT f.doctor.id AS doctorId, AVG(f.rating) AS averageRating, COUNT(f) AS reviewCount "
+            + "FROM Feedback f GROUP BY f.doctor.id")
+    List<DoctorRatingSummary> summarizeRatingsByDoctor();
+
+    interface DoctorRatingSummary {
+        Long getDoctorId();
+
+        Double getAverageRating();
+
+        Long getReviewCount();
+    }
     
     @Query("SELECT COUNT(f) FROM Feedback f WHERE f.doctor.id = :doctorId AND f.rating = :rating")
     long countByDoctorIdAndRating(@Param("doctorId") Long doctorId, @Param("rating") int rating);
@@ -44,4 +75,10 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     
     @Override
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.FeedbackListRow(f.id, f.appointment.id, p.id, "
+            + "p.firstName, p.lastName, d.id, d.firstName, d.lastName, f.rating, f.comment, f.anonymous, f.createdAt) "
+            + "FROM Feedback f JOIN f.doctor d LEFT JOIN f.patient p WHERE d.id = :doctorId")
+    List<FeedbackListRow> findRowsByDoctorId(@Param("doctorId") Long doctorId);
+}
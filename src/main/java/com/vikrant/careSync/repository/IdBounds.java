@@ -0,0 +1,11 @@
+package com.vikrant.careSync.repository;
+
+/**
+ * {@code MIN(id) AS minId, MAX(id) AS maxId} projection; both null when no row matches.
+ */
+public interface IdBounds {
+
+    Long getMinId();
+
+    Long getMaxId();
+}
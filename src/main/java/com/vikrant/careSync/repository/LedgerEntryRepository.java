@@ -0,0 +1,25 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    @Query("""
+            SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e
+            WHERE e.paymentId = :paymentId AND e.account = :account AND e.direction = :direction
+            """)
+    BigDecimal sumForPayment(@Param("paymentId") Long paymentId, @Param("account") LedgerEntry.Account account,
+            @Param("direction") LedgerEntry.Direction direction);
+
+    @Query("SELECT DISTINCT e.paymentId FROM LedgerEntry e WHERE e.paymentId IN :paymentIds")
+    List<Long> findPostedPaymentIds(@Param("paymentIds") Collection<Long> paymentIds);
+}
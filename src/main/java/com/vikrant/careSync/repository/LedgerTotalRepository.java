@@ -0,0 +1,80 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.LedgerTotal;
+import com.vikrant.careSync.entity.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read side of the payment ledger aggregates. Updates go through
+ * {@link LedgerTotalsWriter}.
+ */
+@Repository
+public interface LedgerTotalRepository extends JpaRepository<LedgerTotal, Long> {
+
+    @Query("""
+            SELECT t.dimensionKey AS dimensionKey,
+                   SUM(t.capturedAmount) AS capturedAmount, SUM(t.capturedCount) AS capturedCount,
+                   SUM(t.refundedAmount) AS refundedAmount, SUM(t.refundCount) AS refundCount,
+                   SUM(t.failedCount) AS failedCount
+            FROM LedgerTotal t
+            WHERE t.dimension = :dimension AND t.periodDate BETWEEN :startDate AND :endDate
+            GROUP BY t.dimensionKey
+            """)
+    List<KeyedTotals> sumByKey(@Param("dimension") LedgerTotal.Dimension dimension,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("""
+            SELECT t.periodDate AS periodDate,
+                   SUM(t.capturedAmount) AS capturedAmount, SUM(t.capturedCount) AS capturedCount,
+                   SUM(t.refundedAmount) AS refundedAmount, SUM(t.refundCount) AS refundCount,
+                   SUM(t.failedCount) AS failedCount
+            FROM LedgerTotal t
+            WHERE t.dimension = 'ALL' AND t.periodDate BETWEEN :startDate AND :endDate
+            GROUP BY t.periodDate
+            ORDER BY t.periodDate
+            """)
+    List<DailyTotals> sumByDay(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("""
+            SELECT t.paymentType AS paymentType,
+                   SUM(t.capturedAmount) AS capturedAmount, SUM(t.capturedCount) AS capturedCount,
+                   SUM(t.refundedAmount) AS refundedAmount, SUM(t.refundCount) AS refundCount,
+                   SUM(t.failedCount) AS failedCount
+            FROM LedgerTotal t
+            WHERE t.dimension = :dimension AND t.dimensionKey = :dimensionKey
+            GROUP BY t.paymentType
+            """)
+    List<TypeTotals> sumByPaymentType(@Param("dimension") LedgerTotal.Dimension dimension,
+            @Param("dimensionKey") String dimensionKey);
+
+    interface Totals {
+        BigDecimal getCapturedAmount();
+
+        Long getCapturedCount();
+
+        BigDecimal getRefundedAmount();
+
+        Long getRefundCount();
+
+        Long getFailedCount();
+    }
+
+    interface KeyedTotals extends Totals {
+        String getDimensionKey();
+    }
+
+    interface DailyTotals extends Totals {
+        LocalDate getPeriodDate();
+    }
+
+    interface TypeTotals extends Totals {
+        Payment.PaymentType getPaymentType();
+    }
+}
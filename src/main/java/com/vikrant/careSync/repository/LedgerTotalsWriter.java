@@ -0,0 +1,122 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.LedgerTotal;
+import com.vikrant.careSync.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Adds deltas to the {@link LedgerTotal} rows in the caller's transaction.
+ * Existing rows are incremented in place by one batch of updates, so
+ * concurrent postings to the same day and key never lose an update. Rows that
+ * do not exist yet are inserted behind a savepoint: if another transaction
+ * inserted the same key first, the insert is rolled back to the savepoint and
+ * the row is incremented instead. Rows are touched in key order to keep lock
+ * order stable between transactions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerTotalsWriter {
+
+    private static final String INCREMENT = """
+            UPDATE payment_ledger_totals
+            SET captured_amount = captured_amount + ?, captured_count = captured_count + ?,
+                refunded_amount = refunded_amount + ?, refund_count = refund_count + ?,
+                failed_count = failed_count + ?
+            WHERE period_date = ? AND dimension = ? AND dimension_key = ? AND payment_type = ?
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO payment_ledger_totals (captured_amount, captured_count, refunded_amount, refund_count,
+                                               failed_count, period_date, dimension, dimension_key, payment_type)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final Comparator<Delta> KEY_ORDER = Comparator.comparing(Delta::periodDate)
+            .thenComparing(Delta::dimension)
+            .thenComparing(Delta::dimensionKey)
+            .thenComparing(Delta::paymentType);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Delta(LocalDate periodDate, LedgerTotal.Dimension dimension, String dimensionKey,
+            Payment.PaymentType paymentType, BigDecimal capturedAmount, long capturedCount,
+            BigDecimal refundedAmount, long refundCount, long failedCount) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Delta> ordered = deltas.stream().sorted(KEY_ORDER).toList();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            List<Delta> missing = new ArrayList<>();
+            try (PreparedStatement update = connection.prepareStatement(INCREMENT)) {
+                for (Delta delta : ordered) {
+                    bind(update, delta);
+                    update.addBatch();
+                }
+                int[] counts = update.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        missing.add(ordered.get(i));
+                    }
+                }
+            }
+            for (Delta delta : missing) {
+                insertOrIncrement(connection, delta);
+            }
+            return null;
+        });
+    }
+
+    private void insertOrIncrement(Connection connection, Delta delta) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            bind(insert, delta);
+            insert.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+            return;
+        } catch (SQLException e) {
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw e;
+            }
+            // Inserted by a concurrent posting since our update; it now holds the row lock until it commits
+            connection.rollback(savepoint);
+        }
+        try (PreparedStatement update = connection.prepareStatement(INCREMENT)) {
+            bind(update, delta);
+            update.executeUpdate();
+        }
+    }
+
+    // INCREMENT and INSERT take the same parameters in the same order
+    private static void bind(PreparedStatement statement, Delta delta) throws SQLException {
+        statement.setBigDecimal(1, delta.capturedAmount());
+        statement.setLong(2, delta.capturedCount());
+        statement.setBigDecimal(3, delta.refundedAmount());
+        statement.setLong(4, delta.refundCount());
+        statement.setLong(5, delta.failedCount());
+        statement.setObject(6, delta.periodDate());
+        statement.setString(7, delta.dimension().name());
+        statement.setString(8, delta.dimensionKey());
+        statement.setString(9, delta.paymentType().name());
+    }
+}
@@ -1,11 +1,16 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.MedicalHistory;
+import com.vikrant.careSync.repository.projection.MedicalHistoryRow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +35,10 @@ public interface MedicalHistoryRepository extends JpaRepository<MedicalHistory,
     @Query("SELECT mh FROM MedicalHistory mh WHERE mh.patient.id = :patientId AND mh.visitDate BETWEEN :startDate AND :endDate ORDER BY mh.visitDate DESC")
     List<MedicalHistory> findByPatientIdAndVisitDateBetween(@Param("patientId") Long patientId,
             @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.vikrant.careSync.repository.projection.MedicalHistoryRow(m.patient.id, m.id, m.doctor.id, "
+            + "m.visitDate, m.symptoms, m.diagnosis, m.treatment, m.medicine, m.doses, m.notes, m.appointmentId) "
+            + "FROM MedicalHistory m WHERE m.patient.id IN :patientIds ORDER BY m.id")
+    List<MedicalHistoryRow> findRowsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+}
@@ -1,9 +1,16 @@
 package com.vikrant.careSync.repository;
 
 import com.vikrant.careSync.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
@@ -11,5 +18,78 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByRecipientTypeAndRecipientIdAndReadIsFalse(String recipientType, Long recipientId);
 
-    // Mark read will be handled in service by loading and saving the entity
-}
\ No newline at end of file
+    // Notifications of a type already sent to these recipients, to keep a fan-out from repeating itself
+    @Query("""
+            SELECT n.recipientId AS recipientId, n.message AS message FROM Notification n
+            WHERE n.recipientType = :recipientType AND n.type = :type
+              AND n.recipientId IN :recipientIds AND n.timestamp >= :since
+            """)
+    List<SentNotification> findSent(@Param("recipientType") String recipientType, @Param("type") String type,
+            @Param("recipientIds") Collection<Long> recipientIds, @Param("since") LocalDateTime since);
+
+    interface SentNotification {
+        Long getRecipientId();
+
+        String getMessage();
+    }
+
+    // Keyset pagination on (timestamp, id): first page of a recipient's feed
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.recipientType = :recipientType
+              AND n.recipientId = :recipientId
+            ORDER BY n.timestamp DESC, n.id DESC
+            """)
+    List<Notification> findFeedFirstPage(@Param("recipientType") String recipientType,
+            @Param("recipientId") Long recipientId,
+            Pageable pageable);
+
+    // Keyset pagination on (timestamp, id): rows strictly older than the cursor
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.recipientType = :recipientType
+              AND n.recipientId = :recipientId
+              AND (n.timestamp < :cursorTimestamp
+                   OR (n.timestamp = :cursorTimestamp AND n.id < :cursorId))
+            ORDER BY n.timestamp DESC, n.id DESC
+            """)
+    List<Notification> findFeedPageAfterCursor(@Param("recipientType") String recipientType,
+            @Param("recipientId") Long recipientId,
+            @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT n.recipientType AS recipientType, n.recipientId AS recipientId FROM Notification n WHERE n.id = :id")
+    Optional<NotificationRecipient> findRecipientById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id = :id AND n.read = false")
+    int markReadById(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.read = true
+            WHERE n.recipientType = :recipientType
+              AND n.recipientId = :recipientId
+              AND n.id IN :ids
+              AND n.read = false
+            """)
+    int markReadByIds(@Param("recipientType") String recipientType,
+            @Param("recipientId") Long recipientId,
+            @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.read = true
+            WHERE n.recipientType = :recipientType
+              AND n.recipientId = :recipientId
+              AND n.read = false
+            """)
+    int markAllRead(@Param("recipientType") String recipientType, @Param("recipientId") Long recipientId);
+
+    interface NotificationRecipient {
+        String getRecipientType();
+
+        Long getRecipientId();
+    }
+}
@@ -5,6 +5,8 @@ import com.vikrant.careSync.entity.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -12,6 +14,13 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT p FROM Patient p WHERE LOWER(p.user.username) = LOWER(:username)")
     Optional<Patient> findByUsername(@Param("username") String username);
 
+    // Exact match for an authenticated principal's name, so the unique index on users.username applies
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user u WHERE u.username = :username")
+    Optional<Patient> findByExactUsername(@Param("username") String username);
+
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Patient> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Patient p WHERE LOWER(p.user.username) = LOWER(:username)")
     boolean existsByUsername(@Param("username") String username);
 
@@ -21,6 +30,10 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Patient p WHERE p.user.email = :email")
     boolean existsByEmail(@Param("email") String email);
 
+    // Serializes writers of a patient's derived data without loading (and decrypting) the row
+    @Query(value = "SELECT user_id FROM patients WHERE user_id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
     @Override
     Optional<Patient> findById(Long id);
 
@@ -3,16 +3,20 @@ package com.vikrant.careSync.repository;
 import com.vikrant.careSync.entity.Payment;
 import com.vikrant.careSync.entity.Patient;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,10 +29,28 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Find by payment gateway transaction ID
     Optional<Payment> findByPaymentGatewayTransactionId(String gatewayTransactionId);
 
+    List<Payment> findByPaymentGatewayTransactionIdIn(Collection<String> gatewayTransactionIds);
+
+    // Locked in id order so concurrent callers cannot deadlock on the same payments
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.paymentGatewayTransactionId IN :gatewayTransactionIds ORDER BY p.id")
+    List<Payment> findByPaymentGatewayTransactionIdInForUpdate(
+            @Param("gatewayTransactionIds") Collection<String> gatewayTransactionIds);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Payment p WHERE p.paymentGatewayTransactionId = :gatewayTransactionId")
     Optional<Payment> findByPaymentGatewayTransactionIdForUpdate(@Param("gatewayTransactionId") String gatewayTransactionId);
 
+    // Settled payments not yet reflected in the ledger, skipping rows another node has claimed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM Payment p WHERE p.ledgerStatus IS NULL AND p.paymentStatus IN :statuses ORDER BY p.id")
+    List<Payment> claimUnposted(@Param("statuses") Collection<Payment.PaymentStatus> statuses, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.ledgerStatus = p.paymentStatus WHERE p.id IN :paymentIds")
+    int markLedgerPosted(@Param("paymentIds") Collection<Long> paymentIds);
+
     // Find payments by patient
     List<Payment> findByPatientOrderByCreatedAtDesc(Patient patient);
 
@@ -80,7 +102,15 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p.paymentStatus, COUNT(p) FROM Payment p GROUP BY p.paymentStatus")
     List<Object[]> getPaymentCountByStatus();
 
-    // Find pending payments older than specified time
-    @Query("SELECT p FROM Payment p WHERE p.paymentStatus IN ('PENDING', 'PROCESSING') AND p.createdAt < :cutoffTime")
-    List<Payment> findStalePayments(@Param("cutoffTime") LocalDateTime cutoffTime);
+    // Id range of pending payments older than the cutoff (partitioning for StalePaymentReaperJob)
+    @Query("SELECT MIN(p.id) AS minId, MAX(p.id) AS maxId FROM Payment p "
+            + "WHERE p.paymentStatus IN ('PENDING', 'PROCESSING') AND p.createdAt < :cutoffTime")
+    IdBounds findStalePaymentIdBounds(@Param("cutoffTime") LocalDateTime cutoffTime);
+
+    // Next chunk of stale payments in an id range, locked against concurrent status transitions
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.paymentStatus IN ('PENDING', 'PROCESSING') AND p.createdAt < :cutoffTime "
+            + "AND p.id > :afterId AND p.id <= :upperBound ORDER BY p.id")
+    List<Payment> findStalePaymentsForUpdate(@Param("cutoffTime") LocalDateTime cutoffTime,
+            @Param("afterId") long afterId, @Param("upperBound") long upperBound, Pageable pageable);
 }
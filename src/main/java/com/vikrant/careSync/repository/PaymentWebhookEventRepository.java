@@ -0,0 +1,64 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.PaymentWebhookEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+
+    // Oldest due events, skipping rows another worker has already claimed (lock timeout -2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM PaymentWebhookEvent e
+            WHERE e.status = com.vikrant.careSync.entity.PaymentWebhookEvent.Status.PENDING
+              AND e.nextAttemptAt <= :now
+            ORDER BY e.id
+            """)
+    List<PaymentWebhookEvent> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Oldest pending event per order, used to keep each payment's events in arrival order across workers
+    @Query("""
+            SELECT e.gatewayOrderId AS gatewayOrderId, MIN(e.id) AS firstPendingId
+            FROM PaymentWebhookEvent e
+            WHERE e.status = com.vikrant.careSync.entity.PaymentWebhookEvent.Status.PENDING
+              AND e.gatewayOrderId IN :orderIds
+            GROUP BY e.gatewayOrderId
+            """)
+    List<FirstPendingEvent> findFirstPendingByOrderIds(@Param("orderIds") Collection<String> orderIds);
+
+    @Query("""
+            SELECT DISTINCT e.eventId FROM PaymentWebhookEvent e
+            WHERE e.eventId IN :eventIds
+              AND e.status IN (com.vikrant.careSync.entity.PaymentWebhookEvent.Status.APPLIED,
+                               com.vikrant.careSync.entity.PaymentWebhookEvent.Status.IGNORED)
+            """)
+    List<String> findProcessedEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Query("""
+            DELETE FROM PaymentWebhookEvent e
+            WHERE e.status <> com.vikrant.careSync.entity.PaymentWebhookEvent.Status.PENDING
+              AND e.receivedAt < :cutoff
+            """)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    interface FirstPendingEvent {
+        String getGatewayOrderId();
+
+        Long getFirstPendingId();
+    }
+}
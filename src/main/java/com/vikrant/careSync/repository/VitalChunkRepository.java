@@ -0,0 +1,47 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.VitalChunk;
+import com.vikrant.careSync.entity.VitalMetric;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VitalChunkRepository extends JpaRepository<VitalChunk, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT c FROM VitalChunk c
+            WHERE c.patientId = :patientId AND c.metric IN :metrics AND c.day IN :days
+            ORDER BY c.id
+            """)
+    List<VitalChunk> findForUpdate(@Param("patientId") Long patientId,
+            @Param("metrics") Collection<VitalMetric> metrics, @Param("days") Collection<LocalDate> days);
+
+    @Query("""
+            SELECT c.day AS day, c.pointCount AS pointCount, c.timeOffsets AS timeOffsets,
+                   c.pointValues AS pointValues
+            FROM VitalChunk c
+            WHERE c.patientId = :patientId AND c.metric = :metric AND c.day BETWEEN :fromDay AND :toDay
+            ORDER BY c.day
+            """)
+    List<ChunkData> findRange(@Param("patientId") Long patientId, @Param("metric") VitalMetric metric,
+            @Param("fromDay") LocalDate fromDay, @Param("toDay") LocalDate toDay);
+
+    interface ChunkData {
+        LocalDate getDay();
+
+        Integer getPointCount();
+
+        byte[] getTimeOffsets();
+
+        byte[] getPointValues();
+    }
+}
@@ -0,0 +1,54 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.VitalMetric;
+import com.vikrant.careSync.entity.VitalRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VitalRollupRepository extends JpaRepository<VitalRollup, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT r FROM VitalRollup r
+            WHERE r.patientId = :patientId AND r.metric IN :metrics AND r.resolution = :resolution
+              AND r.bucketStart IN :buckets
+            ORDER BY r.id
+            """)
+    List<VitalRollup> findForUpdate(@Param("patientId") Long patientId,
+            @Param("metrics") Collection<VitalMetric> metrics,
+            @Param("resolution") VitalRollup.Resolution resolution,
+            @Param("buckets") Collection<LocalDateTime> buckets);
+
+    @Query("""
+            SELECT r.bucketStart AS bucketStart, r.pointCount AS pointCount, r.valueSum AS valueSum,
+                   r.minValue AS minValue, r.maxValue AS maxValue
+            FROM VitalRollup r
+            WHERE r.patientId = :patientId AND r.metric = :metric AND r.resolution = :resolution
+              AND r.bucketStart >= :from AND r.bucketStart < :to
+            ORDER BY r.bucketStart
+            """)
+    List<RollupPoint> findRange(@Param("patientId") Long patientId, @Param("metric") VitalMetric metric,
+            @Param("resolution") VitalRollup.Resolution resolution,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface RollupPoint {
+        LocalDateTime getBucketStart();
+
+        Long getPointCount();
+
+        Double getValueSum();
+
+        Double getMinValue();
+
+        Double getMaxValue();
+    }
+}
@@ -0,0 +1,4 @@
+package com.vikrant.careSync.repository.projection;
+
+public record CertificateRow(Long doctorId, Long id, String name, String url, String details) {
+}
@@ -0,0 +1,13 @@
+package com.vikrant.careSync.repository.projection;
+
+import com.vikrant.careSync.entity.Appointment;
+
+import java.time.LocalDateTime;
+
+/** An appointment on a doctor's patient list, with the patient columns the list shows. */
+public record DoctorAppointmentRow(Long appointmentId, Long patientId, String patientFirstName,
+        String patientLastName, String patientEmail, String patientContactInfo, String patientIllnessDetails,
+        String patientProfileImageUrl, LocalDateTime appointmentDateTime, Appointment.Status status, String reason,
+        LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime statusChangedAt, String statusChangedBy,
+        String videoRoomId, Boolean isActive) {
+}
@@ -0,0 +1,16 @@
+package com.vikrant.careSync.repository.projection;
+
+import com.vikrant.careSync.entity.User;
+
+import java.math.BigDecimal;
+
+/**
+ * Doctor directory entry: the doctor's columns plus username and email from the
+ * user row. Rows are built by a JPQL constructor expression, so Hibernate never
+ * manages them: no entity instances, no dirty-checking snapshots and no lazy
+ * collections to initialise while the list is serialised.
+ */
+public record DoctorListRow(Long id, String username, String email, User.Role role, String firstName,
+        String lastName, String specialization, String profileImageUrl, String contactInfo, Boolean isActive,
+        String gender, BigDecimal consultationFees, String address, String languages, Boolean isVerified) {
+}
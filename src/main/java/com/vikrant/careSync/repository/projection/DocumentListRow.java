@@ -0,0 +1,10 @@
+package com.vikrant.careSync.repository.projection;
+
+import com.vikrant.careSync.entity.Document;
+
+import java.time.LocalDateTime;
+
+/** The document columns a patient's document list shows; file contents stay in storage. */
+public record DocumentListRow(Long id, String originalFilename, String filePath, Long fileSize,
+        LocalDateTime uploadDate, String description, String contentType, Document.DocumentType documentType) {
+}
@@ -0,0 +1,5 @@
+package com.vikrant.careSync.repository.projection;
+
+public record EducationRow(Long doctorId, Long id, String degree, String institution, int yearOfCompletion,
+        String details) {
+}
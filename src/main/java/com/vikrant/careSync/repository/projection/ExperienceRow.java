@@ -0,0 +1,5 @@
+package com.vikrant.careSync.repository.projection;
+
+public record ExperienceRow(Long doctorId, Long id, String hospitalName, String position, int yearsOfService,
+        String details) {
+}
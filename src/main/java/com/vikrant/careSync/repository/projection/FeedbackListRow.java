@@ -0,0 +1,9 @@
+package com.vikrant.careSync.repository.projection;
+
+import java.time.LocalDateTime;
+
+/** Feedback with the patient and doctor names; patient columns are null when the patient is gone. */
+public record FeedbackListRow(Long id, Long appointmentId, Long patientId, String patientFirstName,
+        String patientLastName, Long doctorId, String doctorFirstName, String doctorLastName, int rating,
+        String comment, Boolean anonymous, LocalDateTime createdAt) {
+}
@@ -0,0 +1,7 @@
+package com.vikrant.careSync.repository.projection;
+
+import java.time.LocalDate;
+
+public record MedicalHistoryRow(Long patientId, Long id, Long doctorId, LocalDate visitDate, String symptoms,
+        String diagnosis, String treatment, String medicine, String doses, String notes, Long appointmentId) {
+}
@@ -21,6 +21,8 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String REALTIME_STREAM_PATH = "/api/realtime/stream";
+
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final SecurityService securityService;
@@ -30,7 +32,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
-        final String authHeader = request.getHeader("Authorization");
+        String authHeader = request.getHeader("Authorization");
+        // Browser EventSource cannot set headers: accept the token as a query parameter on the stream only
+        if (authHeader == null && REALTIME_STREAM_PATH.equals(request.getServletPath())) {
+            String accessToken = request.getParameter("access_token");
+            if (accessToken != null && !accessToken.isBlank()) {
+                authHeader = "Bearer " + accessToken;
+            }
+        }
         final String jwt;
         final String username;
 
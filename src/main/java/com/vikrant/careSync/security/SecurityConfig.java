@@ -2,6 +2,7 @@ package com.vikrant.careSync.security;
 
 import com.vikrant.careSync.constants.AppConstants;
 import com.vikrant.careSync.security.filter.SecurityFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -40,14 +41,21 @@ public class SecurityConfig {
                                 .cors(cors -> {
                                 })
                                 .authorizeHttpRequests(auth -> auth
+                                                // SSE streams complete on an async dispatch; the
+                                                // initial request was already authorized
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 .requestMatchers("/api/auth/check-availability").permitAll()
                                                 .requestMatchers("/api/auth/**").permitAll()
                                                 .requestMatchers("/ws/**").permitAll()
                                                 .requestMatchers("/api/master/**").permitAll()
+                                                // Authenticated by the webhook HMAC signature instead of a JWT
+                                                .requestMatchers("/api/payments/webhook/**").permitAll()
 
                                                 .requestMatchers("/api/admin/**")
                                                 .hasAnyRole(AppConstants.Roles.DOCTOR, AppConstants.Roles.ADMIN)
                                                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                                                .requestMatchers("/actuator/health/**").permitAll()
+                                                .requestMatchers("/actuator/**").hasRole(AppConstants.Roles.ADMIN)
                                                 .requestMatchers("/api/doctors/public/**").permitAll()
                                                 .requestMatchers("/api/patients/public/**").permitAll()
                                                 .requestMatchers("/api/doctors/**")
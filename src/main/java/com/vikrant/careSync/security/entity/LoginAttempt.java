@@ -13,7 +13,8 @@ import java.time.Instant;
 @Entity
 public class LoginAttempt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_attempt_seq")
+    @SequenceGenerator(name = "login_attempt_seq", sequenceName = "login_attempt_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -1,5 +1,9 @@
 package com.vikrant.careSync.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.task.TaskExecutor;
@@ -7,34 +11,74 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on the notification executor once the current transaction has
+ * committed. Each task runs in an {@code aftercommit.task} observation, a span
+ * under the request that submitted it and a timer tagged by task name and
+ * outcome; {@code aftercommit.task.wait} times the wait on the executor. The
+ * subject only appears in logs. Queue depth is the executor's own
+ * {@code executor.queued} metric.
+ */
 @Component
 @Slf4j
 public class AfterCommitTaskDispatcher {
 
     private final TaskExecutor taskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
 
-    public AfterCommitTaskDispatcher(@Qualifier("appointmentNotificationExecutor") TaskExecutor taskExecutor) {
+    public AfterCommitTaskDispatcher(@Qualifier("appointmentNotificationExecutor") TaskExecutor taskExecutor,
+            MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
         this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
     }
 
     public void submitAfterCommit(String taskName, Runnable task) {
-        Runnable protectedTask = () -> {
-            try {
-                task.run();
-            } catch (Exception exception) {
-                log.error("After-commit task failed: {}", taskName, exception);
-            }
-        };
+        submitAfterCommit(taskName, null, task);
+    }
 
+    /**
+     * @param taskName kind of task, used as a metric tag; must not contain ids
+     * @param subject  what the task is about (an appointment id, a recipient), for logs
+     */
+    public void submitAfterCommit(String taskName, Object subject, Runnable task) {
         if (!TransactionSynchronizationManager.isSynchronizationActive()) {
-            taskExecutor.execute(protectedTask);
+            dispatch(taskName, subject, task);
             return;
         }
 
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCommit() {
-                taskExecutor.execute(protectedTask);
+                dispatch(taskName, subject, task);
+            }
+        });
+    }
+
+    private void dispatch(String taskName, Object subject, Runnable task) {
+        long queuedAt = System.nanoTime();
+        taskExecutor.execute(() -> {
+            Timer.builder("aftercommit.task.wait")
+                    .tag("task", taskName)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            Observation observation = Observation.createNotStarted("aftercommit.task", observationRegistry)
+                    .contextualName("aftercommit " + taskName)
+                    .lowCardinalityKeyValue("task", taskName)
+                    .start();
+            String outcome = "success";
+            try (Observation.Scope scope = observation.openScope()) {
+                task.run();
+            } catch (Exception exception) {
+                outcome = "failure";
+                observation.error(exception);
+                log.error("After-commit task failed: {}{}", taskName, subject != null ? " " + subject : "",
+                        exception);
+            } finally {
+                observation.lowCardinalityKeyValue("outcome", outcome).stop();
             }
         });
     }
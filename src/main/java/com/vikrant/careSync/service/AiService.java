@@ -12,9 +12,13 @@ import com.vikrant.careSync.repository.MedicalHistoryRepository;
 import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.repository.master.SpecializationMasterRepository;
 import com.vikrant.careSync.entity.master.SpecializationMaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -39,7 +43,7 @@ public class AiService {
     @Value("${app.ai.gemini.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent}")
     private String apiUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplateBuilder restTemplateBuilder;
     private final AppointmentRepository appointmentRepository;
     private final MedicalHistoryRepository medicalHistoryRepository;
     private final DoctorRepository doctorRepository;
@@ -49,9 +53,18 @@ public class AiService {
     private final FeedbackService feedbackService;
     private final LabTestService labTestService;
     private final SpecializationMasterRepository specializationMasterRepository;
+    private final MeterRegistry meterRegistry;
 
     private static final Long DEFAULT_ORG_ID = 91L;
 
+    private RestTemplate restTemplate;
+
+    // Built from Boot's builder so Gemini calls are http.client.requests spans and timers
+    @PostConstruct
+    void initRestTemplate() {
+        restTemplate = restTemplateBuilder.build();
+    }
+
     public AiChatResponse getResponse(AiChatRequest request) {
         if (apiKey == null || apiKey.isBlank()) {
             return AiChatResponse.builder()
@@ -525,19 +538,27 @@ public class AiService {
         GeminiRequest geminiRequest = GeminiRequest.fromText(prompt);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        String fullUrl = apiUrl + "?key=" + apiKey;
+        // Key goes in a header, not the query string, so it stays out of span and metric URIs
+        headers.set("x-goog-api-key", apiKey);
         HttpEntity<GeminiRequest> entity = new HttpEntity<>(geminiRequest, headers);
 
         int maxRetries = 3;
         int retryDelay = 1000; // 1 second base delay
 
         for (int i = 0; i < maxRetries; i++) {
+            if (i > 0) {
+                meterRegistry.counter("ai.gemini.retries").increment();
+            }
+            long start = System.nanoTime();
             try {
-                GeminiResponse geminiResponse = restTemplate.postForObject(fullUrl, entity, GeminiResponse.class);
+                GeminiResponse geminiResponse = restTemplate.postForObject(apiUrl, entity, GeminiResponse.class);
                 if (geminiResponse != null && geminiResponse.getFirstText() != null) {
+                    recordGeminiAttempt(start, "success");
                     return AiChatResponse.builder().response(geminiResponse.getFirstText()).success(true).build();
                 }
+                recordGeminiAttempt(start, "empty");
             } catch (org.springframework.web.client.HttpServerErrorException.ServiceUnavailable e) {
+                recordGeminiAttempt(start, "overloaded");
                 log.warn("Gemini API overloaded (503). Retrying {}/{}...", i + 1, maxRetries);
                 if (i == maxRetries - 1)
                     break;
@@ -548,6 +569,7 @@ public class AiService {
                     break;
                 }
             } catch (Exception e) {
+                recordGeminiAttempt(start, "error");
                 log.error("Gemini API call failed", e);
                 break;
             }
@@ -557,4 +579,13 @@ public class AiService {
                 .error("AI service is currently busy. Please try again in a moment.")
                 .build();
     }
+
+    // One sample per HTTP attempt; retries after a 503 are counted in ai.gemini.retries
+    private void recordGeminiAttempt(long startNanos, String outcome) {
+        Timer.builder("ai.gemini.requests")
+                .description("Gemini generateContent call latency per attempt")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
 }
@@ -1,11 +1,10 @@
 package com.vikrant.careSync.service;
 
 import com.vikrant.careSync.entity.Appointment;
-import com.vikrant.careSync.entity.Doctor;
-import com.vikrant.careSync.entity.Patient;
 import com.vikrant.careSync.entity.Feedback;
 import com.vikrant.careSync.dto.OverallAnalyticsDto;
 import com.vikrant.careSync.dto.PatientFinancialStatsDto;
+import com.vikrant.careSync.config.AnalyticsWorkload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -19,6 +18,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@AnalyticsWorkload
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsService {
@@ -27,7 +27,7 @@ public class AnalyticsService {
         private final DoctorService doctorService;
         private final PatientService patientService;
         private final FeedbackService feedbackService;
-        private final com.vikrant.careSync.repository.PaymentRepository paymentRepository;
+        private final PaymentLedgerService paymentLedgerService;
 
         // Peak Hours Analysis
         public Map<String, Object> getPeakHoursAnalysis(Long doctorId, LocalDate startDate, LocalDate endDate) {
@@ -328,9 +328,9 @@ public class AnalyticsService {
                         List<Appointment> allAppointments = appointmentService.getAllAppointmentsByDateRange(
                                         startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
 
-                        // Get all doctors and patients
-                        List<Doctor> allDoctors = doctorService.getAllDoctors();
-                        List<Patient> allPatients = patientService.getAllPatients();
+                        // Only the totals are needed, not the rows
+                        long totalDoctors = doctorService.countDoctors();
+                        long totalPatients = patientService.countPatients();
 
                         // Active users (users with appointments in date range)
                         long activeDoctors = allAppointments.stream()
@@ -350,12 +350,7 @@ public class AnalyticsService {
                         // Average rating from feedback
                         double avgRating = 4.5;
                         try {
-                                List<Feedback> allFeedback = feedbackService.getAllFeedback();
-                                avgRating = allFeedback.stream()
-                                                .mapToDouble(Feedback::getRating)
-                                                .average()
-                                                .orElse(0.0);
-                                avgRating = Math.round(avgRating * 100.0) / 100.0;
+                                avgRating = Math.round(feedbackService.getOverallAverageRating() * 100.0) / 100.0;
                         } catch (Exception e) {
                                 // Keep default
                         }
@@ -375,11 +370,11 @@ public class AnalyticsService {
 
                         return OverallAnalyticsDto.builder()
                                         .totalAppointments(allAppointments.size())
-                                        .totalDoctors(allDoctors.size())
-                                        .totalPatients(allPatients.size())
+                                        .totalDoctors(totalDoctors)
+                                        .totalPatients(totalPatients)
                                         .activeDoctors(activeDoctors)
                                         .activePatients(activePatients)
-                                        .totalUsers(allDoctors.size() + allPatients.size())
+                                        .totalUsers(totalDoctors + totalPatients)
                                         .activeUsers(activeDoctors + activePatients)
                                         .totalRevenue(totalRevenue)
                                         .avgRating(avgRating)
@@ -399,72 +394,15 @@ public class AnalyticsService {
         @Cacheable(value = "PATIENT:FINANCIAL", key = "#patientId")
         public PatientFinancialStatsDto getPatientFinancialStats(Long patientId) {
                 log.info("Fetching financial stats for patient ID: {}", patientId);
-                // Get aggregated stats directly from DB
-                List<Object[]> paymentStats;
-                try {
-                        paymentStats = paymentRepository.getPatientPaymentStats(patientId);
-                        log.info("Successfully fetched {} rows from repository", paymentStats.size());
-                } catch (Exception e) {
-                        log.error("Database error while fetching payment stats: {}", e.getMessage(), e);
-                        throw e;
-                }
-
-                java.math.BigDecimal totalAppointmentSpend = java.math.BigDecimal.ZERO;
-                java.math.BigDecimal totalLabTestSpend = java.math.BigDecimal.ZERO;
-                java.math.BigDecimal totalSpend = java.math.BigDecimal.ZERO;
-
-                for (Object[] row : paymentStats) {
-                        if (row == null || row.length < 2) {
-                                log.warn("Skipping invalid row in paymentStats");
-                                continue;
-                        }
-
-                        Object typeObj = row[0];
-                        Object amountObj = row[1];
-
-                        if (typeObj == null || amountObj == null) {
-                                log.warn("Skipping row with null values: type={}, amount={}", typeObj, amountObj);
-                                continue;
-                        }
-
-                        com.vikrant.careSync.entity.Payment.PaymentType type = null;
-                        if (typeObj instanceof com.vikrant.careSync.entity.Payment.PaymentType) {
-                                type = (com.vikrant.careSync.entity.Payment.PaymentType) typeObj;
-                        } else {
-                                try {
-                                        type = com.vikrant.careSync.entity.Payment.PaymentType
-                                                        .valueOf(typeObj.toString().trim().toUpperCase());
-                                } catch (Exception e) {
-                                        log.error("Failed to parse payment type: '{}'. Valid types: {}", typeObj,
-                                                        java.util.Arrays.toString(
-                                                                        com.vikrant.careSync.entity.Payment.PaymentType
-                                                                                        .values()));
-                                        continue;
-                                }
-                        }
-
-                        java.math.BigDecimal amount = java.math.BigDecimal.ZERO;
-                        try {
-                                if (amountObj instanceof java.math.BigDecimal) {
-                                        amount = (java.math.BigDecimal) amountObj;
-                                } else if (amountObj instanceof Number) {
-                                        amount = java.math.BigDecimal.valueOf(((Number) amountObj).doubleValue());
-                                } else {
-                                        amount = new java.math.BigDecimal(amountObj.toString().trim());
-                                }
-                        } catch (Exception e) {
-                                log.error("Failed to parse amount: {}", amountObj);
-                                continue;
-                        }
-
-                        totalSpend = totalSpend.add(amount);
-
-                        if (type == com.vikrant.careSync.entity.Payment.PaymentType.APPOINTMENT) {
-                                totalAppointmentSpend = totalAppointmentSpend.add(amount);
-                        } else if (type == com.vikrant.careSync.entity.Payment.PaymentType.LAB_TEST) {
-                                totalLabTestSpend = totalLabTestSpend.add(amount);
-                        }
-                }
+                Map<com.vikrant.careSync.entity.Payment.PaymentType, java.math.BigDecimal> spendByType = paymentLedgerService
+                                .getPatientNetSpendByType(patientId);
+
+                java.math.BigDecimal totalAppointmentSpend = spendByType.getOrDefault(
+                                com.vikrant.careSync.entity.Payment.PaymentType.APPOINTMENT, java.math.BigDecimal.ZERO);
+                java.math.BigDecimal totalLabTestSpend = spendByType.getOrDefault(
+                                com.vikrant.careSync.entity.Payment.PaymentType.LAB_TEST, java.math.BigDecimal.ZERO);
+                java.math.BigDecimal totalSpend = spendByType.values().stream()
+                                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
 
                 log.info("Calculated stats for patient {}: total={}, appt={}, lab={}",
                                 patientId, totalSpend, totalAppointmentSpend, totalLabTestSpend);
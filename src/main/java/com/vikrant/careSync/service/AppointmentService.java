@@ -1,12 +1,18 @@
 package com.vikrant.careSync.service;
 
+import com.vikrant.careSync.dto.DoctorAppointmentResponse;
 import com.vikrant.careSync.entity.Appointment;
 import com.vikrant.careSync.entity.Doctor;
 import com.vikrant.careSync.entity.Patient;
 import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.realtime.RealtimeEvent;
+import com.vikrant.careSync.realtime.RealtimeEventHub;
 import com.vikrant.careSync.repository.AppointmentRepository;
 import com.vikrant.careSync.repository.DoctorRepository;
+import com.vikrant.careSync.repository.FeedbackRepository;
+import com.vikrant.careSync.repository.MedicalHistoryRepository;
 import com.vikrant.careSync.repository.PatientRepository;
+import com.vikrant.careSync.repository.projection.DoctorAppointmentRow;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -16,8 +22,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,12 +34,15 @@ import java.util.Optional;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final FeedbackRepository feedbackRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final MedicalHistoryRepository medicalHistoryRepository;
     private final NotificationService notificationService;
     private final AfterCommitTaskDispatcher afterCommitTaskDispatcher;
     private final DoctorLeaveService doctorLeaveService;
-    private final com.vikrant.careSync.repository.ChatRepository chatRepository;
+    private final ChatService chatService;
+    private final RealtimeEventHub realtimeEventHub;
 
     // Only patients can book appointments - status automatically set to BOOKED
     @Caching(evict = {
@@ -79,7 +91,7 @@ public class AppointmentService {
                 .build();
 
         Appointment saved = appointmentRepository.save(appointment);
-        afterCommitTaskDispatcher.submitAfterCommit("new appointment notification " + saved.getId(),
+        afterCommitTaskDispatcher.submitAfterCommit("new appointment notification", saved.getId(),
                 () -> notificationService.sendDoctorNewAppointmentNotification(saved.getId()));
         return saved;
     }
@@ -124,7 +136,7 @@ public class AppointmentService {
                 .build();
 
         Appointment saved = appointmentRepository.save(appointment);
-        afterCommitTaskDispatcher.submitAfterCommit("new emergency appointment notification " + saved.getId(),
+        afterCommitTaskDispatcher.submitAfterCommit("new emergency appointment notification", saved.getId(),
                 () -> notificationService.sendDoctorNewAppointmentNotification(saved.getId()));
         return saved;
     }
@@ -144,6 +156,27 @@ public class AppointmentService {
         return appointmentRepository.findByDoctorIdWithPatientAndDoctorDetails(doctorId);
     }
 
+    // Same list as response DTOs built from rows: one query for the appointments, one for
+    // all of their patients' medical histories
+    @Transactional(readOnly = true)
+    public List<DoctorAppointmentResponse> getDoctorAppointmentResponses(Long doctorId) {
+        List<DoctorAppointmentRow> appointments = appointmentRepository.findRowsByDoctorId(doctorId);
+        if (appointments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> patientIds = appointments.stream().map(DoctorAppointmentRow::patientId).distinct()
+                .collect(Collectors.toList());
+        Map<Long, List<DoctorAppointmentResponse.PatientMedicalHistoryDto>> histories = medicalHistoryRepository
+                .findRowsByPatientIds(patientIds).stream()
+                .collect(Collectors.groupingBy(row -> row.patientId(),
+                        Collectors.mapping(DoctorAppointmentResponse.PatientMedicalHistoryDto::new,
+                                Collectors.toList())));
+        return appointments.stream()
+                .map(row -> new DoctorAppointmentResponse(row,
+                        histories.getOrDefault(row.patientId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
     // Get appointments for patients with doctor information
     public List<Appointment> getAppointmentsByPatient(Long patientId) {
         return appointmentRepository.findByPatientIdWithPatientAndDoctorDetails(patientId);
@@ -280,29 +313,26 @@ public class AppointmentService {
         appointment.changeStatus(newStatus, currentUser.getUsername());
 
         Appointment saved = appointmentRepository.save(appointment);
+        publishStatusChange(saved, currentUser.getUsername());
         if (currentUser.getRole() == User.Role.DOCTOR) {
             if (newStatus == Appointment.Status.CONFIRMED) {
-                afterCommitTaskDispatcher.submitAfterCommit("appointment confirmation " + saved.getId(),
+                afterCommitTaskDispatcher.submitAfterCommit("appointment confirmation", saved.getId(),
                         () -> notificationService.sendAppointmentConfirmation(saved.getId()));
             } else if (newStatus == Appointment.Status.SCHEDULED) {
-                afterCommitTaskDispatcher.submitAfterCommit("appointment scheduled " + saved.getId(),
+                afterCommitTaskDispatcher.submitAfterCommit("appointment scheduled", saved.getId(),
                         () -> notificationService.sendAppointmentScheduled(saved.getId()));
             } else if (newStatus == Appointment.Status.IN_PROGRESS) {
-                afterCommitTaskDispatcher.submitAfterCommit("appointment started " + saved.getId(),
+                afterCommitTaskDispatcher.submitAfterCommit("appointment started", saved.getId(),
                         () -> notificationService.sendAppointmentStarted(saved.getId()));
             } else if (newStatus == Appointment.Status.COMPLETED) {
-                afterCommitTaskDispatcher.submitAfterCommit("appointment completed " + saved.getId(),
+                afterCommitTaskDispatcher.submitAfterCommit("appointment completed", saved.getId(),
                         () -> notificationService.sendAppointmentCompleted(saved.getId()));
-                // Delete chat history
-                try {
-                    chatRepository.deleteByAppointmentId(saved.getId());
-                } catch (Exception e) {
-                    // Log error but don't fail the transaction just for chat history
-                    System.err.println("Failed to delete chat history: " + e.getMessage());
-                }
+                // Chat history is bulk-deleted by ChatService once the completion commits
+                afterCommitTaskDispatcher.submitAfterCommit("chat cleanup", saved.getId(),
+                        () -> chatService.scheduleHistoryDeletion(saved.getId()));
 
                 // Optionally prompt feedback after completion
-                afterCommitTaskDispatcher.submitAfterCommit("feedback reminder " + saved.getId(),
+                afterCommitTaskDispatcher.submitAfterCommit("feedback reminder", saved.getId(),
                         () -> notificationService.sendFeedbackReminder(saved.getId()));
             }
         }
@@ -317,7 +347,9 @@ public class AppointmentService {
         try {
             Appointment.Status appointmentStatus = Appointment.Status.valueOf(status.toUpperCase());
             appointment.changeStatus(appointmentStatus, "SYSTEM");
-            return appointmentRepository.save(appointment);
+            Appointment saved = appointmentRepository.save(appointment);
+            publishStatusChange(saved, "SYSTEM");
+            return saved;
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid status: " + status);
         }
@@ -351,7 +383,7 @@ public class AppointmentService {
 
         appointment.setAppointmentDateTime(newDateTime);
         Appointment saved = appointmentRepository.save(appointment);
-        afterCommitTaskDispatcher.submitAfterCommit("appointment reschedule " + saved.getId(),
+        afterCommitTaskDispatcher.submitAfterCommit("appointment reschedule", saved.getId(),
                 () -> notificationService.sendAppointmentReschedule(saved.getId()));
         return saved;
     }
@@ -373,13 +405,27 @@ public class AppointmentService {
 
         appointment.changeStatus(Appointment.Status.CANCELLED_BY_PATIENT, currentUser.getUsername());
         appointmentRepository.save(appointment);
-        afterCommitTaskDispatcher.submitAfterCommit("appointment cancellation " + appointment.getId(),
+        publishStatusChange(appointment, currentUser.getUsername());
+        afterCommitTaskDispatcher.submitAfterCommit("appointment cancellation", appointment.getId(),
                 () -> notificationService.sendAppointmentCancellation(appointment.getId()));
     }
 
+    // Realtime status event for both participants, sent once the change is committed
+    private void publishStatusChange(Appointment appointment, String changedBy) {
+        Long doctorId = appointment.getDoctor().getId();
+        Long patientId = appointment.getPatient().getId();
+        RealtimeEvent.AppointmentStatusChange change = new RealtimeEvent.AppointmentStatusChange(
+                appointment.getId(), appointment.getStatus().name(), changedBy);
+        afterCommitTaskDispatcher.submitAfterCommit("appointment status event", appointment.getId(), () -> {
+            realtimeEventHub.publish(doctorId, RealtimeEvent.APPOINTMENT_STATUS, change);
+            realtimeEventHub.publish(patientId, RealtimeEvent.APPOINTMENT_STATUS, change);
+        });
+    }
+
     public void deleteAppointment(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        feedbackRepository.deleteByAppointmentId(id);
         appointmentRepository.delete(appointment);
     }
 
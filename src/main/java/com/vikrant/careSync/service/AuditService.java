@@ -1,17 +1,56 @@
 package com.vikrant.careSync.service;
 
+import com.vikrant.careSync.entity.AuditLog;
+import com.vikrant.careSync.repository.AuditLogRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * HIPAA audit trail. Every entry is written to the application log right
+ * away and buffered for the {@code audit_logs} table, which is written in
+ * batches by {@link #flush()} so auditing a read never adds an insert to it.
+ */
 @Service
 @Slf4j
 public class AuditService {
 
+    private final AuditLogRepository auditLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxPending;
+    private final int maxAttempts;
+    private int failedFlushes; // guarded by this
+
+    private final ConcurrentLinkedDeque<AuditLog> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public AuditService(AuditLogRepository auditLogRepository, PlatformTransactionManager transactionManager,
+            @Value("${app.audit.flush-batch-size:500}") int batchSize,
+            @Value("${app.audit.max-pending:50000}") int maxPending,
+            @Value("${app.audit.max-attempts:3}") int maxAttempts) {
+        this.auditLogRepository = auditLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
     public void log(String username, String action, String entityName, String entityId, String details, String ip) {
+        LocalDateTime now = LocalDateTime.now();
         String logMessage = String.format(
                 "[HIPAA-AUDIT] Timestamp: %s | User: %s | Action: %s | Entity: %s | ID: %s | IP: %s | Details: %s",
-                LocalDateTime.now(),
+                now,
                 username,
                 action,
                 entityName,
@@ -21,5 +60,88 @@ public class AuditService {
 
         // Printing to application logs (can be directed to a file or log aggregator)
         log.info(logMessage);
+
+        if (pendingCount.incrementAndGet() > maxPending) {
+            // The log line above is still the record of this access
+            pendingCount.decrementAndGet();
+            log.warn("Audit buffer full, entry not persisted: {} {} {}", action, entityName, entityId);
+            return;
+        }
+        pending.offerLast(AuditLog.builder()
+                .timestamp(now)
+                .username(username)
+                .action(action)
+                .entityName(entityName)
+                .entityId(entityId)
+                .details(details)
+                .ipAddress(ip)
+                .build());
+    }
+
+    /**
+     * Writes buffered entries in batches of {@code app.audit.flush-batch-size},
+     * one transaction each. A batch that fails is put back in front of the
+     * buffer and retried on the next run, up to {@code app.audit.max-attempts}
+     * times; after that its entries are written one by one and any entry that
+     * still fails is skipped, so one bad entry cannot stop the audit trail.
+     *
+     * @return number of entries written
+     */
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:2000}")
+    public synchronized int flush() {
+        int written = 0;
+        while (true) {
+            List<AuditLog> batch = new ArrayList<>(Math.min(batchSize, Math.max(pendingCount.get(), 1)));
+            AuditLog entry;
+            while (batch.size() < batchSize && (entry = pending.pollFirst()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                return written;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> auditLogRepository.saveAll(batch));
+                failedFlushes = 0;
+            } catch (Exception e) {
+                batch.forEach(failed -> failed.setId(null));
+                if (++failedFlushes < maxAttempts) {
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        pending.offerFirst(batch.get(i));
+                    }
+                    log.error("Failed to persist {} audit entries (attempt {} of {}), will retry: {}", batch.size(),
+                            failedFlushes, maxAttempts, e.getMessage());
+                    return written;
+                }
+                log.error("Failed to persist {} audit entries {} times, writing them one by one: {}", batch.size(),
+                        failedFlushes, e.getMessage());
+                failedFlushes = 0;
+                pendingCount.addAndGet(-batch.size());
+                written += saveIndividually(batch);
+                continue;
+            }
+            pendingCount.addAndGet(-batch.size());
+            written += batch.size();
+        }
+    }
+
+    private int saveIndividually(List<AuditLog> batch) {
+        int written = 0;
+        for (AuditLog entry : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> auditLogRepository.save(entry));
+                written++;
+            } catch (Exception e) {
+                entry.setId(null);
+                // Its [HIPAA-AUDIT] log line remains the record of this access
+                log.error("Skipping audit entry that cannot be persisted: {} {} {} at {}: {}", entry.getAction(),
+                        entry.getEntityName(), entry.getEntityId(), entry.getTimestamp(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
     }
 }
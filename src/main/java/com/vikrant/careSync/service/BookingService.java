@@ -1,5 +1,6 @@
 package com.vikrant.careSync.service;
 
+import com.vikrant.careSync.constants.AppConstants;
 import com.vikrant.careSync.dto.BookingRequest;
 import com.vikrant.careSync.dto.BookingResponse;
 import com.vikrant.careSync.dto.LabTestDto;
@@ -7,26 +8,33 @@ import com.vikrant.careSync.dto.PaymentRequestDto;
 import com.vikrant.careSync.dto.PaymentResponseDto;
 import com.vikrant.careSync.dto.DocumentDto; // Added
 import com.vikrant.careSync.entity.Booking;
-import com.vikrant.careSync.entity.LabTest;
 import com.vikrant.careSync.entity.Doctor;
 import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.Payment;
 import com.vikrant.careSync.entity.Document; // Added
+import com.vikrant.careSync.exception.PaymentGatewayUnavailableException;
+import com.vikrant.careSync.repository.BookingBatchWriter;
 import com.vikrant.careSync.repository.BookingRepository;
-import com.vikrant.careSync.repository.LabTestRepository;
 import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.repository.DoctorRepository;
 import com.vikrant.careSync.repository.DocumentRepository; // Added
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,9 +44,6 @@ public class BookingService {
     @Autowired
     private BookingRepository bookingRepository;
 
-    @Autowired
-    private LabTestRepository labTestRepository;
-
     @Autowired
     private PatientRepository patientRepository;
 
@@ -51,6 +56,15 @@ public class BookingService {
     @Autowired
     private LabTestService labTestService;
 
+    @Autowired
+    private LabTestCatalog labTestCatalog;
+
+    @Autowired
+    private BookingBatchWriter bookingBatchWriter;
+
+    @Value("${app.booking.bulk.max-size:100}")
+    private int maxBulkBookings;
+
     @Autowired
     private PaymentService paymentService;
 
@@ -61,94 +75,60 @@ public class BookingService {
             @CacheEvict(value = "ANALYTICS:OVERALL", allEntries = true),
             @CacheEvict(value = "PATIENT:FINANCIAL", key = "'financial_' + #currentPatient.id", condition = "#currentPatient != null")
     })
+    // Not transactional: the booking commits on insert so the payment, which runs its gateway
+    // call outside any transaction, can see it and complete it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingResponse createBookingWithPayment(BookingRequest request, PaymentRequestDto paymentRequest) {
-        // Validate authentication
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("User not authenticated");
-        }
-
-        String currentUsername = authentication.getName();
-
-        // Only patients can use this method
-        Patient currentPatient = patientRepository.findByUsername(currentUsername).orElse(null);
-        if (currentPatient == null) {
+        // Only patients can use this method; they book for themselves
+        Patient patient = resolveCaller().patient();
+        if (patient == null) {
             throw new RuntimeException("Only patients can create bookings with payment");
         }
 
-        // Patient is booking for themselves
-        Patient patient = currentPatient;
-
-        // Handle full body checkup
-        List<Long> testIds;
-        if (request.getIsFullBodyCheckup() != null && request.getIsFullBodyCheckup()) {
-            // Get all active lab tests for full body checkup
-            List<LabTest> allActiveTests = labTestRepository.findAllActiveTestsOrderByName();
-            testIds = allActiveTests.stream().map(LabTest::getId).collect(Collectors.toList());
-        } else {
-            testIds = request.getSelectedTestIds();
-        }
-
-        // Validate selected tests
-        if (testIds == null || testIds.isEmpty()) {
-            throw new RuntimeException("At least one test must be selected");
-        }
-
-        List<LabTest> selectedTests = labTestRepository.findAllById(testIds);
-        if (selectedTests.size() != testIds.size()) {
-            throw new RuntimeException("One or more selected tests not found");
-        }
-
-        // Validate all tests are active
-        boolean hasInactiveTest = selectedTests.stream().anyMatch(test -> !test.getIsActive());
-        if (hasInactiveTest) {
-            throw new RuntimeException("One or more selected tests are not available");
-        }
-
-        // Calculate total price
-        BigDecimal totalPrice = labTestRepository.calculateTotalPriceByIds(testIds);
+        // Resolve, validate and price the tests against the in-memory catalog (full body checkup = all active tests)
+        LabTestCatalog.Selection selection = labTestCatalog.select(request.getIsFullBodyCheckup(),
+                request.getSelectedTestIds());
 
         // Validate payment amount matches booking total
-        if (paymentRequest.getAmount().compareTo(totalPrice) != 0) {
+        if (paymentRequest.getAmount().compareTo(selection.totalPrice()) != 0) {
             throw new RuntimeException("Payment amount does not match booking total");
         }
 
-        // Create booking entity first
-        Booking booking = new Booking();
-        booking.setPatient(patient);
-        booking.setSelectedTests(selectedTests);
-        booking.setTotalPrice(totalPrice);
-        booking.setPrescribedBy("Self");
-        booking.setBookingDate(request.getBookingDate() != null ? request.getBookingDate() : LocalDateTime.now());
-        booking.setNotes(request.getNotes());
-        booking.setStatus(Booking.BookingStatus.PENDING); // Initially pending until payment is successful
-
-        // Save booking
-        booking = bookingRepository.save(booking);
+        // Initially pending until payment is successful
+        BookingResponse response = insertBookings(List.of(new PlannedBooking(patient, null, "Self", selection,
+                request))).get(0);
 
         // Set booking ID in payment request
-        paymentRequest.setBookingId(booking.getId());
+        paymentRequest.setBookingId(response.getId());
         paymentRequest.setPatientId(patient.getId());
 
         try {
             // Process payment through PaymentService
             PaymentResponseDto paymentResponse = paymentService.initiatePayment(paymentRequest);
 
-            // If payment initiation is successful, update booking status to COMPLETED
-            booking.setStatus(Booking.BookingStatus.COMPLETED);
-            booking = bookingRepository.save(booking);
+            // A successful payment completes the booking in the same transaction (PaymentStateMachine)
+            if (paymentResponse.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+                response.setStatus(Booking.BookingStatus.COMPLETED);
+            }
 
             // Return booking response with payment details
-            BookingResponse response = convertToBookingResponse(booking);
             response.setPaymentTransactionId(paymentResponse.getTransactionId());
             response.setPaymentStatus(paymentResponse.getPaymentStatus().toString());
 
             return response;
 
         } catch (Exception e) {
-            // If payment fails, keep booking as PENDING or delete it
-            // For now, we'll keep it as PENDING so patient can retry payment later
-            throw new RuntimeException("Payment failed: " + e.getMessage());
+            // The booking already committed; cancel it so a failed attempt (and every retry of it)
+            // does not leave an orphaned PENDING booking behind
+            try {
+                bookingRepository.cancelIfUnpaid(response.getId(), LocalDateTime.now());
+            } catch (Exception cancelFailure) {
+                e.addSuppressed(cancelFailure);
+            }
+            if (e instanceof PaymentGatewayUnavailableException) {
+                throw new PaymentGatewayUnavailableException("Payment failed: " + e.getMessage(), e);
+            }
+            throw new RuntimeException("Payment failed: " + e.getMessage(), e);
         }
     }
 
@@ -160,72 +140,53 @@ public class BookingService {
             @CacheEvict(value = "PATIENT:FINANCIAL", key = "'financial_' + #request.patientId", condition = "#request.patientId != null")
     })
     public BookingResponse createDoctorBooking(BookingRequest request) {
-        // Validate authentication
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("User not authenticated");
-        }
-
-        String currentUsername = authentication.getName();
+        return createDoctorBookings(List.of(request)).get(0);
+    }
 
+    /**
+     * Create bookings for many patients at once (doctors only). All requests are
+     * validated before anything is written, and all bookings are inserted together.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = "ANALYTICS:OVERALL", allEntries = true),
+            @CacheEvict(value = "PATIENT:FINANCIAL", allEntries = true)
+    })
+    public List<BookingResponse> createDoctorBookings(List<BookingRequest> requests) {
         // Only doctors can use this method
-        Doctor currentDoctor = doctorRepository.findByUsername(currentUsername).orElse(null);
+        Doctor currentDoctor = resolveCaller().doctor();
         if (currentDoctor == null) {
             throw new RuntimeException("Only doctors can create bookings for patients");
         }
-
-        // Doctor must specify patient ID
-        if (request.getPatientId() == null) {
-            throw new RuntimeException("Patient ID is required when doctor creates booking");
-        }
-
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + request.getPatientId()));
-
-        // Handle full body checkup
-        List<Long> testIds;
-        if (request.getIsFullBodyCheckup() != null && request.getIsFullBodyCheckup()) {
-            // Get all active lab tests for full body checkup
-            List<LabTest> allActiveTests = labTestRepository.findAllActiveTestsOrderByName();
-            testIds = allActiveTests.stream().map(LabTest::getId).collect(Collectors.toList());
-        } else {
-            testIds = request.getSelectedTestIds();
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("At least one booking is required");
         }
-
-        // Validate selected tests
-        if (testIds == null || testIds.isEmpty()) {
-            throw new RuntimeException("At least one test must be selected");
+        if (requests.size() > maxBulkBookings) {
+            throw new RuntimeException("At most " + maxBulkBookings + " bookings can be created at once");
         }
 
-        List<LabTest> selectedTests = labTestRepository.findAllById(testIds);
-        if (selectedTests.size() != testIds.size()) {
-            throw new RuntimeException("One or more selected tests not found");
+        // Doctor must specify patient ID
+        Set<Long> patientIds = new HashSet<>();
+        for (BookingRequest request : requests) {
+            if (request.getPatientId() == null) {
+                throw new RuntimeException("Patient ID is required when doctor creates booking");
+            }
+            patientIds.add(request.getPatientId());
         }
-
-        // Validate all tests are active
-        boolean hasInactiveTest = selectedTests.stream().anyMatch(test -> !test.getIsActive());
-        if (hasInactiveTest) {
-            throw new RuntimeException("One or more selected tests are not available");
+        Map<Long, Patient> patients = patientRepository.findAllWithUserByIdIn(patientIds).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        String prescribedBy = "Doctor " + currentDoctor.getFirstName() + " " + currentDoctor.getLastName();
+        List<PlannedBooking> planned = new ArrayList<>(requests.size());
+        for (BookingRequest request : requests) {
+            Patient patient = patients.get(request.getPatientId());
+            if (patient == null) {
+                throw new RuntimeException("Patient not found with ID: " + request.getPatientId());
+            }
+            // Pending until patient pays
+            planned.add(new PlannedBooking(patient, currentDoctor, prescribedBy,
+                    labTestCatalog.select(request.getIsFullBodyCheckup(), request.getSelectedTestIds()), request));
         }
-
-        // Calculate total price
-        BigDecimal totalPrice = labTestRepository.calculateTotalPriceByIds(testIds);
-
-        // Create booking entity
-        Booking booking = new Booking();
-        booking.setPatient(patient);
-        booking.setSelectedTests(selectedTests);
-        booking.setTotalPrice(totalPrice);
-        booking.setDoctor(currentDoctor);
-        booking.setPrescribedBy("Doctor " + currentDoctor.getFirstName() + " " + currentDoctor.getLastName());
-        booking.setBookingDate(request.getBookingDate() != null ? request.getBookingDate() : LocalDateTime.now());
-        booking.setNotes(request.getNotes());
-        booking.setStatus(Booking.BookingStatus.PENDING); // Pending until patient pays
-
-        // Save booking
-        booking = bookingRepository.save(booking);
-
-        return convertToBookingResponse(booking);
+        return insertBookings(planned);
     }
 
     /**
@@ -233,17 +194,10 @@ public class BookingService {
      * user role)
      */
     public BookingResponse createBooking(BookingRequest request) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("User not authenticated");
-        }
-
-        String currentUsername = authentication.getName();
-
         // Determine if current user is doctor or patient
-        Doctor currentDoctor = doctorRepository.findByUsername(currentUsername).orElse(null);
-        Patient currentPatient = patientRepository.findByUsername(currentUsername).orElse(null);
+        BookingCaller caller = resolveCaller();
+        Doctor currentDoctor = caller.doctor();
+        Patient currentPatient = caller.patient();
 
         if (currentDoctor == null && currentPatient == null) {
             throw new RuntimeException("Current user not found");
@@ -266,34 +220,9 @@ public class BookingService {
             patient = currentPatient;
         }
 
-        // Handle full body checkup
-        List<Long> testIds;
-        if (request.getIsFullBodyCheckup() != null && request.getIsFullBodyCheckup()) {
-            // Get all active lab tests for full body checkup
-            List<LabTest> allActiveTests = labTestRepository.findAllActiveTestsOrderByName();
-            testIds = allActiveTests.stream().map(LabTest::getId).collect(Collectors.toList());
-        } else {
-            testIds = request.getSelectedTestIds();
-        }
-
-        // Validate selected tests
-        if (testIds == null || testIds.isEmpty()) {
-            throw new RuntimeException("At least one test must be selected");
-        }
-
-        List<LabTest> selectedTests = labTestRepository.findAllById(testIds);
-        if (selectedTests.size() != testIds.size()) {
-            throw new RuntimeException("One or more selected tests not found");
-        }
-
-        // Validate all tests are active
-        boolean hasInactiveTest = selectedTests.stream().anyMatch(test -> !test.getIsActive());
-        if (hasInactiveTest) {
-            throw new RuntimeException("One or more selected tests are not available");
-        }
-
-        // Calculate total price
-        BigDecimal totalPrice = labTestRepository.calculateTotalPriceByIds(testIds);
+        // Resolve, validate and price the tests against the in-memory catalog (full body checkup = all active tests)
+        LabTestCatalog.Selection selection = labTestCatalog.select(request.getIsFullBodyCheckup(),
+                request.getSelectedTestIds());
 
         // Determine prescribedBy
         String prescribedBy;
@@ -303,23 +232,8 @@ public class BookingService {
             prescribedBy = "Self";
         }
 
-        // Create booking entity
-        Booking booking = new Booking();
-        booking.setPatient(patient);
-        booking.setSelectedTests(selectedTests);
-        booking.setTotalPrice(totalPrice);
-        if (currentDoctor != null) {
-            booking.setDoctor(currentDoctor);
-        }
-        booking.setPrescribedBy(prescribedBy);
-        booking.setBookingDate(request.getBookingDate() != null ? request.getBookingDate() : LocalDateTime.now());
-        booking.setNotes(request.getNotes());
-        // Status is set to PENDING by default in entity
-
-        // Save booking
-        booking = bookingRepository.save(booking);
-
-        return convertToBookingResponse(booking);
+        return insertBookings(List.of(new PlannedBooking(patient, currentDoctor, prescribedBy, selection, request)))
+                .get(0);
     }
 
     /**
@@ -482,6 +396,85 @@ public class BookingService {
         }
     }
 
+    private record BookingCaller(Doctor doctor, Patient patient) {
+    }
+
+    private record PlannedBooking(Patient patient, Doctor doctor, String prescribedBy,
+            LabTestCatalog.Selection selection, BookingRequest request) {
+    }
+
+    /**
+     * Looks the caller up once, by exact username (the principal name is the stored
+     * username), and only in the tables its granted roles point to.
+     */
+    private BookingCaller resolveCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+
+        String currentUsername = authentication.getName();
+        boolean doctorRole = hasAuthority(authentication, AppConstants.Roles.ROLE_DOCTOR);
+        boolean patientRole = hasAuthority(authentication, AppConstants.Roles.ROLE_PATIENT);
+        boolean unknownRole = !doctorRole && !patientRole;
+
+        Doctor doctor = doctorRole || unknownRole
+                ? doctorRepository.findByExactUsername(currentUsername).orElse(null)
+                : null;
+        Patient patient = patientRole || unknownRole
+                ? patientRepository.findByExactUsername(currentUsername).orElse(null)
+                : null;
+        return new BookingCaller(doctor, patient);
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        return authentication.getAuthorities().stream().anyMatch(a -> authority.equals(a.getAuthority()));
+    }
+
+    /**
+     * Writes the bookings through the JDBC batch path and builds their responses
+     * from what was written (new bookings have no lab reports yet).
+     */
+    private List<BookingResponse> insertBookings(List<PlannedBooking> planned) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingBatchWriter.NewBooking> rows = planned.stream()
+                .map(p -> new BookingBatchWriter.NewBooking(
+                        p.patient().getId(),
+                        p.doctor() != null ? p.doctor().getId() : null,
+                        p.selection().testIds(),
+                        p.selection().totalPrice(),
+                        p.prescribedBy(),
+                        p.request().getBookingDate() != null ? p.request().getBookingDate() : now,
+                        Booking.BookingStatus.PENDING,
+                        p.request().getNotes()))
+                .collect(Collectors.toList());
+        List<Long> ids = bookingBatchWriter.insertAll(rows, now);
+
+        List<BookingResponse> responses = new ArrayList<>(planned.size());
+        for (int i = 0; i < planned.size(); i++) {
+            PlannedBooking p = planned.get(i);
+            BookingBatchWriter.NewBooking row = rows.get(i);
+            responses.add(BookingResponse.builder()
+                    .id(ids.get(i))
+                    .patientId(p.patient().getId())
+                    .patientName(p.patient().getFirstName() + " " + p.patient().getLastName())
+                    .selectedTests(row.testIds().stream()
+                            .map(testId -> labTestCatalog.find(testId)
+                                    .map(LabTestCatalog.CatalogTest::toDto)
+                                    .orElseThrow())
+                            .collect(Collectors.toList()))
+                    .totalPrice(row.totalPrice())
+                    .prescribedBy(row.prescribedBy())
+                    .bookingDate(row.bookingDate())
+                    .status(row.status())
+                    .notes(row.notes())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return responses;
+    }
+
     /**
      * Convert Booking entity to BookingResponse DTO
      */
@@ -492,17 +485,11 @@ public class BookingService {
         Patient patient = booking.getPatient();
         patientName = patient.getFirstName() + " " + patient.getLastName();
 
-        // Convert selected tests to DTOs
+        // Convert selected tests to DTOs; the catalog avoids initializing each test reference
         List<LabTestDto> testDtos = booking.getSelectedTests().stream()
-                .map(test -> LabTestDto.builder()
-                        .id(test.getId())
-                        .testName(test.getTestName())
-                        .price(test.getPrice())
-                        .description(test.getDescription())
-                        .isActive(test.getIsActive())
-                        .createdAt(test.getCreatedAt())
-                        .updatedAt(test.getUpdatedAt())
-                        .build())
+                .map(test -> labTestCatalog.find(test.getId())
+                        .map(LabTestCatalog.CatalogTest::toDto)
+                        .orElseGet(() -> labTestService.convertToDto(test)))
                 .collect(Collectors.toList());
 
         BookingResponse response = BookingResponse.builder()
@@ -0,0 +1,320 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.constants.AppConstants;
+import com.vikrant.careSync.dto.ChatHistoryPageDto;
+import com.vikrant.careSync.entity.ChatMessage;
+import com.vikrant.careSync.repository.ChatRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appointment chat engine. Messages are broadcast as soon as they are stamped and
+ * appended to an in-memory per-appointment ring buffer, then persisted
+ * write-behind in batches. History reads merge the database keyset page with
+ * messages that are still waiting to be flushed. Chat deletion on appointment
+ * completion is deferred to a bulk job.
+ */
+@Service
+@Slf4j
+public class ChatService {
+
+    // Newest first, ties broken by id; unsaved messages (null id) are the newest
+    private static final Comparator<ChatMessage> NEWEST_FIRST = Comparator
+            .comparing(ChatMessage::getTimestamp)
+            .thenComparing(message -> message.getId() != null ? message.getId() : Long.MAX_VALUE)
+            .reversed();
+
+    private final ChatRepository chatRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int ringBufferCapacity;
+    private final int flushBatchSize;
+    private final int maxFlushAttempts;
+
+    private final BlockingDeque<ChatMessage> writeBehindQueue;
+    private final Map<Long, ChatRingBuffer> recentMessages = new ConcurrentHashMap<>();
+    private final Set<Long> pendingDeletions = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private int failedFlushes; // guarded by flushLock
+
+    public ChatService(ChatRepository chatRepository,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${app.chat.ring-buffer-capacity:200}") int ringBufferCapacity,
+            @Value("${app.chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.chat.write-behind.batch-size:200}") int flushBatchSize,
+            @Value("${app.chat.write-behind.max-attempts:3}") int maxFlushAttempts) {
+        this.chatRepository = chatRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.ringBufferCapacity = ringBufferCapacity;
+        this.flushBatchSize = flushBatchSize;
+        this.maxFlushAttempts = Math.max(1, maxFlushAttempts);
+        this.writeBehindQueue = new LinkedBlockingDeque<>(queueCapacity);
+    }
+
+    public ChatMessage sendMessage(ChatMessage chatMessage) {
+        chatMessage.setId(null);
+        chatMessage.setTimestamp(LocalDateTime.now());
+
+        recentMessages.computeIfAbsent(chatMessage.getAppointmentId(), id -> new ChatRingBuffer(ringBufferCapacity))
+                .add(chatMessage);
+
+        if (!writeBehindQueue.offerLast(chatMessage)) {
+            // Queue full: apply back-pressure on this sender instead of dropping the message
+            log.warn("Chat write-behind queue full, saving message for appointment {} synchronously",
+                    chatMessage.getAppointmentId());
+            chatRepository.save(chatMessage);
+        }
+
+        messagingTemplate.convertAndSend("/topic/appointment/" + chatMessage.getAppointmentId(), chatMessage);
+        return chatMessage;
+    }
+
+    public ChatHistoryPageDto getHistoryPage(Long appointmentId, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? AppConstants.Config.DEFAULT_PAGE_SIZE
+                : Math.min(size, AppConstants.Config.MAX_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        HistoryCursor decoded = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        List<ChatMessage> candidates = new ArrayList<>(decoded == null
+                ? chatRepository.findLatestPage(appointmentId, limit)
+                : chatRepository.findPageBeforeCursor(appointmentId, decoded.timestamp(), decoded.id(), limit));
+
+        // Merge buffered messages the query did not return: unsaved ones, and ones
+        // flushed between the query and this read
+        ChatRingBuffer buffer = recentMessages.get(appointmentId);
+        if (buffer != null) {
+            Set<Long> loadedIds = new HashSet<>();
+            candidates.forEach(message -> loadedIds.add(message.getId()));
+            for (ChatMessage recent : buffer.snapshot()) {
+                boolean missing = recent.getId() == null || !loadedIds.contains(recent.getId());
+                if (missing && (decoded == null || decoded.isAfter(recent))) {
+                    candidates.add(recent);
+                }
+            }
+        }
+        candidates.sort(NEWEST_FIRST);
+
+        boolean hasMore = candidates.size() > pageSize;
+        List<ChatMessage> page = new ArrayList<>(hasMore ? candidates.subList(0, pageSize) : candidates);
+        String nextCursor = hasMore ? HistoryCursor.encode(page.get(page.size() - 1)) : null;
+        page.sort(NEWEST_FIRST.reversed());
+
+        return ChatHistoryPageDto.builder()
+                .messages(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Chat history is removed once the consultation is completed (privacy policy)
+    public void scheduleHistoryDeletion(Long appointmentId) {
+        pendingDeletions.add(appointmentId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        flush(false);
+    }
+
+    /**
+     * Drains the write-behind queue. With {@code wait} the caller blocks until a
+     * flush already in progress has saved its batch, otherwise it returns at once.
+     * A batch that fails is requeued and retried up to
+     * {@code app.chat.write-behind.max-attempts} times, then saved one message
+     * at a time so a single bad message cannot stall the queue.
+     */
+    void flush(boolean wait) {
+        if (wait) {
+            flushLock.lock();
+        } else if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<ChatMessage> batch = new ArrayList<>(flushBatchSize);
+            while (writeBehindQueue.drainTo(batch, flushBatchSize) > 0) {
+                try {
+                    chatRepository.saveAll(batch);
+                    failedFlushes = 0;
+                } catch (Exception e) {
+                    // Rolled back: ids assigned before the failure were never stored
+                    batch.forEach(message -> message.setId(null));
+                    if (++failedFlushes < maxFlushAttempts) {
+                        log.error("Failed to persist {} chat messages (attempt {} of {}), will retry", batch.size(),
+                                failedFlushes, maxFlushAttempts, e);
+                        for (int i = batch.size() - 1; i >= 0; i--) {
+                            writeBehindQueue.offerFirst(batch.get(i));
+                        }
+                        return;
+                    }
+                    log.error("Failed to persist {} chat messages {} times, saving them one at a time", batch.size(),
+                            failedFlushes, e);
+                    failedFlushes = 0;
+                    saveIndividually(batch);
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void saveIndividually(List<ChatMessage> batch) {
+        for (ChatMessage message : batch) {
+            try {
+                chatRepository.save(message);
+            } catch (Exception e) {
+                message.setId(null);
+                // Dropped so the rest of the queue drains; the content is not logged (PHI)
+                log.error("Dropping chat message from {} {} in appointment {} that cannot be stored: {}",
+                        message.getSenderRole(), message.getSenderId(), message.getAppointmentId(),
+                        e.getClass().getSimpleName());
+                ChatRingBuffer buffer = recentMessages.get(message.getAppointmentId());
+                if (buffer != null) {
+                    buffer.remove(message);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.deletion-interval-ms:30000}")
+    public void deleteCompletedChats() {
+        if (pendingDeletions.isEmpty()) {
+            return;
+        }
+        List<Long> appointmentIds = new ArrayList<>(pendingDeletions);
+        // Persist anything still queued first, waiting out an in-flight flush, and keep
+        // scheduled flushes out until the delete is done so no message outlives it.
+        // Messages a failed flush left queued are discarded rather than holding up the deletion.
+        flushLock.lock();
+        try {
+            flush(true);
+            writeBehindQueue.removeIf(message -> appointmentIds.contains(message.getAppointmentId()));
+            int deleted = chatRepository.deleteByAppointmentIdIn(appointmentIds);
+            appointmentIds.forEach(id -> {
+                pendingDeletions.remove(id);
+                recentMessages.remove(id);
+            });
+            log.info("Deleted {} chat messages for {} completed appointments", deleted, appointmentIds.size());
+        } catch (Exception e) {
+            log.error("Failed to delete chat history for appointments {}", appointmentIds, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${app.chat.deletion-sweep-cron:0 30 * * * *}")
+    public void sweepCompletedChats() {
+        try {
+            int deleted = chatRepository.deleteForCompletedAppointments();
+            if (deleted > 0) {
+                log.info("Chat sweep removed {} messages of completed appointments", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Chat sweep for completed appointments failed", e);
+        }
+    }
+
+    // Drop ring buffers that only hold persisted messages so idle chats do not pin memory
+    @Scheduled(fixedDelayString = "${app.chat.ring-buffer-eviction-interval-ms:600000}")
+    public void evictIdleBuffers() {
+        LocalDateTime idleSince = LocalDateTime.now().minusMinutes(30);
+        recentMessages.entrySet().removeIf(entry -> entry.getValue().isIdleSince(idleSince));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(true);
+    }
+
+    /**
+     * Fixed-size ring of the most recent messages of one appointment.
+     */
+    static final class ChatRingBuffer {
+        private final ChatMessage[] slots;
+        private int next;
+        private int size;
+        private LocalDateTime lastWrite = LocalDateTime.now();
+
+        ChatRingBuffer(int capacity) {
+            this.slots = new ChatMessage[capacity];
+        }
+
+        synchronized void add(ChatMessage message) {
+            slots[next] = message;
+            next = (next + 1) % slots.length;
+            size = Math.min(size + 1, slots.length);
+            lastWrite = message.getTimestamp();
+        }
+
+        synchronized void remove(ChatMessage message) {
+            List<ChatMessage> kept = snapshot();
+            kept.remove(message);
+            Arrays.fill(slots, null);
+            next = 0;
+            size = 0;
+            for (int i = kept.size() - 1; i >= 0; i--) {
+                slots[next] = kept.get(i);
+                next = (next + 1) % slots.length;
+                size++;
+            }
+        }
+
+        synchronized List<ChatMessage> snapshot() {
+            List<ChatMessage> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(slots[(next - 1 - i + slots.length) % slots.length]);
+            }
+            return messages;
+        }
+
+        synchronized boolean isIdleSince(LocalDateTime threshold) {
+            return lastWrite.isBefore(threshold)
+                    && snapshot().stream().allMatch(message -> message.getId() != null);
+        }
+    }
+
+    private record HistoryCursor(LocalDateTime timestamp, Long id) {
+
+        static String encode(ChatMessage oldest) {
+            long id = oldest.getId() != null ? oldest.getId() : Long.MAX_VALUE;
+            String raw = oldest.getTimestamp() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid chat history cursor: " + cursor);
+            }
+        }
+
+        boolean isAfter(ChatMessage message) {
+            int byTime = message.getTimestamp().compareTo(timestamp);
+            long messageId = message.getId() != null ? message.getId() : Long.MAX_VALUE;
+            return byTime < 0 || (byTime == 0 && messageId < id);
+        }
+    }
+}
@@ -9,15 +9,20 @@ import com.vikrant.careSync.repository.DoctorRepository;
 import com.vikrant.careSync.repository.ExperienceRepository;
 import com.vikrant.careSync.repository.EducationRepository;
 import com.vikrant.careSync.repository.CertificateRepository;
+import com.vikrant.careSync.repository.FeedbackRepository;
+import com.vikrant.careSync.repository.projection.DoctorListRow;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,21 +37,53 @@ public class DoctorService {
     private final FeedbackService feedbackService;
 
     @Cacheable(value = "DOCTOR:PROFILE", key = "'all'")
+    @Transactional(readOnly = true)
     public List<DoctorDto> getAllDoctorsDto() {
-        return doctorRepository.findAll().stream()
-                .map(this::convertToDtoWithStats)
-                .collect(Collectors.toList());
+        // Read straight into rows (no managed entities): one query per table, grouped by doctor here
+        Map<Long, FeedbackRepository.DoctorRatingSummary> ratings = feedbackService.getRatingSummariesByDoctor();
+        Map<Long, List<ExperienceDto>> experiences = experienceRepository.findAllRows().stream()
+                .filter(row -> row.doctorId() != null)
+                .collect(Collectors.groupingBy(row -> row.doctorId(),
+                        Collectors.mapping(ExperienceDto::new, Collectors.toList())));
+        Map<Long, List<EducationDto>> educations = educationRepository.findAllRows().stream()
+                .filter(row -> row.doctorId() != null)
+                .collect(Collectors.groupingBy(row -> row.doctorId(),
+                        Collectors.mapping(EducationDto::new, Collectors.toList())));
+        Map<Long, List<CertificateDto>> certificates = certificateRepository.findAllRows().stream()
+                .filter(row -> row.doctorId() != null)
+                .collect(Collectors.groupingBy(row -> row.doctorId(),
+                        Collectors.mapping(CertificateDto::new, Collectors.toList())));
+
+        List<DoctorDto> doctors = new ArrayList<>();
+        for (DoctorListRow row : doctorRepository.findAllListRows()) {
+            DoctorDto dto = new DoctorDto(row,
+                    experiences.getOrDefault(row.id(), new ArrayList<>()),
+                    educations.getOrDefault(row.id(), new ArrayList<>()),
+                    certificates.getOrDefault(row.id(), new ArrayList<>()));
+            FeedbackRepository.DoctorRatingSummary rating = ratings.get(row.id());
+            dto.setAverageRating(rating != null ? rating.getAverageRating() : 0.0);
+            dto.setReviewCount(rating != null ? rating.getReviewCount() : 0L);
+            dto.setCompletionPercentage(calculateCompletionPercentage(dto));
+            doctors.add(dto);
+        }
+        return doctors;
     }
 
     private DoctorDto convertToDtoWithStats(Doctor doctor) {
+        return convertToDto(doctor, feedbackService.getAverageRatingByDoctor(doctor.getId()),
+                feedbackService.getTotalFeedbacksCount(doctor.getId()));
+    }
+
+    private DoctorDto convertToDto(Doctor doctor, double averageRating, long reviewCount) {
         DoctorDto dto = new DoctorDto(doctor);
-        dto.setAverageRating(feedbackService.getAverageRatingByDoctor(doctor.getId()));
-        dto.setReviewCount(feedbackService.getTotalFeedbacksCount(doctor.getId()));
-        dto.setCompletionPercentage(calculateCompletionPercentage(doctor));
+        dto.setAverageRating(averageRating);
+        dto.setReviewCount(reviewCount);
+        dto.setCompletionPercentage(calculateCompletionPercentage(dto));
         return dto;
     }
 
-    private int calculateCompletionPercentage(Doctor doctor) {
+    // Works off the DTO so entity-backed and row-backed profiles score the same
+    private int calculateCompletionPercentage(DoctorDto doctor) {
         int percentage = 0;
 
         // Basic Info (20%)
@@ -76,12 +113,12 @@ public class DoctorService {
         }
 
         // Experience (20%)
-        if (!experienceRepository.findByDoctorId(doctor.getId()).isEmpty()) {
+        if (doctor.getExperiences() != null && !doctor.getExperiences().isEmpty()) {
             percentage += 20;
         }
 
         // Education (20%)
-        if (!educationRepository.findByDoctorId(doctor.getId()).isEmpty()) {
+        if (doctor.getEducations() != null && !doctor.getEducations().isEmpty()) {
             percentage += 20;
         }
 
@@ -92,6 +129,10 @@ public class DoctorService {
         return doctorRepository.findAll();
     }
 
+    public long countDoctors() {
+        return doctorRepository.count();
+    }
+
     @Cacheable(value = "DOCTOR:PROFILE", key = "'id_' + #id")
     public Optional<DoctorDto> getDoctorDtoById(Long id) {
         return doctorRepository.findById(id).map(this::convertToDtoWithStats);
@@ -11,11 +11,13 @@ import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.repository.BookingRepository;
 import com.vikrant.careSync.constants.AppConstants;
 import com.vikrant.careSync.dto.DocumentDto;
+import com.vikrant.careSync.event.PatientChartEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
@@ -40,6 +42,7 @@ public class DocumentService {
     private final PatientRepository patientRepository;
     private final BookingRepository bookingRepository;
     private final SupabaseStorageService supabaseStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Using constants from AppConstants instead of @Value annotation
     private static final long MAX_FILE_SIZE = AppConstants.Config.MAX_FILE_SIZE;
@@ -132,6 +135,9 @@ public class DocumentService {
 
         // Save to database
         Document savedDocument = documentRepository.save(document);
+        if (patient != null) {
+            eventPublisher.publishEvent(PatientChartEvent.documentChanged(patient.getId(), savedDocument.getId()));
+        }
 
         log.info("Document uploaded successfully to Supabase: {} for {} {}",
                 savedDocument.getOriginalFilename(),
@@ -157,8 +163,8 @@ public class DocumentService {
 
     @Cacheable(value = "PATIENT:DOCUMENTS", key = "'docs_' + #patientId")
     public List<DocumentDto> getDocumentsDtoByPatientId(Long patientId) {
-        return documentRepository.findByPatientId(patientId).stream()
-                .map(doc -> new DocumentDto(doc, doc.getFilePath(), doc.getFilePath()))
+        return documentRepository.findRowsByPatientId(patientId).stream()
+                .map(DocumentDto::fromRow)
                 .collect(Collectors.toList());
     }
 
@@ -213,6 +219,9 @@ public class DocumentService {
         // Soft delete in database
         document.setIsActive(false);
         documentRepository.save(document);
+        if (document.getPatient() != null) {
+            eventPublisher.publishEvent(PatientChartEvent.documentRemoved(document.getPatient().getId(), documentId));
+        }
 
         // Delete file from Supabase using the stored filename (key)
         try {
@@ -231,7 +240,11 @@ public class DocumentService {
                 .orElseThrow(() -> new RuntimeException("Document not found with id: " + documentId));
 
         document.setDescription(description);
-        return documentRepository.save(document);
+        Document saved = documentRepository.save(document);
+        if (saved.getPatient() != null) {
+            eventPublisher.publishEvent(PatientChartEvent.documentChanged(saved.getPatient().getId(), saved.getId()));
+        }
+        return saved;
     }
 
     /**
@@ -0,0 +1,340 @@
+package com.vikrant.careSync.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.entity.Communication;
+import com.vikrant.careSync.repository.CommunicationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.mail.internet.InternetAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+/**
+ * Delivers the email outbox ({@link Communication} rows in PENDING). Due rows
+ * are claimed with a lease so several nodes can share the outbox, then rendered
+ * and sent on the email worker pool: SendGrid first when configured, SMTP over a
+ * reused connection otherwise or as fallback. Each provider has its own send
+ * rate limit. Failed sends are retried with exponential backoff until the
+ * attempt limit, after which the row is marked FAILED.
+ * <p>
+ * Each provider attempt is an {@code email.provider.send} observation (span and
+ * timer by provider and outcome); {@code email.provider.fallbacks} counts
+ * SendGrid failures handed to SMTP.
+ */
+@Component
+@Slf4j
+public class EmailOutboxWorker {
+
+    public static final String PROVIDER_SENDGRID = "SENDGRID";
+    public static final String PROVIDER_SMTP = "SMTP";
+
+    private static final TypeReference<Map<String, String>> MODEL_TYPE = new TypeReference<>() {
+    };
+
+    private final CommunicationRepository communicationRepository;
+    private final EmailTemplateService emailTemplateService;
+    private final SendGridEmailClient sendGridEmailClient;
+    private final SmtpTransportPool smtpTransportPool;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor emailOutboxExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    private final String mailApiProvider;
+    private final boolean workerEnabled;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long leaseMs;
+    private final RateLimiter sendGridRateLimiter;
+    private final RateLimiter smtpRateLimiter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    public EmailOutboxWorker(CommunicationRepository communicationRepository,
+            EmailTemplateService emailTemplateService,
+            SendGridEmailClient sendGridEmailClient,
+            SmtpTransportPool smtpTransportPool,
+            ObjectMapper objectMapper,
+            @Qualifier("emailOutboxExecutor") TaskExecutor emailOutboxExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${mail.api.provider:}") String mailApiProvider,
+            @Value("${app.email.outbox.worker-enabled:true}") boolean workerEnabled,
+            @Value("${app.email.outbox.workers:4}") int workers,
+            @Value("${app.email.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${app.email.outbox.retry-backoff-ms:30000}") long retryBackoffMs,
+            @Value("${app.email.outbox.lease-ms:120000}") long leaseMs,
+            @Value("${app.email.sendgrid.max-per-second:10}") double sendGridPerSecond,
+            @Value("${app.email.smtp.max-per-second:2}") double smtpPerSecond) {
+        this.communicationRepository = communicationRepository;
+        this.emailTemplateService = emailTemplateService;
+        this.sendGridEmailClient = sendGridEmailClient;
+        this.smtpTransportPool = smtpTransportPool;
+        this.objectMapper = objectMapper;
+        this.emailOutboxExecutor = emailOutboxExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.mailApiProvider = mailApiProvider;
+        this.workerEnabled = workerEnabled;
+        this.maxInFlight = workers * 2;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.leaseMs = leaseMs;
+        this.sendGridRateLimiter = new RateLimiter(sendGridPerSecond);
+        this.smtpRateLimiter = new RateLimiter(smtpPerSecond);
+    }
+
+    /** Starts delivery right after the enqueuing transaction commits instead of waiting for the next poll. */
+    public void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    private void wakeUp() {
+        try {
+            emailOutboxExecutor.execute(this::dispatchDue);
+        } catch (TaskRejectedException e) {
+            // Pool is busy; the scheduled poll picks the row up
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        dispatchDue();
+    }
+
+    private void dispatchDue() {
+        if (!workerEnabled || !dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int capacity = maxInFlight - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+            List<OutboxEmail> claimed = transactionTemplate.execute(status -> claim(capacity));
+            if (claimed == null) {
+                return;
+            }
+            for (OutboxEmail email : claimed) {
+                inFlight.incrementAndGet();
+                try {
+                    emailOutboxExecutor.execute(() -> {
+                        try {
+                            deliver(email);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    // Left in SENDING; it is claimed again once its lease expires
+                    inFlight.decrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Email outbox dispatch failed", e);
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    private List<OutboxEmail> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Communication> due = communicationRepository.claimDue(now, PageRequest.of(0, limit));
+        List<OutboxEmail> claimed = new ArrayList<>(due.size());
+        for (Communication communication : due) {
+            // Counted when claimed, so a send that hangs or takes the worker down still uses up an attempt
+            int attempts = communication.getAttempts() != null ? communication.getAttempts() : 0;
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on email {} '{}': no result after {} attempts", communication.getId(),
+                        communication.getTemplateId(), attempts);
+                communication.setStatus(Communication.Status.FAILED);
+                communication.setNextAttemptAt(null);
+                communication.setLeaseToken(null);
+                communication.setErrorMessage("No result after " + attempts + " attempts");
+                continue;
+            }
+            communication.setAttempts(attempts + 1);
+            communication.setStatus(Communication.Status.SENDING);
+            communication.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000));
+            communication.setLeaseToken(UUID.randomUUID().toString());
+            claimed.add(OutboxEmail.of(communication));
+        }
+        return claimed;
+    }
+
+    private void deliver(OutboxEmail email) {
+        String html;
+        try {
+            Map<String, String> model = email.templateModel() != null
+                    ? objectMapper.readValue(email.templateModel(), MODEL_TYPE)
+                    : Map.of();
+            html = emailTemplateService.render(email.templateId(), model);
+        } catch (Exception e) {
+            // Retrying cannot fix a missing template or a corrupt model
+            log.error("Cannot render email {} with template '{}': {}", email.id(), email.templateId(), e.getMessage());
+            update(email, () -> communicationRepository.markFailed(email.id(), email.leaseToken(),
+                    email.attempts(), truncate("Render failed: " + e.getMessage())));
+            return;
+        }
+
+        String provider = null;
+        Exception sendError = null;
+
+        if ("sendgrid".equalsIgnoreCase(mailApiProvider) && sendGridEmailClient.isConfigured()) {
+            sendGridRateLimiter.acquire();
+            Observation send = startSend(PROVIDER_SENDGRID);
+            boolean sent;
+            try (Observation.Scope scope = send.openScope()) {
+                sent = sendGridEmailClient.sendHtml(email.fromEmail(), email.toEmail(), email.subject(), html);
+            }
+            finishSend(send, sent, null);
+            if (sent) {
+                provider = PROVIDER_SENDGRID;
+            } else {
+                meterRegistry.counter("email.provider.fallbacks").increment();
+                log.warn("SendGrid send failed for email {}, falling back to SMTP", email.id());
+            }
+        }
+
+        if (provider == null) {
+            smtpRateLimiter.acquire();
+            Observation send = startSend(PROVIDER_SMTP);
+            try (Observation.Scope scope = send.openScope()) {
+                var mimeMessage = smtpTransportPool.createMimeMessage();
+                var helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+                helper.setFrom(new InternetAddress(email.fromEmail(), "CareSync"));
+                helper.setTo(email.toEmail());
+                helper.setSubject(email.subject());
+                helper.setText(html, true);
+                smtpTransportPool.send(mimeMessage);
+                provider = PROVIDER_SMTP;
+            } catch (Exception e) {
+                sendError = e;
+                log.warn("SMTP send failed for email {}: {}", email.id(), e.getMessage());
+            }
+            finishSend(send, provider != null, sendError);
+        }
+
+        if (provider != null) {
+            String sentVia = provider;
+            log.info("Sent template email '{}' to {} via {}", email.templateId(), email.toEmail(), sentVia);
+            update(email, () -> communicationRepository.markSent(email.id(), email.leaseToken(), sentVia,
+                    LocalDateTime.now()));
+            return;
+        }
+
+        int attempts = email.attempts();
+        String error = truncate(sendError != null ? sendError.getMessage() : "Unknown error");
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on email {} '{}' after {} attempts: {}", email.id(), email.templateId(), attempts,
+                    error);
+            update(email, () -> communicationRepository.markFailed(email.id(), email.leaseToken(), attempts, error));
+        } else {
+            long backoffMs = retryBackoffMs * (1L << Math.min(attempts - 1, 10));
+            update(email, () -> communicationRepository.markRetry(email.id(), email.leaseToken(), attempts,
+                    LocalDateTime.now().plusNanos(backoffMs * 1_000_000), error));
+        }
+    }
+
+    private Observation startSend(String provider) {
+        return Observation.createNotStarted("email.provider.send", observationRegistry)
+                .contextualName("email send " + provider.toLowerCase())
+                .lowCardinalityKeyValue("provider", provider.toLowerCase())
+                .start();
+    }
+
+    private static void finishSend(Observation send, boolean sent, Exception error) {
+        if (error != null) {
+            send.error(error);
+        }
+        send.lowCardinalityKeyValue("outcome", sent ? "success" : "failure").stop();
+    }
+
+    private void update(OutboxEmail email, IntSupplier statusUpdate) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> statusUpdate.getAsInt());
+            if (updated == null || updated == 0) {
+                // Our lease expired and another worker re-claimed the row; its outcome wins
+                log.warn("Lost the lease on email {}; dropping this worker's status update", email.id());
+            }
+        } catch (Exception e) {
+            // The row stays SENDING and is retried when its lease expires
+            log.error("Failed to record email outbox status", e);
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+
+    /** Detached copy of a claimed row, so delivery does not touch the persistence context. */
+    private record OutboxEmail(Long id, String fromEmail, String toEmail, String subject, String templateId,
+            String templateModel, int attempts, String leaseToken) {
+
+        static OutboxEmail of(Communication c) {
+            return new OutboxEmail(c.getId(), c.getFromEmail(), c.getToEmail(), c.getSubject(), c.getTemplateId(),
+                    c.getTemplateModel(), c.getAttempts() != null ? c.getAttempts() : 0, c.getLeaseToken());
+        }
+    }
+
+    /** Spaces sends evenly at the configured rate; callers wait for their slot. */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextFreeAt = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0;
+        }
+
+        void acquire() {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(nextFreeAt, now);
+                nextFreeAt = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+    }
+}
@@ -1,40 +1,198 @@
 package com.vikrant.careSync.service;
 
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Renders {@code {{key}}} email templates. Each template is read and parsed
+ * once into alternating literal and placeholder segments and cached; rendering
+ * is a single pass that appends literals and HTML-escaped values into a
+ * per-thread buffer. Placeholders without a model entry are left as written,
+ * and values are never expanded again. With hot reload on (for development),
+ * a template is recompiled when its file changes.
+ */
 @Service
-@RequiredArgsConstructor
 public class EmailTemplateService {
 
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    private final ResourceLoader resourceLoader;
+    private final String baseLocation;
+    private final boolean hotReload;
+    private final Map<String, CompiledTemplate> cache = new ConcurrentHashMap<>();
+
+    public EmailTemplateService(ResourceLoader resourceLoader,
+            @Value("${app.email.templates.base-location:classpath:templates/}") String baseLocation,
+            @Value("${app.email.templates.hot-reload:false}") boolean hotReload) {
+        this.resourceLoader = resourceLoader;
+        this.baseLocation = baseLocation.endsWith("/") ? baseLocation : baseLocation + "/";
+        this.hotReload = hotReload;
+    }
+
     public String render(String templatePath, Map<String, String> model) {
         try {
-            ClassPathResource resource = new ClassPathResource("templates/" + templatePath);
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-                String html = reader.lines().collect(Collectors.joining("\n"));
-                if (model != null) {
-                    for (Map.Entry<String, String> e : model.entrySet()) {
-                        String key = e.getKey();
-                        String val = e.getValue() == null ? "" : e.getValue();
-                        html = html.replace("{{" + key + "}}", escape(val));
-                    }
-                }
-                return html;
+            CompiledTemplate template = compiled(templatePath);
+            StringBuilder out = BUFFER.get();
+            out.setLength(0);
+            template.renderTo(out, model);
+            String html = out.toString();
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                // Do not pin an unusually large buffer to a pooled thread
+                BUFFER.remove();
             }
+            return html;
         } catch (Exception e) {
             throw new RuntimeException("Failed to render email template: " + templatePath, e);
         }
     }
 
-    private String escape(String input) {
-        if (input == null) return "";
-        return input.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    private CompiledTemplate compiled(String templatePath) {
+        CompiledTemplate cached = cache.get(templatePath);
+        if (cached != null && !(hotReload && cached.isModified())) {
+            return cached;
+        }
+        return cache.compute(templatePath, (path, existing) -> existing != null && !(hotReload && existing.isModified())
+                ? existing
+                : load(path));
+    }
+
+    private CompiledTemplate load(String templatePath) {
+        Resource resource = resourceLoader.getResource(baseLocation + templatePath);
+        try (InputStream in = resource.getInputStream()) {
+            long lastModified = hotReload ? lastModified(resource) : -1;
+            return CompiledTemplate.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), resource,
+                    lastModified);
+        } catch (IOException e) {
+            throw new IllegalStateException("Email template not found: " + templatePath, e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * {@code literals[0] keys[0] literals[1] ... keys[n-1] literals[n]}; the raw
+     * placeholder text is kept for keys missing from the model.
+     */
+    static final class CompiledTemplate {
+
+        private final String[] literals;
+        private final String[] keys;
+        private final String[] placeholders;
+        private final int literalLength;
+        private final Resource resource;
+        private final long lastModified;
+
+        private CompiledTemplate(String[] literals, String[] keys, String[] placeholders, Resource resource,
+                long lastModified) {
+            this.literals = literals;
+            this.keys = keys;
+            this.placeholders = placeholders;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+            this.resource = resource;
+            this.lastModified = lastModified;
+        }
+
+        static CompiledTemplate parse(String source, Resource resource, long lastModified) {
+            List<String> literals = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int position = 0;
+            while (position < source.length()) {
+                int open = source.indexOf(OPEN, position);
+                int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+                if (open < 0 || close < 0) {
+                    literal.append(source, position, source.length());
+                    break;
+                }
+                String key = source.substring(open + OPEN.length(), close);
+                if (!isKey(key)) {
+                    // Not a placeholder (e.g. "{{" in CSS or text): keep the braces and continue after them
+                    literal.append(source, position, open + OPEN.length());
+                    position = open + OPEN.length();
+                    continue;
+                }
+                literal.append(source, position, open);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                keys.add(key);
+                placeholders.add(source.substring(open, close + CLOSE.length()));
+                position = close + CLOSE.length();
+            }
+            literals.add(literal.toString());
+            return new CompiledTemplate(literals.toArray(String[]::new), keys.toArray(String[]::new),
+                    placeholders.toArray(String[]::new), resource, lastModified);
+        }
+
+        void renderTo(StringBuilder out, Map<String, String> model) {
+            out.ensureCapacity(literalLength + keys.length * 16);
+            out.append(literals[0]);
+            for (int i = 0; i < keys.length; i++) {
+                if (model != null && model.containsKey(keys[i])) {
+                    appendEscaped(out, model.get(keys[i]));
+                } else {
+                    out.append(placeholders[i]);
+                }
+                out.append(literals[i + 1]);
+            }
+        }
+
+        boolean isModified() {
+            return resource != null && lastModified >= 0 && lastModified(resource) != lastModified;
+        }
+
+        private static boolean isKey(String key) {
+            if (key.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '-') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void appendEscaped(StringBuilder out, String value) {
+            if (value == null) {
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '"' -> out.append("&quot;");
+                    case '\'' -> out.append("&#39;");
+                    default -> out.append(c);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.vikrant.careSync.entity.Feedback;
 import com.vikrant.careSync.entity.Appointment;
 import com.vikrant.careSync.entity.Doctor;
 import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.dto.FeedbackDto;
 import com.vikrant.careSync.dto.PatientAppointmentResponse;
 import com.vikrant.careSync.repository.FeedbackRepository;
 import com.vikrant.careSync.repository.AppointmentRepository;
@@ -13,6 +14,7 @@ import com.vikrant.careSync.service.interfaces.IFeedbackService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -64,6 +66,14 @@ public class FeedbackService implements IFeedbackService {
         return feedbackRepository.findByDoctorId(doctorId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeedbackDto> getFeedbackDtosByDoctor(Long doctorId) {
+        return feedbackRepository.findRowsByDoctorId(doctorId).stream()
+                .map(FeedbackDto::new)
+                .collect(Collectors.toList());
+    }
+
     public List<Feedback> getFeedbackByPatient(Long patientId) {
         return feedbackRepository.findByPatientId(patientId);
     }
@@ -104,16 +114,18 @@ public class FeedbackService implements IFeedbackService {
 
     @Cacheable(value = "ANALYTICS:RATINGS", key = "'doctor_rating_' + #doctorId")
     public double getAverageRatingByDoctor(Long doctorId) {
-        List<Feedback> feedbacks = feedbackRepository.findByDoctorId(doctorId);
-        if (feedbacks.isEmpty()) {
-            return 0.0;
-        }
+        Double average = feedbackRepository.findAverageRatingByDoctorId(doctorId);
+        return average != null ? average : 0.0;
+    }
 
-        double totalRating = feedbacks.stream()
-                .mapToInt(Feedback::getRating)
-                .sum();
+    public Map<Long, FeedbackRepository.DoctorRatingSummary> getRatingSummariesByDoctor() {
+        return feedbackRepository.summarizeRatingsByDoctor().stream()
+                .collect(Collectors.toMap(FeedbackRepository.DoctorRatingSummary::getDoctorId, summary -> summary));
+    }
 
-        return (double) totalRating / feedbacks.size();
+    public double getOverallAverageRating() {
+        Double average = feedbackRepository.findAverageRating();
+        return average != null ? average : 0.0;
     }
 
     @Cacheable(value = "ANALYTICS:RATINGS", key = "'doctor_rating_dist_' + #doctorId")
@@ -176,13 +188,9 @@ public class FeedbackService implements IFeedbackService {
 
     @Override
     public List<PatientAppointmentResponse> getPendingFeedbackAppointmentsForPatient(Long patientId) {
-        // Get completed appointments for the patient
-        List<Appointment> completed = appointmentRepository.findByPatientIdAndStatus(patientId,
+        // Completed appointments without feedback, with their doctors, in one query
+        List<Appointment> pending = appointmentRepository.findWithoutFeedbackByPatientIdAndStatus(patientId,
                 Appointment.Status.COMPLETED);
-        // Filter out appointments that already have feedback
-        List<Appointment> pending = completed.stream()
-                .filter(a -> feedbackRepository.findByAppointmentId(a.getId()).isEmpty())
-                .toList();
         // Map to patient-facing DTO
         return pending.stream()
                 .map(PatientAppointmentResponse::new)
@@ -0,0 +1,215 @@
+package com.vikrant.careSync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.diagnostics.LockWaitEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Idempotent execution of create endpoints keyed on the client's
+ * {@code Idempotency-Key} header. The first request claims the key, runs and
+ * stores its response together with a fingerprint of the request; retries with
+ * the same key replay the stored response without running the action again.
+ * Reusing a key for a different request is rejected. Concurrent duplicates on
+ * one node queue on a per-key lock; across nodes they see the in-progress claim
+ * and wait for the stored response.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String KEY_PREFIX = "IDEMPOTENCY:";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration recordTtl;
+    private final Duration claimTtl;
+    private final long waitTimeoutMs;
+
+    private final Map<String, ReentrantLock> keyLocks = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl-hours:24}") long recordTtlHours,
+            @Value("${app.idempotency.claim-ttl-seconds:60}") long claimTtlSeconds,
+            @Value("${app.idempotency.wait-timeout-ms:15000}") long waitTimeoutMs) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.recordTtl = Duration.ofHours(recordTtlHours);
+        this.claimTtl = Duration.ofSeconds(claimTtlSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Runs {@code action} at most once per (scope, caller, key). Without a key the
+     * action simply runs. Responses with a 5xx status are not stored so they can
+     * be retried; actions must therefore answer transient failures (such as a busy
+     * payment gateway) with a 5xx rather than a 4xx.
+     */
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request,
+            Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storeKey = KEY_PREFIX + scope + ":" + currentPrincipal() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(scope, request);
+
+        ReentrantLock lock = keyLocks.computeIfAbsent(storeKey, k -> new ReentrantLock());
+        boolean locked = false;
+        LockWaitEvent lockWait = LockWaitEvent.start("idempotency key " + scope);
+        try {
+            locked = lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            lockWait.finish(locked);
+            if (!locked) {
+                return error(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            return executeLocked(storeKey, fingerprint, action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockWait.finish(false);
+            return error(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+        } finally {
+            if (locked) {
+                lock.unlock();
+                if (!lock.hasQueuedThreads()) {
+                    keyLocks.remove(storeKey, lock);
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<?> executeLocked(String storeKey, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            StoredResponse stored = read(storeKey);
+            if (stored == null) {
+                if (store.putIfAbsent(storeKey, write(StoredResponse.inProgress(fingerprint)), claimTtl)) {
+                    return runAndStore(storeKey, fingerprint, action);
+                }
+                // Lost the claim to another node: wait for its record
+            } else if (!stored.fingerprint().equals(fingerprint)) {
+                return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            } else if (!stored.inProgress()) {
+                return replay(stored);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return error(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return error(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+        }
+    }
+
+    private ResponseEntity<?> runAndStore(String storeKey, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            store.delete(storeKey);
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError()) {
+            store.delete(storeKey);
+            return response;
+        }
+        try {
+            String body = response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null;
+            store.put(storeKey, write(new StoredResponse(fingerprint, false, response.getStatusCode().value(), body)),
+                    recordTtl);
+        } catch (Exception e) {
+            // The action already ran; without a stored response a retry would run it again
+            log.error("Failed to store idempotent response for {}", storeKey, e);
+            store.delete(storeKey);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body());
+    }
+
+    private String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new RuntimeException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private StoredResponse read(String storeKey) {
+        String raw = store.get(storeKey);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(raw, StoredResponse.class);
+        } catch (Exception e) {
+            log.warn("Discarding unreadable idempotency record {}: {}", storeKey, e.getMessage());
+            store.delete(storeKey);
+            return null;
+        }
+    }
+
+    private String write(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+
+    record StoredResponse(String fingerprint, boolean inProgress, int status, String body) {
+        static StoredResponse inProgress(String fingerprint) {
+            return new StoredResponse(fingerprint, true, 0, null);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.vikrant.careSync.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TTL-bounded key/value store for idempotency records, kept in Redis so retries
+ * hitting another node are recognised. Falls back to an in-memory map when
+ * Redis is unavailable.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, LocalEntry> localEntries = new ConcurrentHashMap<>();
+
+    public String get(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("Redis unavailable for idempotency key {}: {}. Using in-memory store.", key, e.getMessage());
+            LocalEntry entry = localEntries.get(key);
+            return entry != null && !entry.isExpired() ? entry.value() : null;
+        }
+    }
+
+    // Atomically claims a key; false when a record already exists
+    public boolean putIfAbsent(String key, String value, Duration ttl) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl));
+        } catch (Exception e) {
+            log.warn("Redis unavailable while claiming idempotency key {}: {}", key, e.getMessage());
+            LocalEntry created = new LocalEntry(value, System.currentTimeMillis() + ttl.toMillis());
+            LocalEntry existing = localEntries.compute(key,
+                    (k, current) -> current == null || current.isExpired() ? created : current);
+            return existing == created;
+        }
+    }
+
+    public void put(String key, String value, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } catch (Exception e) {
+            log.warn("Redis unavailable while storing idempotency key {}: {}", key, e.getMessage());
+            localEntries.put(key, new LocalEntry(value, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    public void delete(String key) {
+        localEntries.remove(key);
+        try {
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("Redis unavailable while releasing idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredLocalEntries() {
+        localEntries.values().removeIf(LocalEntry::isExpired);
+    }
+
+    private record LocalEntry(String value, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
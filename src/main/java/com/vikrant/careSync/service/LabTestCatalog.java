@@ -0,0 +1,387 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.dto.LabTestDto;
+import com.vikrant.careSync.entity.LabTest;
+import com.vikrant.careSync.repository.LabTestRepository;
+import com.vikrant.careSync.websocket.BrokerBackplane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory lab test catalog. The whole table is held as one immutable
+ * {@link Snapshot} (an open-addressing long → test table, the active tests in
+ * name order, an n-gram index over names and the precomputed full-body
+ * selection), so lookups, search, validation and pricing run without touching
+ * the database. A snapshot is rebuilt and swapped in atomically after a lab
+ * test write commits, when another node announces a write over the broker
+ * backplane, and periodically as a backstop.
+ */
+@Component
+@Slf4j
+public class LabTestCatalog {
+
+    private static final String RELOAD_CHANNEL = "caresync:catalog:lab-tests";
+    private static final int MAX_GRAM = 3;
+
+    private final LabTestRepository labTestRepository;
+    private final ObjectProvider<BrokerBackplane> backplane;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object reloadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public LabTestCatalog(LabTestRepository labTestRepository, ObjectProvider<BrokerBackplane> backplane) {
+        this.labTestRepository = labTestRepository;
+        this.backplane = backplane;
+
+        backplane.ifAvailable(b -> b.subscribe(RELOAD_CHANNEL, origin -> {
+            if (!nodeId.equals(origin)) {
+                reloadQuietly();
+            }
+        }));
+    }
+
+    public record CatalogTest(long id, String testName, BigDecimal price, long priceMinorUnits,
+            String description, boolean active, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        public LabTestDto toDto() {
+            return LabTestDto.builder()
+                    .id(id)
+                    .testName(testName)
+                    .price(price)
+                    .description(description)
+                    .isActive(active)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    /** Validated test ids of a booking and their total price. */
+    public record Selection(List<Long> testIds, BigDecimal totalPrice) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reloadQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${app.lab-tests.catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${app.lab-tests.catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        reloadQuietly();
+    }
+
+    public Optional<CatalogTest> find(long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /** Active tests ordered by name. */
+    public List<CatalogTest> activeTests() {
+        return current().active;
+    }
+
+    public List<CatalogTest> allTests() {
+        return current().all;
+    }
+
+    /**
+     * Case-insensitive substring search over active test names; names starting
+     * with the query come first, each group in name order.
+     */
+    public List<CatalogTest> search(String query) {
+        Snapshot current = current();
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return current.active;
+        }
+
+        List<CatalogTest> prefixMatches = new ArrayList<>();
+        List<CatalogTest> otherMatches = new ArrayList<>();
+        for (int index : current.candidates(needle)) {
+            String name = current.normalizedNames[index];
+            // Postings of a gram as long as the query are exact; longer queries are verified
+            if (needle.length() <= MAX_GRAM || name.contains(needle)) {
+                (name.startsWith(needle) ? prefixMatches : otherMatches).add(current.active.get(index));
+            }
+        }
+        prefixMatches.addAll(otherMatches);
+        return prefixMatches;
+    }
+
+    /**
+     * Sum of the active tests among {@code testIds}, each counted once, the same
+     * as summing over {@code id IN (...)} in SQL.
+     */
+    public BigDecimal totalPrice(List<Long> testIds) {
+        Snapshot current = current();
+        long total = 0;
+        Set<Long> seen = new HashSet<>();
+        for (Long id : testIds) {
+            CatalogTest test = id == null ? null : current.byId.get(id);
+            if (test != null && test.active() && seen.add(id)) {
+                total += test.priceMinorUnits();
+            }
+        }
+        return BigDecimal.valueOf(total, 2);
+    }
+
+    /**
+     * Resolves the tests of a booking: every active test for a full-body checkup,
+     * otherwise the selected ids, which must all exist, be distinct and be active.
+     */
+    public Selection select(Boolean fullBodyCheckup, List<Long> selectedTestIds) {
+        Snapshot current = current();
+        if (Boolean.TRUE.equals(fullBodyCheckup)) {
+            if (current.fullBody.testIds().isEmpty()) {
+                throw new RuntimeException("At least one test must be selected");
+            }
+            return current.fullBody;
+        }
+        if (selectedTestIds == null || selectedTestIds.isEmpty()) {
+            throw new RuntimeException("At least one test must be selected");
+        }
+
+        CatalogTest[] tests = new CatalogTest[selectedTestIds.size()];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < tests.length; i++) {
+            Long id = selectedTestIds.get(i);
+            tests[i] = id == null ? null : current.byId.get(id);
+            if (tests[i] == null || !seen.add(id)) {
+                throw new RuntimeException("One or more selected tests not found");
+            }
+        }
+        long total = 0;
+        for (CatalogTest test : tests) {
+            if (!test.active()) {
+                throw new RuntimeException("One or more selected tests are not available");
+            }
+            total += test.priceMinorUnits();
+        }
+        return new Selection(List.copyOf(selectedTestIds), BigDecimal.valueOf(total, 2));
+    }
+
+    /**
+     * Rebuilds the snapshot once the current transaction commits (immediately
+     * when there is none) and tells the other nodes to do the same.
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadAndAnnounce();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadAndAnnounce();
+            }
+        });
+    }
+
+    private void reloadAndAnnounce() {
+        reloadQuietly();
+        backplane.ifAvailable(b -> {
+            try {
+                b.publish(RELOAD_CHANNEL, nodeId);
+            } catch (Exception e) {
+                log.warn("Failed to announce lab test catalog reload: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload lab test catalog, keeping the previous snapshot", e);
+        }
+    }
+
+    private void reload() {
+        // Serialized so a slower, older read can never replace a newer snapshot
+        synchronized (reloadLock) {
+            Snapshot next = Snapshot.build(labTestRepository.findAll());
+            snapshot = next;
+            log.debug("Lab test catalog reloaded: {} tests, {} active", next.all.size(), next.active.size());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (reloadLock) {
+                if (snapshot == null) {
+                    snapshot = Snapshot.build(labTestRepository.findAll());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+
+        private static final int[] NO_POSTINGS = new int[0];
+
+        private final LongTable byId;
+        private final List<CatalogTest> all;
+        private final List<CatalogTest> active;
+        private final String[] normalizedNames;
+        private final Map<String, int[]> postings;
+        private final Selection fullBody;
+
+        private Snapshot(LongTable byId, List<CatalogTest> all, List<CatalogTest> active,
+                String[] normalizedNames, Map<String, int[]> postings, Selection fullBody) {
+            this.byId = byId;
+            this.all = all;
+            this.active = active;
+            this.normalizedNames = normalizedNames;
+            this.postings = postings;
+            this.fullBody = fullBody;
+        }
+
+        static Snapshot build(List<LabTest> labTests) {
+            List<CatalogTest> all = new ArrayList<>(labTests.size());
+            for (LabTest labTest : labTests) {
+                all.add(new CatalogTest(labTest.getId(), labTest.getTestName(), labTest.getPrice(),
+                        labTest.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                        labTest.getDescription(), Boolean.TRUE.equals(labTest.getIsActive()),
+                        labTest.getCreatedAt(), labTest.getUpdatedAt()));
+            }
+            all.sort(Comparator.comparingLong(CatalogTest::id));
+
+            LongTable byId = new LongTable(all.size());
+            all.forEach(test -> byId.put(test.id(), test));
+
+            List<CatalogTest> active = all.stream()
+                    .filter(CatalogTest::active)
+                    .sorted(Comparator.comparing(CatalogTest::testName))
+                    .toList();
+
+            String[] normalizedNames = new String[active.size()];
+            Map<String, List<Integer>> grams = new HashMap<>();
+            List<Long> fullBodyIds = new ArrayList<>(active.size());
+            long fullBodyTotal = 0;
+            for (int i = 0; i < active.size(); i++) {
+                CatalogTest test = active.get(i);
+                String name = test.testName().toLowerCase(Locale.ROOT);
+                normalizedNames[i] = name;
+                Set<String> nameGrams = new HashSet<>();
+                for (int length = 1; length <= MAX_GRAM; length++) {
+                    for (int start = 0; start + length <= name.length(); start++) {
+                        nameGrams.add(name.substring(start, start + length));
+                    }
+                }
+                // Indexes are added in ascending order, so every posting list stays sorted
+                for (String gram : nameGrams) {
+                    grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+                }
+                fullBodyIds.add(test.id());
+                fullBodyTotal += test.priceMinorUnits();
+            }
+            Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+            grams.forEach((gram, indexes) -> postings.put(gram,
+                    indexes.stream().mapToInt(Integer::intValue).toArray()));
+
+            return new Snapshot(byId, List.copyOf(all), active, normalizedNames, postings,
+                    new Selection(List.copyOf(fullBodyIds), BigDecimal.valueOf(fullBodyTotal, 2)));
+        }
+
+        /** Active-list indexes (ascending) whose names contain every gram of the query. */
+        int[] candidates(String needle) {
+            if (needle.length() <= MAX_GRAM) {
+                return postings.getOrDefault(needle, NO_POSTINGS);
+            }
+            int[] result = null;
+            for (int start = 0; start + MAX_GRAM <= needle.length(); start++) {
+                int[] posting = postings.get(needle.substring(start, start + MAX_GRAM));
+                if (posting == null) {
+                    return NO_POSTINGS;
+                }
+                result = result == null ? posting : intersect(result, posting);
+                if (result.length == 0) {
+                    return result;
+                }
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+
+    /** Open-addressing map from primitive long ids to tests, written only while a snapshot is built. */
+    private static final class LongTable {
+
+        private final long[] keys;
+        private final CatalogTest[] values;
+        private final int mask;
+
+        LongTable(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+            this.keys = new long[capacity];
+            this.values = new CatalogTest[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void put(long key, CatalogTest value) {
+            int slot = slot(key);
+            while (values[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        CatalogTest get(long key) {
+            int slot = slot(key);
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
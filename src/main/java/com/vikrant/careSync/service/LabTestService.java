@@ -6,6 +6,7 @@ import com.vikrant.careSync.entity.LabTest;
 import com.vikrant.careSync.repository.LabTestRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -19,24 +20,29 @@ import java.util.stream.Collectors;
 public class LabTestService {
 
     private final LabTestRepository labTestRepository;
+    private final LabTestCatalog labTestCatalog;
 
+    // Reads are served from the in-memory catalog and need no transaction or connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<LabTestDto> getAllActiveLabTests() {
-        return labTestRepository.findAllActiveTestsOrderByName()
+        return labTestCatalog.activeTests()
                 .stream()
-                .map(this::convertToDto)
+                .map(LabTestCatalog.CatalogTest::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<LabTestDto> getAllLabTests() {
-        return labTestRepository.findAll()
+        return labTestCatalog.allTests()
                 .stream()
-                .map(this::convertToDto)
+                .map(LabTestCatalog.CatalogTest::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<LabTestDto> getLabTestById(Long id) {
-        return labTestRepository.findById(id)
-                .map(this::convertToDto);
+        return labTestCatalog.find(id)
+                .map(LabTestCatalog.CatalogTest::toDto);
     }
 
     public LabTestDto createLabTest(CreateLabTestRequest request) {
@@ -54,6 +60,7 @@ public class LabTestService {
                 .build();
 
         LabTest savedTest = labTestRepository.save(labTest);
+        labTestCatalog.reloadAfterCommit();
         return convertToDto(savedTest);
     }
 
@@ -73,6 +80,7 @@ public class LabTestService {
         labTest.setIsActive(request.getIsActive() != null ? request.getIsActive() : labTest.getIsActive());
 
         LabTest updatedTest = labTestRepository.save(labTest);
+        labTestCatalog.reloadAfterCommit();
         return convertToDto(updatedTest);
     }
 
@@ -83,20 +91,23 @@ public class LabTestService {
         // Soft delete by setting isActive to false
         labTest.setIsActive(false);
         labTestRepository.save(labTest);
+        labTestCatalog.reloadAfterCommit();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal calculateTotalPrice(List<Long> testIds) {
-        return labTestRepository.calculateTotalPriceByIds(testIds);
+        return labTestCatalog.totalPrice(testIds);
     }
 
     public List<LabTest> getLabTestsByIds(List<Long> testIds) {
         return labTestRepository.findAllById(testIds);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<LabTestDto> searchLabTestsByName(String name) {
-        return labTestRepository.findByTestNameContainingIgnoreCaseAndIsActiveTrue(name)
+        return labTestCatalog.search(name)
                 .stream()
-                .map(this::convertToDto)
+                .map(LabTestCatalog.CatalogTest::toDto)
                 .collect(Collectors.toList());
     }
 
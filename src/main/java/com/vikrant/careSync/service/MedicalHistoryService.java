@@ -10,7 +10,9 @@ import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.repository.DoctorRepository;
 import com.vikrant.careSync.repository.AppointmentRepository;
 import com.vikrant.careSync.service.interfaces.IMedicalHistoryService;
+import com.vikrant.careSync.event.PatientChartEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -27,6 +29,7 @@ public class MedicalHistoryService implements IMedicalHistoryService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public MedicalHistory createMedicalHistory(MedicalHistory medicalHistory) {
@@ -49,7 +52,9 @@ public class MedicalHistoryService implements IMedicalHistoryService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
         medicalHistory.setPatient(patient);
-        return medicalHistoryRepository.save(medicalHistory);
+        MedicalHistory saved = medicalHistoryRepository.save(medicalHistory);
+        eventPublisher.publishEvent(PatientChartEvent.medicalHistoryChanged(patient.getId(), saved.getId()));
+        return saved;
     }
 
     public MedicalHistory createMedicalHistoryWithDoctor(MedicalHistory medicalHistory, Long doctorId) {
@@ -79,7 +84,9 @@ public class MedicalHistoryService implements IMedicalHistoryService {
         medicalHistory.setPatient(patient);
         medicalHistory.setDoctor(doctor);
         // Ensure appointmentId is set if provided in the entity (from request)
-        return medicalHistoryRepository.save(medicalHistory);
+        MedicalHistory saved = medicalHistoryRepository.save(medicalHistory);
+        eventPublisher.publishEvent(PatientChartEvent.medicalHistoryChanged(patient.getId(), saved.getId()));
+        return saved;
     }
 
     @Override
@@ -152,7 +159,10 @@ public class MedicalHistoryService implements IMedicalHistoryService {
             existingHistory.setAppointmentId(updatedHistory.getAppointmentId());
         }
 
-        return medicalHistoryRepository.save(existingHistory);
+        MedicalHistory saved = medicalHistoryRepository.save(existingHistory);
+        eventPublisher.publishEvent(
+                PatientChartEvent.medicalHistoryChanged(saved.getPatient().getId(), saved.getId()));
+        return saved;
     }
 
     @Override
@@ -160,6 +170,8 @@ public class MedicalHistoryService implements IMedicalHistoryService {
         MedicalHistory medicalHistory = medicalHistoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Medical history not found"));
         medicalHistoryRepository.delete(medicalHistory);
+        eventPublisher.publishEvent(
+                PatientChartEvent.medicalHistoryRemoved(medicalHistory.getPatient().getId(), id));
     }
 
     @Override
@@ -5,34 +5,51 @@ import com.vikrant.careSync.entity.Appointment;
 import com.vikrant.careSync.entity.Doctor;
 import com.vikrant.careSync.entity.Patient;
 import com.vikrant.careSync.repository.AppointmentRepository;
+import com.vikrant.careSync.repository.FeedbackRepository;
 import com.vikrant.careSync.entity.Notification;
 import com.vikrant.careSync.repository.NotificationRepository;
-import java.time.LocalDateTime;
-import java.util.List;
 import com.vikrant.careSync.dto.NotificationDto;
+import com.vikrant.careSync.dto.NotificationFeedPageDto;
+import com.vikrant.careSync.realtime.RealtimeEvent;
+import com.vikrant.careSync.realtime.RealtimeEventHub;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    private static final String REMINDER_TYPE = "reminder";
+
     // Use repository directly to avoid circular dependency with AppointmentService
     private final AppointmentRepository appointmentRepository;
+    private final FeedbackRepository feedbackRepository;
     private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounter unreadCounter;
     private final DoctorService doctorService;
+    private final RealtimeEventHub realtimeEventHub;
+    private final AfterCommitTaskDispatcher afterCommitTaskDispatcher;
 
     private final SimpMessagingTemplate messagingTemplate;
 
     public void sendDoctorNewAppointmentNotification(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         String doctorMessage = generateDoctorNewAppointmentMessage(appointment);
@@ -42,7 +59,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentScheduled(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         String patientMessage = generateAppointmentScheduledMessage(appointment);
         String doctorMessage = generateDoctorAppointmentScheduledMessage(appointment);
@@ -51,7 +68,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentStarted(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         String patientMessage = generateAppointmentStartedMessage(appointment);
         String doctorMessage = generateDoctorAppointmentStartedMessage(appointment);
@@ -60,7 +77,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentCompleted(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         String patientMessage = generateAppointmentCompletedMessage(appointment);
         String doctorMessage = generateDoctorAppointmentCompletedMessage(appointment);
@@ -69,7 +86,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentReminder(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         if (appointment.getStatus() == Appointment.Status.BOOKED) {
@@ -82,7 +99,7 @@ public class NotificationService {
 
     public void sendAppointmentReminderWithDetails(Long appointmentId, String reminderType,
             Integer hoursBeforeAppointment) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         if (appointment.getStatus() == Appointment.Status.BOOKED
@@ -106,7 +123,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentConfirmation(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         String patientMessage = generateAppointmentConfirmationMessage(appointment);
@@ -116,7 +133,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentCancellation(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         String patientMessage = generateAppointmentCancellationMessage(appointment);
@@ -126,7 +143,7 @@ public class NotificationService {
     }
 
     public void sendAppointmentReschedule(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         String patientMessage = generateAppointmentRescheduleMessage(appointment);
@@ -135,22 +152,57 @@ public class NotificationService {
         sendToDoctor(appointment, doctorMessage);
     }
 
+    /**
+     * Adds a reminder to the feed of every patient with a BOOKED appointment
+     * tomorrow. The reminders are inserted as one batch; a patient who already
+     * got the same reminder today is skipped, so the fan-out can be re-run.
+     */
+    @Transactional
     public void sendDailyAppointmentReminders() {
-        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
-        List<Doctor> doctors = doctorService.getAllDoctors();
-
-        for (Doctor doctor : doctors) {
-            // Fetch all appointments for the doctor and filter by the target date
-            List<Appointment> tomorrowAppointments = appointmentRepository.findByDoctorId(doctor.getId()).stream()
-                    .filter(a -> a.getAppointmentDateTime().toLocalDate().equals(tomorrow.toLocalDate()))
-                    .toList();
-
-            for (Appointment appointment : tomorrowAppointments) {
-                if (appointment.getStatus() == Appointment.Status.BOOKED) {
-                    sendAppointmentReminder(appointment.getId());
-                }
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<Appointment> tomorrowAppointments = appointmentRepository.findByStatusBetweenWithDetails(
+                Appointment.Status.BOOKED, tomorrow.atStartOfDay(), tomorrow.plusDays(1).atStartOfDay());
+        if (tomorrowAppointments.isEmpty()) {
+            return;
+        }
+
+        Set<Long> patientIds = new HashSet<>();
+        for (Appointment appointment : tomorrowAppointments) {
+            patientIds.add(appointment.getPatient().getId());
+        }
+        Set<String> alreadySent = new HashSet<>();
+        for (NotificationRepository.SentNotification sent : notificationRepository.findSent(
+                AppConstants.Roles.PATIENT, REMINDER_TYPE, patientIds, LocalDate.now().atStartOfDay())) {
+            alreadySent.add(sent.getRecipientId() + ":" + sent.getMessage());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> reminders = new ArrayList<>();
+        for (Appointment appointment : tomorrowAppointments) {
+            Long patientId = appointment.getPatient().getId();
+            String message = generateAppointmentReminderMessage(appointment);
+            if (!alreadySent.add(patientId + ":" + message)) {
+                continue;
             }
+            log.info("Sending appointment reminder: {}", message);
+            reminders.add(Notification.builder()
+                    .recipientType(AppConstants.Roles.PATIENT)
+                    .recipientId(patientId)
+                    .title("Appointment Reminder")
+                    .message(message)
+                    .type(REMINDER_TYPE)
+                    .read(false)
+                    .timestamp(now)
+                    .link("/patient")
+                    .build());
         }
+        List<Notification> saved = notificationRepository.saveAll(reminders);
+        afterCommitTaskDispatcher.submitAfterCommit("daily appointment reminders", () -> {
+            for (Notification notification : saved) {
+                unreadCounter.increment(AppConstants.Roles.PATIENT, notification.getRecipientId());
+                pushNotification(AppConstants.Roles.PATIENT, notification.getRecipientId(), notification);
+            }
+        });
     }
 
     public void sendWeeklySchedule(Long doctorId) {
@@ -168,10 +220,11 @@ public class NotificationService {
     }
 
     public void sendFeedbackReminder(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
-        if (appointment.getStatus() == Appointment.Status.COMPLETED && appointment.getFeedback() == null) {
+        if (appointment.getStatus() == Appointment.Status.COMPLETED
+                && !feedbackRepository.existsByAppointmentId(appointmentId)) {
             String message = generateFeedbackReminderMessage(appointment);
             log.info("Sending feedback reminder: {}", message);
         }
@@ -269,6 +322,39 @@ public class NotificationService {
                 appointment.getDoctor().getLastName());
     }
 
+    /**
+     * Notifies the patient and every doctor with an appointment for them in
+     * the last 90 days (or upcoming) about an abnormal vitals reading.
+     */
+    public void sendVitalAlert(Long patientId, String title, String message) {
+        log.info("[VITALS][PATIENT {}] {}: {}", patientId, title, message);
+        saveAndPush(AppConstants.Roles.PATIENT, patientId, title, message, "vital-alert", "/patient");
+        for (Long doctorId : appointmentRepository.findDoctorIdsByPatientIdSince(patientId,
+                LocalDateTime.now().minusDays(90))) {
+            saveAndPush(AppConstants.Roles.DOCTOR, doctorId, title, message, "vital-alert", "/doctor");
+        }
+    }
+
+    private void saveAndPush(String recipientType, Long recipientId, String title, String message, String type,
+            String link) {
+        Notification notif = Notification.builder()
+                .recipientType(recipientType)
+                .recipientId(recipientId)
+                .title(title)
+                .message(message)
+                .type(type)
+                .read(false)
+                .timestamp(LocalDateTime.now())
+                .link(link)
+                .build();
+        Notification savedNotif = notificationRepository.save(notif);
+        // Counted and pushed after commit so a rolled-back notification is neither counted nor seen by clients
+        afterCommitTaskDispatcher.submitAfterCommit("notification push", recipientType + " " + recipientId, () -> {
+            unreadCounter.increment(recipientType, recipientId);
+            pushNotification(recipientType, recipientId, savedNotif);
+        });
+    }
+
     public void sendSystemNotification(String message, String recipientType, Long recipientId) {
         // In a real application, this would send notifications to specific users
         log.info("System notification to {} (ID: {}): {}", recipientType, recipientId, message);
@@ -398,36 +484,7 @@ public class NotificationService {
         log.info("[DOCTOR][{}] {}", channel, message);
 
         // Persist notification for doctor feed
-        Notification notif = Notification.builder()
-                .recipientType(AppConstants.Roles.DOCTOR)
-                .recipientId(doctor.getId())
-                .title("Appointment Update")
-                .message(message)
-                .type("appointment")
-                .read(false)
-                .timestamp(LocalDateTime.now())
-                .link("/doctor")
-                .build();
-        Notification savedNotif = notificationRepository.save(notif);
-
-        // Push to WebSocket
-        try {
-            // Using a user-specific destination using the doctor's ID
-            // The client will subscribe to /user/queue/notifications
-            // Spring Security User Principal Name is typically used here.
-            // If we authenticated with ID, we use ID. If email, we use email.
-            // Assuming the Principal.getName() returns the username/email used for login.
-            // For now, let's also try to send to a topic that includes the ID for
-            // simplicity if user-destinations fail
-            // But standardized way: convertToDto and send
-            NotificationDto dto = new NotificationDto(savedNotif);
-            messagingTemplate.convertAndSendToUser(
-                    doctor.getEmail(), // Assuming email is the Principal name
-                    "/queue/notifications",
-                    dto);
-        } catch (Exception e) {
-            log.error("Failed to send WebSocket notification to doctor", e);
-        }
+        saveAndPush(AppConstants.Roles.DOCTOR, doctor.getId(), "Appointment Update", message, "appointment", "/doctor");
     }
 
     private void sendToPatient(Appointment appointment, String message) {
@@ -436,55 +493,140 @@ public class NotificationService {
         log.info("[PATIENT][{}] {}", channel, message);
 
         // Persist notification for patient feed
-        Notification notif = Notification.builder()
-                .recipientType(AppConstants.Roles.PATIENT)
-                .recipientId(patient.getId())
-                .title("Appointment Update")
-                .message(message)
-                .type("appointment")
-                .read(false)
-                .timestamp(LocalDateTime.now())
-                .link("/patient")
-                .build();
-        Notification savedNotif = notificationRepository.save(notif);
+        saveAndPush(AppConstants.Roles.PATIENT, patient.getId(), "Appointment Update", message, "appointment", "/patient");
+    }
 
-        // Push to WebSocket
+    // Doctor and patient ids are user ids, which is also the STOMP principal name.
+    // Only call after commit (see saveAndPush and the reminder fan-out).
+    private void pushNotification(String recipientType, Long recipientId, Notification savedNotif) {
+        NotificationDto dto = new NotificationDto(savedNotif);
+        realtimeEventHub.publish(recipientId, RealtimeEvent.NOTIFICATION, dto);
+        realtimeEventHub.publish(recipientId, RealtimeEvent.UNREAD_COUNT,
+                new RealtimeEvent.UnreadCountDelta(recipientType, 1, false));
         try {
-            NotificationDto dto = new NotificationDto(savedNotif);
-            messagingTemplate.convertAndSendToUser(
-                    patient.getEmail(), // Assuming email is the Principal name
-                    "/queue/notifications",
-                    dto);
+            // Legacy destination, kept for clients not yet on /user/queue/events
+            messagingTemplate.convertAndSendToUser(recipientId.toString(), "/queue/notifications", dto);
         } catch (Exception e) {
-            log.error("Failed to send WebSocket notification to patient", e);
+            log.error("Failed to send WebSocket notification to {} {}", recipientType, recipientId, e);
         }
     }
 
+    // Legacy full-feed endpoints now return only the most recent page
     public List<Notification> getDoctorFeed(Long doctorId) {
-        return notificationRepository.findByRecipientTypeAndRecipientIdOrderByTimestampDesc(AppConstants.Roles.DOCTOR,
-                doctorId);
+        return notificationRepository.findFeedFirstPage(AppConstants.Roles.DOCTOR, doctorId,
+                PageRequest.of(0, AppConstants.Config.MAX_PAGE_SIZE));
     }
 
     public long getDoctorUnreadCount(Long doctorId) {
-        return notificationRepository.countByRecipientTypeAndRecipientIdAndReadIsFalse(AppConstants.Roles.DOCTOR,
-                doctorId);
+        return unreadCounter.get(AppConstants.Roles.DOCTOR, doctorId);
     }
 
     public List<Notification> getPatientFeed(Long patientId) {
-        return notificationRepository.findByRecipientTypeAndRecipientIdOrderByTimestampDesc(AppConstants.Roles.PATIENT,
-                patientId);
+        return notificationRepository.findFeedFirstPage(AppConstants.Roles.PATIENT, patientId,
+                PageRequest.of(0, AppConstants.Config.MAX_PAGE_SIZE));
     }
 
     public long getPatientUnreadCount(Long patientId) {
-        return notificationRepository.countByRecipientTypeAndRecipientIdAndReadIsFalse(AppConstants.Roles.PATIENT,
-                patientId);
+        return unreadCounter.get(AppConstants.Roles.PATIENT, patientId);
+    }
+
+    public NotificationFeedPageDto getDoctorFeedPage(Long doctorId, String cursor, Integer size) {
+        return getFeedPage(AppConstants.Roles.DOCTOR, doctorId, cursor, size);
+    }
+
+    public NotificationFeedPageDto getPatientFeedPage(Long patientId, String cursor, Integer size) {
+        return getFeedPage(AppConstants.Roles.PATIENT, patientId, cursor, size);
     }
 
+    @Transactional
     public void markRead(Long notificationId) {
-        Notification notif = notificationRepository.findById(notificationId)
+        NotificationRepository.NotificationRecipient recipient = notificationRepository
+                .findRecipientById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notif.setRead(true);
-        notificationRepository.save(notif);
+        if (notificationRepository.markReadById(notificationId) > 0) {
+            publishUnreadDelta(recipient.getRecipientType(), recipient.getRecipientId(), -1, false);
+        }
+    }
+
+    @Transactional
+    public int markRead(String recipientType, Long recipientId, Collection<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markReadByIds(recipientType, recipientId, notificationIds);
+        if (updated > 0) {
+            publishUnreadDelta(recipientType, recipientId, -updated, false);
+        }
+        return updated;
+    }
+
+    @Transactional
+    public int markAllRead(String recipientType, Long recipientId) {
+        int updated = notificationRepository.markAllRead(recipientType, recipientId);
+        publishUnreadDelta(recipientType, recipientId, -updated, true);
+        return updated;
+    }
+
+    // Counted and pushed after commit so a rolled-back read leaves the counter alone and clients
+    // never see a count the database does not have yet
+    private void publishUnreadDelta(String recipientType, Long recipientId, long delta, boolean reset) {
+        afterCommitTaskDispatcher.submitAfterCommit("unread delta", recipientType + " " + recipientId, () -> {
+            if (reset) {
+                unreadCounter.reset(recipientType, recipientId);
+            } else {
+                unreadCounter.decrement(recipientType, recipientId, -delta);
+            }
+            realtimeEventHub.publish(recipientId, RealtimeEvent.UNREAD_COUNT,
+                    new RealtimeEvent.UnreadCountDelta(recipientType, delta, reset));
+        });
+    }
+
+    private NotificationFeedPageDto getFeedPage(String recipientType, Long recipientId, String cursor,
+            Integer size) {
+        int pageSize = size == null || size <= 0 ? AppConstants.Config.DEFAULT_PAGE_SIZE
+                : Math.min(size, AppConstants.Config.MAX_PAGE_SIZE);
+        // Fetch one extra row to learn whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findFeedFirstPage(recipientType, recipientId, limit);
+        } else {
+            FeedCursor decoded = FeedCursor.decode(cursor);
+            rows = notificationRepository.findFeedPageAfterCursor(recipientType, recipientId,
+                    decoded.timestamp(), decoded.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Notification> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? FeedCursor.encode(page.get(page.size() - 1)) : null;
+
+        return NotificationFeedPageDto.builder()
+                .content(page.stream().map(NotificationDto::new).toList())
+                .size(page.size())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .unreadCount(unreadCounter.get(recipientType, recipientId))
+                .build();
+    }
+
+    private record FeedCursor(LocalDateTime timestamp, Long id) {
+
+        static String encode(Notification last) {
+            String raw = last.getTimestamp() + "|" + last.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static FeedCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid feed cursor: " + cursor);
+            }
+        }
     }
 
     private String resolveChannel(String email, String contactInfo) {
@@ -0,0 +1,109 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unread notification counter per recipient, kept in Redis and adjusted on
+ * insert/read so that polling the badge does not hit the notifications table.
+ * Falls back to an in-memory map when Redis is unavailable. Counters are only
+ * adjusted when already seeded, a missing counter is re-seeded from the database
+ * on the next read, and the TTL bounds any drift after a Redis outage.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationUnreadCounter {
+
+    private static final String KEY_PREFIX = "NOTIFICATION:UNREAD:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    // Only adjust a seeded counter (a bare INCRBY would start a missing key from
+    // zero without a TTL) and never let it go negative.
+    private static final RedisScript<Long> ADJUST_IF_PRESENT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end "
+                    + "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) "
+                    + "if value < 0 then redis.call('SET', KEYS[1], 0, 'KEEPTTL') return 0 end "
+                    + "return value",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationRepository notificationRepository;
+
+    private final Map<String, AtomicLong> localCounters = new ConcurrentHashMap<>();
+
+    public long get(String recipientType, Long recipientId) {
+        String key = key(recipientType, recipientId);
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            // Redis is healthy again: drop the local fallback so it cannot go stale
+            localCounters.remove(key);
+            if (cached != null) {
+                return Math.max(0, Long.parseLong(cached));
+            }
+            long count = countFromDatabase(recipientType, recipientId);
+            redisTemplate.opsForValue().set(key, Long.toString(count), TTL);
+            return count;
+        } catch (Exception e) {
+            log.warn("Redis unavailable for unread counter {}: {}. Using in-memory counter.", key, e.getMessage());
+            return localCounters
+                    .computeIfAbsent(key, k -> new AtomicLong(countFromDatabase(recipientType, recipientId)))
+                    .get();
+        }
+    }
+
+    public void increment(String recipientType, Long recipientId) {
+        adjust(recipientType, recipientId, 1);
+    }
+
+    public void decrement(String recipientType, Long recipientId, long delta) {
+        if (delta > 0) {
+            adjust(recipientType, recipientId, -delta);
+        }
+    }
+
+    public void reset(String recipientType, Long recipientId) {
+        String key = key(recipientType, recipientId);
+        localCounters.computeIfPresent(key, (k, counter) -> {
+            counter.set(0);
+            return counter;
+        });
+        try {
+            redisTemplate.opsForValue().set(key, "0", TTL);
+        } catch (Exception e) {
+            log.warn("Redis unavailable while resetting unread counter {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void adjust(String recipientType, Long recipientId, long delta) {
+        String key = key(recipientType, recipientId);
+        localCounters.computeIfPresent(key, (k, counter) -> {
+            counter.updateAndGet(value -> Math.max(0, value + delta));
+            return counter;
+        });
+        try {
+            redisTemplate.execute(ADJUST_IF_PRESENT, List.of(key), Long.toString(delta));
+        } catch (Exception e) {
+            log.warn("Redis unavailable while adjusting unread counter {}: {}", key, e.getMessage());
+        }
+    }
+
+    private long countFromDatabase(String recipientType, Long recipientId) {
+        return notificationRepository.countByRecipientTypeAndRecipientIdAndReadIsFalse(recipientType, recipientId);
+    }
+
+    private String key(String recipientType, Long recipientId) {
+        return KEY_PREFIX + recipientType + ":" + recipientId;
+    }
+}
@@ -0,0 +1,189 @@
+package com.vikrant.careSync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.dto.DocumentDto;
+import com.vikrant.careSync.dto.MedicalHistoryDto;
+import com.vikrant.careSync.dto.PatientChartDto;
+import com.vikrant.careSync.dto.PatientDto;
+import com.vikrant.careSync.entity.Document;
+import com.vikrant.careSync.event.PatientChartEvent;
+import com.vikrant.careSync.repository.DocumentRepository;
+import com.vikrant.careSync.repository.MedicalHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Patient chart materialized view. A chart is built in full on first read and
+ * then patched section by section from {@link PatientChartEvent}s once the
+ * writing transaction has committed, so opening a chart is a single key lookup.
+ * Every change bumps the stored version, which doubles as the HTTP ETag.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientChartService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final PatientChartStore chartStore;
+    private final PatientService patientService;
+    private final MedicalHistoryRepository medicalHistoryRepository;
+    private final DocumentRepository documentRepository;
+    private final ObjectMapper objectMapper;
+
+    public Optional<PatientChartDto> getChart(Long patientId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            PatientChartStore.StoredChart stored = chartStore.read(patientId);
+            if (stored != null && stored.document() != null) {
+                return Optional.of(deserialize(stored.document()));
+            }
+
+            long expectedVersion = stored != null ? stored.version() : 0L;
+            Optional<PatientChartDto> built = buildChart(patientId, expectedVersion + 1);
+            if (built.isEmpty()) {
+                return built;
+            }
+            // Fails if a write invalidated the chart while it was being built
+            if (chartStore.compareAndSet(patientId, expectedVersion, expectedVersion + 1,
+                    serialize(built.get()))) {
+                return built;
+            }
+        }
+        // Writes keep racing with the build: serve a fresh build without storing it
+        log.debug("Patient chart {} under concurrent writes, serving unstored build", patientId);
+        return buildChart(patientId, -1);
+    }
+
+    public static String eTagOf(PatientChartDto chart) {
+        return "\"" + chart.getPatientId() + "-" + chart.getBuiltAt() + "-" + chart.getVersion() + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChartEvent(PatientChartEvent event) {
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                PatientChartStore.StoredChart stored = chartStore.read(event.patientId());
+                if (stored == null || stored.document() == null) {
+                    // Nothing materialized: still bump the version so an in-flight build is discarded
+                    chartStore.invalidate(event.patientId());
+                    return;
+                }
+                PatientChartDto chart = deserialize(stored.document());
+                if (!apply(chart, event)) {
+                    chartStore.invalidate(event.patientId());
+                    return;
+                }
+                chart.setVersion(stored.version() + 1);
+                chart.setUpdatedAt(LocalDateTime.now());
+                if (chartStore.compareAndSet(event.patientId(), stored.version(), chart.getVersion(),
+                        serialize(chart))) {
+                    return;
+                }
+            }
+            chartStore.invalidate(event.patientId());
+        } catch (Exception e) {
+            log.warn("Failed to apply {} to patient chart {}, invalidating: {}", event.section(),
+                    event.patientId(), e.getMessage());
+            chartStore.invalidate(event.patientId());
+        }
+    }
+
+    // Patches one section in place; returns false when the chart must be rebuilt instead
+    private boolean apply(PatientChartDto chart, PatientChartEvent event) {
+        switch (event.section()) {
+            case PROFILE -> {
+                Optional<PatientDto> patient = patientService.loadPatientDto(event.patientId());
+                if (patient.isEmpty()) {
+                    return false;
+                }
+                chart.setPatient(patient.get());
+            }
+            case MEDICAL_HISTORY -> {
+                Optional<MedicalHistoryDto> history = event.removed() ? Optional.empty()
+                        : medicalHistoryRepository.findById(event.entityId())
+                                .filter(h -> h.getPatient() != null
+                                        && event.patientId().equals(h.getPatient().getId()))
+                                .map(MedicalHistoryDto::new);
+                chart.setMedicalHistory(upsert(chart.getMedicalHistory(), event.entityId(), history,
+                        MedicalHistoryDto::getId));
+            }
+            case DOCUMENT -> {
+                Optional<DocumentDto> document = event.removed() ? Optional.empty()
+                        : documentRepository.findById(event.entityId())
+                                .filter(d -> Boolean.TRUE.equals(d.getIsActive())
+                                        && d.getDocumentType() == Document.DocumentType.LAB_REPORT
+                                        && d.getPatient() != null
+                                        && event.patientId().equals(d.getPatient().getId()))
+                                .map(d -> new DocumentDto(d, d.getFilePath(), d.getFilePath()));
+                List<DocumentDto> documents = upsert(chart.getDocuments(), event.entityId(), document,
+                        DocumentDto::getId);
+                documents.sort(Comparator.comparing(DocumentDto::getUploadDate,
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+                chart.setDocuments(documents);
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> upsert(List<T> items, Long id, Optional<T> replacement, Function<T, Long> idOf) {
+        List<T> updated = new ArrayList<>(items.size() + 1);
+        boolean replaced = false;
+        for (T item : items) {
+            if (id.equals(idOf.apply(item))) {
+                if (replacement.isPresent() && !replaced) {
+                    updated.add(replacement.get());
+                    replaced = true;
+                }
+            } else {
+                updated.add(item);
+            }
+        }
+        if (!replaced) {
+            replacement.ifPresent(updated::add);
+        }
+        return updated;
+    }
+
+    private Optional<PatientChartDto> buildChart(Long patientId, long version) {
+        return patientService.loadPatientDto(patientId).map(patient -> PatientChartDto.builder()
+                .patientId(patientId)
+                .version(version)
+                .builtAt(System.currentTimeMillis())
+                .updatedAt(LocalDateTime.now())
+                .patient(patient)
+                .medicalHistory(medicalHistoryRepository.findByPatientId(patientId).stream()
+                        .map(MedicalHistoryDto::new)
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .documents(documentRepository
+                        .findByPatientIdAndDocumentType(patientId, Document.DocumentType.LAB_REPORT).stream()
+                        .map(d -> new DocumentDto(d, d.getFilePath(), d.getFilePath()))
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build());
+    }
+
+    private String serialize(PatientChartDto chart) {
+        try {
+            return objectMapper.writeValueAsString(chart);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize patient chart " + chart.getPatientId(), e);
+        }
+    }
+
+    private PatientChartDto deserialize(String document) {
+        try {
+            return objectMapper.readValue(document, PatientChartDto.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read stored patient chart", e);
+        }
+    }
+}
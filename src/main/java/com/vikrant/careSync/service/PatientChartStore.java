@@ -0,0 +1,108 @@
+package com.vikrant.careSync.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned document store for patient charts: one Redis hash per patient with
+ * a {@code version} and the serialized {@code document}. Writes are
+ * compare-and-set on the version so concurrent rebuilds and incremental updates
+ * from different nodes cannot overwrite each other. Invalidation bumps the
+ * version and drops the document, which also fails any rebuild that started
+ * before it. Falls back to an in-memory map when Redis is unavailable.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatientChartStore {
+
+    private static final String KEY_PREFIX = "PATIENT:CHART:";
+    private static final Duration TTL = Duration.ofHours(24);
+
+    private static final RedisScript<Long> COMPARE_AND_SET = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], 'version') "
+                    + "if (current == false and ARGV[1] == '0') or current == ARGV[1] then "
+                    + "redis.call('HSET', KEYS[1], 'version', ARGV[2], 'document', ARGV[3]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[4]) "
+                    + "return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private static final RedisScript<Long> INVALIDATE = new DefaultRedisScript<>(
+            "local version = redis.call('HINCRBY', KEYS[1], 'version', 1) "
+                    + "redis.call('HDEL', KEYS[1], 'document') "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "return version",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<Long, StoredChart> localCharts = new ConcurrentHashMap<>();
+
+    /**
+     * Current version and document; the document is null after an invalidation.
+     * Returns null when nothing is stored for the patient.
+     */
+    public StoredChart read(Long patientId) {
+        String key = key(patientId);
+        try {
+            List<Object> fields = redisTemplate.opsForHash().multiGet(key, List.of("version", "document"));
+            localCharts.remove(patientId);
+            if (fields.get(0) == null) {
+                return null;
+            }
+            return new StoredChart(Long.parseLong((String) fields.get(0)), (String) fields.get(1));
+        } catch (Exception e) {
+            log.warn("Redis unavailable for patient chart {}: {}. Using in-memory store.", key, e.getMessage());
+            return localCharts.get(patientId);
+        }
+    }
+
+    public boolean compareAndSet(Long patientId, long expectedVersion, long newVersion, String document) {
+        String key = key(patientId);
+        try {
+            Long result = redisTemplate.execute(COMPARE_AND_SET, List.of(key), Long.toString(expectedVersion),
+                    Long.toString(newVersion), document, Long.toString(TTL.toMillis()));
+            return result != null && result == 1L;
+        } catch (Exception e) {
+            log.warn("Redis unavailable while writing patient chart {}: {}", key, e.getMessage());
+            boolean[] swapped = new boolean[1];
+            localCharts.compute(patientId, (id, current) -> {
+                long currentVersion = current != null ? current.version() : 0L;
+                if (currentVersion != expectedVersion) {
+                    return current;
+                }
+                swapped[0] = true;
+                return new StoredChart(newVersion, document);
+            });
+            return swapped[0];
+        }
+    }
+
+    public void invalidate(Long patientId) {
+        String key = key(patientId);
+        localCharts.compute(patientId,
+                (id, current) -> new StoredChart(current != null ? current.version() + 1 : 1L, null));
+        try {
+            redisTemplate.execute(INVALIDATE, List.of(key), Long.toString(TTL.toMillis()));
+        } catch (Exception e) {
+            log.warn("Redis unavailable while invalidating patient chart {}: {}", key, e.getMessage());
+        }
+    }
+
+    private String key(Long patientId) {
+        return KEY_PREFIX + patientId;
+    }
+
+    public record StoredChart(long version, String document) {
+    }
+}
@@ -7,10 +7,12 @@ import com.vikrant.careSync.repository.MedicalHistoryRepository;
 import com.vikrant.careSync.service.interfaces.IPatientService;
 import com.vikrant.careSync.dto.PatientDto;
 import com.vikrant.careSync.dto.MedicalHistoryDto;
+import com.vikrant.careSync.event.PatientChartEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -24,11 +26,16 @@ public class PatientService implements IPatientService {
 
     private final PatientRepository patientRepository;
     private final MedicalHistoryRepository medicalHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
 
+    public long countPatients() {
+        return patientRepository.count();
+    }
+
     @Cacheable(value = "PATIENT:PROFILE", key = "'id_' + #id")
     public Optional<PatientDto> getPatientDtoById(Long id) {
         return patientRepository.findById(id).map(this::convertToDtoWithStats);
@@ -39,6 +46,11 @@ public class PatientService implements IPatientService {
         return patientRepository.findByUsername(username).map(this::convertToDtoWithStats);
     }
 
+    // Uncached read used to build the patient chart view
+    public Optional<PatientDto> loadPatientDto(Long id) {
+        return patientRepository.findById(id).map(this::convertToDtoWithStats);
+    }
+
     private PatientDto convertToDtoWithStats(Patient patient) {
         PatientDto dto = new PatientDto(patient);
         dto.setCompletionPercentage(calculateCompletionPercentage(patient));
@@ -102,7 +114,9 @@ public class PatientService implements IPatientService {
         patient.setBloodGroup(updatedPatient.getBloodGroup());
         patient.setIsActive(updatedPatient.getIsActive());
 
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChartEvent.profileChanged(saved.getId()));
+        return saved;
     }
 
     public Patient getPatientProfile(String username) {
@@ -117,7 +131,9 @@ public class PatientService implements IPatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
         medicalHistory.setPatient(patient);
-        return medicalHistoryRepository.save(medicalHistory);
+        MedicalHistory saved = medicalHistoryRepository.save(medicalHistory);
+        eventPublisher.publishEvent(PatientChartEvent.medicalHistoryChanged(patientId, saved.getId()));
+        return saved;
     }
 
     @Cacheable(value = "PATIENT:HISTORY", key = "'history_' + #patientId")
@@ -141,11 +157,18 @@ public class PatientService implements IPatientService {
         history.setDiagnosis(updatedHistory.getDiagnosis());
         history.setTreatment(updatedHistory.getTreatment());
 
-        return medicalHistoryRepository.save(history);
+        MedicalHistory saved = medicalHistoryRepository.save(history);
+        eventPublisher.publishEvent(
+                PatientChartEvent.medicalHistoryChanged(saved.getPatient().getId(), saved.getId()));
+        return saved;
     }
 
     public void deleteMedicalHistory(Long historyId) {
-        medicalHistoryRepository.deleteById(historyId);
+        medicalHistoryRepository.findById(historyId).ifPresent(history -> {
+            medicalHistoryRepository.delete(history);
+            eventPublisher.publishEvent(
+                    PatientChartEvent.medicalHistoryRemoved(history.getPatient().getId(), historyId));
+        });
     }
 
     public List<MedicalHistory> getMedicalHistoryByDateRange(Long patientId, LocalDate startDate, LocalDate endDate) {
@@ -168,7 +191,9 @@ public class PatientService implements IPatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
         patient.setIllnessDetails(illnessDetails);
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChartEvent.profileChanged(saved.getId()));
+        return saved;
     }
 
     @CacheEvict(value = "PATIENT:PROFILE", allEntries = true)
@@ -177,7 +202,9 @@ public class PatientService implements IPatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
         patient.setContactInfo(contactInfo);
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChartEvent.profileChanged(saved.getId()));
+        return saved;
     }
 
     public Patient updateProfileImage(Long patientId, String imageUrl) {
@@ -185,7 +212,9 @@ public class PatientService implements IPatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
         patient.setProfileImageUrl(imageUrl);
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChartEvent.profileChanged(saved.getId()));
+        return saved;
     }
 
     public Patient updateProfileImageByUsername(String username, String imageUrl) {
@@ -194,6 +223,8 @@ public class PatientService implements IPatientService {
 
         patient.setProfileImageUrl(imageUrl);
         patient.setUpdatedAt(LocalDateTime.now());
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChartEvent.profileChanged(saved.getId()));
+        return saved;
     }
 }
\ No newline at end of file
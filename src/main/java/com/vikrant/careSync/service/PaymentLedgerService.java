@@ -0,0 +1,465 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.config.AnalyticsWorkload;
+import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.entity.LedgerEntry;
+import com.vikrant.careSync.entity.LedgerTotal;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.repository.BookingRepository;
+import com.vikrant.careSync.repository.DoctorRepository;
+import com.vikrant.careSync.repository.LedgerEntryRepository;
+import com.vikrant.careSync.repository.LedgerTotalRepository;
+import com.vikrant.careSync.repository.LedgerTotalsWriter;
+import com.vikrant.careSync.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Double-entry payment ledger and the reports built on it. Whenever a payment
+ * changes status, {@link #post} appends the postings that status implies
+ * (capture: debit gateway clearing, credit revenue; refund: debit refunds,
+ * credit gateway clearing) and adds the same amounts to the per-day totals by
+ * method, patient, doctor and specialization, all in the status change's own
+ * transaction. Failed and cancelled payments move no money and only count
+ * towards the totals. Payments settled before the ledger existed are posted
+ * once at startup.
+ */
+@Service
+@Slf4j
+public class PaymentLedgerService {
+
+    public static final String PATIENT_FINANCIAL_CACHE = "PATIENT:FINANCIAL";
+
+    private static final Set<Payment.PaymentStatus> CAPTURED = EnumSet.of(Payment.PaymentStatus.SUCCESS,
+            Payment.PaymentStatus.PARTIAL_REFUND, Payment.PaymentStatus.REFUNDED);
+    private static final Set<Payment.PaymentStatus> UNSUCCESSFUL = EnumSet.of(Payment.PaymentStatus.FAILED,
+            Payment.PaymentStatus.CANCELLED);
+    private static final Set<Payment.PaymentStatus> SETTLED = EnumSet.of(Payment.PaymentStatus.SUCCESS,
+            Payment.PaymentStatus.PARTIAL_REFUND, Payment.PaymentStatus.REFUNDED, Payment.PaymentStatus.FAILED,
+            Payment.PaymentStatus.CANCELLED);
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerTotalRepository ledgerTotalRepository;
+    private final LedgerTotalsWriter ledgerTotalsWriter;
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final DoctorRepository doctorRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int backfillBatchSize;
+
+    public PaymentLedgerService(LedgerEntryRepository ledgerEntryRepository,
+            LedgerTotalRepository ledgerTotalRepository,
+            LedgerTotalsWriter ledgerTotalsWriter,
+            PaymentRepository paymentRepository,
+            BookingRepository bookingRepository,
+            DoctorRepository doctorRepository,
+            CacheManager cacheManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.ledger.backfill-on-startup:true}") boolean backfillOnStartup,
+            @Value("${app.ledger.backfill-batch-size:200}") int backfillBatchSize) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerTotalRepository = ledgerTotalRepository;
+        this.ledgerTotalsWriter = ledgerTotalsWriter;
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.doctorRepository = doctorRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /**
+     * Brings the ledger up to the payment's current status. Must be called in
+     * the transaction that changes the status, before it is flushed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(Payment payment) {
+        if (payment.getPaymentStatus() == payment.getLedgerStatus()) {
+            return;
+        }
+        BookingRepository.BookingDoctor doctor = payment.getBookingId() == null ? null
+                : bookingRepository.findDoctorsByBookingIds(List.of(payment.getBookingId())).stream()
+                        .findFirst().orElse(null);
+        LocalDate today = LocalDate.now();
+        post(payment, doctor, today, today);
+        payment.setLedgerStatus(payment.getPaymentStatus());
+        evictPatientStatsAfterCommit(payment.getPatient().getId());
+    }
+
+    private void post(Payment payment, BookingRepository.BookingDoctor doctor, LocalDate captureDate,
+            LocalDate changeDate) {
+        Payment.PaymentStatus posted = payment.getLedgerStatus();
+        Payment.PaymentStatus current = payment.getPaymentStatus();
+        List<LedgerEntry> entries = new ArrayList<>(4);
+        List<LedgerTotalsWriter.Delta> deltas = new ArrayList<>(10);
+
+        if (CAPTURED.contains(current) && !CAPTURED.contains(posted)) {
+            journal(entries, payment, doctor, LedgerEntry.Account.GATEWAY_CLEARING,
+                    LedgerEntry.Account.SERVICE_REVENUE, payment.getAmount(), captureDate);
+            addDeltas(deltas, payment, doctor, captureDate, payment.getAmount(), 1, BigDecimal.ZERO, 0, 0);
+        }
+
+        BigDecimal refundTarget = refundedAmount(payment);
+        if (refundTarget.signum() > 0) {
+            BigDecimal alreadyRefunded = posted == null ? BigDecimal.ZERO
+                    : ledgerEntryRepository.sumForPayment(payment.getId(), LedgerEntry.Account.REFUNDS,
+                            LedgerEntry.Direction.DEBIT);
+            BigDecimal refund = refundTarget.subtract(alreadyRefunded);
+            if (refund.signum() > 0) {
+                journal(entries, payment, doctor, LedgerEntry.Account.REFUNDS,
+                        LedgerEntry.Account.GATEWAY_CLEARING, refund, changeDate);
+                addDeltas(deltas, payment, doctor, changeDate, BigDecimal.ZERO, 0, refund, 1, 0);
+            }
+        }
+
+        if (UNSUCCESSFUL.contains(current) && !UNSUCCESSFUL.contains(posted)) {
+            addDeltas(deltas, payment, doctor, changeDate, BigDecimal.ZERO, 0, BigDecimal.ZERO, 0, 1);
+        }
+
+        if (!entries.isEmpty()) {
+            ledgerEntryRepository.saveAll(entries);
+        }
+        ledgerTotalsWriter.apply(deltas);
+    }
+
+    private static BigDecimal refundedAmount(Payment payment) {
+        return switch (payment.getPaymentStatus()) {
+            case REFUNDED -> payment.getRefundAmount() != null ? payment.getRefundAmount() : payment.getAmount();
+            case PARTIAL_REFUND -> payment.getRefundAmount() != null ? payment.getRefundAmount() : BigDecimal.ZERO;
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    private static void journal(List<LedgerEntry> entries, Payment payment, BookingRepository.BookingDoctor doctor,
+            LedgerEntry.Account debit, LedgerEntry.Account credit, BigDecimal amount, LocalDate entryDate) {
+        String journalId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerEntry.Direction direction : LedgerEntry.Direction.values()) {
+            entries.add(LedgerEntry.builder()
+                    .journalId(journalId)
+                    .paymentId(payment.getId())
+                    .account(direction == LedgerEntry.Direction.DEBIT ? debit : credit)
+                    .direction(direction)
+                    .amount(amount)
+                    .currency(payment.getCurrency() != null ? payment.getCurrency() : "INR")
+                    .paymentMethod(payment.getPaymentMethod())
+                    .paymentType(payment.getPaymentType())
+                    .patientId(payment.getPatient().getId())
+                    .doctorId(doctor != null ? doctor.getDoctorId() : null)
+                    .specialization(doctor != null ? doctor.getSpecialization() : null)
+                    .fromStatus(payment.getLedgerStatus())
+                    .toStatus(payment.getPaymentStatus())
+                    .entryDate(entryDate)
+                    .createdAt(now)
+                    .build());
+        }
+    }
+
+    private static void addDeltas(List<LedgerTotalsWriter.Delta> deltas, Payment payment,
+            BookingRepository.BookingDoctor doctor, LocalDate day, BigDecimal captured, long capturedCount,
+            BigDecimal refunded, long refundCount, long failedCount) {
+        Payment.PaymentType type = payment.getPaymentType();
+        deltas.add(new LedgerTotalsWriter.Delta(day, LedgerTotal.Dimension.ALL, "", type, captured, capturedCount,
+                refunded, refundCount, failedCount));
+        deltas.add(new LedgerTotalsWriter.Delta(day, LedgerTotal.Dimension.METHOD, payment.getPaymentMethod().name(),
+                type, captured, capturedCount, refunded, refundCount, failedCount));
+        deltas.add(new LedgerTotalsWriter.Delta(day, LedgerTotal.Dimension.PATIENT,
+                payment.getPatient().getId().toString(), type, captured, capturedCount, refunded, refundCount,
+                failedCount));
+        if (doctor != null) {
+            deltas.add(new LedgerTotalsWriter.Delta(day, LedgerTotal.Dimension.DOCTOR,
+                    doctor.getDoctorId().toString(), type, captured, capturedCount, refunded, refundCount,
+                    failedCount));
+            if (doctor.getSpecialization() != null) {
+                deltas.add(new LedgerTotalsWriter.Delta(day, LedgerTotal.Dimension.SPECIALIZATION,
+                        doctor.getSpecialization(), type, captured, capturedCount, refunded, refundCount,
+                        failedCount));
+            }
+        }
+    }
+
+    private void evictPatientStatsAfterCommit(Long patientId) {
+        Runnable evict = () -> {
+            try {
+                Cache cache = cacheManager.getCache(PATIENT_FINANCIAL_CACHE);
+                if (cache != null) {
+                    cache.evict(patientId);
+                }
+            } catch (RuntimeException e) {
+                // The entry expires on its own TTL
+                log.warn("Failed to evict financial stats for patient {}: {}", patientId, e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+
+    /**
+     * Posts payments that were settled before the ledger existed. Rows are claimed
+     * with SKIP LOCKED, so several nodes starting together split the work.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            int total = 0;
+            Integer posted;
+            while ((posted = transactionTemplate.execute(status -> backfillBatch())) != null && posted > 0) {
+                total += posted;
+            }
+            if (total > 0) {
+                log.info("Posted {} existing payments to the ledger", total);
+                Cache cache = cacheManager.getCache(PATIENT_FINANCIAL_CACHE);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Payment ledger backfill failed; it resumes on the next start", e);
+        }
+    }
+
+    private int backfillBatch() {
+        List<Payment> batch = paymentRepository.claimUnposted(SETTLED, PageRequest.of(0, backfillBatchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> bookingIds = batch.stream().map(Payment::getBookingId).filter(id -> id != null).distinct()
+                .toList();
+        Map<Long, BookingRepository.BookingDoctor> doctors = bookingIds.isEmpty() ? Map.of()
+                : bookingRepository.findDoctorsByBookingIds(bookingIds).stream()
+                        .collect(Collectors.toMap(BookingRepository.BookingDoctor::getBookingId,
+                                Function.identity()));
+        for (Payment payment : batch) {
+            LocalDate captureDate = (payment.getPaymentCompletedAt() != null ? payment.getPaymentCompletedAt()
+                    : payment.getCreatedAt()).toLocalDate();
+            LocalDate changeDate = payment.getUpdatedAt() != null ? payment.getUpdatedAt().toLocalDate()
+                    : captureDate;
+            post(payment, payment.getBookingId() != null ? doctors.get(payment.getBookingId()) : null, captureDate,
+                    changeDate);
+        }
+        // Bulk update: leaves version and updated_at of historical payments alone
+        paymentRepository.markLedgerPosted(batch.stream().map(Payment::getId).toList());
+        return batch.size();
+    }
+
+    /**
+     * Payment counts and revenue for the dashboard, from the daily totals.
+     */
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentStatistics(LocalDate startDate, LocalDate endDate) {
+        Sum total = new Sum();
+        ledgerTotalRepository.sumByDay(startDate, endDate).forEach(total::add);
+
+        Map<String, Object> byMethod = new LinkedHashMap<>();
+        ledgerTotalRepository.sumByKey(LedgerTotal.Dimension.METHOD, startDate, endDate).stream()
+                .sorted(Comparator.comparing(LedgerTotalRepository.KeyedTotals::getDimensionKey))
+                .forEach(row -> {
+                    Sum method = new Sum().add(row);
+                    byMethod.put(row.getDimensionKey(), Map.of(
+                            "count", method.capturedCount,
+                            "amount", method.captured,
+                            "netAmount", method.net()));
+                });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalPayments", total.capturedCount + total.failedCount);
+        stats.put("successfulPayments", total.capturedCount);
+        stats.put("failedPayments", total.failedCount);
+        stats.put("refunds", total.refundCount);
+        stats.put("totalRevenue", total.captured);
+        stats.put("refundedAmount", total.refunded);
+        stats.put("netRevenue", total.net());
+        stats.put("averageTransactionAmount", total.capturedCount > 0
+                ? total.captured.divide(BigDecimal.valueOf(total.capturedCount), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        stats.put("paymentsByMethod", byMethod);
+        stats.put("startDate", startDate);
+        stats.put("endDate", endDate);
+        return stats;
+    }
+
+    /**
+     * Net amount a patient has paid (captured minus refunded), by payment type.
+     */
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public Map<Payment.PaymentType, BigDecimal> getPatientNetSpendByType(Long patientId) {
+        Map<Payment.PaymentType, BigDecimal> spend = new EnumMap<>(Payment.PaymentType.class);
+        for (LedgerTotalRepository.TypeTotals row : ledgerTotalRepository
+                .sumByPaymentType(LedgerTotal.Dimension.PATIENT, patientId.toString())) {
+            spend.put(row.getPaymentType(), new Sum().add(row).net());
+        }
+        return spend;
+    }
+
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRevenueAnalysis(LocalDate startDate, LocalDate endDate) {
+        Sum total = new Sum();
+        List<LedgerTotalRepository.DailyTotals> days = ledgerTotalRepository.sumByDay(startDate, endDate);
+        days.forEach(total::add);
+
+        Map<String, Object> analysis = new LinkedHashMap<>();
+        analysis.put("totalRevenue", total.net());
+        analysis.put("grossRevenue", total.captured);
+        analysis.put("refundedAmount", total.refunded);
+        analysis.put("revenueByDoctor", getRevenueByDoctor(startDate, endDate));
+        analysis.put("revenueBySpecialization", getRevenueBySpecialization(startDate, endDate));
+        analysis.put("revenueTrends", trends(days));
+        analysis.put("startDate", startDate);
+        analysis.put("endDate", endDate);
+        return analysis;
+    }
+
+    /**
+     * Net revenue per doctor, highest first. Only payments for doctor-prescribed
+     * bookings are attributed to a doctor.
+     */
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRevenueByDoctor(LocalDate startDate, LocalDate endDate) {
+        List<LedgerTotalRepository.KeyedTotals> rows = ledgerTotalRepository
+                .sumByKey(LedgerTotal.Dimension.DOCTOR, startDate, endDate);
+        Map<Long, Doctor> doctors = doctorRepository
+                .findAllById(rows.stream().map(row -> Long.valueOf(row.getDimensionKey())).toList()).stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+
+        return rows.stream()
+                .map(row -> {
+                    Long doctorId = Long.valueOf(row.getDimensionKey());
+                    Doctor doctor = doctors.get(doctorId);
+                    Map<String, Object> entry = revenueEntry(new Sum().add(row));
+                    entry.put("doctorId", doctorId);
+                    entry.put("doctorName", doctor != null ? doctor.getName() : null);
+                    entry.put("specialization", doctor != null ? doctor.getSpecialization() : null);
+                    return entry;
+                })
+                .sorted(Comparator.comparing((Map<String, Object> entry) -> (BigDecimal) entry.get("revenue"))
+                        .reversed())
+                .toList();
+    }
+
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRevenueBySpecialization(LocalDate startDate, LocalDate endDate) {
+        return ledgerTotalRepository.sumByKey(LedgerTotal.Dimension.SPECIALIZATION, startDate, endDate).stream()
+                .map(row -> {
+                    Map<String, Object> entry = revenueEntry(new Sum().add(row));
+                    entry.put("specialization", row.getDimensionKey());
+                    return entry;
+                })
+                .sorted(Comparator.comparing((Map<String, Object> entry) -> (BigDecimal) entry.get("revenue"))
+                        .reversed())
+                .toList();
+    }
+
+    /**
+     * Net revenue per day, ISO week and month over the range.
+     */
+    @AnalyticsWorkload
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRevenueTrends(LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> report = trends(ledgerTotalRepository.sumByDay(startDate, endDate));
+        report.put("startDate", startDate);
+        report.put("endDate", endDate);
+        return report;
+    }
+
+    private static Map<String, Object> trends(List<LedgerTotalRepository.DailyTotals> days) {
+        Map<String, BigDecimal> daily = new LinkedHashMap<>();
+        Map<String, BigDecimal> weekly = new LinkedHashMap<>();
+        Map<String, BigDecimal> monthly = new LinkedHashMap<>();
+        for (LedgerTotalRepository.DailyTotals day : days) {
+            LocalDate date = day.getPeriodDate();
+            BigDecimal net = new Sum().add(day).net();
+            daily.put(date.toString(), net);
+            weekly.merge(String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR),
+                    date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)), net, BigDecimal::add);
+            monthly.merge(String.format("%d-%02d", date.getYear(), date.getMonthValue()), net, BigDecimal::add);
+        }
+        Map<String, Object> trends = new HashMap<>();
+        trends.put("dailyTrends", daily);
+        trends.put("weeklyTrends", weekly);
+        trends.put("monthlyTrends", monthly);
+        return trends;
+    }
+
+    private static Map<String, Object> revenueEntry(Sum sum) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("revenue", sum.net());
+        entry.put("grossRevenue", sum.captured);
+        entry.put("refundedAmount", sum.refunded);
+        entry.put("payments", sum.capturedCount);
+        return entry;
+    }
+
+    private static final class Sum {
+        private BigDecimal captured = BigDecimal.ZERO;
+        private BigDecimal refunded = BigDecimal.ZERO;
+        private long capturedCount;
+        private long refundCount;
+        private long failedCount;
+
+        Sum add(LedgerTotalRepository.Totals row) {
+            captured = captured.add(orZero(row.getCapturedAmount()));
+            refunded = refunded.add(orZero(row.getRefundedAmount()));
+            capturedCount += row.getCapturedCount() != null ? row.getCapturedCount() : 0;
+            refundCount += row.getRefundCount() != null ? row.getRefundCount() : 0;
+            failedCount += row.getFailedCount() != null ? row.getFailedCount() : 0;
+            return this;
+        }
+
+        BigDecimal net() {
+            return captured.subtract(refunded);
+        }
+
+        private static BigDecimal orZero(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
+    }
+}
@@ -1,31 +1,47 @@
 package com.vikrant.careSync.service;
 
+import com.vikrant.careSync.diagnostics.ExecutorRejectionEvent;
+import com.vikrant.careSync.diagnostics.LockWaitEvent;
 import com.vikrant.careSync.dto.PaymentRequestDto;
 import com.vikrant.careSync.dto.PaymentResponseDto;
 import com.vikrant.careSync.entity.Booking;
 import com.vikrant.careSync.entity.Payment;
 import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.exception.PaymentGatewayUnavailableException;
 import com.vikrant.careSync.repository.BookingRepository;
 import com.vikrant.careSync.repository.PaymentRepository;
 import com.vikrant.careSync.repository.PatientRepository;
-import lombok.RequiredArgsConstructor;
+import com.vikrant.careSync.task.StalePaymentReaperJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class PaymentService {
@@ -34,140 +50,136 @@ public class PaymentService {
     private final PatientRepository patientRepository;
     private final BookingRepository bookingRepository;
     private final RazorpayService razorpayService;
-    private final Semaphore paymentGatewaySemaphore = new Semaphore(10, true);
-
-    @Value("${app.payment.transaction-timeout-minutes:30}")
-    private int transactionTimeoutMinutes;
+    private final PaymentStateMachine paymentStateMachine;
+    private final StalePaymentReaperJob stalePaymentReaperJob;
+    private final ExecutorService paymentGatewayExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    // Concurrent gateway calls, and gateway calls admitted (running or waiting for a permit)
+    private final Semaphore paymentGatewaySemaphore;
+    private final Semaphore pendingGatewayCalls;
+    private final int gatewayMaxConcurrency;
+    private final int gatewayMaxPending;
+    private final long gatewayResponseTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public PaymentService(PaymentRepository paymentRepository,
+            PatientRepository patientRepository,
+            BookingRepository bookingRepository,
+            RazorpayService razorpayService,
+            PaymentStateMachine paymentStateMachine,
+            StalePaymentReaperJob stalePaymentReaperJob,
+            @Qualifier("paymentGatewayExecutor") ExecutorService paymentGatewayExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${app.payment.gateway.max-concurrency:10}") int gatewayMaxConcurrency,
+            @Value("${app.payment.gateway.max-pending:200}") int gatewayMaxPending,
+            @Value("${app.payment.gateway.response-timeout-ms:10000}") long gatewayResponseTimeoutMs) {
+        this.paymentRepository = paymentRepository;
+        this.patientRepository = patientRepository;
+        this.bookingRepository = bookingRepository;
+        this.razorpayService = razorpayService;
+        this.paymentStateMachine = paymentStateMachine;
+        this.stalePaymentReaperJob = stalePaymentReaperJob;
+        this.paymentGatewayExecutor = paymentGatewayExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.paymentGatewaySemaphore = new Semaphore(gatewayMaxConcurrency, true);
+        this.pendingGatewayCalls = new Semaphore(gatewayMaxPending);
+        this.gatewayMaxConcurrency = gatewayMaxConcurrency;
+        this.gatewayMaxPending = gatewayMaxPending;
+        this.gatewayResponseTimeoutMs = gatewayResponseTimeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+
+        Gauge.builder("payment.gateway.active", paymentGatewaySemaphore,
+                        semaphore -> gatewayMaxConcurrency - semaphore.availablePermits())
+                .description("Gateway calls holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.pending", pendingGatewayCalls,
+                        semaphore -> gatewayMaxPending - semaphore.availablePermits())
+                .description("Gateway calls admitted, running or waiting for a permit")
+                .register(meterRegistry);
+    }
 
     /**
      * Pay for an existing doctor-created booking
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDto payForBooking(Long bookingId, PaymentRequestDto paymentRequest) {
         log.info("Processing payment for booking ID: {}", bookingId);
 
-        // Validate booking exists and is in PENDING status
-        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
-                .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + bookingId));
-
-        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
-            throw new RuntimeException("Booking is not in PENDING status. Current status: " + booking.getStatus());
-        }
-
-        if (hasActivePaymentForBooking(bookingId)) {
-            throw new RuntimeException("An active payment already exists for this booking");
-        }
-
-        // Validate patient exists
-        Patient patient = patientRepository.findById(paymentRequest.getPatientId())
-                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + paymentRequest.getPatientId()));
-
-        // Validate that the patient is the same as the booking's patient
-        if (!booking.getPatient().getId().equals(patient.getId())) {
-            throw new RuntimeException("Patient ID does not match the booking's patient");
-        }
-
-        // Validate payment amount matches booking total
-        if (paymentRequest.getAmount().compareTo(booking.getTotalPrice()) != 0) {
-            throw new RuntimeException("Payment amount does not match booking total");
-        }
-
-        // Create payment record directly for this booking (avoid duplicate creation)
-        Payment payment = createPaymentRecord(paymentRequest, patient, booking);
-
-        try {
-            // Process payment based on method
-            PaymentResponseDto response = new PaymentResponseDto(payment);
+        // Short transaction: validate under the booking row lock and commit the PENDING payment
+        PaymentSnapshot pending = transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.findByIdForUpdate(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + bookingId));
 
-            response = processPaymentThroughGateway(payment, paymentRequest);
+            if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+                throw new RuntimeException(
+                        "Booking is not in PENDING status. Current status: " + booking.getStatus());
+            }
 
-            // For demo purposes, mark payment as successful immediately
-            // In production, this would be handled by webhook callbacks
-            payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            payment.setPaymentCompletedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
+            if (hasActivePaymentForBooking(bookingId)) {
+                throw new RuntimeException("An active payment already exists for this booking");
+            }
 
-            // Update booking status to COMPLETED
-            booking.setStatus(Booking.BookingStatus.COMPLETED);
-            bookingRepository.save(booking);
+            // Validate patient exists
+            Patient patient = patientRepository.findById(paymentRequest.getPatientId())
+                    .orElseThrow(() -> new RuntimeException(
+                            "Patient not found with ID: " + paymentRequest.getPatientId()));
 
-            // Update response to reflect successful status
-            response.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            response.setPaymentCompletedAt(LocalDateTime.now());
+            // Validate that the patient is the same as the booking's patient
+            if (!booking.getPatient().getId().equals(patient.getId())) {
+                throw new RuntimeException("Patient ID does not match the booking's patient");
+            }
 
-            log.info("Successfully processed payment for booking ID: {}, transaction ID: {}",
-                    bookingId, payment.getTransactionId());
+            // Validate payment amount matches booking total
+            if (paymentRequest.getAmount().compareTo(booking.getTotalPrice()) != 0) {
+                throw new RuntimeException("Payment amount does not match booking total");
+            }
 
-            return response;
+            return PaymentSnapshot.of(createPaymentRecord(paymentRequest, patient, booking));
+        });
 
-        } catch (Exception e) {
-            log.error("Payment failed for booking ID: {}", bookingId, e);
-            payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason(e.getMessage());
-            paymentRepository.save(payment);
-            throw new RuntimeException("Payment failed: " + e.getMessage());
-        }
+        PaymentResponseDto response = completeThroughGateway(pending, paymentRequest, "Payment failed: ");
+        log.info("Processed payment for booking ID: {}, transaction ID: {}, status: {}",
+                bookingId, response.getTransactionId(), response.getPaymentStatus());
+        return response;
     }
 
     /**
      * Initiate a new payment
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDto initiatePayment(PaymentRequestDto request) {
         log.info("Initiating payment for patient ID: {}, amount: {}", request.getPatientId(), request.getAmount());
 
-        // Validate patient exists
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + request.getPatientId()));
-
-        // Validate booking if provided
-        Booking booking = null;
-        if (request.getBookingId() != null) {
-            booking = bookingRepository.findById(request.getBookingId())
-                    .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + request.getBookingId()));
-            if (hasActivePaymentForBooking(booking.getId())) {
-                throw new RuntimeException("An active payment already exists for this booking");
-            }
-        }
-
-        // Create payment record
-        Payment payment = createPaymentRecord(request, patient, booking);
-        // Payment is already saved in createPaymentRecord method
-
-        // Process payment based on method
-        PaymentResponseDto response = new PaymentResponseDto(payment);
-
-        try {
-            response = processPaymentThroughGateway(payment, request);
-
-            // For demo purposes, mark payment as successful immediately
-            // In production, this would be handled by webhook callbacks
-            payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            payment.setPaymentCompletedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-
-            // Update response to reflect successful status
-            response.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            response.setPaymentCompletedAt(LocalDateTime.now());
-
-            log.info("Payment initiated successfully. Transaction ID: {}", payment.getTransactionId());
-
-        } catch (Exception e) {
-            log.error("Payment initiation failed for transaction: {}", payment.getTransactionId(), e);
-            payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason(e.getMessage());
-            paymentRepository.save(payment);
-            throw new RuntimeException("Payment initiation failed: " + e.getMessage());
-        }
-
+        PaymentSnapshot pending = transactionTemplate.execute(status -> createPaymentSnapshot(request));
+        PaymentResponseDto response = completeThroughGateway(pending, request, "Payment initiation failed: ");
+        log.info("Payment initiated. Transaction ID: {}, status: {}", response.getTransactionId(),
+                response.getPaymentStatus());
         return response;
     }
 
     /**
      * Generic payment method for any payment type
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDto processGenericPayment(PaymentRequestDto request) {
         log.info("Processing generic payment for patient ID: {}, type: {}, amount: {}",
                 request.getPatientId(), request.getPaymentType(), request.getAmount());
 
+        PaymentSnapshot pending = transactionTemplate.execute(status -> createPaymentSnapshot(request));
+        PaymentResponseDto response = completeThroughGateway(pending, request, "Payment processing failed: ");
+        log.info("Generic payment processed. Transaction ID: {}, Type: {}, status: {}",
+                response.getTransactionId(), request.getPaymentType(), response.getPaymentStatus());
+        return response;
+    }
+
+    private PaymentSnapshot createPaymentSnapshot(PaymentRequestDto request) {
         // Validate patient exists
         Patient patient = patientRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + request.getPatientId()));
@@ -175,173 +187,126 @@ public class PaymentService {
         // Validate booking if provided
         Booking booking = null;
         if (request.getBookingId() != null) {
-            booking = bookingRepository.findById(request.getBookingId())
+            booking = bookingRepository.findByIdForUpdate(request.getBookingId())
                     .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + request.getBookingId()));
             if (hasActivePaymentForBooking(booking.getId())) {
                 throw new RuntimeException("An active payment already exists for this booking");
             }
         }
 
-        // Create payment record
-        Payment payment = createPaymentRecord(request, patient, booking);
-
-        // Process payment based on method
-        PaymentResponseDto response = new PaymentResponseDto(payment);
-
-        try {
-            response = processPaymentThroughGateway(payment, request);
-
-            // For demo purposes, mark payment as successful immediately
-            // In production, this would be handled by webhook callbacks
-            payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            payment.setPaymentCompletedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-
-            // Update response to reflect successful status
-            response.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            response.setPaymentCompletedAt(LocalDateTime.now());
-
-            log.info("Generic payment processed successfully. Transaction ID: {}, Type: {}",
-                    payment.getTransactionId(), payment.getPaymentType());
-
-        } catch (Exception e) {
-            log.error("Generic payment processing failed for transaction: {}", payment.getTransactionId(), e);
-            payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason(e.getMessage());
-            paymentRepository.save(payment);
-            throw new RuntimeException("Payment processing failed: " + e.getMessage());
-        }
-
-        return response;
+        return PaymentSnapshot.of(createPaymentRecord(request, patient, booking));
     }
 
     /**
-     * Process UPI payment
+     * Runs the gateway call on the gateway executor, outside any transaction, and waits
+     * a bounded time for it. The outcome is applied by the gateway task itself, so a
+     * caller that stops waiting still gets the payment completed; it then sees the
+     * PENDING payment and can poll it by transaction ID.
      */
-    private PaymentResponseDto processUpiPayment(Payment payment, PaymentRequestDto request) {
-        // Create Razorpay order for UPI
-        String razorpayOrderId = razorpayService.createOrder(payment.getAmount(), payment.getCurrency(),
-                payment.getTransactionId());
-
-        payment.setPaymentGatewayTransactionId(razorpayOrderId);
-        payment.setUpiId(request.getUpiId());
-        payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
-        // Don't save here - will be saved in the calling method
+    private PaymentResponseDto completeThroughGateway(PaymentSnapshot pending, PaymentRequestDto request,
+            String failurePrefix) {
+        if (!pendingGatewayCalls.tryAcquire()) {
+            recordExecutorRejection("queue_full");
+            paymentStateMachine.transition(pending.id(), pending.version(), Payment.PaymentStatus.FAILED,
+                    payment -> payment.setFailureReason("Payment gateway is busy"));
+            throw new PaymentGatewayUnavailableException(
+                    failurePrefix + "Payment gateway is busy. Please try again shortly.");
+        }
 
-        PaymentResponseDto response = new PaymentResponseDto(payment);
-        response.setRazorpayOrderId(razorpayOrderId);
-        response.setPaymentUrl(
-                razorpayService.getUpiPaymentUrlWithAmount(razorpayOrderId, request.getUpiId(), payment.getAmount()));
+        CompletableFuture<GatewayOrder> gatewayCall;
+        try {
+            gatewayCall = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return runGatewayCall(pending, request);
+                } finally {
+                    pendingGatewayCalls.release();
+                }
+            }, paymentGatewayExecutor);
+        } catch (RejectedExecutionException e) {
+            pendingGatewayCalls.release();
+            recordExecutorRejection("unavailable");
+            throw new PaymentGatewayUnavailableException(failurePrefix + "Payment gateway is unavailable");
+        }
 
-        return response;
+        try {
+            GatewayOrder order = gatewayCall.get(gatewayResponseTimeoutMs, TimeUnit.MILLISECONDS);
+            PaymentResponseDto response = loadResponse(pending.id());
+            response.setRazorpayOrderId(order.orderId());
+            response.setPaymentUrl(order.paymentUrl());
+            response.setQrCodeData(order.qrCodeData());
+            return response;
+        } catch (TimeoutException e) {
+            log.warn("Gateway call for transaction {} still running after {} ms, responding with current status",
+                    pending.transactionId(), gatewayResponseTimeoutMs);
+            return loadResponse(pending.id());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof PaymentGatewayUnavailableException) {
+                throw new PaymentGatewayUnavailableException(failurePrefix + cause.getMessage(), cause);
+            }
+            throw new RuntimeException(failurePrefix + (cause != null ? cause.getMessage() : e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(failurePrefix + "interrupted while waiting for the payment gateway");
+        }
     }
 
-    /**
-     * Process card payment
-     */
-    private PaymentResponseDto processCardPayment(Payment payment, PaymentRequestDto request) {
-        // Create Razorpay order for card payment
-        String razorpayOrderId = razorpayService.createOrder(payment.getAmount(), payment.getCurrency(),
-                payment.getTransactionId());
-
-        payment.setPaymentGatewayTransactionId(razorpayOrderId);
-        payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
-
-        // Store masked card details
-        if (request.getCardDetails() != null) {
-            String cardNumber = request.getCardDetails().getCardNumber();
-            payment.setCardLastFour(cardNumber.substring(cardNumber.length() - 4));
-            payment.setCardType(determineCardType(cardNumber));
+    private GatewayOrder runGatewayCall(PaymentSnapshot pending, PaymentRequestDto request) {
+        GatewayOrder order;
+        try {
+            order = callPaymentGateway("create_order", () -> createGatewayOrder(pending, request));
+        } catch (RuntimeException e) {
+            log.error("Gateway call failed for transaction: {}", pending.transactionId(), e);
+            paymentStateMachine.transitionWithRetry(pending.id(), pending.version(), Payment.PaymentStatus.FAILED,
+                    payment -> payment.setFailureReason(e.getMessage()));
+            throw e;
         }
 
-        // Don't save here - will be saved in the calling method
-
-        PaymentResponseDto response = new PaymentResponseDto(payment);
-        response.setRazorpayOrderId(razorpayOrderId);
-        response.setPaymentUrl(razorpayService.getCardPaymentUrl(razorpayOrderId));
-
-        return response;
+        // For demo purposes, mark payment as successful once the gateway order exists
+        // In production, this would be handled by webhook callbacks
+        paymentStateMachine.transitionWithRetry(pending.id(), pending.version(), Payment.PaymentStatus.SUCCESS,
+                payment -> {
+                    payment.setPaymentGatewayTransactionId(order.orderId());
+                    payment.setUpiId(order.upiId());
+                    payment.setCardLastFour(order.cardLastFour());
+                    payment.setCardType(order.cardType());
+                });
+        return order;
     }
 
-    /**
-     * Process QR code payment
-     */
-    private PaymentResponseDto processQrPayment(Payment payment, PaymentRequestDto request) {
-        // Create Razorpay order for QR payment
-        String razorpayOrderId = razorpayService.createOrder(payment.getAmount(), payment.getCurrency(),
-                payment.getTransactionId());
-
-        payment.setPaymentGatewayTransactionId(razorpayOrderId);
-        payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
-        // Don't save here - will be saved in the calling method
-
-        PaymentResponseDto response = new PaymentResponseDto(payment);
-        response.setRazorpayOrderId(razorpayOrderId);
-        response.setQrCodeData(razorpayService.generateQrCodeWithAmount(razorpayOrderId, payment.getAmount()));
-
-        return response;
+    private PaymentResponseDto loadResponse(Long paymentId) {
+        return readOnlyTransactionTemplate.execute(status -> paymentRepository.findById(paymentId)
+                .map(PaymentResponseDto::new)
+                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId)));
     }
 
     /**
-     * Handle payment webhook callback
+     * Create the gateway order for the payment method
      */
-    public void handlePaymentCallback(String razorpayPaymentId, String razorpayOrderId, String razorpaySignature) {
-        log.info("Processing payment callback for order: {}", razorpayOrderId);
-
-        // Verify signature
-        if (!razorpayService.verifySignature(razorpayOrderId, razorpayPaymentId, razorpaySignature)) {
-            log.error("Invalid signature for payment callback. Order: {}", razorpayOrderId);
-            throw new RuntimeException("Invalid payment signature");
-        }
-
-        // Find payment by gateway transaction ID
-        Optional<Payment> paymentOpt = paymentRepository.findByPaymentGatewayTransactionIdForUpdate(razorpayOrderId);
-        if (paymentOpt.isEmpty()) {
-            log.error("Payment not found for order: {}", razorpayOrderId);
-            throw new RuntimeException("Payment not found");
-        }
-
-        Payment payment = paymentOpt.get();
-        if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
-            log.info("Ignoring duplicate successful callback for transaction: {}", payment.getTransactionId());
-            return;
-        }
-
-        try {
-            // Get payment details from Razorpay
-            var paymentDetails = callPaymentGateway(() -> razorpayService.getPaymentDetails(razorpayPaymentId));
-
-            if ("captured".equals(paymentDetails.get("status"))) {
-                payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-                payment.setPaymentCompletedAt(LocalDateTime.now());
-                payment.setGatewayResponse(paymentDetails.toString());
-
-                if (payment.getBookingId() != null) {
-                    Booking booking = bookingRepository.findByIdForUpdate(payment.getBookingId())
-                            .orElseThrow(() -> new RuntimeException(
-                                    "Booking not found with ID: " + payment.getBookingId()));
-                    if (booking.getStatus() == Booking.BookingStatus.PENDING) {
-                        booking.setStatus(Booking.BookingStatus.COMPLETED);
-                        bookingRepository.save(booking);
-                    }
+    private GatewayOrder createGatewayOrder(PaymentSnapshot payment, PaymentRequestDto request) {
+        String razorpayOrderId = razorpayService.createOrder(payment.amount(), payment.currency(),
+                payment.transactionId());
+
+        return switch (request.getPaymentMethod()) {
+            case UPI -> new GatewayOrder(razorpayOrderId,
+                    razorpayService.getUpiPaymentUrlWithAmount(razorpayOrderId, request.getUpiId(), payment.amount()),
+                    null, request.getUpiId(), null, null);
+            case CARD -> {
+                // Store masked card details
+                String cardLastFour = null;
+                String cardType = null;
+                if (request.getCardDetails() != null) {
+                    String cardNumber = request.getCardDetails().getCardNumber();
+                    cardLastFour = cardNumber.substring(cardNumber.length() - 4);
+                    cardType = determineCardType(cardNumber);
                 }
-
-                log.info("Payment successful. Transaction ID: {}", payment.getTransactionId());
-            } else {
-                payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-                payment.setFailureReason("Payment not captured: " + paymentDetails.get("status"));
-
-                log.warn("Payment failed. Transaction ID: {}, Status: {}",
-                        payment.getTransactionId(), paymentDetails.get("status"));
+                yield new GatewayOrder(razorpayOrderId, razorpayService.getCardPaymentUrl(razorpayOrderId), null,
+                        null, cardLastFour, cardType);
             }
-
-        } catch (Exception e) {
-            log.error("Error processing payment callback for transaction: {}", payment.getTransactionId(), e);
-            payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("Callback processing error: " + e.getMessage());
-        }
-
-        paymentRepository.save(payment);
+            case QR_CODE -> new GatewayOrder(razorpayOrderId, null,
+                    razorpayService.generateQrCodeWithAmount(razorpayOrderId, payment.amount()), null, null, null);
+            default -> throw new RuntimeException("Unsupported payment method: " + request.getPaymentMethod());
+        };
     }
 
     /**
@@ -404,23 +369,13 @@ public class PaymentService {
     }
 
     /**
-     * Clean up stale payments
+     * Clean up stale payments now instead of waiting for the scheduled reaper
+     *
+     * @return number of payments cancelled
      */
-    @Transactional
-    public void cleanupStalePayments() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(transactionTimeoutMinutes);
-        List<Payment> stalePayments = paymentRepository.findStalePayments(cutoffTime);
-
-        for (Payment payment : stalePayments) {
-            payment.setPaymentStatus(Payment.PaymentStatus.CANCELLED);
-            payment.setFailureReason("Transaction timeout");
-            log.info("Cancelled stale payment: {}", payment.getTransactionId());
-        }
-
-        if (!stalePayments.isEmpty()) {
-            paymentRepository.saveAll(stalePayments);
-            log.info("Cleaned up {} stale payments", stalePayments.size());
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long cleanupStalePayments() {
+        return stalePaymentReaperJob.reap();
     }
 
     /**
@@ -457,38 +412,89 @@ public class PaymentService {
         return payment;
     }
 
-    private PaymentResponseDto processPaymentThroughGateway(Payment payment, PaymentRequestDto request) {
-        return callPaymentGateway(() -> switch (request.getPaymentMethod()) {
-            case UPI -> processUpiPayment(payment, request);
-            case CARD -> processCardPayment(payment, request);
-            case QR_CODE -> processQrPayment(payment, request);
-            default -> throw new RuntimeException("Unsupported payment method: " + request.getPaymentMethod());
-        });
-    }
-
     private boolean hasActivePaymentForBooking(Long bookingId) {
         return paymentRepository.countActivePaymentsForBooking(bookingId) > 0;
     }
 
-    private <T> T callPaymentGateway(Callable<T> gatewayCall) {
-        boolean permitAcquired = false;
-        try {
-            permitAcquired = paymentGatewaySemaphore.tryAcquire(5, TimeUnit.SECONDS);
-            if (!permitAcquired) {
-                throw new RuntimeException("Payment gateway is busy. Please try again shortly.");
-            }
-            return gatewayCall.call();
+    /**
+     * Calls the gateway under a concurrency permit. The permit wait and the call are
+     * separate observations ({@code payment.gateway.permit.wait} and
+     * {@code payment.gateway.calls}), so a slow payment shows whether it queued here or
+     * the gateway was slow. A call that never got a permit counts as
+     * {@code payment.gateway.rejected}.
+     */
+    private <T> T callPaymentGateway(String operation, Callable<T> gatewayCall) {
+        if (!acquireGatewayPermit()) {
+            rejectedCounter("permit_timeout").increment();
+            throw new PaymentGatewayUnavailableException("Payment gateway is busy. Please try again shortly.");
+        }
+        Observation observation = Observation.createNotStarted("payment.gateway.calls", observationRegistry)
+                .contextualName("payment gateway " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+        String outcome = "failure";
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = gatewayCall.call();
+            outcome = "success";
+            return result;
         } catch (RuntimeException exception) {
+            observation.error(exception);
             throw exception;
         } catch (Exception exception) {
+            observation.error(exception);
             throw new RuntimeException("Payment gateway call failed: " + exception.getMessage(), exception);
         } finally {
-            if (permitAcquired) {
-                paymentGatewaySemaphore.release();
-            }
+            paymentGatewaySemaphore.release();
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+        }
+    }
+
+    private boolean acquireGatewayPermit() {
+        Observation observation = Observation.start("payment.gateway.permit.wait", observationRegistry);
+        LockWaitEvent lockWait = LockWaitEvent.start("payment gateway permit");
+        boolean acquired = false;
+        try {
+            acquired = paymentGatewaySemaphore.tryAcquire(5, TimeUnit.SECONDS);
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            observation.error(e);
+            throw new PaymentGatewayUnavailableException(
+                    "Payment gateway call failed: interrupted while waiting for a permit", e);
+        } finally {
+            observation.lowCardinalityKeyValue("acquired", Boolean.toString(acquired)).stop();
+            lockWait.finish(acquired);
         }
     }
 
+    // Gateway calls turned away before reaching the executor; counted and recorded as a JFR event
+    private void recordExecutorRejection(String reason) {
+        rejectedCounter(reason).increment();
+        ExecutorRejectionEvent.record("paymentGatewayExecutor", reason,
+                gatewayMaxConcurrency - paymentGatewaySemaphore.availablePermits(),
+                gatewayMaxPending - pendingGatewayCalls.availablePermits());
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("payment.gateway.rejected")
+                .description("Gateway calls turned away before reaching the gateway")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Immutable view of a committed payment, safe to hand to the gateway thread
+    private record PaymentSnapshot(Long id, Long version, Payment.PaymentStatus status, String transactionId,
+            BigDecimal amount, String currency) {
+        static PaymentSnapshot of(Payment payment) {
+            return new PaymentSnapshot(payment.getId(), payment.getVersion(), payment.getPaymentStatus(),
+                    payment.getTransactionId(), payment.getAmount(), payment.getCurrency());
+        }
+    }
+
+    private record GatewayOrder(String orderId, String paymentUrl, String qrCodeData, String upiId,
+            String cardLastFour, String cardType) {
+    }
+
     /**
      * Generate unique transaction ID
      */
@@ -0,0 +1,159 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.Booking;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.repository.BookingRepository;
+import com.vikrant.careSync.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Payment status transitions. Each transition runs in its own short
+ * transaction (or joins the caller's, see {@link #transitionInCurrentTransaction}), is a no-op when the payment is already in the target state, is
+ * rejected when the state machine does not allow it, and is discarded when the
+ * payment changed since the caller read it (optimistic version check). A
+ * successful payment completes its PENDING booking, and the ledger postings
+ * for the new status are written, in the same transaction.
+ */
+@Component
+@Slf4j
+public class PaymentStateMachine {
+
+    public enum Outcome {
+        APPLIED, ALREADY_APPLIED, STALE_VERSION, REJECTED
+    }
+
+    private static final Map<Payment.PaymentStatus, Set<Payment.PaymentStatus>> ALLOWED = new EnumMap<>(
+            Payment.PaymentStatus.class);
+
+    static {
+        ALLOWED.put(Payment.PaymentStatus.PENDING, EnumSet.of(Payment.PaymentStatus.PROCESSING,
+                Payment.PaymentStatus.SUCCESS, Payment.PaymentStatus.FAILED, Payment.PaymentStatus.CANCELLED));
+        ALLOWED.put(Payment.PaymentStatus.PROCESSING, EnumSet.of(Payment.PaymentStatus.SUCCESS,
+                Payment.PaymentStatus.FAILED, Payment.PaymentStatus.CANCELLED));
+        ALLOWED.put(Payment.PaymentStatus.SUCCESS, EnumSet.of(Payment.PaymentStatus.REFUNDED,
+                Payment.PaymentStatus.PARTIAL_REFUND));
+        ALLOWED.put(Payment.PaymentStatus.PARTIAL_REFUND, EnumSet.of(Payment.PaymentStatus.REFUNDED));
+        ALLOWED.put(Payment.PaymentStatus.FAILED, EnumSet.noneOf(Payment.PaymentStatus.class));
+        ALLOWED.put(Payment.PaymentStatus.CANCELLED, EnumSet.noneOf(Payment.PaymentStatus.class));
+        ALLOWED.put(Payment.PaymentStatus.REFUNDED, EnumSet.noneOf(Payment.PaymentStatus.class));
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentLedgerService paymentLedgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate joinTransactionTemplate;
+
+    public PaymentStateMachine(PaymentRepository paymentRepository, BookingRepository bookingRepository,
+            PaymentLedgerService paymentLedgerService, PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentLedgerService = paymentLedgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.joinTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.joinTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+    }
+
+    public static boolean canTransition(Payment.PaymentStatus from, Payment.PaymentStatus to) {
+        return ALLOWED.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    /**
+     * @param expectedVersion version the caller observed, or null to skip the version check
+     *                        and rely on the transition rules only
+     * @param changes         field updates applied together with the status change
+     */
+    public Outcome transition(Long paymentId, Long expectedVersion, Payment.PaymentStatus target,
+            Consumer<Payment> changes) {
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> apply(paymentId, expectedVersion, target, changes));
+            if (outcome != Outcome.APPLIED && outcome != Outcome.ALREADY_APPLIED) {
+                log.info("Payment {} transition to {} not applied: {}", paymentId, target, outcome);
+            }
+            return outcome;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("Payment {} changed concurrently, transition to {} discarded", paymentId, target);
+            return Outcome.STALE_VERSION;
+        }
+    }
+
+    // Version-checked first; if something else touched the payment meanwhile, re-evaluate against its new state
+    public Outcome transitionWithRetry(Long paymentId, Long expectedVersion, Payment.PaymentStatus target,
+            Consumer<Payment> changes) {
+        Outcome outcome = transition(paymentId, expectedVersion, target, changes);
+        return outcome == Outcome.STALE_VERSION ? transition(paymentId, null, target, changes) : outcome;
+    }
+
+    /**
+     * Applies the transition in the caller's transaction, so it commits or rolls
+     * back together with the caller's own writes. The caller must hold the
+     * payment's row lock; there is no version check. A failure dooms the
+     * caller's transaction.
+     */
+    public Outcome transitionInCurrentTransaction(Long paymentId, Payment.PaymentStatus target,
+            Consumer<Payment> changes) {
+        Outcome outcome = joinTransactionTemplate.execute(status -> apply(paymentId, null, target, changes));
+        if (outcome != Outcome.APPLIED && outcome != Outcome.ALREADY_APPLIED) {
+            log.info("Payment {} transition to {} not applied: {}", paymentId, target, outcome);
+        }
+        return outcome;
+    }
+
+    private Outcome apply(Long paymentId, Long expectedVersion, Payment.PaymentStatus target,
+            Consumer<Payment> changes) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
+
+        if (payment.getPaymentStatus() == target) {
+            return Outcome.ALREADY_APPLIED;
+        }
+        if (expectedVersion != null && !expectedVersion.equals(payment.getVersion())) {
+            return Outcome.STALE_VERSION;
+        }
+        if (!canTransition(payment.getPaymentStatus(), target)) {
+            if (target == Payment.PaymentStatus.SUCCESS) {
+                // Money may have moved for a payment we already gave up on
+                log.warn("Gateway reported success for payment {} in status {}: needs manual reconciliation",
+                        payment.getTransactionId(), payment.getPaymentStatus());
+            }
+            return Outcome.REJECTED;
+        }
+
+        if (changes != null) {
+            changes.accept(payment);
+        }
+        payment.setPaymentStatus(target);
+        if (target == Payment.PaymentStatus.SUCCESS) {
+            payment.setPaymentCompletedAt(LocalDateTime.now());
+            completeBooking(payment);
+        }
+        paymentLedgerService.post(payment);
+        paymentRepository.saveAndFlush(payment);
+        return Outcome.APPLIED;
+    }
+
+    private void completeBooking(Payment payment) {
+        if (payment.getBookingId() == null) {
+            return;
+        }
+        bookingRepository.findByIdForUpdate(payment.getBookingId()).ifPresent(booking -> {
+            if (booking.getStatus() == Booking.BookingStatus.PENDING) {
+                booking.setStatus(Booking.BookingStatus.COMPLETED);
+                bookingRepository.save(booking);
+            }
+        });
+    }
+}
@@ -0,0 +1,403 @@
+package com.vikrant.careSync.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.entity.PaymentWebhookEvent;
+import com.vikrant.careSync.repository.PaymentRepository;
+import com.vikrant.careSync.repository.PaymentWebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Razorpay webhook inbox. {@link #ingest} only verifies the signature and
+ * appends the raw event, so the gateway is acknowledged in one short insert
+ * even during settlement bursts. A scheduled worker claims due events in id
+ * order, drops re-deliveries by event id and applies each payment's events as
+ * one micro-batch: the batch is coalesced to a single status transition (a
+ * capture wins over failed attempts on the same order). A payment's events are
+ * only applied once every earlier pending event of that order is in hand, so
+ * concurrent workers cannot apply them out of order. Transitions are applied in
+ * the claiming transaction, so a payment's new status and its events' processed
+ * status commit together.
+ */
+@Service
+@Slf4j
+public class PaymentWebhookService {
+
+    public enum IngestResult {
+        ACCEPTED, INVALID_SIGNATURE, MALFORMED
+    }
+
+    private static final String EVENT_CAPTURED = "payment.captured";
+    private static final String EVENT_ORDER_PAID = "order.paid";
+    private static final String EVENT_FAILED = "payment.failed";
+
+    private final PaymentWebhookEventRepository webhookEventRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStateMachine paymentStateMachine;
+    private final RazorpayService razorpayService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final String webhookSecret;
+    private final boolean workerEnabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final int retentionDays;
+
+    private final Timer applyBatchTimer;
+    private final Timer applyLagTimer;
+
+    public PaymentWebhookService(PaymentWebhookEventRepository webhookEventRepository,
+            PaymentRepository paymentRepository,
+            PaymentStateMachine paymentStateMachine,
+            RazorpayService razorpayService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.payment.razorpay.webhook-secret:}") String webhookSecret,
+            @Value("${app.payment.webhook.worker-enabled:true}") boolean workerEnabled,
+            @Value("${app.payment.webhook.batch-size:100}") int batchSize,
+            @Value("${app.payment.webhook.max-attempts:8}") int maxAttempts,
+            @Value("${app.payment.webhook.retry-backoff-ms:2000}") long retryBackoffMs,
+            @Value("${app.payment.webhook.retention-days:30}") int retentionDays) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.paymentRepository = paymentRepository;
+        this.paymentStateMachine = paymentStateMachine;
+        this.razorpayService = razorpayService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.webhookSecret = webhookSecret;
+        this.workerEnabled = workerEnabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retentionDays = retentionDays;
+
+        this.applyBatchTimer = Timer.builder("payment.webhook.apply")
+                .description("Time to apply one claimed batch of webhook events")
+                .register(meterRegistry);
+        this.applyLagTimer = Timer.builder("payment.webhook.lag")
+                .description("Time from webhook receipt until its event was processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the webhook signature over the raw body and appends the event to
+     * the inbox. Duplicates are accepted here and dropped by the worker.
+     */
+    public IngestResult ingest(String rawBody, String signature, String eventIdHeader) {
+        long start = System.nanoTime();
+        IngestResult result = doIngest(rawBody, signature, eventIdHeader);
+        Timer.builder("payment.webhook.ingest")
+                .description("Webhook verification and inbox append latency")
+                .tag("result", result.name().toLowerCase())
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+        return result;
+    }
+
+    private IngestResult doIngest(String rawBody, String signature, String eventIdHeader) {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            log.error("Razorpay webhook received but app.payment.razorpay.webhook-secret is not configured");
+            return IngestResult.INVALID_SIGNATURE;
+        }
+        if (rawBody == null || signature == null
+                || !razorpayService.verifyWebhookSignature(rawBody, signature, webhookSecret)) {
+            log.warn("Rejected Razorpay webhook with invalid signature");
+            return IngestResult.INVALID_SIGNATURE;
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(rawBody);
+        } catch (Exception e) {
+            log.warn("Rejected malformed Razorpay webhook: {}", e.getMessage());
+            return IngestResult.MALFORMED;
+        }
+
+        JsonNode payment = root.path("payload").path("payment").path("entity");
+        JsonNode order = root.path("payload").path("order").path("entity");
+        String orderId = textOrNull(payment.path("order_id"));
+        if (orderId == null) {
+            orderId = textOrNull(order.path("id"));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        webhookEventRepository.save(PaymentWebhookEvent.builder()
+                .eventId(eventIdHeader != null && !eventIdHeader.isBlank() ? eventIdHeader : "sha256:" + sha256(rawBody))
+                .eventType(textOrNull(root.path("event")))
+                .gatewayOrderId(orderId)
+                .gatewayPaymentId(textOrNull(payment.path("id")))
+                .gatewayStatus(textOrNull(payment.path("status")))
+                .payload(rawBody)
+                .receivedAt(now)
+                .nextAttemptAt(now)
+                .build());
+        return IngestResult.ACCEPTED;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.poll-interval-ms:200}")
+    public void processInbox() {
+        if (!workerEnabled) {
+            return;
+        }
+        try {
+            // Drain while full batches keep making progress, so a burst is not spread across poll intervals
+            int processed;
+            do {
+                processed = processBatch();
+            } while (processed >= batchSize);
+        } catch (Exception e) {
+            log.error("Payment webhook inbox processing failed", e);
+        }
+    }
+
+    /**
+     * Claims and processes one batch inside a single transaction; the row locks
+     * keep other workers off these events until their new status is committed.
+     * If applying one order fails, the whole batch rolls back and its events are
+     * processed again one at a time, so only the failing one is rescheduled.
+     *
+     * @return number of claimed events that were processed or rescheduled
+     */
+    int processBatch() {
+        AtomicReference<List<Long>> claimed = new AtomicReference<>(List.of());
+        try {
+            return claimAndApply(batchSize, claimed);
+        } catch (RuntimeException e) {
+            if (claimed.get().isEmpty()) {
+                throw e; // The claim itself failed; there is no event to isolate
+            }
+            log.warn("Payment webhook batch rolled back, processing its events one at a time: {}", e.getMessage());
+            return processOneByOne();
+        }
+    }
+
+    private int claimAndApply(int limit, AtomicReference<List<Long>> claimedIds) {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<PaymentWebhookEvent> events = webhookEventRepository.claimDue(LocalDateTime.now(),
+                    PageRequest.of(0, limit));
+            claimedIds.set(events.stream().map(PaymentWebhookEvent::getId).toList());
+            if (events.isEmpty()) {
+                return 0;
+            }
+            return applyBatchTimer.record(() -> apply(events));
+        });
+        return processed != null ? processed : 0;
+    }
+
+    private int processOneByOne() {
+        int processed = 0;
+        for (int i = 0; i < batchSize; i++) {
+            AtomicReference<List<Long>> claimed = new AtomicReference<>(List.of());
+            try {
+                int applied = claimAndApply(1, claimed);
+                if (applied == 0) {
+                    return processed;
+                }
+                processed += applied;
+            } catch (RuntimeException e) {
+                if (claimed.get().isEmpty()) {
+                    throw e;
+                }
+                log.error("Failed to apply payment webhook events {}", claimed.get(), e);
+                String error = e.getMessage();
+                transactionTemplate.executeWithoutResult(status -> retry(webhookEventRepository
+                        .findAllById(claimed.get()).stream()
+                        .filter(event -> event.getStatus() == PaymentWebhookEvent.Status.PENDING)
+                        .toList(), error, LocalDateTime.now()));
+                processed += claimed.get().size();
+            }
+        }
+        return processed;
+    }
+
+    @Scheduled(cron = "${app.payment.webhook.cleanup-cron:0 15 3 * * *}")
+    public void deleteProcessedEvents() {
+        try {
+            Integer deleted = transactionTemplate.execute(status -> webhookEventRepository
+                    .deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)));
+            log.info("Deleted {} processed payment webhook events older than {} days", deleted, retentionDays);
+        } catch (Exception e) {
+            log.error("Failed to delete processed payment webhook events", e);
+        }
+    }
+
+    private int apply(List<PaymentWebhookEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Re-deliveries of an event that was already applied, or repeated within this batch
+        Set<String> seenEventIds = new HashSet<>(webhookEventRepository.findProcessedEventIds(
+                events.stream().map(PaymentWebhookEvent::getEventId).collect(Collectors.toSet())));
+        Map<String, List<PaymentWebhookEvent>> byOrder = new LinkedHashMap<>();
+        for (PaymentWebhookEvent event : events) {
+            if (!seenEventIds.add(event.getEventId())) {
+                finish(event, PaymentWebhookEvent.Status.DUPLICATE, null, now);
+            } else if (event.getGatewayOrderId() == null || targetStatus(event) == null) {
+                finish(event, PaymentWebhookEvent.Status.IGNORED, "No payment status change for this event", now);
+            } else {
+                byOrder.computeIfAbsent(event.getGatewayOrderId(), k -> new ArrayList<>()).add(event);
+            }
+        }
+        if (byOrder.isEmpty()) {
+            return events.size();
+        }
+
+        // An order whose oldest pending event is held by another worker (or waiting for a retry) is left for later
+        Map<String, Long> firstPending = webhookEventRepository.findFirstPendingByOrderIds(byOrder.keySet()).stream()
+                .collect(Collectors.toMap(PaymentWebhookEventRepository.FirstPendingEvent::getGatewayOrderId,
+                        PaymentWebhookEventRepository.FirstPendingEvent::getFirstPendingId));
+        int deferred = 0;
+        for (var it = byOrder.entrySet().iterator(); it.hasNext(); ) {
+            var entry = it.next();
+            Long first = firstPending.get(entry.getKey());
+            if (first != null && !first.equals(entry.getValue().get(0).getId())) {
+                deferred += entry.getValue().size();
+                it.remove();
+            }
+        }
+
+        Map<String, Payment> payments = paymentRepository.findByPaymentGatewayTransactionIdInForUpdate(byOrder.keySet())
+                .stream()
+                .collect(Collectors.toMap(Payment::getPaymentGatewayTransactionId, Function.identity(),
+                        (a, b) -> a));
+        byOrder.forEach((orderId, orderEvents) -> applyOrder(payments.get(orderId), orderEvents, now));
+        return events.size() - deferred;
+    }
+
+    private void applyOrder(Payment payment, List<PaymentWebhookEvent> events, LocalDateTime now) {
+        if (payment == null) {
+            // The webhook can overtake the commit that stored the gateway order id
+            retry(events, "Payment not found for order " + events.get(0).getGatewayOrderId(), now);
+            return;
+        }
+
+        PaymentWebhookEvent decisive = events.stream()
+                .filter(e -> targetStatus(e) == Payment.PaymentStatus.SUCCESS)
+                .reduce((first, second) -> second)
+                .orElse(events.get(events.size() - 1));
+        Payment.PaymentStatus target = targetStatus(decisive);
+
+        // Same transaction as the claim; a failure rolls back the batch (see processBatch)
+        PaymentStateMachine.Outcome outcome = paymentStateMachine.transitionInCurrentTransaction(payment.getId(),
+                target, p -> {
+                    if (target == Payment.PaymentStatus.SUCCESS) {
+                        p.setGatewayResponse(decisive.getPayload());
+                    } else {
+                        p.setFailureReason(truncate("Payment failed at gateway: " + failureDescription(decisive), 255));
+                    }
+                });
+
+        boolean applied = outcome == PaymentStateMachine.Outcome.APPLIED
+                || outcome == PaymentStateMachine.Outcome.ALREADY_APPLIED;
+        for (PaymentWebhookEvent event : events) {
+            if (event == decisive && applied) {
+                finish(event, PaymentWebhookEvent.Status.APPLIED, null, now);
+            } else {
+                finish(event, PaymentWebhookEvent.Status.IGNORED,
+                        event == decisive ? "Transition to " + target + " " + outcome
+                                : "Superseded by event " + decisive.getEventId(),
+                        now);
+            }
+        }
+    }
+
+    private void retry(List<PaymentWebhookEvent> events, String error, LocalDateTime now) {
+        for (PaymentWebhookEvent event : events) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(error, 1000));
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on payment webhook event {} after {} attempts: {}", event.getEventId(),
+                        attempts, error);
+                finish(event, PaymentWebhookEvent.Status.FAILED, error, now);
+            } else {
+                event.setNextAttemptAt(now.plusNanos(retryBackoffMs * (1L << Math.min(attempts - 1, 10)) * 1_000_000));
+                outcomeCounter("retried").increment();
+            }
+        }
+    }
+
+    private void finish(PaymentWebhookEvent event, PaymentWebhookEvent.Status status, String error,
+            LocalDateTime now) {
+        event.setStatus(status);
+        event.setProcessedAt(now);
+        if (error != null) {
+            event.setLastError(truncate(error, 1000));
+        }
+        applyLagTimer.record(Duration.between(event.getReceivedAt(), now));
+        outcomeCounter(status.name().toLowerCase()).increment();
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("payment.webhook.events")
+                .description("Processed payment webhook events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Payment.PaymentStatus targetStatus(PaymentWebhookEvent event) {
+        if (EVENT_CAPTURED.equals(event.getEventType()) || EVENT_ORDER_PAID.equals(event.getEventType())) {
+            return Payment.PaymentStatus.SUCCESS;
+        }
+        if (EVENT_FAILED.equals(event.getEventType())) {
+            return Payment.PaymentStatus.FAILED;
+        }
+        return null;
+    }
+
+    private String failureDescription(PaymentWebhookEvent event) {
+        try {
+            String description = textOrNull(objectMapper.readTree(event.getPayload())
+                    .path("payload").path("payment").path("entity").path("error_description"));
+            return description != null ? description : event.getGatewayStatus();
+        } catch (Exception e) {
+            return event.getGatewayStatus();
+        }
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+}
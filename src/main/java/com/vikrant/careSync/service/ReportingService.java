@@ -4,6 +4,7 @@ import com.vikrant.careSync.entity.Appointment;
 import com.vikrant.careSync.entity.Doctor;
 import com.vikrant.careSync.entity.Patient;
 import com.vikrant.careSync.entity.Feedback;
+import com.vikrant.careSync.config.AnalyticsWorkload;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@AnalyticsWorkload
 @RequiredArgsConstructor
 public class ReportingService {
 
@@ -21,6 +23,7 @@ public class ReportingService {
     private final DoctorService doctorService;
     private final PatientService patientService;
     private final FeedbackService feedbackService;
+    private final PaymentLedgerService paymentLedgerService;
 
     // Doctor Performance Reports
     public Map<String, Object> getDoctorPerformanceReport(Long doctorId, LocalDate startDate, LocalDate endDate) {
@@ -241,20 +244,21 @@ public class ReportingService {
         return report;
     }
 
-    // Revenue Analysis (if pricing is implemented)
+    // Revenue Analysis (from the payment ledger totals)
     public Map<String, Object> getRevenueAnalysis(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> analysis = new HashMap<>();
-        
-        // This would be implemented based on your pricing model
-        // For now, returning placeholder data
-        analysis.put("totalRevenue", 0.0);
-        analysis.put("revenueByDoctor", new HashMap<>());
-        analysis.put("revenueBySpecialization", new HashMap<>());
-        analysis.put("revenueTrends", new HashMap<>());
-        analysis.put("startDate", startDate);
-        analysis.put("endDate", endDate);
+        return paymentLedgerService.getRevenueAnalysis(startDate, endDate);
+    }
 
-        return analysis;
+    public List<Map<String, Object>> getRevenueByDoctor(LocalDate startDate, LocalDate endDate) {
+        return paymentLedgerService.getRevenueByDoctor(startDate, endDate);
+    }
+
+    public List<Map<String, Object>> getRevenueBySpecialization(LocalDate startDate, LocalDate endDate) {
+        return paymentLedgerService.getRevenueBySpecialization(startDate, endDate);
+    }
+
+    public Map<String, Object> getRevenueTrends(LocalDate startDate, LocalDate endDate) {
+        return paymentLedgerService.getRevenueTrends(startDate, endDate);
     }
 
     // Helper methods
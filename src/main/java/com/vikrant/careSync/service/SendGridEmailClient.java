@@ -3,13 +3,17 @@ package com.vikrant.careSync.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +29,25 @@ public class SendGridEmailClient {
     @Value("${mail.from.name:CareSync}")
     private String defaultFromName;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // One shared JDK HttpClient keeps connections to the API alive across sends (the
+    // default RestTemplate opens a new HttpURLConnection per request). Built from Boot's
+    // builder so each send is an http.client.requests span and timer.
+    private final RestTemplate restTemplate;
+
+    public SendGridEmailClient(RestTemplateBuilder restTemplateBuilder,
+            @Value("${sendgrid.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${sendgrid.read-timeout-ms:10000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
 
     /**
      * Sends an HTML email using SendGrid's HTTP API.
@@ -0,0 +1,128 @@
+package com.vikrant.careSync.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Keeps authenticated SMTP connections open between messages.
+ * {@link JavaMailSender#send} connects, handshakes TLS, authenticates and
+ * disconnects for every call; the outbox workers instead borrow a connected
+ * transport, send and hand it back. Connections idle for longer than the server
+ * is likely to keep them are closed, and a send on a connection the server
+ * already dropped is retried once on a fresh one.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final long maxIdleMs;
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    public SmtpTransportPool(JavaMailSender mailSender,
+            @Value("${app.email.smtp.max-idle-ms:30000}") long maxIdleMs) {
+        this.mailSender = mailSender;
+        this.maxIdleMs = maxIdleMs;
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            mailSender.send(message);
+            return;
+        }
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        PooledTransport pooled = idle.pollFirst();
+        if (pooled != null && pooled.transport.isConnected()) {
+            try {
+                pooled.transport.sendMessage(message, message.getAllRecipients());
+                release(pooled);
+                return;
+            } catch (MessagingException e) {
+                // Most likely closed by the server while idle; retry once on a new connection
+                log.debug("Reused SMTP connection failed, reconnecting: {}", e.getMessage());
+            }
+        }
+        close(pooled);
+
+        PooledTransport fresh = open(sender);
+        try {
+            fresh.transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            close(fresh);
+            throw e;
+        }
+        release(fresh);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.smtp.max-idle-ms:30000}")
+    public void closeIdleConnections() {
+        long cutoff = System.currentTimeMillis() - maxIdleMs;
+        for (Iterator<PooledTransport> it = idle.iterator(); it.hasNext(); ) {
+            PooledTransport pooled = it.next();
+            if (pooled.lastUsedAt < cutoff && idle.removeFirstOccurrence(pooled)) {
+                close(pooled);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private PooledTransport open(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport pooled) {
+        pooled.lastUsedAt = System.currentTimeMillis();
+        // Most recently used first, so idle connections at the tail age out
+        idle.offerFirst(pooled);
+    }
+
+    private void close(PooledTransport pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.entity.VitalMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates {@link VitalAlertRule}s against committed vitals readings. Each
+ * patient seen recently has, per metric, a ring buffer of the last readings
+ * (timestamps and values in primitive arrays) and an EWMA. Evaluating a
+ * reading touches only that state and allocates nothing unless a rule fires;
+ * patients are spread over lock stripes, so readings for different patients
+ * rarely contend. A fired rule is muted for that patient for the cooldown
+ * period, and the alert is delivered through {@link NotificationService} on
+ * the notification executor. State is in memory only: after a restart the
+ * windows refill from new readings, and idle patients are dropped.
+ */
+@Component
+@Slf4j
+public class VitalAlertEngine {
+
+    private static final int STRIPES = 64;
+    private static final int METRICS = VitalMetric.values().length;
+    private static final int MIN_EWMA_SAMPLES = 3;
+
+    private final NotificationService notificationService;
+    private final TaskExecutor notificationExecutor;
+    private final boolean enabled;
+    private final long windowSeconds;
+    private final int windowCapacity;
+    private final double ewmaAlpha;
+    private final long cooldownSeconds;
+    private final long idleSeconds;
+
+    private final VitalAlertRule[] rules;
+    private final int[][] rulesByMetric;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    @Autowired
+    public VitalAlertEngine(NotificationService notificationService,
+            @Qualifier("appointmentNotificationExecutor") TaskExecutor notificationExecutor,
+            @Value("${app.vitals.alerts.enabled:true}") boolean enabled,
+            @Value("${app.vitals.alerts.window-minutes:30}") long windowMinutes,
+            @Value("${app.vitals.alerts.window-capacity:64}") int windowCapacity,
+            @Value("${app.vitals.alerts.ewma-alpha:0.3}") double ewmaAlpha,
+            @Value("${app.vitals.alerts.cooldown-minutes:30}") long cooldownMinutes,
+            @Value("${app.vitals.alerts.idle-minutes:180}") long idleMinutes) {
+        this(VitalAlertRule.defaults(), windowMinutes * 60, windowCapacity, ewmaAlpha, cooldownMinutes * 60,
+                idleMinutes * 60, notificationService, notificationExecutor, enabled);
+    }
+
+    VitalAlertEngine(List<VitalAlertRule> rules, long windowSeconds, int windowCapacity, double ewmaAlpha,
+            long cooldownSeconds, long idleSeconds, NotificationService notificationService,
+            TaskExecutor notificationExecutor, boolean enabled) {
+        this.notificationService = notificationService;
+        this.notificationExecutor = notificationExecutor;
+        this.enabled = enabled;
+        this.windowSeconds = windowSeconds;
+        this.windowCapacity = windowCapacity;
+        this.ewmaAlpha = ewmaAlpha;
+        this.cooldownSeconds = cooldownSeconds;
+        this.idleSeconds = idleSeconds;
+        this.rules = rules.toArray(VitalAlertRule[]::new);
+        this.rulesByMetric = new int[METRICS][];
+        for (VitalMetric metric : VitalMetric.values()) {
+            int[] indexes = new int[this.rules.length];
+            int count = 0;
+            for (int i = 0; i < this.rules.length; i++) {
+                if (this.rules[i].getMetric() == metric) {
+                    indexes[count++] = i;
+                }
+            }
+            rulesByMetric[metric.ordinal()] = Arrays.copyOf(indexes, count);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /** Callback for a fired rule; invoked while the patient's stripe is locked, so it must not block. */
+    @FunctionalInterface
+    interface AlertSink {
+        void onAlert(long patientId, VitalAlertRule rule, double value, double observed);
+    }
+
+    /** Feeds committed readings of one patient through the rules and sends any alerts. */
+    public void onReadings(Long patientId, List<VitalDto> readings) {
+        if (!enabled) {
+            return;
+        }
+        List<FiredAlert> fired = new ArrayList<>(0);
+        AlertSink sink = (id, rule, value, observed) -> fired.add(new FiredAlert(rule, value, observed));
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime now = LocalDateTime.now();
+        for (VitalDto reading : readings) {
+            LocalDateTime recordedAt = reading.getRecordedAt() != null ? reading.getRecordedAt() : now;
+            long epochSecond = recordedAt.truncatedTo(ChronoUnit.SECONDS).atZone(zone).toEpochSecond();
+            evaluateIfPresent(patientId, VitalMetric.SYSTOLIC_BP, epochSecond, reading.getSystolicBP(), sink);
+            evaluateIfPresent(patientId, VitalMetric.DIASTOLIC_BP, epochSecond, reading.getDiastolicBP(), sink);
+            evaluateIfPresent(patientId, VitalMetric.SUGAR_LEVEL, epochSecond, reading.getSugarLevel(), sink);
+            evaluateIfPresent(patientId, VitalMetric.WEIGHT, epochSecond, reading.getWeight(), sink);
+            evaluateIfPresent(patientId, VitalMetric.TEMPERATURE, epochSecond, reading.getTemperature(), sink);
+            evaluateIfPresent(patientId, VitalMetric.HEART_RATE, epochSecond, reading.getHeartRate(), sink);
+            evaluateIfPresent(patientId, VitalMetric.RESPIRATORY_RATE, epochSecond, reading.getRespiratoryRate(),
+                    sink);
+        }
+        for (FiredAlert alert : fired) {
+            send(patientId, alert);
+        }
+    }
+
+    private void evaluateIfPresent(long patientId, VitalMetric metric, long epochSecond, Double value,
+            AlertSink sink) {
+        if (value != null && Double.isFinite(value)) {
+            evaluate(patientId, metric.ordinal(), epochSecond, value, sink);
+        }
+    }
+
+    /**
+     * Adds one reading to the patient's window and checks the metric's rules.
+     *
+     * @return number of rules that fired
+     */
+    int evaluate(long patientId, int metric, long epochSecond, double value, AlertSink sink) {
+        Stripe stripe = stripes[stripeIndex(patientId)];
+        synchronized (stripe) {
+            PatientWindows windows = stripe.getOrCreate(patientId, this);
+            windows.lastSeen = epochSecond;
+            windows.add(metric, epochSecond, value, ewmaAlpha);
+
+            int[] metricRules = rulesByMetric[metric];
+            boolean windowScanned = false;
+            double windowMin = value;
+            double windowMax = value;
+            int firedCount = 0;
+            for (int index : metricRules) {
+                VitalAlertRule rule = rules[index];
+                double observed;
+                boolean breached;
+                switch (rule.getKind()) {
+                    case ABOVE -> {
+                        observed = value;
+                        breached = value > rule.getLimit();
+                    }
+                    case BELOW -> {
+                        observed = value;
+                        breached = value < rule.getLimit();
+                    }
+                    case EWMA_ABOVE -> {
+                        observed = windows.ewma[metric];
+                        breached = windows.samples[metric] >= MIN_EWMA_SAMPLES && observed > rule.getLimit();
+                    }
+                    case EWMA_BELOW -> {
+                        observed = windows.ewma[metric];
+                        breached = windows.samples[metric] >= MIN_EWMA_SAMPLES && observed < rule.getLimit();
+                    }
+                    default -> {
+                        if (!windowScanned) {
+                            long from = epochSecond - windowSeconds;
+                            int base = metric * windowCapacity;
+                            for (int i = 0, slot = windows.head[metric]; i < windows.size[metric]; i++) {
+                                slot = slot == 0 ? windowCapacity - 1 : slot - 1;
+                                if (windows.times[base + slot] < from) {
+                                    break;
+                                }
+                                double windowValue = windows.values[base + slot];
+                                windowMin = Math.min(windowMin, windowValue);
+                                windowMax = Math.max(windowMax, windowValue);
+                            }
+                            windowScanned = true;
+                        }
+                        observed = rule.getKind() == VitalAlertRule.Kind.RISE ? value - windowMin : windowMax - value;
+                        breached = observed > rule.getLimit();
+                    }
+                }
+                if (breached && epochSecond - windows.lastAlertAt[index] >= cooldownSeconds) {
+                    windows.lastAlertAt[index] = epochSecond;
+                    sink.onAlert(patientId, rule, value, observed);
+                    firedCount++;
+                }
+            }
+            return firedCount;
+        }
+    }
+
+    private void send(Long patientId, FiredAlert alert) {
+        VitalAlertRule rule = alert.rule();
+        String title = rule.getSeverity() == VitalAlertRule.Severity.CRITICAL ? "Critical vitals alert" : "Vitals alert";
+        String message = switch (rule.getKind()) {
+            case EWMA_ABOVE, EWMA_BELOW -> String.format("%s: recent average %.1f (latest %.1f, limit %.1f)",
+                    rule.getDescription(), alert.observed(), alert.value(), rule.getLimit());
+            case RISE, DROP -> String.format("%s: changed by %.1f within %d minutes (latest %.1f)",
+                    rule.getDescription(), alert.observed(), windowSeconds / 60, alert.value());
+            default -> String.format("%s: %.1f (limit %.1f)", rule.getDescription(), alert.value(), rule.getLimit());
+        };
+        try {
+            notificationExecutor.execute(() -> {
+                try {
+                    notificationService.sendVitalAlert(patientId, title, message);
+                } catch (Exception e) {
+                    log.error("Failed to send vitals alert for patient {}", patientId, e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Notification executor full, vitals alert for patient {} dropped: {}", patientId, message);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.vitals.alerts.eviction-interval-ms:600000}")
+    public void evictIdlePatients() {
+        long cutoff = System.currentTimeMillis() / 1000 - idleSeconds;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.evictIdle(cutoff);
+            }
+        }
+    }
+
+    int trackedPatients() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.size;
+            }
+        }
+        return count;
+    }
+
+    private static int stripeIndex(long patientId) {
+        return (int) (mix(patientId) >>> 58);
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private record FiredAlert(VitalAlertRule rule, double value, double observed) {
+    }
+
+    /** Open-addressing map of patient id to windows; guarded by its own monitor. */
+    private static final class Stripe {
+        private long[] keys = new long[16];
+        private PatientWindows[] windows = new PatientWindows[16];
+        private int size;
+
+        PatientWindows getOrCreate(long patientId, VitalAlertEngine engine) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(patientId) & mask;
+            while (windows[slot] != null) {
+                if (keys[slot] == patientId) {
+                    return windows[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            PatientWindows created = new PatientWindows(engine.windowCapacity, engine.rules.length);
+            keys[slot] = patientId;
+            windows[slot] = created;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length * 2, Long.MIN_VALUE);
+            }
+            return created;
+        }
+
+        void evictIdle(long cutoff) {
+            int live = 0;
+            for (PatientWindows w : windows) {
+                if (w != null && w.lastSeen >= cutoff) {
+                    live++;
+                }
+            }
+            if (live == size) {
+                return;
+            }
+            int capacity = 16;
+            while (live * 2 > capacity) {
+                capacity *= 2;
+            }
+            rehash(capacity, cutoff);
+        }
+
+        private void rehash(int capacity, long cutoff) {
+            long[] oldKeys = keys;
+            PatientWindows[] oldWindows = windows;
+            keys = new long[capacity];
+            windows = new PatientWindows[capacity];
+            size = 0;
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                PatientWindows w = oldWindows[i];
+                if (w == null || w.lastSeen < cutoff) {
+                    continue;
+                }
+                int slot = (int) mix(oldKeys[i]) & mask;
+                while (windows[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                windows[slot] = w;
+                size++;
+            }
+        }
+    }
+
+    /** One patient's ring buffers, laid out metric by metric in shared arrays. */
+    private static final class PatientWindows {
+        private final int capacity;
+        private final long[] times;
+        private final double[] values;
+        private final int[] head = new int[METRICS];
+        private final int[] size = new int[METRICS];
+        private final long[] lastTime = new long[METRICS];
+        private final double[] ewma = new double[METRICS];
+        private final int[] samples = new int[METRICS];
+        private final long[] lastAlertAt;
+        private long lastSeen;
+
+        PatientWindows(int capacity, int ruleCount) {
+            this.capacity = capacity;
+            this.times = new long[METRICS * capacity];
+            this.values = new double[METRICS * capacity];
+            this.lastAlertAt = new long[ruleCount];
+            Arrays.fill(lastAlertAt, Long.MIN_VALUE / 2);
+            Arrays.fill(lastTime, Long.MIN_VALUE);
+        }
+
+        void add(int metric, long epochSecond, double value, double alpha) {
+            if (epochSecond < lastTime[metric]) {
+                // Late reading: still checked against thresholds, but it would break the time order of the window
+                return;
+            }
+            int base = metric * capacity;
+            times[base + head[metric]] = epochSecond;
+            values[base + head[metric]] = value;
+            head[metric] = head[metric] + 1 == capacity ? 0 : head[metric] + 1;
+            if (size[metric] < capacity) {
+                size[metric]++;
+            }
+            lastTime[metric] = epochSecond;
+            ewma[metric] = samples[metric] == 0 ? value : alpha * value + (1 - alpha) * ewma[metric];
+            samples[metric]++;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.VitalMetric;
+
+import java.util.List;
+
+/**
+ * A condition {@link VitalAlertEngine} checks on every reading of one metric.
+ * Thresholds compare the reading itself, EWMA rules the patient's smoothed
+ * level, and RISE/DROP rules the change against the lowest/highest reading in
+ * the rolling window.
+ */
+public final class VitalAlertRule {
+
+    public enum Kind {
+        ABOVE, BELOW, EWMA_ABOVE, EWMA_BELOW, RISE, DROP
+    }
+
+    public enum Severity {
+        WARNING, CRITICAL
+    }
+
+    private final VitalMetric metric;
+    private final Kind kind;
+    private final double limit;
+    private final Severity severity;
+    private final String description;
+
+    public VitalAlertRule(VitalMetric metric, Kind kind, double limit, Severity severity, String description) {
+        this.metric = metric;
+        this.kind = kind;
+        this.limit = limit;
+        this.severity = severity;
+        this.description = description;
+    }
+
+    public VitalMetric getMetric() {
+        return metric;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Adult defaults. Temperature and weight have no rules because readings
+     * are stored without a unit.
+     */
+    public static List<VitalAlertRule> defaults() {
+        return List.of(
+                new VitalAlertRule(VitalMetric.SYSTOLIC_BP, Kind.ABOVE, 180, Severity.CRITICAL,
+                        "Systolic blood pressure in hypertensive crisis range"),
+                new VitalAlertRule(VitalMetric.SYSTOLIC_BP, Kind.BELOW, 90, Severity.WARNING,
+                        "Low systolic blood pressure"),
+                new VitalAlertRule(VitalMetric.SYSTOLIC_BP, Kind.EWMA_ABOVE, 150, Severity.WARNING,
+                        "Sustained high systolic blood pressure"),
+                new VitalAlertRule(VitalMetric.SYSTOLIC_BP, Kind.RISE, 40, Severity.WARNING,
+                        "Rapid rise in systolic blood pressure"),
+                new VitalAlertRule(VitalMetric.DIASTOLIC_BP, Kind.ABOVE, 120, Severity.CRITICAL,
+                        "Diastolic blood pressure in hypertensive crisis range"),
+                new VitalAlertRule(VitalMetric.HEART_RATE, Kind.ABOVE, 130, Severity.CRITICAL,
+                        "Very high heart rate"),
+                new VitalAlertRule(VitalMetric.HEART_RATE, Kind.BELOW, 40, Severity.CRITICAL,
+                        "Very low heart rate"),
+                new VitalAlertRule(VitalMetric.HEART_RATE, Kind.EWMA_ABOVE, 110, Severity.WARNING,
+                        "Sustained elevated heart rate"),
+                new VitalAlertRule(VitalMetric.HEART_RATE, Kind.RISE, 40, Severity.WARNING,
+                        "Rapid rise in heart rate"),
+                new VitalAlertRule(VitalMetric.SUGAR_LEVEL, Kind.ABOVE, 300, Severity.CRITICAL,
+                        "Very high blood sugar"),
+                new VitalAlertRule(VitalMetric.SUGAR_LEVEL, Kind.BELOW, 54, Severity.CRITICAL,
+                        "Very low blood sugar"),
+                new VitalAlertRule(VitalMetric.SUGAR_LEVEL, Kind.EWMA_ABOVE, 200, Severity.WARNING,
+                        "Sustained high blood sugar"),
+                new VitalAlertRule(VitalMetric.SUGAR_LEVEL, Kind.DROP, 70, Severity.WARNING,
+                        "Rapid fall in blood sugar"),
+                new VitalAlertRule(VitalMetric.RESPIRATORY_RATE, Kind.ABOVE, 30, Severity.WARNING,
+                        "High respiratory rate"),
+                new VitalAlertRule(VitalMetric.RESPIRATORY_RATE, Kind.BELOW, 8, Severity.CRITICAL,
+                        "Very low respiratory rate"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.vikrant.careSync.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a day of readings into the two columns of a {@code VitalChunk}:
+ * seconds of day as int32 and values as float64, both big-endian and in time
+ * order. Readings arrive almost always in order, so {@link #merge} appends in
+ * the common case and only interleaves when a late batch lands mid-day.
+ */
+final class VitalChunkCodec {
+
+    private VitalChunkCodec() {
+    }
+
+    static int[] decodeOffsets(byte[] bytes, int count) {
+        int[] offsets = new int[count];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(offsets, 0, count);
+        return offsets;
+    }
+
+    static double[] decodeValues(byte[] bytes, int count) {
+        double[] values = new double[count];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(values, 0, count);
+        return values;
+    }
+
+    static byte[] encodeOffsets(int[] offsets, int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(count * Integer.BYTES);
+        buffer.asIntBuffer().put(offsets, 0, count);
+        return buffer.array();
+    }
+
+    static byte[] encodeValues(double[] values, int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(count * Double.BYTES);
+        buffer.asDoubleBuffer().put(values, 0, count);
+        return buffer.array();
+    }
+
+    /**
+     * Merges two time-ordered series; on equal offsets the existing reading
+     * comes first.
+     */
+    static Merged merge(int[] offsets, double[] values, int[] addedOffsets, double[] addedValues) {
+        int n = offsets.length;
+        int m = addedOffsets.length;
+        int[] mergedOffsets = new int[n + m];
+        double[] mergedValues = new double[n + m];
+        if (n == 0 || m == 0 || addedOffsets[0] >= offsets[n - 1]) {
+            System.arraycopy(offsets, 0, mergedOffsets, 0, n);
+            System.arraycopy(values, 0, mergedValues, 0, n);
+            System.arraycopy(addedOffsets, 0, mergedOffsets, n, m);
+            System.arraycopy(addedValues, 0, mergedValues, n, m);
+            return new Merged(mergedOffsets, mergedValues);
+        }
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < n && j < m) {
+            if (offsets[i] <= addedOffsets[j]) {
+                mergedOffsets[k] = offsets[i];
+                mergedValues[k++] = values[i++];
+            } else {
+                mergedOffsets[k] = addedOffsets[j];
+                mergedValues[k++] = addedValues[j++];
+            }
+        }
+        while (i < n) {
+            mergedOffsets[k] = offsets[i];
+            mergedValues[k++] = values[i++];
+        }
+        while (j < m) {
+            mergedOffsets[k] = addedOffsets[j];
+            mergedValues[k++] = addedValues[j++];
+        }
+        return new Merged(mergedOffsets, mergedValues);
+    }
+
+    record Merged(int[] offsets, double[] values) {
+    }
+}
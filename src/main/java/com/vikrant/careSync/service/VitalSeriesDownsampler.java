@@ -0,0 +1,86 @@
+package com.vikrant.careSync.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling. Keeps the first and last point
+ * and, from each bucket in between, the point forming the largest triangle
+ * with the previously kept point and the next bucket's average, which keeps
+ * the visual shape of the series (peaks included) at a fraction of the points.
+ * Each kept point also carries the min and max of its whole bucket, so a chart
+ * can draw the envelope of what was dropped.
+ */
+final class VitalSeriesDownsampler {
+
+    private VitalSeriesDownsampler() {
+    }
+
+    /**
+     * @param times  time-ordered x values
+     * @param values y values to downsample
+     * @param mins   per-point lower bound (same as {@code values} for raw readings)
+     * @param maxs   per-point upper bound
+     */
+    static Series downsample(long[] times, double[] values, double[] mins, double[] maxs, int threshold) {
+        int n = times.length;
+        if (threshold >= n || threshold < 3) {
+            return new Series(times, values, mins, maxs);
+        }
+        long[] sampledTimes = new long[threshold];
+        double[] sampledValues = new double[threshold];
+        double[] sampledMins = new double[threshold];
+        double[] sampledMaxs = new double[threshold];
+
+        sampledTimes[0] = times[0];
+        sampledValues[0] = values[0];
+        sampledMins[0] = mins[0];
+        sampledMaxs[0] = maxs[0];
+
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += times[j];
+                avgY += values[j];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double ax = times[a];
+            double ay = values[a];
+            double maxArea = -1;
+            int picked = start;
+            double bucketMin = Double.POSITIVE_INFINITY;
+            double bucketMax = Double.NEGATIVE_INFINITY;
+            for (int j = start; j < end; j++) {
+                // Twice the triangle area; only the ordering matters
+                double area = Math.abs((ax - avgX) * (values[j] - ay) - (ax - times[j]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    picked = j;
+                }
+                bucketMin = Math.min(bucketMin, mins[j]);
+                bucketMax = Math.max(bucketMax, maxs[j]);
+            }
+            sampledTimes[i + 1] = times[picked];
+            sampledValues[i + 1] = values[picked];
+            sampledMins[i + 1] = bucketMin;
+            sampledMaxs[i + 1] = bucketMax;
+            a = picked;
+        }
+
+        sampledTimes[threshold - 1] = times[n - 1];
+        sampledValues[threshold - 1] = values[n - 1];
+        sampledMins[threshold - 1] = mins[n - 1];
+        sampledMaxs[threshold - 1] = maxs[n - 1];
+        return new Series(sampledTimes, sampledValues, sampledMins, sampledMaxs);
+    }
+
+    record Series(long[] times, double[] values, double[] mins, double[] maxs) {
+    }
+}
@@ -0,0 +1,424 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.dto.VitalSeriesDto;
+import com.vikrant.careSync.entity.VitalChunk;
+import com.vikrant.careSync.entity.VitalMetric;
+import com.vikrant.careSync.entity.VitalRollup;
+import com.vikrant.careSync.repository.PatientRepository;
+import com.vikrant.careSync.repository.VitalChunkRepository;
+import com.vikrant.careSync.repository.VitalRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Time-series storage for patient vitals. Readings are stored per patient,
+ * metric and day in {@link VitalChunk}s, and hourly and daily
+ * {@link VitalRollup}s are updated in the same transaction. A range query reads
+ * the coarsest level that still has more points than requested (daily
+ * rollups, hourly rollups or raw chunks) and downsamples it with LTTB, so a
+ * year-long chart reads a few thousand rows at most.
+ */
+@Service
+public class VitalSeriesService {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final VitalChunkRepository vitalChunkRepository;
+    private final VitalRollupRepository vitalRollupRepository;
+    private final PatientRepository patientRepository;
+    private final int maxBatchReadings;
+    private final int maxSeriesPoints;
+
+    public VitalSeriesService(VitalChunkRepository vitalChunkRepository,
+            VitalRollupRepository vitalRollupRepository,
+            PatientRepository patientRepository,
+            @Value("${app.vitals.batch.max-readings:5000}") int maxBatchReadings,
+            @Value("${app.vitals.series.max-points:5000}") int maxSeriesPoints) {
+        this.vitalChunkRepository = vitalChunkRepository;
+        this.vitalRollupRepository = vitalRollupRepository;
+        this.patientRepository = patientRepository;
+        this.maxBatchReadings = maxBatchReadings;
+        this.maxSeriesPoints = maxSeriesPoints;
+    }
+
+    /**
+     * Appends the readings to the patient's chunks and rollups. Ingests for
+     * the same patient are serialized on the patient row, so creating a new
+     * chunk or rollup cannot race with another node. A metric value whose
+     * second is already stored is skipped, so a re-sent batch stores nothing.
+     *
+     * @return the stored values as readings in time order, one per second
+     *         with only the metrics that were stored
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<VitalDto> ingest(Long patientId, List<VitalDto> readings) {
+        if (readings.size() > maxBatchReadings) {
+            throw new IllegalArgumentException("At most " + maxBatchReadings + " readings can be sent at once");
+        }
+        patientRepository.lockById(patientId).orElseThrow(() -> new RuntimeException("Patient not found"));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<ChunkKey, PointBuffer> byChunk = new HashMap<>();
+        for (VitalDto reading : readings) {
+            LocalDateTime recordedAt = reading.getRecordedAt() != null
+                    ? reading.getRecordedAt().truncatedTo(ChronoUnit.SECONDS)
+                    : now.truncatedTo(ChronoUnit.SECONDS);
+            for (VitalMetric metric : VitalMetric.values()) {
+                Double value = valueOf(reading, metric);
+                if (value == null) {
+                    continue;
+                }
+                if (!Double.isFinite(value)) {
+                    throw new IllegalArgumentException("Invalid " + metric + " value: " + value);
+                }
+                byChunk.computeIfAbsent(new ChunkKey(metric, recordedAt.toLocalDate()), key -> new PointBuffer())
+                        .add(recordedAt.toLocalTime().toSecondOfDay(), value);
+            }
+        }
+        if (byChunk.isEmpty()) {
+            return List.of();
+        }
+
+        Set<VitalMetric> metrics = EnumSet.noneOf(VitalMetric.class);
+        Set<LocalDate> days = new HashSet<>();
+        for (ChunkKey key : byChunk.keySet()) {
+            metrics.add(key.metric());
+            days.add(key.day());
+        }
+
+        Map<ChunkKey, VitalChunk> existing = new HashMap<>();
+        for (VitalChunk chunk : vitalChunkRepository.findForUpdate(patientId, metrics, days)) {
+            existing.put(new ChunkKey(chunk.getMetric(), chunk.getDay()), chunk);
+        }
+
+        Map<LocalDateTime, VitalDto> stored = new TreeMap<>();
+        List<VitalChunk> changed = new ArrayList<>(byChunk.size());
+        Map<RollupKey, RollupDelta> hourly = new HashMap<>();
+        Map<RollupKey, RollupDelta> daily = new HashMap<>();
+        for (Map.Entry<ChunkKey, PointBuffer> entry : byChunk.entrySet()) {
+            ChunkKey key = entry.getKey();
+            PointBuffer added = entry.getValue();
+            VitalChunk chunk = existing.get(key);
+            int[] storedOffsets = chunk != null
+                    ? VitalChunkCodec.decodeOffsets(chunk.getTimeOffsets(), chunk.getPointCount())
+                    : new int[0];
+            added.sort();
+            // A re-sent reading (same metric and second) is already stored; counting it again would skew the rollups
+            added.removeDuplicates(storedOffsets);
+            if (added.size == 0) {
+                continue;
+            }
+
+            int[] offsets;
+            double[] values;
+            if (chunk == null) {
+                chunk = new VitalChunk();
+                chunk.setPatientId(patientId);
+                chunk.setMetric(key.metric());
+                chunk.setDay(key.day());
+                offsets = added.offsets();
+                values = added.values();
+            } else {
+                VitalChunkCodec.Merged merged = VitalChunkCodec.merge(storedOffsets,
+                        VitalChunkCodec.decodeValues(chunk.getPointValues(), chunk.getPointCount()),
+                        added.offsets(), added.values());
+                offsets = merged.offsets();
+                values = merged.values();
+            }
+            if (offsets.length > SECONDS_PER_DAY) {
+                throw new IllegalArgumentException("Too many " + key.metric() + " readings for " + key.day());
+            }
+            chunk.setPointCount(offsets.length);
+            chunk.setTimeOffsets(VitalChunkCodec.encodeOffsets(offsets, offsets.length));
+            chunk.setPointValues(VitalChunkCodec.encodeValues(values, values.length));
+            chunk.setUpdatedAt(now);
+            changed.add(chunk);
+
+            LocalDateTime dayStart = key.day().atStartOfDay();
+            daily.computeIfAbsent(new RollupKey(key.metric(), dayStart), k -> new RollupDelta()).addAll(added);
+            for (int i = 0; i < added.size; i++) {
+                LocalDateTime recordedAt = dayStart.plusSeconds(added.offsets[i]);
+                setValue(stored.computeIfAbsent(recordedAt, time -> VitalDto.builder()
+                        .patientId(patientId)
+                        .recordedAt(time)
+                        .build()), key.metric(), added.values[i]);
+                LocalDateTime hour = dayStart.plusHours(added.offsets[i] / SECONDS_PER_HOUR);
+                hourly.computeIfAbsent(new RollupKey(key.metric(), hour), k -> new RollupDelta())
+                        .add(added.values[i]);
+            }
+        }
+        if (changed.isEmpty()) {
+            return List.of();
+        }
+        vitalChunkRepository.saveAll(changed);
+        applyRollups(patientId, VitalRollup.Resolution.HOUR, hourly);
+        applyRollups(patientId, VitalRollup.Resolution.DAY, daily);
+        return new ArrayList<>(stored.values());
+    }
+
+    private void applyRollups(Long patientId, VitalRollup.Resolution resolution, Map<RollupKey, RollupDelta> deltas) {
+        Set<VitalMetric> metrics = EnumSet.noneOf(VitalMetric.class);
+        Set<LocalDateTime> buckets = new HashSet<>();
+        for (RollupKey key : deltas.keySet()) {
+            metrics.add(key.metric());
+            buckets.add(key.bucketStart());
+        }
+        Map<RollupKey, VitalRollup> existing = new HashMap<>();
+        for (VitalRollup rollup : vitalRollupRepository.findForUpdate(patientId, metrics, resolution, buckets)) {
+            existing.put(new RollupKey(rollup.getMetric(), rollup.getBucketStart()), rollup);
+        }
+
+        List<VitalRollup> changed = new ArrayList<>(deltas.size());
+        for (Map.Entry<RollupKey, RollupDelta> entry : deltas.entrySet()) {
+            RollupDelta delta = entry.getValue();
+            VitalRollup rollup = existing.get(entry.getKey());
+            if (rollup == null) {
+                rollup = new VitalRollup(null, patientId, entry.getKey().metric(), resolution,
+                        entry.getKey().bucketStart(), delta.count, delta.sum, delta.min, delta.max);
+            } else {
+                rollup.setPointCount(rollup.getPointCount() + delta.count);
+                rollup.setValueSum(rollup.getValueSum() + delta.sum);
+                rollup.setMinValue(Math.min(rollup.getMinValue(), delta.min));
+                rollup.setMaxValue(Math.max(rollup.getMaxValue(), delta.max));
+            }
+            changed.add(rollup);
+        }
+        vitalRollupRepository.saveAll(changed);
+    }
+
+    /**
+     * Returns at most {@code points} points of {@code metric} between
+     * {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    @Transactional(readOnly = true)
+    public VitalSeriesDto getSeries(Long patientId, VitalMetric metric, LocalDateTime from, LocalDateTime to,
+            int points) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (points < 3 || points > maxSeriesPoints) {
+            throw new IllegalArgumentException("points must be between 3 and " + maxSeriesPoints);
+        }
+
+        long rangeSeconds = ChronoUnit.SECONDS.between(from, to);
+        String resolution;
+        SourceSeries source;
+        if (rangeSeconds / SECONDS_PER_DAY >= points) {
+            resolution = VitalRollup.Resolution.DAY.name();
+            source = readRollups(patientId, metric, VitalRollup.Resolution.DAY, from.truncatedTo(ChronoUnit.DAYS), to);
+        } else if (rangeSeconds / SECONDS_PER_HOUR >= points) {
+            resolution = VitalRollup.Resolution.HOUR.name();
+            source = readRollups(patientId, metric, VitalRollup.Resolution.HOUR, from.truncatedTo(ChronoUnit.HOURS),
+                    to);
+        } else {
+            resolution = "RAW";
+            source = readRaw(patientId, metric, from, to);
+        }
+
+        VitalSeriesDownsampler.Series series = VitalSeriesDownsampler.downsample(source.times, source.values,
+                source.mins, source.maxs, points);
+        List<LocalDateTime> timestamps = new ArrayList<>(series.times().length);
+        for (long time : series.times()) {
+            timestamps.add(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+        }
+        return VitalSeriesDto.builder()
+                .patientId(patientId)
+                .metric(metric)
+                .resolution(resolution)
+                .from(from)
+                .to(to)
+                .sourcePoints(source.times.length)
+                .timestamps(timestamps)
+                .values(series.values())
+                .min(series.mins())
+                .max(series.maxs())
+                .build();
+    }
+
+    private SourceSeries readRollups(Long patientId, VitalMetric metric, VitalRollup.Resolution resolution,
+            LocalDateTime from, LocalDateTime to) {
+        List<VitalRollupRepository.RollupPoint> rows = vitalRollupRepository.findRange(patientId, metric,
+                resolution, from, to);
+        SourceSeries series = new SourceSeries(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            VitalRollupRepository.RollupPoint row = rows.get(i);
+            series.times[i] = row.getBucketStart().toEpochSecond(ZoneOffset.UTC);
+            series.values[i] = row.getValueSum() / row.getPointCount();
+            series.mins[i] = row.getMinValue();
+            series.maxs[i] = row.getMaxValue();
+        }
+        return series;
+    }
+
+    private SourceSeries readRaw(Long patientId, VitalMetric metric, LocalDateTime from, LocalDateTime to) {
+        List<VitalChunkRepository.ChunkData> chunks = vitalChunkRepository.findRange(patientId, metric,
+                from.toLocalDate(), to.toLocalDate());
+        int total = 0;
+        for (VitalChunkRepository.ChunkData chunk : chunks) {
+            total += chunk.getPointCount();
+        }
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        long[] times = new long[total];
+        double[] values = new double[total];
+        int size = 0;
+        for (VitalChunkRepository.ChunkData chunk : chunks) {
+            int count = chunk.getPointCount();
+            int[] offsets = VitalChunkCodec.decodeOffsets(chunk.getTimeOffsets(), count);
+            double[] chunkValues = VitalChunkCodec.decodeValues(chunk.getPointValues(), count);
+            long dayStart = chunk.getDay().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            for (int i = 0; i < count; i++) {
+                long time = dayStart + offsets[i];
+                if (time >= fromSecond && time < toSecond) {
+                    times[size] = time;
+                    values[size++] = chunkValues[i];
+                }
+            }
+        }
+        SourceSeries series = new SourceSeries(size);
+        System.arraycopy(times, 0, series.times, 0, size);
+        System.arraycopy(values, 0, series.values, 0, size);
+        System.arraycopy(values, 0, series.mins, 0, size);
+        System.arraycopy(values, 0, series.maxs, 0, size);
+        return series;
+    }
+
+    static Double valueOf(VitalDto reading, VitalMetric metric) {
+        return switch (metric) {
+            case SYSTOLIC_BP -> reading.getSystolicBP();
+            case DIASTOLIC_BP -> reading.getDiastolicBP();
+            case SUGAR_LEVEL -> reading.getSugarLevel();
+            case WEIGHT -> reading.getWeight();
+            case TEMPERATURE -> reading.getTemperature();
+            case HEART_RATE -> reading.getHeartRate();
+            case RESPIRATORY_RATE -> reading.getRespiratoryRate();
+        };
+    }
+
+    private static void setValue(VitalDto reading, VitalMetric metric, double value) {
+        switch (metric) {
+            case SYSTOLIC_BP -> reading.setSystolicBP(value);
+            case DIASTOLIC_BP -> reading.setDiastolicBP(value);
+            case SUGAR_LEVEL -> reading.setSugarLevel(value);
+            case WEIGHT -> reading.setWeight(value);
+            case TEMPERATURE -> reading.setTemperature(value);
+            case HEART_RATE -> reading.setHeartRate(value);
+            case RESPIRATORY_RATE -> reading.setRespiratoryRate(value);
+        }
+    }
+
+    private record ChunkKey(VitalMetric metric, LocalDate day) {
+    }
+
+    private record RollupKey(VitalMetric metric, LocalDateTime bucketStart) {
+    }
+
+    /** Growable parallel arrays of one chunk's new readings. */
+    private static final class PointBuffer {
+        private int[] offsets = new int[8];
+        private double[] values = new double[8];
+        private int size;
+
+        void add(int offset, double value) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            offsets[size] = offset;
+            values[size++] = value;
+        }
+
+        /** Stable insertion sort; batches are nearly always in order already. */
+        void sort() {
+            for (int i = 1; i < size; i++) {
+                int offset = offsets[i];
+                double value = values[i];
+                int j = i - 1;
+                while (j >= 0 && offsets[j] > offset) {
+                    offsets[j + 1] = offsets[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                offsets[j + 1] = offset;
+                values[j + 1] = value;
+            }
+        }
+
+        /**
+         * Keeps the first reading of each second and drops those already in
+         * {@code storedOffsets} (sorted). Call after {@link #sort}.
+         */
+        void removeDuplicates(int[] storedOffsets) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int offset = offsets[i];
+                if ((kept > 0 && offsets[kept - 1] == offset) || Arrays.binarySearch(storedOffsets, offset) >= 0) {
+                    continue;
+                }
+                offsets[kept] = offset;
+                values[kept++] = values[i];
+            }
+            size = kept;
+        }
+
+        int[] offsets() {
+            return Arrays.copyOf(offsets, size);
+        }
+
+        double[] values() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class RollupDelta {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void addAll(PointBuffer buffer) {
+            for (int i = 0; i < buffer.size; i++) {
+                add(buffer.values[i]);
+            }
+        }
+    }
+
+    private static final class SourceSeries {
+        private final long[] times;
+        private final double[] values;
+        private final double[] mins;
+        private final double[] maxs;
+
+        SourceSeries(int size) {
+            times = new long[size];
+            values = new double[size];
+            mins = new double[size];
+            maxs = new double[size];
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.vikrant.careSync.service;
 
+import com.vikrant.careSync.dto.VitalBatchRequest;
 import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.dto.VitalSeriesDto;
 import com.vikrant.careSync.entity.Patient;
 import com.vikrant.careSync.entity.Vital;
+import com.vikrant.careSync.entity.VitalMetric;
 import com.vikrant.careSync.repository.PatientRepository;
 import com.vikrant.careSync.repository.VitalRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,6 +24,8 @@ public class VitalService {
 
     private final VitalRepository vitalRepository;
     private final PatientRepository patientRepository;
+    private final VitalSeriesService vitalSeriesService;
+    private final VitalAlertEngine vitalAlertEngine;
 
     @Transactional
     public VitalDto logVital(VitalDto dto) {
@@ -37,9 +45,54 @@ public class VitalService {
                 .build();
 
         Vital saved = vitalRepository.save(vital);
+        List<VitalDto> stored = vitalSeriesService.ingest(patient.getId(), List.of(dto));
+        evaluateAlertsAfterCommit(patient.getId(), stored);
         return new VitalDto(saved);
     }
 
+    /**
+     * Stores a batch of device readings in the time-series store only; they
+     * are not added to the per-reading vitals history.
+     *
+     * @return number of metric values stored
+     */
+    @Transactional
+    public int logVitals(VitalBatchRequest request) {
+        List<VitalDto> stored = vitalSeriesService.ingest(request.getPatientId(), request.getReadings());
+        evaluateAlertsAfterCommit(request.getPatientId(), stored);
+        int values = 0;
+        for (VitalDto reading : stored) {
+            for (VitalMetric metric : VitalMetric.values()) {
+                if (VitalSeriesService.valueOf(reading, metric) != null) {
+                    values++;
+                }
+            }
+        }
+        return values;
+    }
+
+    // Alerts are raised only for values that were actually stored, so a re-sent reading is not counted twice
+    private void evaluateAlertsAfterCommit(Long patientId, List<VitalDto> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            vitalAlertEngine.onReadings(patientId, readings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                vitalAlertEngine.onReadings(patientId, readings);
+            }
+        });
+    }
+
+    public VitalSeriesDto getVitalSeries(Long patientId, VitalMetric metric, LocalDateTime from, LocalDateTime to,
+            int points) {
+        return vitalSeriesService.getSeries(patientId, metric, from, to, points);
+    }
+
     public List<VitalDto> getPatientVitals(Long patientId) {
         return vitalRepository.findByPatientIdOrderByRecordedAtDesc(patientId).stream()
                 .map(VitalDto::new)
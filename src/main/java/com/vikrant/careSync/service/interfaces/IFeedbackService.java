@@ -1,7 +1,9 @@
 package com.vikrant.careSync.service.interfaces;
 
 import com.vikrant.careSync.entity.Feedback;
+import com.vikrant.careSync.dto.FeedbackDto;
 import com.vikrant.careSync.dto.PatientAppointmentResponse;
+import com.vikrant.careSync.repository.FeedbackRepository;
 
 import java.util.List;
 import java.util.Map;
@@ -33,6 +35,13 @@ public interface IFeedbackService {
      */
     List<Feedback> getFeedbackByDoctor(Long doctorId);
 
+    /**
+     * Get feedback DTOs by doctor, read without loading feedback entities
+     * @param doctorId Doctor ID
+     * @return List of feedback DTOs for the doctor
+     */
+    List<FeedbackDto> getFeedbackDtosByDoctor(Long doctorId);
+
     /**
      * Get feedback by patient
      * @param patientId Patient ID
@@ -96,6 +105,18 @@ public interface IFeedbackService {
      */
     Map<Integer, Long> getRatingDistributionByDoctor(Long doctorId);
 
+    /**
+     * Get average rating and review count of every doctor with feedback
+     * @return Map of doctor ID to rating summary
+     */
+    Map<Long, FeedbackRepository.DoctorRatingSummary> getRatingSummariesByDoctor();
+
+    /**
+     * Get average rating across all feedback
+     * @return Average rating, 0 when there is no feedback
+     */
+    double getOverallAverageRating();
+
     /**
      * Get recent feedbacks for a doctor
      * @param doctorId Doctor ID
@@ -1,50 +1,71 @@
 package com.vikrant.careSync.task;
 
+import com.vikrant.careSync.batch.BatchJobRunner;
+import com.vikrant.careSync.batch.ChunkedJob;
 import com.vikrant.careSync.repository.AppointmentRepository;
+import com.vikrant.careSync.repository.IdBounds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.List;
 
+/**
+ * Deactivates appointments that stayed in BOOKED status past their day. Runs
+ * as a chunked batch job, so a large backlog is committed in chunks and an
+ * interrupted run resumes where it stopped.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class AppointmentDeactivationTask {
+public class AppointmentDeactivationTask implements ChunkedJob {
 
     private final AppointmentRepository appointmentRepository;
-    private final AtomicBoolean cleanupRunning = new AtomicBoolean(false);
+    private final BatchJobRunner batchJobRunner;
 
     /**
      * Runs every midnight to deactivate appointments that stayed in BOOKED status
      * or were cancelled today.
      */
     @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
     public void deactivateExpiredAppointments() {
-        if (!cleanupRunning.compareAndSet(false, true)) {
-            log.warn("Skipping stale appointment cleanup because a previous run is still active");
-            return;
+        log.info("Starting scheduled task: Deactivating stale BOOKED appointments at midnight");
+
+        long deactivatedCount = batchJobRunner.run(this);
+
+        if (deactivatedCount > 0) {
+            log.info("Successfully deactivated {} stale appointments", deactivatedCount);
+        } else {
+            log.debug("No stale appointments found to deactivate");
         }
+    }
 
-        log.info("Starting scheduled task: Deactivating stale BOOKED appointments at midnight");
+    @Override
+    public String name() {
+        return "appointment-deactivation";
+    }
+
+    @Override
+    public IdRange findRange(LocalDateTime asOf) {
+        IdBounds bounds = appointmentRepository.findExpiredAppointmentIdBounds(threshold(asOf));
+        return bounds == null ? null : IdRange.of(bounds.getMinId(), bounds.getMaxId());
+    }
 
-        try {
-            // Deactivate anything scheduled before today that is still BOOKED
-            LocalDateTime threshold = LocalDate.now().atStartOfDay();
-            int deactivatedCount = appointmentRepository.deactivateExpiredAppointments(threshold);
-
-            if (deactivatedCount > 0) {
-                log.info("Successfully deactivated {} stale appointments", deactivatedCount);
-            } else {
-                log.debug("No stale appointments found to deactivate");
-            }
-        } finally {
-            cleanupRunning.set(false);
+    @Override
+    public ChunkResult processChunk(LocalDateTime asOf, long afterId, long upperBound, int chunkSize) {
+        List<Long> ids = appointmentRepository.findExpiredAppointmentIds(threshold(asOf), afterId, upperBound,
+                PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return ChunkResult.DONE;
         }
+        return new ChunkResult(ids.get(ids.size() - 1), appointmentRepository.deactivateAppointments(ids));
+    }
+
+    // Anything scheduled before the run's day that is still BOOKED
+    private static LocalDateTime threshold(LocalDateTime asOf) {
+        return asOf.toLocalDate().atStartOfDay();
     }
 }
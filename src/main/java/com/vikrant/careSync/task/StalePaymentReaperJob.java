@@ -0,0 +1,103 @@
+package com.vikrant.careSync.task;
+
+import com.vikrant.careSync.batch.BatchJobRunner;
+import com.vikrant.careSync.batch.ChunkedJob;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.repository.BookingRepository;
+import com.vikrant.careSync.repository.IdBounds;
+import com.vikrant.careSync.repository.PaymentRepository;
+import com.vikrant.careSync.service.PaymentStateMachine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cancels payments left PENDING or PROCESSING longer than the transaction
+ * timeout, e.g. after a gateway outage, along with the PENDING bookings they
+ * were meant to pay for. Runs as a chunked batch job: each chunk locks its
+ * payments and cancels them through {@link PaymentStateMachine} in one short
+ * transaction.
+ */
+@Component
+@Slf4j
+public class StalePaymentReaperJob implements ChunkedJob {
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentStateMachine paymentStateMachine;
+    private final BatchJobRunner batchJobRunner;
+    private final int transactionTimeoutMinutes;
+
+    public StalePaymentReaperJob(PaymentRepository paymentRepository,
+            BookingRepository bookingRepository,
+            PaymentStateMachine paymentStateMachine,
+            BatchJobRunner batchJobRunner,
+            @Value("${app.payment.transaction-timeout-minutes:30}") int transactionTimeoutMinutes) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentStateMachine = paymentStateMachine;
+        this.batchJobRunner = batchJobRunner;
+        this.transactionTimeoutMinutes = transactionTimeoutMinutes;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.stale-reaper.interval-ms:300000}",
+            initialDelayString = "${app.payment.stale-reaper.initial-delay-ms:60000}")
+    public long reap() {
+        long cancelled = batchJobRunner.run(this);
+        if (cancelled > 0) {
+            log.info("Cleaned up {} stale payments", cancelled);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public String name() {
+        return "stale-payment-reaper";
+    }
+
+    @Override
+    public IdRange findRange(LocalDateTime asOf) {
+        IdBounds bounds = paymentRepository.findStalePaymentIdBounds(cutoff(asOf));
+        return bounds == null ? null : IdRange.of(bounds.getMinId(), bounds.getMaxId());
+    }
+
+    @Override
+    public ChunkResult processChunk(LocalDateTime asOf, long afterId, long upperBound, int chunkSize) {
+        List<Payment> stalePayments = paymentRepository.findStalePaymentsForUpdate(cutoff(asOf), afterId, upperBound,
+                PageRequest.of(0, chunkSize));
+        if (stalePayments.isEmpty()) {
+            return ChunkResult.DONE;
+        }
+
+        int cancelled = 0;
+        Set<Long> bookingIds = new HashSet<>();
+        for (Payment payment : stalePayments) {
+            PaymentStateMachine.Outcome outcome = paymentStateMachine.transitionInCurrentTransaction(payment.getId(),
+                    Payment.PaymentStatus.CANCELLED, p -> p.setFailureReason("Transaction timeout"));
+            if (outcome != PaymentStateMachine.Outcome.APPLIED) {
+                continue;
+            }
+            if (payment.getBookingId() != null) {
+                bookingIds.add(payment.getBookingId());
+            }
+            cancelled++;
+            log.info("Cancelled stale payment: {}", payment.getTransactionId());
+        }
+        if (!bookingIds.isEmpty()) {
+            // The state machine flushed the cancelled payments, so the NOT EXISTS check sees them
+            bookingIds.forEach(bookingId -> bookingRepository.cancelIfUnpaid(bookingId, asOf));
+        }
+        return new ChunkResult(stalePayments.get(stalePayments.size() - 1).getId(), cancelled);
+    }
+
+    private LocalDateTime cutoff(LocalDateTime asOf) {
+        return asOf.minusMinutes(transactionTimeoutMinutes);
+    }
+}
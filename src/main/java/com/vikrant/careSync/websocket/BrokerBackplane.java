@@ -0,0 +1,24 @@
+package com.vikrant.careSync.websocket;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node transport used by {@link ClusterBrokerRelay} to fan STOMP messages
+ * out to every application node, plus the shared store behind
+ * {@link ClusterUserSessionRegistry}. Production uses Redis; tests plug in an
+ * in-memory stand-in.
+ */
+public interface BrokerBackplane {
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+    void registerUserNode(String user, String nodeId, Duration ttl);
+
+    void unregisterUserNode(String user, String nodeId);
+
+    Set<String> findUserNodes(String user);
+}
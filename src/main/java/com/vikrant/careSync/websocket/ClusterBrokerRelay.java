@@ -0,0 +1,148 @@
+package com.vikrant.careSync.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relays messages published on the local {@code brokerChannel} to the other
+ * nodes through the {@link BrokerBackplane}, and injects messages relayed by
+ * other nodes into the local broker. Topic/queue destinations are broadcast to
+ * every node; {@code /user/...} destinations are sent only to the nodes that
+ * {@link ClusterUserSessionRegistry} reports as holding sessions for that user.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "redis")
+@Slf4j
+public class ClusterBrokerRelay implements ChannelInterceptor {
+
+    public static final String BROADCAST_CHANNEL = "caresync:ws:broadcast";
+    public static final String NODE_CHANNEL_PREFIX = "caresync:ws:node:";
+    static final String RELAYED_HEADER = "caresyncRelayed";
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+
+    private final BrokerBackplane backplane;
+    private final ClusterUserSessionRegistry userSessionRegistry;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper;
+
+    public ClusterBrokerRelay(BrokerBackplane backplane,
+            ClusterUserSessionRegistry userSessionRegistry,
+            @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+            ObjectMapper objectMapper) {
+        this.backplane = backplane;
+        this.userSessionRegistry = userSessionRegistry;
+        this.brokerChannel = brokerChannel;
+        this.objectMapper = objectMapper;
+
+        backplane.subscribe(BROADCAST_CHANNEL, this::onRelayedMessage);
+        backplane.subscribe(NODE_CHANNEL_PREFIX + userSessionRegistry.getNodeId(), this::onRelayedMessage);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (headers.containsKey(RELAYED_HEADER)) {
+            return message;
+        }
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if ((type != null && type != SimpMessageType.MESSAGE) || destination == null) {
+            return message;
+        }
+        // Session-specific targets resolved by the user destination handler stay local
+        if (SimpMessageHeaderAccessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION,
+                headers) != null) {
+            return message;
+        }
+
+        try {
+            if (destination.startsWith(USER_DESTINATION_PREFIX)) {
+                String user = extractUser(destination);
+                String envelope = null;
+                for (String node : userSessionRegistry.findNodes(user)) {
+                    if (!node.equals(userSessionRegistry.getNodeId())) {
+                        envelope = envelope != null ? envelope : toEnvelope(message, destination);
+                        backplane.publish(NODE_CHANNEL_PREFIX + node, envelope);
+                    }
+                }
+            } else {
+                backplane.publish(BROADCAST_CHANNEL, toEnvelope(message, destination));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to relay WebSocket message for {} to other nodes: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    void onRelayedMessage(String raw) {
+        try {
+            RelayEnvelope envelope = objectMapper.readValue(raw, RelayEnvelope.class);
+            if (userSessionRegistry.getNodeId().equals(envelope.origin())) {
+                return;
+            }
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(envelope.destination());
+            if (envelope.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+            }
+            if (envelope.nativeHeaders() != null) {
+                envelope.nativeHeaders().forEach((name, values) -> values
+                        .forEach(value -> accessor.addNativeHeader(name, value)));
+            }
+            accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+            brokerChannel.send(MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.warn("Failed to deliver relayed WebSocket message: {}", e.getMessage());
+        }
+    }
+
+    private String toEnvelope(Message<?> message, String destination) throws Exception {
+        Object payload = message.getPayload();
+        byte[] body;
+        if (payload instanceof byte[] bytes) {
+            body = bytes;
+        } else if (payload instanceof String text) {
+            body = text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            throw new IllegalStateException("Unsupported payload type " + payload.getClass().getName());
+        }
+
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> nativeHeaders = (Map<String, List<String>>) message.getHeaders()
+                .get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+
+        return objectMapper.writeValueAsString(new RelayEnvelope(
+                userSessionRegistry.getNodeId(),
+                destination,
+                contentType != null ? contentType.toString() : null,
+                nativeHeaders,
+                body));
+    }
+
+    private String extractUser(String destination) {
+        String remainder = destination.substring(USER_DESTINATION_PREFIX.length());
+        int slash = remainder.indexOf('/');
+        String user = slash >= 0 ? remainder.substring(0, slash) : remainder;
+        // Same decoding as DefaultUserDestinationResolver
+        return user.replace("%2F", "/");
+    }
+}
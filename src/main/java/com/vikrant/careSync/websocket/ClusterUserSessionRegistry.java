@@ -0,0 +1,106 @@
+package com.vikrant.careSync.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster-wide view of which nodes hold STOMP sessions for a user, so that
+ * {@code convertAndSendToUser} is forwarded only to the nodes that can deliver
+ * it. Local sessions are tracked from connect/disconnect events and re-announced
+ * on a heartbeat; registrations expire if a node stops heart-beating.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "redis")
+@Slf4j
+public class ClusterUserSessionRegistry {
+
+    private static final Duration REGISTRATION_TTL = Duration.ofSeconds(90);
+
+    private final BrokerBackplane backplane;
+    private final String nodeId;
+    private final Map<String, Set<String>> localSessionsByUser = new ConcurrentHashMap<>();
+
+    public ClusterUserSessionRegistry(BrokerBackplane backplane,
+            @Value("${app.websocket.broker.node-id:}") String nodeId) {
+        this.backplane = backplane;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user != null && sessionId != null) {
+            sessionConnected(user.getName(), sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            sessionDisconnected(user.getName(), event.getSessionId());
+        }
+    }
+
+    public void sessionConnected(String user, String sessionId) {
+        localSessionsByUser.compute(user, (u, sessions) -> {
+            Set<String> updated = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            updated.add(sessionId);
+            return updated;
+        });
+        register(user);
+    }
+
+    public void sessionDisconnected(String user, String sessionId) {
+        Set<String> remaining = localSessionsByUser.computeIfPresent(user, (u, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        if (remaining == null) {
+            try {
+                backplane.unregisterUserNode(user, nodeId);
+            } catch (Exception e) {
+                log.warn("Failed to unregister WebSocket user {} from node {}: {}", user, nodeId, e.getMessage());
+            }
+        }
+    }
+
+    public boolean hasLocalSessions(String user) {
+        return localSessionsByUser.containsKey(user);
+    }
+
+    public Set<String> findNodes(String user) {
+        return backplane.findUserNodes(user);
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void heartbeat() {
+        localSessionsByUser.keySet().forEach(this::register);
+    }
+
+    private void register(String user) {
+        try {
+            backplane.registerUserNode(user, nodeId, REGISTRATION_TTL);
+        } catch (Exception e) {
+            log.warn("Failed to register WebSocket user {} on node {}: {}", user, nodeId, e.getMessage());
+        }
+    }
+}
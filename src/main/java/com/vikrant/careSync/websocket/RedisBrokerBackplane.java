@@ -0,0 +1,83 @@
+package com.vikrant.careSync.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub backplane. User → node registrations are kept in one hash per
+ * user whose fields are node ids and whose values are expiry timestamps, so a
+ * crashed node drops out once its heartbeat stops.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "redis")
+@Slf4j
+public class RedisBrokerBackplane implements BrokerBackplane, DisposableBean {
+
+    private static final String USER_KEY_PREFIX = "WS:USER:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisBrokerBackplane(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(connectionFactory);
+        this.listenerContainer.afterPropertiesSet();
+        this.listenerContainer.start();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+    }
+
+    @Override
+    public void registerUserNode(String user, String nodeId, Duration ttl) {
+        String key = USER_KEY_PREFIX + user;
+        redisTemplate.opsForHash().put(key, nodeId, Long.toString(System.currentTimeMillis() + ttl.toMillis()));
+        redisTemplate.expire(key, ttl);
+    }
+
+    @Override
+    public void unregisterUserNode(String user, String nodeId) {
+        redisTemplate.opsForHash().delete(USER_KEY_PREFIX + user, nodeId);
+    }
+
+    @Override
+    public Set<String> findUserNodes(String user) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(USER_KEY_PREFIX + user);
+        long now = System.currentTimeMillis();
+        Set<String> nodes = new HashSet<>();
+        entries.forEach((node, expiresAt) -> {
+            if (Long.parseLong(expiresAt.toString()) > now) {
+                nodes.add(node.toString());
+            }
+        });
+        return nodes;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+}
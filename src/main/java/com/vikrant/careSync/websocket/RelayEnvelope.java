@@ -0,0 +1,16 @@
+package com.vikrant.careSync.websocket;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of a STOMP message relayed between nodes through the
+ * {@link BrokerBackplane}.
+ */
+public record RelayEnvelope(
+        String origin,
+        String destination,
+        String contentType,
+        Map<String, List<String>> nativeHeaders,
+        byte[] payload) {
+}
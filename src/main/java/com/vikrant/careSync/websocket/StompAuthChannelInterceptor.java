@@ -0,0 +1,66 @@
+package com.vikrant.careSync.websocket;
+
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.repository.UserRepository;
+import com.vikrant.careSync.security.CustomUserDetailsService;
+import com.vikrant.careSync.security.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP CONNECT frames with the same JWT used for REST calls,
+ * sent as the {@code Authorization: Bearer ...} native header. Connections
+ * without a token stay anonymous (appointment chat topics keep working) but
+ * cannot receive {@code /user/...} destinations; an invalid token is rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return message;
+        }
+
+        String jwt = authHeader.substring(BEARER_PREFIX.length());
+        try {
+            String username = jwtService.extractUsername(jwt);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!jwtService.isTokenValid(jwt, userDetails)) {
+                throw new MessagingException("Invalid or expired token");
+            }
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new MessagingException("User not found"));
+            accessor.setUser(new StompUserAuthentication(user.getId(), userDetails));
+            return message;
+        } catch (MessagingException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Rejected STOMP CONNECT: {}", e.getMessage());
+            throw new MessagingException("Invalid or expired token");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.vikrant.careSync.websocket;
+
+import lombok.Getter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Authentication attached to an authenticated STOMP session. Its name is the
+ * user id rather than the username, so services can address
+ * {@code convertAndSendToUser} with the doctor/patient id they already hold.
+ */
+@Getter
+public class StompUserAuthentication extends UsernamePasswordAuthenticationToken {
+
+    private final Long userId;
+
+    public StompUserAuthentication(Long userId, UserDetails userDetails) {
+        super(userDetails, null, userDetails.getAuthorities());
+        this.userId = userId;
+    }
+
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.vikrant.careSync.batch;
+
+import com.vikrant.careSync.entity.BatchJob;
+import com.vikrant.careSync.entity.BatchJobPartition;
+import com.vikrant.careSync.repository.BatchJobPartitionRepository;
+import com.vikrant.careSync.repository.BatchJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checkpoint, resume and attempt cap of {@link BatchJobRunner}, run against a
+ * single partition of ids 1..10 in chunks of two.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchJobRunner;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=VALUE,DAY",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.batch.partitions=1",
+        "app.batch.chunk-size=2",
+        "app.batch.max-attempts=3"
+})
+@ActiveProfiles("test")
+class BatchJobRunnerTest {
+
+    private static final long MAX_ID = 10;
+    private static final long POISON_ID = 5;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+    @Autowired
+    private BatchJobPartitionRepository partitionRepository;
+
+    @Test
+    void failedRunResumesFromItsLastCommittedChunk() {
+        FlakyJob job = new FlakyJob("test-resume", 1);
+
+        batchJobRunner.run(job);
+
+        BatchJob header = batchJobRepository.findById(job.name()).orElseThrow();
+        BatchJobPartition partition = partition(job, header.getRunId());
+        assertEquals(BatchJob.Status.RUNNING, header.getStatus());
+        assertEquals(BatchJobPartition.Status.FAILED, partition.getStatus());
+        assertEquals(POISON_ID - 1, partition.getLastProcessedId());
+
+        batchJobRunner.run(job);
+
+        BatchJob resumed = batchJobRepository.findById(job.name()).orElseThrow();
+        assertEquals(header.getRunId(), resumed.getRunId());
+        assertEquals(BatchJob.Status.IDLE, resumed.getStatus());
+        assertEquals(MAX_ID, resumed.getLastRunProcessed());
+        // Rows before the failed chunk were not processed again
+        assertEquals(LongStream.rangeClosed(1, MAX_ID).boxed().toList(), job.processed);
+    }
+
+    @Test
+    void partitionIsGivenUpAfterMaxAttemptsAndTheRunClosed() {
+        FlakyJob job = new FlakyJob("test-attempt-cap", Integer.MAX_VALUE);
+
+        for (int trigger = 1; trigger <= 3; trigger++) {
+            batchJobRunner.run(job);
+        }
+
+        BatchJob header = batchJobRepository.findById(job.name()).orElseThrow();
+        long runId = header.getRunId();
+        BatchJobPartition partition = partition(job, runId);
+        assertEquals(BatchJob.Status.IDLE, header.getStatus());
+        assertEquals(BatchJobPartition.Status.FAILED, partition.getStatus());
+        assertEquals(3, partition.getAttempts());
+        assertEquals(POISON_ID - 1, partition.getLastProcessedId());
+
+        // The closed run no longer blocks new runs
+        batchJobRunner.run(job);
+
+        assertEquals(runId + 1, batchJobRepository.findById(job.name()).orElseThrow().getRunId());
+        assertEquals(3, partition(job, runId).getAttempts());
+    }
+
+    private BatchJobPartition partition(ChunkedJob job, long runId) {
+        return partitionRepository.findAll().stream()
+                .filter(p -> p.getJobName().equals(job.name()) && p.getRunId() == runId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /** Processes ids 1..10; the chunk containing {@link #POISON_ID} fails the given number of times. */
+    private static final class FlakyJob implements ChunkedJob {
+
+        private final String name;
+        private int failuresLeft;
+        private final List<Long> processed = new CopyOnWriteArrayList<>();
+
+        FlakyJob(String name, int failures) {
+            this.name = name;
+            this.failuresLeft = failures;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public IdRange findRange(LocalDateTime asOf) {
+            return new IdRange(1, MAX_ID);
+        }
+
+        @Override
+        public ChunkResult processChunk(LocalDateTime asOf, long afterId, long upperBound, int chunkSize) {
+            if (afterId >= upperBound) {
+                return ChunkResult.DONE;
+            }
+            long last = Math.min(afterId + chunkSize, upperBound);
+            if (afterId < POISON_ID && POISON_ID <= last && failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Bad row " + POISON_ID);
+            }
+            LongStream.rangeClosed(afterId + 1, last).forEach(processed::add);
+            return new ChunkResult(last, (int) (last - afterId));
+        }
+    }
+}
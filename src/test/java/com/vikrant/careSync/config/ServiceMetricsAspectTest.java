@@ -0,0 +1,60 @@
+package com.vikrant.careSync.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void tagsByServiceAndMethodNotByArguments() {
+        service.find(1L);
+        service.find(2L);
+        service.find(3L);
+
+        Timer timer = registry.get(ServiceMetricsAspect.METRIC)
+                .tags("service", "SampleService", "method", "find", "state", "SUCCESS", "exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(3);
+        assertThat(registry.get(ServiceMetricsAspect.METRIC).timers()).hasSize(1);
+    }
+
+    @Test
+    void failuresAreTaggedWithTheExceptionClass() {
+        assertThatThrownBy(() -> service.find(-1L)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(registry.get(ServiceMetricsAspect.METRIC)
+                .tags("method", "find", "state", "ERROR", "exception", "IllegalArgumentException")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Service
+    static class SampleService {
+
+        public String find(Long id) {
+            if (id < 0) {
+                throw new IllegalArgumentException("Invalid id: " + id);
+            }
+            return "item-" + id;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vikrant.careSync.config;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceBreakdownExporterTest {
+
+    private final List<String> output = new ArrayList<>();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void writesOneNestedBreakdownPerTraceWhenTheRootEnds() {
+        Tracer tracer = tracerWithThreshold(0);
+
+        Span root = tracer.spanBuilder("http get /api/doctors").startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span query = tracer.spanBuilder("query").setAttribute("jdbc.query[0]", "select * from doctors").startSpan();
+            query.end();
+            assertThat(output).isEmpty();
+        } finally {
+            root.end();
+        }
+
+        assertThat(output).hasSize(1);
+        String[] lines = output.get(0).split("\\R");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("Trace " + root.getSpanContext().getTraceId()).doesNotContain("partial");
+        assertThat(lines[1]).contains("  http get /api/doctors");
+        assertThat(lines[2]).contains("    query jdbc.query[0]=select * from doctors");
+    }
+
+    @Test
+    void dropsTracesUnderTheThreshold() {
+        Tracer tracer = tracerWithThreshold(60_000);
+
+        tracer.spanBuilder("http get /api/doctors").startSpan().end();
+
+        assertThat(output).isEmpty();
+    }
+
+    private Tracer tracerWithThreshold(long thresholdMillis) {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new TraceBreakdownExporter(thresholdMillis, output::add)))
+                .build();
+        return tracerProvider.get("test");
+    }
+}
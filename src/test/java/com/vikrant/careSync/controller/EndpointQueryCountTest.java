@@ -0,0 +1,182 @@
+package com.vikrant.careSync.controller;
+
+import com.vikrant.careSync.entity.Appointment;
+import com.vikrant.careSync.entity.Certificate;
+import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.entity.Education;
+import com.vikrant.careSync.entity.Experience;
+import com.vikrant.careSync.entity.Feedback;
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.support.ExpectedQueries;
+import com.vikrant.careSync.support.QueryCountingConfiguration;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query-count guards for read endpoints that used to issue a query per row.
+ * The seeded data is large enough that any per-doctor or per-appointment
+ * lookup blows the {@link ExpectedQueries} limit.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:queryCount;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=VALUE,DAY")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTest {
+
+    private static final int DOCTORS = 30;
+    private static final int COMPLETED_APPOINTMENTS = 40;
+    private static final String PATIENT_USERNAME = "qc-patient";
+    private static final AtomicLong USER_IDS = new AtomicLong(200_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private Long firstDoctorId;
+
+    @BeforeAll
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Doctor> doctors = new ArrayList<>();
+            for (int i = 0; i < DOCTORS; i++) {
+                Doctor doctor = Doctor.builder()
+                        .user(user("qc-doctor" + i, User.Role.DOCTOR))
+                        .firstName("Doctor")
+                        .lastName("No" + i)
+                        .specialization(i % 2 == 0 ? "Cardiology" : "Dermatology")
+                        .isVerified(true)
+                        .build();
+                entityManager.persist(doctor);
+                for (int j = 0; j < 2; j++) {
+                    Experience experience = new Experience();
+                    experience.setHospitalName("Hospital " + j);
+                    experience.setPosition("Consultant");
+                    experience.setYearsOfService(3 + j);
+                    experience.setDoctor(doctor);
+                    entityManager.persist(experience);
+
+                    Education education = new Education();
+                    education.setDegree(j == 0 ? "MBBS" : "MD");
+                    education.setInstitution("College " + j);
+                    education.setYearOfCompletion(2005 + j);
+                    education.setDoctor(doctor);
+                    entityManager.persist(education);
+                }
+                Certificate certificate = new Certificate();
+                certificate.setName("Board certification");
+                certificate.setDoctor(doctor);
+                entityManager.persist(certificate);
+                doctors.add(doctor);
+            }
+            firstDoctorId = doctors.get(0).getId();
+
+            Patient patient = Patient.builder()
+                    .user(user(PATIENT_USERNAME, User.Role.PATIENT))
+                    .firstName("Query")
+                    .lastName("Count")
+                    .build();
+            entityManager.persist(patient);
+
+            LocalDateTime start = LocalDate.now().minusDays(30).atTime(9, 0);
+            for (int i = 0; i < COMPLETED_APPOINTMENTS; i++) {
+                Doctor doctor = doctors.get(i % DOCTORS);
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(doctor);
+                appointment.setPatient(patient);
+                appointment.setAppointmentDateTime(start.plusHours(6L * i));
+                appointment.setStatus(Appointment.Status.COMPLETED);
+                entityManager.persist(appointment);
+                // Half of the completed appointments already have feedback
+                if (i % 2 == 0) {
+                    Feedback feedback = new Feedback();
+                    feedback.setAppointment(appointment);
+                    feedback.setPatient(patient);
+                    feedback.setDoctor(doctor);
+                    feedback.setRating(1 + i % 5);
+                    feedback.setCreatedAt(appointment.getAppointmentDateTime().plusHours(2));
+                    entityManager.persist(feedback);
+                }
+            }
+        });
+    }
+
+    @Test
+    @WithMockUser(roles = "PATIENT")
+    @ExpectedQueries(max = 6)
+    void doctorDirectoryDoesNotQueryPerDoctor() throws Exception {
+        mockMvc.perform(get("/api/doctors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(DOCTORS)))
+                .andExpect(jsonPath("$[0].experiences", hasSize(2)))
+                .andExpect(jsonPath("$[0].completionPercentage").value(40));
+    }
+
+    @Test
+    @WithMockUser(username = PATIENT_USERNAME, roles = "PATIENT")
+    @ExpectedQueries(max = 4)
+    void pendingFeedbackDoesNotQueryPerAppointment() throws Exception {
+        mockMvc.perform(get("/api/feedback/patient/pending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(COMPLETED_APPOINTMENTS / 2)))
+                .andExpect(jsonPath("$[0].doctorName").isNotEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "PATIENT")
+    @ExpectedQueries(max = 1)
+    void doctorFeedbackIsOneQuery() throws Exception {
+        mockMvc.perform(get("/api/feedback/doctor/{doctorId}", firstDoctorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(COMPLETED_APPOINTMENTS / DOCTORS + 1)))
+                .andExpect(jsonPath("$[0].patientName").value("Query Count"))
+                .andExpect(jsonPath("$[0].doctorName").value("Doctor No0"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @ExpectedQueries(max = 4)
+    void overallAnalyticsDoesNotQueryPerRow() throws Exception {
+        mockMvc.perform(get("/api/analytics/overall")
+                .param("startDate", LocalDate.now().minusDays(60).toString())
+                .param("endDate", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAppointments").value(COMPLETED_APPOINTMENTS))
+                .andExpect(jsonPath("$.totalDoctors").value(DOCTORS));
+    }
+
+    private static User user(String username, User.Role role) {
+        return User.builder()
+                .id(USER_IDS.incrementAndGet())
+                .username(username)
+                .password("x")
+                .email(username + "@example.com")
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.vikrant.careSync.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContinuousRecordingTest {
+
+    private ContinuousRecording recording;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recording = new ContinuousRecording("default", 5, 16, 0, 0, 50);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.stop();
+    }
+
+    @Test
+    void dumpContainsApplicationEventsOverTheirThresholds() throws Exception {
+        LockWaitEvent.start("fast lock").finish(true);
+        LockWaitEvent slow = LockWaitEvent.start("slow lock");
+        Thread.sleep(60);
+        slow.finish(false);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new RecordingRejectedExecutionHandler("testExecutor"));
+        try {
+            executor.execute(() -> sleepQuietly(200));
+            executor.execute(() -> { });
+            assertThatThrownBy(() -> executor.execute(() -> { })).isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<RecordedEvent> events = readApplicationEvents(recording.dump());
+
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith("LockWait"))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getString("lock")).isEqualTo("slow lock");
+                    assertThat(e.getBoolean("acquired")).isFalse();
+                });
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith("ExecutorRejection"))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getString("executor")).isEqualTo("testExecutor");
+                    assertThat(e.getString("reason")).isEqualTo("saturated");
+                    assertThat(e.getInt("queueSize")).isEqualTo(1);
+                });
+    }
+
+    private static List<RecordedEvent> readApplicationEvents(Path dump) throws Exception {
+        try {
+            return RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("com.vikrant.careSync."))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
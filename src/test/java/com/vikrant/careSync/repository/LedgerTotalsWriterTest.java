@@ -0,0 +1,73 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.entity.LedgerTotal;
+import com.vikrant.careSync.entity.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerTotalsWriterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private LedgerTotalsWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ledger-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE payment_ledger_totals (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    period_date DATE NOT NULL, dimension VARCHAR(20) NOT NULL,
+                    dimension_key VARCHAR(100) NOT NULL, payment_type VARCHAR(20) NOT NULL,
+                    captured_amount NUMERIC(14, 2) NOT NULL, captured_count BIGINT NOT NULL,
+                    refunded_amount NUMERIC(14, 2) NOT NULL, refund_count BIGINT NOT NULL,
+                    failed_count BIGINT NOT NULL,
+                    CONSTRAINT uk_payment_ledger_totals_key UNIQUE (period_date, dimension, dimension_key, payment_type))
+                """);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new LedgerTotalsWriter(jdbcTemplate);
+    }
+
+    @Test
+    void createsMissingRowsAndIncrementsExistingOnes() {
+        apply(List.of(
+                capture(LedgerTotal.Dimension.ALL, "", "500.00"),
+                capture(LedgerTotal.Dimension.METHOD, "UPI", "500.00")));
+        apply(List.of(
+                capture(LedgerTotal.Dimension.ALL, "", "250.50"),
+                new LedgerTotalsWriter.Delta(DAY, LedgerTotal.Dimension.ALL, "", Payment.PaymentType.LAB_TEST,
+                        BigDecimal.ZERO, 0, new BigDecimal("100.00"), 1, 0)));
+
+        Map<String, Object> all = jdbcTemplate.queryForMap(
+                "SELECT * FROM payment_ledger_totals WHERE dimension = 'ALL'");
+        assertEquals(0, new BigDecimal("750.50").compareTo((BigDecimal) all.get("CAPTURED_AMOUNT")));
+        assertEquals(2L, all.get("CAPTURED_COUNT"));
+        assertEquals(0, new BigDecimal("100.00").compareTo((BigDecimal) all.get("REFUNDED_AMOUNT")));
+        assertEquals(1L, all.get("REFUND_COUNT"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_ledger_totals", Integer.class));
+    }
+
+    private void apply(List<LedgerTotalsWriter.Delta> deltas) {
+        transactionTemplate.executeWithoutResult(status -> writer.apply(deltas));
+    }
+
+    private static LedgerTotalsWriter.Delta capture(LedgerTotal.Dimension dimension, String key, String amount) {
+        return new LedgerTotalsWriter.Delta(DAY, dimension, key, Payment.PaymentType.LAB_TEST, new BigDecimal(amount),
+                1, BigDecimal.ZERO, 0, 0);
+    }
+}
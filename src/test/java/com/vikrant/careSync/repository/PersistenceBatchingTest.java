@@ -0,0 +1,222 @@
+package com.vikrant.careSync.repository;
+
+import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.entity.Appointment;
+import com.vikrant.careSync.entity.Doctor;
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.realtime.RealtimeEventHub;
+import com.vikrant.careSync.service.AfterCommitTaskDispatcher;
+import com.vikrant.careSync.service.AuditService;
+import com.vikrant.careSync.service.DoctorService;
+import com.vikrant.careSync.service.NotificationService;
+import com.vikrant.careSync.service.NotificationUnreadCounter;
+import com.vikrant.careSync.service.VitalSeriesService;
+import com.vikrant.careSync.support.JdbcStatementCounter;
+import com.vikrant.careSync.support.QueryCountingConfiguration;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the JDBC batching setup: bulk writes must reach the database as
+ * batches of {@code hibernate.jdbc.batch_size} rows, not one round trip per
+ * row. Breaks if an entity on these paths goes back to IDENTITY ids or
+ * batching is switched off.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batching;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE,DAY",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.security.encryption-key=batching-test-key"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ QueryCountingConfiguration.class, VitalSeriesService.class, AuditService.class,
+        NotificationService.class })
+class PersistenceBatchingTest {
+
+    private static final int BATCH_SIZE = 50;
+    private static final AtomicLong USER_IDS = new AtomicLong(100_000);
+
+    @MockitoBean
+    private NotificationUnreadCounter unreadCounter;
+    @MockitoBean
+    private DoctorService doctorService;
+    @MockitoBean
+    private RealtimeEventHub realtimeEventHub;
+    @MockitoBean
+    private AfterCommitTaskDispatcher afterCommitTaskDispatcher;
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private VitalSeriesService vitalSeriesService;
+    @Autowired
+    private AuditService auditService;
+    @Autowired
+    private NotificationService notificationService;
+
+    private JdbcStatementCounter counter;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        counter = (JdbcStatementCounter) dataSource;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void vitalsIngestBatchesChunkAndRollupWrites() {
+        Long patientId = persistPatient();
+        List<VitalDto> readings = new ArrayList<>();
+        LocalDateTime start = LocalDate.now().minusDays(3).atStartOfDay();
+        for (int i = 0; i < 200; i++) {
+            readings.add(VitalDto.builder()
+                    .heartRate(70.0 + i % 7)
+                    .systolicBP(120.0 + i % 11)
+                    .recordedAt(start.plusMinutes(20L * i))
+                    .build());
+        }
+
+        counter.reset();
+        transactionTemplate.executeWithoutResult(status -> vitalSeriesService.ingest(patientId, readings));
+
+        // 200 readings over 67 hours, 2 metrics: 6 day chunks, 134 hourly and 6 daily rollups;
+        // the hourly and daily rollups are flushed separately
+        assertBatched("vital_chunks", 6, 1);
+        assertBatched("vital_rollups", 140, 4);
+
+        // A minute later, so the readings are new but land in the same chunks and rollup buckets
+        List<VitalDto> later = readings.stream()
+                .map(reading -> VitalDto.builder()
+                        .heartRate(reading.getHeartRate())
+                        .systolicBP(reading.getSystolicBP())
+                        .recordedAt(reading.getRecordedAt().plusMinutes(1))
+                        .build())
+                .toList();
+        counter.reset();
+        transactionTemplate.executeWithoutResult(status -> vitalSeriesService.ingest(patientId, later));
+
+        assertUpdatesBatched("vital_chunks", 6, 1);
+        assertUpdatesBatched("vital_rollups", 140, 4);
+    }
+
+    @Test
+    void auditFlushWritesBatches() {
+        for (int i = 0; i < 120; i++) {
+            auditService.log("doctor" + i, "READ_PHI", "PatientService", String.valueOf(i), "Method: getPatient",
+                    "127.0.0.1");
+        }
+
+        counter.reset();
+        assertEquals(120, auditService.flush());
+
+        assertBatched("audit_logs", 120, 3);
+    }
+
+    @Test
+    void dailyReminderFanOutInsertsNotificationsInBatches() {
+        Long doctorId = persistDoctor();
+        List<Long> patientIds = List.of(persistPatient(), persistPatient(), persistPatient());
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(8, 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 60; i++) {
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(entityManager.getReference(Doctor.class, doctorId));
+                appointment.setPatient(entityManager.getReference(Patient.class, patientIds.get(i % 3)));
+                appointment.setAppointmentDateTime(tomorrow.plusMinutes(10L * i));
+                appointment.setStatus(Appointment.Status.BOOKED);
+                entityManager.persist(appointment);
+            }
+        });
+
+        counter.reset();
+        notificationService.sendDailyAppointmentReminders();
+        assertBatched("notifications", 60, 2);
+
+        counter.reset();
+        notificationService.sendDailyAppointmentReminders();
+        assertEquals(0, count(e -> e.isInsertInto("notifications")));
+    }
+
+    private void assertBatched(String table, int rows, int roundTrips) {
+        assertWrites(table, rows, roundTrips, e -> e.isInsertInto(table));
+    }
+
+    private void assertUpdatesBatched(String table, int rows, int roundTrips) {
+        assertWrites(table, rows, roundTrips, e -> e.isUpdateOf(table));
+    }
+
+    private void assertWrites(String table, int rows, int roundTrips,
+            Predicate<JdbcStatementCounter.Execution> filter) {
+        List<JdbcStatementCounter.Execution> writes = counter.executions().stream().filter(filter).toList();
+        assertTrue(writes.stream().allMatch(JdbcStatementCounter.Execution::batched),
+                () -> "Unbatched statement on " + table + ": " + writes);
+        assertEquals(rows, writes.stream().mapToInt(JdbcStatementCounter.Execution::rows).sum());
+        assertTrue(writes.stream().allMatch(e -> e.rows() <= BATCH_SIZE));
+        assertEquals(roundTrips, writes.size(),
+                () -> "Round trips for " + rows + " rows on " + table + ": " + writes);
+    }
+
+    private long count(Predicate<JdbcStatementCounter.Execution> filter) {
+        return counter.executions().stream().filter(filter).count();
+    }
+
+    private Long persistPatient() {
+        User user = newUser(User.Role.PATIENT);
+        return transactionTemplate.execute(status -> {
+            Patient patient = Patient.builder().user(user).firstName("Asha").lastName("Rao").build();
+            entityManager.persist(patient);
+            return patient.getId();
+        });
+    }
+
+    private Long persistDoctor() {
+        User user = newUser(User.Role.DOCTOR);
+        return transactionTemplate.execute(status -> {
+            Doctor doctor = Doctor.builder().user(user).firstName("Meera").lastName("Iyer").isVerified(true).build();
+            entityManager.persist(doctor);
+            return doctor.getId();
+        });
+    }
+
+    private static User newUser(User.Role role) {
+        long id = USER_IDS.incrementAndGet();
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .password("x")
+                .email("user" + id + "@example.com")
+                .role(role)
+                .build();
+    }
+}
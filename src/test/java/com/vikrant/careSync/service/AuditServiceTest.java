@@ -0,0 +1,57 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.AuditLog;
+import com.vikrant.careSync.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void badEntryIsSkippedAfterMaxAttemptsAndLaterEntriesAreWritten() {
+        List<String> table = new ArrayList<>();
+        AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+        when(auditLogRepository.saveAll(any(Iterable.class))).thenAnswer(invocation -> {
+            List<AuditLog> batch = new ArrayList<>();
+            ((Iterable<AuditLog>) invocation.getArgument(0)).forEach(batch::add);
+            if (batch.stream().anyMatch(entry -> entry.getEntityId() == null)) {
+                throw new DataIntegrityViolationException("entity_id is null");
+            }
+            batch.forEach(entry -> table.add(entry.getEntityId()));
+            return batch;
+        });
+        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(invocation -> {
+            AuditLog entry = invocation.getArgument(0);
+            if (entry.getEntityId() == null) {
+                throw new DataIntegrityViolationException("entity_id is null");
+            }
+            table.add(entry.getEntityId());
+            return entry;
+        });
+        AuditService auditService = new AuditService(auditLogRepository, mock(PlatformTransactionManager.class),
+                10, 100, 3);
+
+        auditService.log("dr.house", "READ_PHI", "Patient", "1", "", "127.0.0.1");
+        auditService.log("dr.house", "READ_PHI", "Patient", null, "", "127.0.0.1");
+        auditService.log("dr.house", "READ_PHI", "Patient", "3", "", "127.0.0.1");
+
+        assertEquals(0, auditService.flush());
+        assertEquals(0, auditService.flush());
+        assertEquals(2, auditService.flush());
+        assertEquals(List.of("1", "3"), table);
+
+        auditService.log("dr.house", "READ_PHI", "Patient", "4", "", "127.0.0.1");
+        assertEquals(1, auditService.flush());
+        assertEquals(List.of("1", "3", "4"), table);
+    }
+}
@@ -0,0 +1,162 @@
+package com.vikrant.careSync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikrant.careSync.dto.BookingRequest;
+import com.vikrant.careSync.dto.PatientBookingWithPaymentRequest;
+import com.vikrant.careSync.dto.PaymentRequestDto;
+import com.vikrant.careSync.entity.Booking;
+import com.vikrant.careSync.entity.LabTest;
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A booking with payment commits before the gateway call, so a failed payment
+ * has to cancel it, and a retry with the same Idempotency-Key has to run again
+ * rather than replay the failure. The gateway's pending queue is sized to zero
+ * here, so every call is rejected as busy.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bookingPayment;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=VALUE,DAY",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.payment.gateway.max-pending=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingPaymentFailureTest {
+
+    private static final String PATIENT_USERNAME = "bp-patient";
+    private static final BigDecimal PRICE = new BigDecimal("499.00");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private LabTestCatalog labTestCatalog;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long patientId;
+    private Long labTestId;
+
+    @BeforeAll
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Patient patient = Patient.builder()
+                    .user(User.builder()
+                            .id(300_001L)
+                            .username(PATIENT_USERNAME)
+                            .password("x")
+                            .email(PATIENT_USERNAME + "@example.com")
+                            .role(User.Role.PATIENT)
+                            .build())
+                    .firstName("Booking")
+                    .lastName("Payment")
+                    .build();
+            entityManager.persist(patient);
+            patientId = patient.getId();
+
+            LabTest labTest = new LabTest();
+            labTest.setTestName("Lipid profile");
+            labTest.setPrice(PRICE);
+            labTest.setIsActive(true);
+            entityManager.persist(labTest);
+            labTestId = labTest.getId();
+        });
+        labTestCatalog.refresh();
+    }
+
+    @Test
+    @WithMockUser(username = PATIENT_USERNAME, roles = "PATIENT")
+    void rejectedGatewayCallLeavesNoPendingBooking() {
+        int before = bookingRepository.findByPatientIdOrderByBookingDateDesc(patientId).size();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            RuntimeException failure = assertThrows(RuntimeException.class,
+                    () -> bookingService.createBookingWithPayment(bookingRequest(), paymentRequest()));
+            assertTrue(failure.getMessage().contains("busy"), failure.getMessage());
+        }
+
+        List<Booking> bookings = bookingRepository.findByPatientIdOrderByBookingDateDesc(patientId);
+        assertEquals(before + 2, bookings.size());
+        assertEquals(List.of(), pending(bookings));
+    }
+
+    @Test
+    @WithMockUser(username = PATIENT_USERNAME, roles = "PATIENT")
+    void sameKeyRetryAfterBusyGatewayRunsAgain() throws Exception {
+        PatientBookingWithPaymentRequest body = new PatientBookingWithPaymentRequest();
+        body.setBookingRequest(bookingRequest());
+        body.setPaymentRequest(paymentRequest());
+        String json = objectMapper.writeValueAsString(body);
+        int before = bookingRepository.findByPatientIdOrderByBookingDateDesc(patientId).size();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/bookings/patient/with-payment")
+                            .header("Idempotency-Key", "busy-retry")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        }
+
+        // Both attempts reached the gateway; neither left a PENDING booking
+        List<Booking> bookings = bookingRepository.findByPatientIdOrderByBookingDateDesc(patientId);
+        assertEquals(before + 2, bookings.size());
+        assertEquals(List.of(), pending(bookings));
+    }
+
+    private BookingRequest bookingRequest() {
+        BookingRequest request = new BookingRequest();
+        request.setSelectedTestIds(List.of(labTestId));
+        return request;
+    }
+
+    private PaymentRequestDto paymentRequest() {
+        PaymentRequestDto payment = new PaymentRequestDto();
+        payment.setAmount(PRICE);
+        payment.setPaymentType(Payment.PaymentType.LAB_TEST);
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+        payment.setPatientId(patientId);
+        return payment;
+    }
+
+    private static List<Booking> pending(List<Booking> bookings) {
+        return bookings.stream()
+                .filter(booking -> booking.getStatus() == Booking.BookingStatus.PENDING)
+                .toList();
+    }
+}
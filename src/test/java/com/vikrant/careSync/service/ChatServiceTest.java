@@ -0,0 +1,167 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.ChatMessage;
+import com.vikrant.careSync.repository.ChatRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatServiceTest {
+
+    private static final long APPOINTMENT_ID = 42L;
+    private static final String BAD_CONTENT = "x".repeat(300);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletionRacingAnInFlightFlushLeavesNoRows() throws Exception {
+        List<ChatMessage> table = new CopyOnWriteArrayList<>();
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch releaseSave = new CountDownLatch(1);
+
+        ChatRepository chatRepository = mock(ChatRepository.class);
+        when(chatRepository.saveAll(any(Iterable.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            assertTrue(releaseSave.await(5, TimeUnit.SECONDS));
+            ((Iterable<ChatMessage>) invocation.getArgument(0)).forEach(table::add);
+            return List.of();
+        });
+        when(chatRepository.deleteByAppointmentIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            int before = table.size();
+            table.removeIf(message -> ids.contains(message.getAppointmentId()));
+            return before - table.size();
+        });
+        ChatService chatService = new ChatService(chatRepository, mock(SimpMessagingTemplate.class), 16, 100, 50, 3);
+
+        ChatMessage message = new ChatMessage();
+        message.setAppointmentId(APPOINTMENT_ID);
+        chatService.sendMessage(message);
+
+        // A scheduled flush has drained the queue and is inside saveAll
+        Thread scheduledFlush = new Thread(chatService::flush);
+        scheduledFlush.start();
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+
+        chatService.scheduleHistoryDeletion(APPOINTMENT_ID);
+        Thread deletion = new Thread(chatService::deleteCompletedChats);
+        deletion.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (deletion.isAlive() && deletion.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        releaseSave.countDown();
+        scheduledFlush.join(5000);
+        deletion.join(5000);
+
+        assertEquals(List.of(), table);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void badMessageIsDroppedAfterMaxAttemptsAndTheRestIsSaved() {
+        List<ChatMessage> table = new CopyOnWriteArrayList<>();
+        ChatRepository chatRepository = rejecting(BAD_CONTENT, table);
+        ChatService chatService = new ChatService(chatRepository, mock(SimpMessagingTemplate.class), 16, 100, 50, 3);
+
+        chatService.sendMessage(message(APPOINTMENT_ID, "hello"));
+        chatService.sendMessage(message(APPOINTMENT_ID, BAD_CONTENT));
+        chatService.sendMessage(message(APPOINTMENT_ID, "still there?"));
+
+        chatService.flush();
+        chatService.flush();
+        assertEquals(List.of(), table);
+
+        chatService.flush();
+        assertEquals(List.of("hello", "still there?"), table.stream().map(ChatMessage::getContent).toList());
+        verify(chatRepository, times(3)).saveAll(any(Iterable.class));
+
+        // The dropped message no longer shows up in the history either
+        assertEquals(List.of("hello", "still there?"), chatService.getHistoryPage(APPOINTMENT_ID, null, 10)
+                .getMessages().stream().map(ChatMessage::getContent).toList());
+    }
+
+    @Test
+    void deletionDoesNotWaitForAFailingFlush() {
+        List<ChatMessage> table = new CopyOnWriteArrayList<>();
+        ChatRepository chatRepository = rejecting(BAD_CONTENT, table);
+        ChatService chatService = new ChatService(chatRepository, mock(SimpMessagingTemplate.class), 16, 100, 50, 3);
+
+        chatService.sendMessage(message(APPOINTMENT_ID, "good morning"));
+        chatService.flush();
+        assertEquals(1, table.size());
+
+        chatService.sendMessage(message(APPOINTMENT_ID, "hello"));
+        chatService.sendMessage(message(APPOINTMENT_ID, BAD_CONTENT));
+        chatService.scheduleHistoryDeletion(APPOINTMENT_ID);
+
+        chatService.deleteCompletedChats();
+        assertEquals(List.of(), table);
+
+        // Nothing of the deleted chat is left queued to be written afterwards
+        chatService.flush();
+        chatService.flush();
+        chatService.flush();
+
+        assertEquals(List.of(), table);
+    }
+
+    // A repository whose inserts fail for messages with the given content, rolling back the whole saveAll
+    @SuppressWarnings("unchecked")
+    private static ChatRepository rejecting(String badContent, List<ChatMessage> table) {
+        ChatRepository chatRepository = mock(ChatRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(chatRepository.saveAll(any(Iterable.class))).thenAnswer(invocation -> {
+            List<ChatMessage> batch = new ArrayList<>();
+            ((Iterable<ChatMessage>) invocation.getArgument(0)).forEach(batch::add);
+            batch.forEach(message -> message.setId(ids.incrementAndGet()));
+            if (batch.stream().anyMatch(message -> badContent.equals(message.getContent()))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            table.addAll(batch);
+            return batch;
+        });
+        when(chatRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> {
+            ChatMessage message = invocation.getArgument(0);
+            if (badContent.equals(message.getContent())) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            message.setId(ids.incrementAndGet());
+            table.add(message);
+            return message;
+        });
+        when(chatRepository.deleteByAppointmentIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> appointmentIds = invocation.getArgument(0);
+            int before = table.size();
+            table.removeIf(message -> appointmentIds.contains(message.getAppointmentId()));
+            return before - table.size();
+        });
+        when(chatRepository.findLatestPage(anyLong(), any())).thenAnswer(invocation -> List.copyOf(table));
+        return chatRepository;
+    }
+
+    private static ChatMessage message(long appointmentId, String content) {
+        ChatMessage message = new ChatMessage();
+        message.setAppointmentId(appointmentId);
+        message.setContent(content);
+        return message;
+    }
+}
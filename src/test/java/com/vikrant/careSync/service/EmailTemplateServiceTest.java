@@ -0,0 +1,82 @@
+package com.vikrant.careSync.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplateServiceTest {
+
+    private final EmailTemplateService service =
+            new EmailTemplateService(new DefaultResourceLoader(), "classpath:templates/", false);
+
+    @Test
+    void rendersBundledTemplateLikeTheReplaceBasedRenderer() throws Exception {
+        Map<String, String> model = Map.of("name", "Asha <Admin> & co", "otp", "123456");
+        String source = new String(new DefaultResourceLoader().getResource("classpath:templates/email/verification.html")
+                .getInputStream().readAllBytes());
+
+        assertEquals(legacyRender(source, model),
+                service.render("email/verification.html", model));
+    }
+
+    @Test
+    void escapesQuotesAndKeepsUnknownPlaceholders() {
+        String html = render("<a title=\"{{title}}\">{{missing}} {{ not a key }} {{}}</a>",
+                Map.of("title", "say \"hi\" & 'bye'"));
+
+        assertEquals("<a title=\"say &quot;hi&quot; &amp; &#39;bye&#39;\">{{missing}} {{ not a key }} {{}}</a>", html);
+    }
+
+    @Test
+    void valuesAreNotExpandedAgain() {
+        String html = render("{{a}}|{{b}}", Map.of("a", "{{b}}", "b", "x"));
+
+        assertEquals("{{b}}|x", html);
+    }
+
+    @Test
+    void hotReloadPicksUpEditedTemplate(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("t.html");
+        Files.writeString(file, "v1 {{name}}");
+        EmailTemplateService reloading =
+                new EmailTemplateService(new DefaultResourceLoader(), dir.toUri().toString(), true);
+        assertEquals("v1 x", reloading.render("t.html", Map.of("name", "x")));
+
+        Files.writeString(file, "v2 {{name}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        assertEquals("v2 x", reloading.render("t.html", Map.of("name", "x")));
+    }
+
+    @Test
+    void missingTemplateFails() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.render("email/nope.html", Map.of()));
+        assertTrue(e.getMessage().contains("email/nope.html"));
+    }
+
+    /** The replace-based renderer the compiled templates replaced; also the baseline in the JMH benchmark. */
+    static String legacyRender(String html, Map<String, String> model) {
+        for (Map.Entry<String, String> entry : model.entrySet()) {
+            String value = entry.getValue() == null ? "" : entry.getValue();
+            html = html.replace("{{" + entry.getKey() + "}}", value.replace("&", "&amp;").replace("<", "&lt;")
+                    .replace(">", "&gt;"));
+        }
+        return html;
+    }
+
+    private static String render(String source, Map<String, String> model) {
+        StringBuilder out = new StringBuilder();
+        EmailTemplateService.CompiledTemplate.parse(source, null, -1).renderTo(out, model);
+        assertFalse(out.isEmpty());
+        return out.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.Payment;
+import com.vikrant.careSync.entity.PaymentWebhookEvent;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.repository.PaymentRepository;
+import com.vikrant.careSync.repository.PaymentWebhookEventRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The inbox worker applies a payment's transition in the same transaction that
+ * marks its events processed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:paymentWebhook;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=VALUE,DAY",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaymentWebhookServiceTest {
+
+    private static final String ORDER_ID = "order_webhook_1";
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+    @Autowired
+    private PaymentWebhookEventRepository webhookEventRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long paymentId;
+
+    @BeforeAll
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Patient patient = Patient.builder()
+                    .user(User.builder()
+                            .id(500_001L)
+                            .username("webhook-patient")
+                            .password("x")
+                            .email("webhook-patient@example.com")
+                            .role(User.Role.PATIENT)
+                            .build())
+                    .firstName("Web")
+                    .lastName("Hook")
+                    .build();
+            entityManager.persist(patient);
+
+            Payment payment = new Payment();
+            payment.setTransactionId("TXN-WEBHOOK-1");
+            payment.setPaymentGatewayTransactionId(ORDER_ID);
+            payment.setAmount(new BigDecimal("250.00"));
+            payment.setCurrency("INR");
+            payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+            payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
+            payment.setPaymentType(Payment.PaymentType.CONSULTATION);
+            payment.setPatient(patient);
+            entityManager.persist(payment);
+            paymentId = payment.getId();
+        });
+    }
+
+    @Test
+    void capturedEventSettlesThePaymentAndIsMarkedApplied() {
+        LocalDateTime now = LocalDateTime.now();
+        PaymentWebhookEvent event = webhookEventRepository.save(PaymentWebhookEvent.builder()
+                .eventId("evt_captured_1")
+                .eventType("payment.captured")
+                .gatewayOrderId(ORDER_ID)
+                .gatewayPaymentId("pay_1")
+                .gatewayStatus("captured")
+                .payload("{\"event\":\"payment.captured\"}")
+                .receivedAt(now)
+                .nextAttemptAt(now)
+                .build());
+
+        paymentWebhookService.processBatch();
+
+        assertEquals(Payment.PaymentStatus.SUCCESS,
+                paymentRepository.findById(paymentId).orElseThrow().getPaymentStatus());
+        assertEquals(PaymentWebhookEvent.Status.APPLIED,
+                webhookEventRepository.findById(event.getId()).orElseThrow().getStatus());
+    }
+}
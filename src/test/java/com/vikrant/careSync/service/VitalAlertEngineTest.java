@@ -0,0 +1,86 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.entity.VitalMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VitalAlertEngineTest {
+
+    private static final int HEART_RATE = VitalMetric.HEART_RATE.ordinal();
+    private static final long T0 = 1_760_000_000L;
+
+    private final List<String> fired = new ArrayList<>();
+    private final VitalAlertEngine.AlertSink sink =
+            (patientId, rule, value, observed) -> fired.add(patientId + ":" + rule.getKind());
+
+    private VitalAlertEngine engine(VitalAlertRule... rules) {
+        return new VitalAlertEngine(List.of(rules), 1800, 16, 0.5, 600, 3600, null, null, true);
+    }
+
+    @Test
+    void thresholdFiresOncePerCooldown() {
+        VitalAlertEngine engine = engine(
+                new VitalAlertRule(VitalMetric.HEART_RATE, VitalAlertRule.Kind.ABOVE, 130,
+                        VitalAlertRule.Severity.CRITICAL, "high"));
+
+        engine.evaluate(1, HEART_RATE, T0, 120, sink);
+        engine.evaluate(1, HEART_RATE, T0 + 60, 140, sink);
+        engine.evaluate(1, HEART_RATE, T0 + 120, 145, sink);
+        engine.evaluate(2, HEART_RATE, T0 + 120, 150, sink);
+        engine.evaluate(1, HEART_RATE, T0 + 60 + 600, 141, sink);
+
+        assertEquals(List.of("1:ABOVE", "2:ABOVE", "1:ABOVE"), fired);
+    }
+
+    @Test
+    void riseComparesAgainstWindowMinimumOnly() {
+        VitalAlertEngine engine = engine(
+                new VitalAlertRule(VitalMetric.HEART_RATE, VitalAlertRule.Kind.RISE, 40,
+                        VitalAlertRule.Severity.WARNING, "rise"));
+
+        engine.evaluate(1, HEART_RATE, T0, 60, sink);
+        // 60 bpm has left the 30 minute window by now
+        engine.evaluate(1, HEART_RATE, T0 + 1900, 90, sink);
+        engine.evaluate(1, HEART_RATE, T0 + 1960, 105, sink);
+        assertEquals(List.of(), fired);
+
+        engine.evaluate(1, HEART_RATE, T0 + 2020, 131, sink);
+        assertEquals(List.of("1:RISE"), fired);
+    }
+
+    @Test
+    void ewmaNeedsSeveralReadingsAndIgnoresLateOnes() {
+        VitalAlertEngine engine = engine(
+                new VitalAlertRule(VitalMetric.HEART_RATE, VitalAlertRule.Kind.EWMA_ABOVE, 110,
+                        VitalAlertRule.Severity.WARNING, "sustained"));
+
+        engine.evaluate(1, HEART_RATE, T0, 150, sink);
+        engine.evaluate(1, HEART_RATE, T0 + 60, 150, sink);
+        // Late reading does not move the average
+        engine.evaluate(1, HEART_RATE, T0 - 600, 20, sink);
+        assertEquals(List.of(), fired);
+
+        engine.evaluate(1, HEART_RATE, T0 + 120, 150, sink);
+        assertEquals(List.of("1:EWMA_ABOVE"), fired);
+    }
+
+    @Test
+    void evictsIdlePatients() {
+        VitalAlertEngine engine = engine();
+        long now = System.currentTimeMillis() / 1000;
+        for (long patientId = 1; patientId <= 100; patientId++) {
+            engine.evaluate(patientId, HEART_RATE, patientId % 2 == 0 ? now : now - 7200, 70, sink);
+        }
+        assertEquals(100, engine.trackedPatients());
+
+        engine.evictIdlePatients();
+
+        assertEquals(50, engine.trackedPatients());
+        engine.evaluate(2, HEART_RATE, now + 60, 70, sink);
+        assertEquals(50, engine.trackedPatients());
+    }
+}
@@ -0,0 +1,62 @@
+package com.vikrant.careSync.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VitalSeriesDownsamplerTest {
+
+    @Test
+    void keepsEndpointsAndSpikeWithBucketEnvelope() {
+        int n = 1_000;
+        long[] times = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = 1_700_000_000L + i * 60L;
+            values[i] = 72 + Math.sin(i / 20.0);
+        }
+        values[537] = 180;
+        values[538] = 20;
+
+        VitalSeriesDownsampler.Series series = VitalSeriesDownsampler.downsample(times, values, values, values, 50);
+
+        assertEquals(50, series.times().length);
+        assertEquals(times[0], series.times()[0]);
+        assertEquals(times[n - 1], series.times()[49]);
+        boolean spikeKept = false;
+        double highest = Double.NEGATIVE_INFINITY;
+        double lowest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 50; i++) {
+            spikeKept |= series.values()[i] == 180 || series.values()[i] == 20;
+            highest = Math.max(highest, series.maxs()[i]);
+            lowest = Math.min(lowest, series.mins()[i]);
+            assertTrue(series.mins()[i] <= series.values()[i] && series.values()[i] <= series.maxs()[i]);
+        }
+        assertTrue(spikeKept);
+        assertEquals(180, highest);
+        assertEquals(20, lowest);
+    }
+
+    @Test
+    void returnsShortSeriesUnchanged() {
+        long[] times = { 1, 2, 3 };
+        double[] values = { 5, 6, 7 };
+
+        assertSame(times, VitalSeriesDownsampler.downsample(times, values, values, values, 10).times());
+    }
+
+    @Test
+    void chunkCodecRoundTripsAndMergesLateReadingsInOrder() {
+        int[] offsets = VitalChunkCodec.decodeOffsets(VitalChunkCodec.encodeOffsets(new int[] { 60, 120, 300 }, 3), 3);
+        double[] values = VitalChunkCodec.decodeValues(VitalChunkCodec.encodeValues(new double[] { 1.5, 2.5, 3.5 }, 3), 3);
+
+        VitalChunkCodec.Merged merged = VitalChunkCodec.merge(offsets, values, new int[] { 0, 120, 400 },
+                new double[] { 0.5, 9.5, 4.5 });
+
+        assertArrayEquals(new int[] { 0, 60, 120, 120, 300, 400 }, merged.offsets());
+        assertArrayEquals(new double[] { 0.5, 1.5, 2.5, 9.5, 3.5, 4.5 }, merged.values());
+    }
+}
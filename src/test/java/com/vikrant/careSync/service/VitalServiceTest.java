@@ -0,0 +1,147 @@
+package com.vikrant.careSync.service;
+
+import com.vikrant.careSync.dto.VitalBatchRequest;
+import com.vikrant.careSync.dto.VitalDto;
+import com.vikrant.careSync.dto.VitalSeriesDto;
+import com.vikrant.careSync.entity.Patient;
+import com.vikrant.careSync.entity.User;
+import com.vikrant.careSync.entity.VitalMetric;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Vitals ingest end to end: the patient row lock, chunk and rollup writes,
+ * skipping of re-sent readings, and alert evaluation of the stored values only.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:vitalService;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=VALUE,DAY",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VitalServiceTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 1, 10, 8, 0);
+
+    @Autowired
+    private VitalService vitalService;
+    @MockitoSpyBean
+    private VitalAlertEngine vitalAlertEngine;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long patientId;
+
+    @BeforeAll
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Patient patient = Patient.builder()
+                    .user(User.builder()
+                            .id(400_001L)
+                            .username("vitals-patient")
+                            .password("x")
+                            .email("vitals-patient@example.com")
+                            .role(User.Role.PATIENT)
+                            .build())
+                    .firstName("Vital")
+                    .lastName("Signs")
+                    .build();
+            entityManager.persist(patient);
+            patientId = patient.getId();
+        });
+    }
+
+    @Test
+    void ingestsReadingsAndSkipsResentOnes() {
+        VitalDto logged = vitalService.logVital(reading(MORNING, 70.0));
+        assertNotNull(logged.getId());
+
+        List<VitalDto> readings = List.of(
+                reading(MORNING.plusMinutes(1), 72.0),
+                reading(MORNING.plusMinutes(2), 74.0),
+                reading(MORNING.plusMinutes(3), 76.0));
+        assertEquals(3, vitalService.logVitals(batch(readings)));
+        assertEquals(0, vitalService.logVitals(batch(readings)));
+
+        // A re-sent second keeps its first value, even inside one batch
+        assertEquals(1, vitalService.logVitals(batch(List.of(
+                reading(MORNING.plusMinutes(2), 200.0),
+                reading(MORNING.plusMinutes(4), 78.0),
+                reading(MORNING.plusMinutes(4), 200.0)))));
+
+        VitalSeriesDto raw = vitalService.getVitalSeries(patientId, VitalMetric.HEART_RATE, MORNING,
+                MORNING.plusHours(1), 100);
+        assertEquals("RAW", raw.getResolution());
+        assertArrayEquals(new double[] { 70, 72, 74, 76, 78 }, raw.getValues());
+
+        VitalSeriesDto daily = vitalService.getVitalSeries(patientId, VitalMetric.HEART_RATE,
+                MORNING.toLocalDate().atStartOfDay(), MORNING.plusDays(3), 3);
+        assertEquals("DAY", daily.getResolution());
+        assertArrayEquals(new double[] { 74 }, daily.getValues());
+        assertArrayEquals(new double[] { 78 }, daily.getMax());
+    }
+
+    @Test
+    void alertsSeeOnlyTheValuesThatWereStored() {
+        LocalDateTime evening = MORNING.plusDays(1).withHour(20);
+        List<VitalDto> readings = List.of(
+                reading(evening, 90.0),
+                reading(evening.plusMinutes(1), 95.0));
+        vitalService.logVitals(batch(readings));
+        clearInvocations(vitalAlertEngine);
+
+        assertEquals(0, vitalService.logVitals(batch(readings)));
+        verify(vitalAlertEngine, never()).onReadings(any(), any());
+
+        VitalDto both = reading(evening.plusMinutes(1), 99.0);
+        both.setSystolicBP(118.0);
+        assertEquals(1, vitalService.logVitals(batch(List.of(both))));
+
+        ArgumentCaptor<List<VitalDto>> evaluated = ArgumentCaptor.captor();
+        verify(vitalAlertEngine).onReadings(eq(patientId), evaluated.capture());
+        assertEquals(1, evaluated.getValue().size());
+        VitalDto stored = evaluated.getValue().get(0);
+        assertEquals(evening.plusMinutes(1), stored.getRecordedAt());
+        assertEquals(118.0, stored.getSystolicBP());
+        assertNull(stored.getHeartRate());
+    }
+
+    private VitalBatchRequest batch(List<VitalDto> readings) {
+        VitalBatchRequest request = new VitalBatchRequest();
+        request.setPatientId(patientId);
+        request.setReadings(readings);
+        return request;
+    }
+
+    private VitalDto reading(LocalDateTime recordedAt, double heartRate) {
+        return VitalDto.builder()
+                .patientId(patientId)
+                .heartRate(heartRate)
+                .recordedAt(recordedAt)
+                .build();
+    }
+}
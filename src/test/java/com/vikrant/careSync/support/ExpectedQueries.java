@@ -0,0 +1,27 @@
+package com.vikrant.careSync.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the annotated test when its body issues more than {@link #max()} SQL
+ * round trips on the test thread. Setup in {@code @BeforeEach} is not
+ * counted, and a JDBC batch counts once. The test context must include
+ * {@link QueryCountingConfiguration}.
+ * <p>
+ * Seed enough rows that a per-row query would exceed the limit: the point is
+ * that an endpoint's query count does not grow with the data it returns.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@ExtendWith(QueryCountExtension.class)
+public @interface ExpectedQueries {
+
+    int max();
+}
@@ -0,0 +1,126 @@
+package com.vikrant.careSync.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps a {@link DataSource} and records every statement round trip: one
+ * {@link Execution} per {@code executeBatch} (with the number of batched rows)
+ * and per single {@code execute}/{@code executeUpdate}/{@code executeQuery},
+ * on prepared and plain statements alike, tagged with the calling thread.
+ */
+public class JdbcStatementCounter extends DelegatingDataSource {
+
+    public record Execution(String sql, int rows, boolean batched, long threadId) {
+
+        public boolean isInsertInto(String table) {
+            return sql.toLowerCase(Locale.ROOT).startsWith("insert into " + table + " ");
+        }
+
+        public boolean isUpdateOf(String table) {
+            return sql.toLowerCase(Locale.ROOT).startsWith("update " + table + " ");
+        }
+    }
+
+    private final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+    public JdbcStatementCounter(DataSource target) {
+        super(target);
+    }
+
+    public List<Execution> executions() {
+        return List.copyOf(executions);
+    }
+
+    public List<Execution> executionsOn(Thread thread) {
+        return executions.stream().filter(e -> e.threadId() == thread.threadId()).toList();
+    }
+
+    public void reset() {
+        executions.clear();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return wrap(statement, PreparedStatement.class, (String) args[0]);
+                    }
+                    if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                        return wrap(statement, Statement.class, null);
+                    }
+                    return result;
+                });
+    }
+
+    private <S extends Statement> S wrap(S statement, Class<S> type, String preparedSql) {
+        int[] pending = new int[1];
+        String[] batchSql = new String[1];
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "addBatch" -> {
+                    pending[0]++;
+                    if (args != null && args.length == 1 && batchSql[0] == null) {
+                        batchSql[0] = (String) args[0];
+                    }
+                }
+                case "clearBatch" -> {
+                    pending[0] = 0;
+                    batchSql[0] = null;
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    record(preparedSql != null ? preparedSql : batchSql[0], pending[0], true);
+                    pending[0] = 0;
+                    batchSql[0] = null;
+                }
+                case "execute", "executeUpdate", "executeQuery", "executeLargeUpdate" -> {
+                    if (args == null || args.length == 0) {
+                        record(preparedSql, 1, false);
+                    } else if (args[0] instanceof String sql) {
+                        record(sql, 1, false);
+                    }
+                }
+                default -> {
+                }
+            }
+            return invoke(statement, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private void record(String sql, int rows, boolean batched) {
+        String normalized = sql == null ? "" : sql.trim().replaceAll("\\s+", " ");
+        executions.add(new Execution(normalized, rows, batched, Thread.currentThread().threadId()));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.vikrant.careSync.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Enforces {@link ExpectedQueries}: clears the {@link JdbcStatementCounter}
+ * just before the test body runs and compares the statements issued on the
+ * test thread afterwards. Background work (schedulers, after-commit tasks) runs
+ * on other threads and is left out.
+ */
+class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+            .create(QueryCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (expected(context) == null) {
+            return;
+        }
+        JdbcStatementCounter counter = counter(context);
+        counter.reset();
+        context.getStore(NAMESPACE).put(Thread.class, Thread.currentThread());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        ExpectedQueries expected = expected(context);
+        Thread thread = context.getStore(NAMESPACE).remove(Thread.class, Thread.class);
+        if (expected == null || thread == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        List<JdbcStatementCounter.Execution> executions = counter(context).executionsOn(thread);
+        if (executions.size() > expected.max()) {
+            throw new AssertionError(String.format("Expected at most %d queries but %d were issued:%n%s",
+                    expected.max(), executions.size(), executions.stream()
+                            .map(e -> "  " + e.sql())
+                            .collect(Collectors.joining(System.lineSeparator()))));
+        }
+    }
+
+    private static ExpectedQueries expected(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), ExpectedQueries.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), ExpectedQueries.class))
+                .orElse(null);
+    }
+
+    private static JdbcStatementCounter counter(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean("dataSource", JdbcStatementCounter.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.vikrant.careSync.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's primary {@link DataSource} through a
+ * {@link JdbcStatementCounter}. Only the bean named {@code dataSource} is
+ * wrapped, so statements going through the routing data source are not counted
+ * again at the pool underneath. Caching is switched off, otherwise a warm
+ * cache would hide the queries a test is meant to count.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfiguration {
+
+    @Bean
+    static BeanPostProcessor jdbcStatementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof JdbcStatementCounter)
+                        ? new JdbcStatementCounter(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    CacheManager noOpCacheManager() {
+        return new NoOpCacheManager();
+    }
+}
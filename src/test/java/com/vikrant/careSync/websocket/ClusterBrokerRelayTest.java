@@ -0,0 +1,93 @@
+package com.vikrant.careSync.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterBrokerRelayTest {
+
+    private final InMemoryBrokerBackplane backplane = new InMemoryBrokerBackplane();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void topicMessagesReachEveryOtherNode() {
+        Node nodeA = new Node("node-a");
+        Node nodeB = new Node("node-b");
+        Node nodeC = new Node("node-c");
+
+        nodeA.publishLocally("/topic/appointment/42", "{\"content\":\"hello\"}");
+
+        assertTrue(nodeA.delivered.isEmpty(), "The origin node must not receive its own broadcast.");
+        assertEquals(1, nodeB.delivered.size());
+        assertEquals(1, nodeC.delivered.size());
+
+        Message<?> relayed = nodeB.delivered.get(0);
+        assertEquals("/topic/appointment/42", SimpMessageHeaderAccessor.getDestination(relayed.getHeaders()));
+        assertEquals("{\"content\":\"hello\"}", new String((byte[]) relayed.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void userMessagesOnlyGoToNodesHoldingThatUsersSessions() {
+        Node nodeA = new Node("node-a");
+        Node nodeB = new Node("node-b");
+        Node nodeC = new Node("node-c");
+        nodeB.registry.sessionConnected("dr.smith", "session-1");
+
+        nodeA.publishLocally("/user/dr.smith/queue/notifications", "{\"id\":1}");
+
+        assertTrue(nodeA.delivered.isEmpty());
+        assertEquals(1, nodeB.delivered.size());
+        assertTrue(nodeC.delivered.isEmpty());
+        assertEquals(List.of(ClusterBrokerRelay.NODE_CHANNEL_PREFIX + "node-b"), backplane.publishedChannels());
+
+        nodeB.registry.sessionDisconnected("dr.smith", "session-1");
+        nodeA.publishLocally("/user/dr.smith/queue/notifications", "{\"id\":2}");
+        assertEquals(1, nodeB.delivered.size(), "No node holds a session any more.");
+    }
+
+    @Test
+    void relayedMessagesAreNotRelayedAgain() {
+        Node nodeA = new Node("node-a");
+        Node nodeB = new Node("node-b");
+
+        nodeA.publishLocally("/topic/appointment/7", "{}");
+        Message<?> relayed = nodeB.delivered.get(0);
+        nodeB.relay.preSend(relayed, nodeB.brokerChannel);
+
+        assertEquals(1, backplane.publishedChannels().size());
+        assertTrue(nodeA.delivered.isEmpty());
+    }
+
+    private final class Node {
+        final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+        final MessageChannel brokerChannel = (message, timeout) -> delivered.add(message);
+        final ClusterUserSessionRegistry registry;
+        final ClusterBrokerRelay relay;
+
+        Node(String nodeId) {
+            registry = new ClusterUserSessionRegistry(backplane, nodeId);
+            relay = new ClusterBrokerRelay(backplane, registry, brokerChannel, objectMapper);
+        }
+
+        void publishLocally(String destination, String json) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            Message<byte[]> message = MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8),
+                    accessor.getMessageHeaders());
+            relay.preSend(message, brokerChannel);
+        }
+    }
+}
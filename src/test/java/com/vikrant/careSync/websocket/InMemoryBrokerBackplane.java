@@ -0,0 +1,50 @@
+package com.vikrant.careSync.websocket;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for Redis: one instance is shared by several simulated nodes
+ * and delivers published messages synchronously to every subscriber.
+ */
+class InMemoryBrokerBackplane implements BrokerBackplane {
+
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> userNodes = new ConcurrentHashMap<>();
+    private final List<String> publishedChannels = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String channel, String message) {
+        publishedChannels.add(channel);
+        subscribers.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void registerUserNode(String user, String nodeId, Duration ttl) {
+        userNodes.computeIfAbsent(user, u -> ConcurrentHashMap.newKeySet()).add(nodeId);
+    }
+
+    @Override
+    public void unregisterUserNode(String user, String nodeId) {
+        userNodes.getOrDefault(user, Set.of()).remove(nodeId);
+    }
+
+    @Override
+    public Set<String> findUserNodes(String user) {
+        return Set.copyOf(userNodes.getOrDefault(user, Set.of()));
+    }
+
+    List<String> publishedChannels() {
+        return publishedChannels;
+    }
+}